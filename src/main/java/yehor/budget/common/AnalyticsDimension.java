@@ -0,0 +1,45 @@
+package yehor.budget.common;
+
+import yehor.budget.common.date.MonthWeek;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.IsoFields;
+
+/**
+ * Dimensions expenses are grouped by in analytics. Each group is identified by an int key per dimension:
+ * epoch day, ISO week-based year and week, month week ordinal, months since year 0, year, category id,
+ * tag id (or {@link #UNTAGGED}) and 1 or 0 for the regular flag.
+ */
+public enum AnalyticsDimension {
+    DAY, WEEK, MONTH_WEEK, MONTH, YEAR, CATEGORY, TAG, REGULAR;
+
+    public static final int UNTAGGED = -1;
+
+    public boolean isDate() {
+        return ordinal() <= YEAR.ordinal();
+    }
+
+    public int keyOf(LocalDate date) {
+        return switch (this) {
+            case DAY -> Math.toIntExact(date.toEpochDay());
+            case WEEK -> date.get(IsoFields.WEEK_BASED_YEAR) * 100 + date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR);
+            case MONTH_WEEK -> MonthWeek.of(date).ordinal();
+            case MONTH -> date.getYear() * 12 + date.getMonthValue() - 1;
+            case YEAR -> date.getYear();
+            default -> throw new IllegalStateException(this + " is not a date dimension");
+        };
+    }
+
+    public String label(int key) {
+        return switch (this) {
+            case DAY -> LocalDate.ofEpochDay(key).toString();
+            case WEEK -> String.format("%d-W%02d", key / 100, key % 100);
+            case MONTH_WEEK -> MonthWeek.values()[key].name();
+            case MONTH -> YearMonth.of(key / 12, key % 12 + 1).toString();
+            case YEAR, CATEGORY -> String.valueOf(key);
+            case TAG -> key == UNTAGGED ? "untagged" : String.valueOf(key);
+            case REGULAR -> String.valueOf(key == 1);
+        };
+    }
+}
@@ -0,0 +1,5 @@
+package yehor.budget.common;
+
+public enum ExpenseImportStatus {
+    QUEUED, COPYING, MERGING, COMPLETED, FAILED
+}
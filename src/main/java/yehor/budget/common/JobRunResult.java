@@ -0,0 +1,5 @@
+package yehor.budget.common;
+
+public enum JobRunResult {
+    SUCCEEDED, FAILED
+}
@@ -1,22 +1,71 @@
 package yehor.budget.common;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import yehor.budget.entity.Settings;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+/**
+ * Listeners are notified asynchronously on a single thread, so updates are delivered in the order they were
+ * published. When published within a transaction, listeners are notified only after it is committed.
+ */
+@Slf4j
 public class SettingsNotificationManager {
 
-    private static final Map<Class<?>, List<SettingsListener>> listeners = new HashMap<>();
+    private static final Map<Class<?>, List<SettingsListener>> listeners = new ConcurrentHashMap<>();
+    private static final ExecutorService dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "settings-notification");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     public void addListener(Class<?> publisher, SettingsListener listener) {
-        listeners.putIfAbsent(publisher, new ArrayList<>());
-        listeners.get(publisher).add(listener);
+        listeners.computeIfAbsent(publisher, key -> new CopyOnWriteArrayList<>()).add(listener);
     }
 
     public static void updateListeners(Class<?> publisher, Settings settings) {
-        listeners.get(publisher).forEach(listener -> listener.onUpdate(settings));
+        List<SettingsListener> publisherListeners = listeners.getOrDefault(publisher, List.of());
+        if (publisherListeners.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(publisherListeners, settings);
+                }
+            });
+        } else {
+            dispatch(publisherListeners, settings);
+        }
+    }
+
+    /**
+     * Notifies listeners on the calling thread, for updates which must not wait for the dispatcher,
+     * e.g. while the application is shutting down.
+     */
+    public static void updateListenersNow(Class<?> publisher, Settings settings) {
+        notifyListeners(listeners.getOrDefault(publisher, List.of()), settings);
+    }
+
+    private static void dispatch(List<SettingsListener> publisherListeners, Settings settings) {
+        dispatcher.execute(() -> notifyListeners(publisherListeners, settings));
+    }
+
+    private static void notifyListeners(List<SettingsListener> publisherListeners, Settings settings) {
+        publisherListeners.forEach(listener -> {
+            try {
+                listener.onUpdate(settings);
+            } catch (Exception e) {
+                log.error("Failed to notify {} about settings update", listener.getClass().getSimpleName(), e);
+            }
+        });
     }
 }
@@ -0,0 +1,45 @@
+package yehor.budget.common;
+
+import yehor.budget.entity.Settings;
+
+import java.time.LocalDate;
+
+/**
+ * Immutable copy of {@link Settings}. Every update produces a new snapshot with the next version.
+ */
+public record SettingsSnapshot(long version,
+                               Long id,
+                               LocalDate budgetStartDate,
+                               LocalDate budgetEndDate,
+                               Boolean isBudgetDateValidation,
+                               Integer estimatedExpenseWorkerInitDelay,
+                               Integer estimatedExpenseWorkerPeriod,
+                               String estimatedExpenseWorkerEndDateScopePattern) {
+
+    public static SettingsSnapshot of(long version, Settings settings) {
+        return new SettingsSnapshot(
+                version,
+                settings.getId(),
+                settings.getBudgetStartDate(),
+                settings.getBudgetEndDate(),
+                settings.getIsBudgetDateValidation(),
+                settings.getEstimatedExpenseWorkerInitDelay(),
+                settings.getEstimatedExpenseWorkerPeriod(),
+                settings.getEstimatedExpenseWorkerEndDateScopePattern());
+    }
+
+    /**
+     * @return new mutable entity, so changes to it never leak into the snapshot
+     */
+    public Settings toEntity() {
+        return Settings.builder()
+                .id(id)
+                .budgetStartDate(budgetStartDate)
+                .budgetEndDate(budgetEndDate)
+                .isBudgetDateValidation(isBudgetDateValidation)
+                .estimatedExpenseWorkerInitDelay(estimatedExpenseWorkerInitDelay)
+                .estimatedExpenseWorkerPeriod(estimatedExpenseWorkerPeriod)
+                .estimatedExpenseWorkerEndDateScopePattern(estimatedExpenseWorkerEndDateScopePattern)
+                .build();
+    }
+}
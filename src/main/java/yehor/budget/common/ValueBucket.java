@@ -0,0 +1,45 @@
+package yehor.budget.common;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Ranges of expense values, each bucket contains values from the upper bound of the previous one (inclusive)
+ * to its own upper bound (exclusive).
+ */
+public enum ValueBucket {
+    UP_TO_10(new BigDecimal("10")),
+    UP_TO_100(new BigDecimal("100")),
+    UP_TO_1000(new BigDecimal("1000")),
+    UP_TO_10000(new BigDecimal("10000")),
+    ABOVE_10000(null);
+
+    private final BigDecimal upperBound;
+
+    ValueBucket(BigDecimal upperBound) {
+        this.upperBound = upperBound;
+    }
+
+    /**
+     * @return inclusive lower bound of the bucket, or null for the first bucket
+     */
+    public BigDecimal getLowerBound() {
+        return ordinal() == 0 ? null : values()[ordinal() - 1].upperBound;
+    }
+
+    /**
+     * @return exclusive upper bound of the bucket, or null for the last bucket
+     */
+    public BigDecimal getUpperBound() {
+        return upperBound;
+    }
+
+    public static ValueBucket of(BigDecimal value) {
+        for (ValueBucket bucket : values()) {
+            if (Objects.isNull(bucket.upperBound) || value.compareTo(bucket.upperBound) < 0) {
+                return bucket;
+            }
+        }
+        throw new IllegalStateException("No bucket for value " + value);
+    }
+}
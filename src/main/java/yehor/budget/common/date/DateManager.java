@@ -1,48 +1,152 @@
 package yehor.budget.common.date;
 
-import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
-import yehor.budget.common.SettingsListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import yehor.budget.common.SettingsNotificationManager;
+import yehor.budget.common.SettingsSnapshot;
+import yehor.budget.common.util.NamedThreadFactory;
 import yehor.budget.entity.Settings;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.time.LocalDate;
 import java.time.Month;
 import java.time.Year;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
+/**
+ * Budget dates and validation flag are read from the current settings snapshot on every call,
+ * so validation needs neither a database query nor its own copy of settings.
+ * Budget dates extended by saved records are tracked in memory and are effective once the records are committed,
+ * while settings are updated with them periodically, so many extensions result in a single settings update.
+ */
 @Slf4j
-public class DateManager implements SettingsListener {
+public class DateManager {
 
-    private Boolean isBudgetDateValidation;
-    @Getter
-    private LocalDate startDate;
-    @Getter
-    private LocalDate endDate;
+    private static final long FLUSH_PERIOD_SECONDS = 5;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+    private static final long NO_PENDING_START = Long.MAX_VALUE;
+    private static final long NO_PENDING_END = Long.MIN_VALUE;
 
-    public DateManager(Settings settings) {
-        startDate = settings.getBudgetStartDate();
-        endDate = settings.getBudgetEndDate();
-        isBudgetDateValidation = settings.getIsBudgetDateValidation();
+    private final Supplier<SettingsSnapshot> settingsSupplier;
+    private final AtomicLong pendingStartEpochDay = new AtomicLong(NO_PENDING_START);
+    private final AtomicLong pendingEndEpochDay = new AtomicLong(NO_PENDING_END);
+    private ScheduledThreadPoolExecutor flushExecutor;
+
+    public DateManager(Supplier<SettingsSnapshot> settingsSupplier) {
+        this.settingsSupplier = settingsSupplier;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate(settingsSupplier.get());
+    }
+
+    public LocalDate getEndDate() {
+        return endDate(settingsSupplier.get());
     }
 
+    /**
+     * Extends budget dates to the date of a saved record once its transaction commits, so a rolled back
+     * save does not extend the budget.
+     */
     public void updateBudgetDatesIfNecessary(LocalDate date) {
-        boolean shouldUpdateDb = false;
-        if (date.isAfter(endDate)) {
-            log.info("End date is changed from {} to {}", endDate, date);
-            endDate = date;
-            shouldUpdateDb = true;
-        } else if (date.isBefore(startDate)) {
-            log.info("Start date is changed from {} to {}", startDate, date);
-            startDate = date;
-            shouldUpdateDb = true;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    extendBudgetDates(date);
+                }
+            });
+        } else {
+            extendBudgetDates(date);
+        }
+    }
+
+    private void extendBudgetDates(LocalDate date) {
+        SettingsSnapshot settings = settingsSupplier.get();
+        long epochDay = date.toEpochDay();
+        if (epochDay > endDate(settings).toEpochDay()) {
+            pendingEndEpochDay.accumulateAndGet(epochDay, Math::max);
+        } else if (epochDay < startDate(settings).toEpochDay()) {
+            pendingStartEpochDay.accumulateAndGet(epochDay, Math::min);
+        }
+    }
+
+    /**
+     * Publishes budget dates that are extended beyond settings. Pending dates are cleared only once settings
+     * contain them, so they stay effective while the update is in progress. Only the changed budget date is
+     * published, so concurrent changes of the opposite dates do not overwrite each other.
+     */
+    public void flushPendingBudgetDates() {
+        flushPendingBudgetDates(false);
+    }
+
+    private void flushPendingBudgetDates(boolean synchronously) {
+        SettingsSnapshot settings = settingsSupplier.get();
+        long pendingEnd = pendingEndEpochDay.get();
+        if (pendingEnd != NO_PENDING_END) {
+            if (settings.budgetEndDate().toEpochDay() >= pendingEnd) {
+                pendingEndEpochDay.compareAndSet(pendingEnd, NO_PENDING_END);
+            } else {
+                LocalDate endDate = LocalDate.ofEpochDay(pendingEnd);
+                log.info("End date is changed from {} to {}", settings.budgetEndDate(), endDate);
+                notifySettingsUpdate(Settings.builder().budgetEndDate(endDate).build(), synchronously);
+            }
+        }
+        long pendingStart = pendingStartEpochDay.get();
+        if (pendingStart != NO_PENDING_START) {
+            if (settings.budgetStartDate().toEpochDay() <= pendingStart) {
+                pendingStartEpochDay.compareAndSet(pendingStart, NO_PENDING_START);
+            } else {
+                LocalDate startDate = LocalDate.ofEpochDay(pendingStart);
+                log.info("Start date is changed from {} to {}", settings.budgetStartDate(), startDate);
+                notifySettingsUpdate(Settings.builder().budgetStartDate(startDate).build(), synchronously);
+            }
         }
+    }
 
-        if (shouldUpdateDb) {
-            notifySettingsUpdate();
+    @PostConstruct
+    private void startFlushing() {
+        flushExecutor = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("budget-dates-flush"));
+        flushExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                flushPendingBudgetDates();
+            } catch (Exception e) {
+                log.error("Failed to flush pending budget dates", e);
+            }
+        }, FLUSH_PERIOD_SECONDS, FLUSH_PERIOD_SECONDS, TimeUnit.SECONDS);
+    }
+
+    // the dispatcher of settings updates is a daemon thread that is never stopped, so an update queued on it
+    // may be lost when the JVM exits. The last flush notifies listeners on this thread instead
+    @PreDestroy
+    private void stopFlushing() {
+        flushExecutor.shutdown();
+        try {
+            flushExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
+        flushPendingBudgetDates(true);
+    }
+
+    private LocalDate startDate(SettingsSnapshot settings) {
+        long pendingStart = pendingStartEpochDay.get();
+        LocalDate startDate = settings.budgetStartDate();
+        return pendingStart < startDate.toEpochDay() ? LocalDate.ofEpochDay(pendingStart) : startDate;
+    }
+
+    private LocalDate endDate(SettingsSnapshot settings) {
+        long pendingEnd = pendingEndEpochDay.get();
+        LocalDate endDate = settings.budgetEndDate();
+        return pendingEnd > endDate.toEpochDay() ? LocalDate.ofEpochDay(pendingEnd) : endDate;
     }
 
     public LocalDate parse(String value) {
@@ -54,16 +158,14 @@ public class DateManager implements SettingsListener {
     }
 
     public boolean isWithinBudget(LocalDate date) {
-        if (Boolean.FALSE.equals(isBudgetDateValidation)) {
+        SettingsSnapshot settings = settingsSupplier.get();
+        if (Boolean.FALSE.equals(settings.isBudgetDateValidation())) {
             return true;
         }
-        return Interval.of(startDate, endDate).isWithin(date);
+        return Interval.of(startDate(settings), endDate(settings)).isWithin(date);
     }
 
     public boolean areWithinBudget(LocalDate date1, LocalDate date2) {
-        if (Boolean.FALSE.equals(isBudgetDateValidation)) {
-            return true;
-        }
         return isWithinBudget(date1) && isWithinBudget(date2);
     }
 
@@ -79,31 +181,35 @@ public class DateManager implements SettingsListener {
     }
 
     public void validateDateAfterStart(LocalDate date) {
-        if (Boolean.FALSE.equals(isBudgetDateValidation)) {
+        SettingsSnapshot settings = settingsSupplier.get();
+        if (Boolean.FALSE.equals(settings.isBudgetDateValidation())) {
             return;
         }
-        if (date.isBefore(startDate)) {
-            throw new IllegalArgumentException(incorrectDateArgumentMessage() + " Provided date is " + date);
+        if (date.isBefore(startDate(settings))) {
+            throw new IllegalArgumentException(incorrectDateArgumentMessage(settings) + " Provided date is " + date);
         }
     }
 
     public void validateDatesWithinBudget(LocalDate date1, LocalDate date2) {
-        if (Boolean.FALSE.equals(isBudgetDateValidation)) {
+        SettingsSnapshot settings = settingsSupplier.get();
+        if (Boolean.FALSE.equals(settings.isBudgetDateValidation())) {
             return;
         }
-        if (!areWithinBudget(date1, date2)) {
+        Interval budget = Interval.of(startDate(settings), endDate(settings));
+        if (!budget.isWithin(date1) || !budget.isWithin(date2)) {
             throw new IllegalArgumentException(
-                    incorrectDateArgumentMessage() + String.format(" Provided dates are %s and %s", date1, date2));
+                    incorrectDateArgumentMessage(settings) + String.format(" Provided dates are %s and %s", date1, date2));
         }
     }
 
     public void validateDateWithinBudget(LocalDate date) {
-        if (Boolean.FALSE.equals(isBudgetDateValidation)) {
+        SettingsSnapshot settings = settingsSupplier.get();
+        if (Boolean.FALSE.equals(settings.isBudgetDateValidation())) {
             return;
         }
-        if (!isWithinBudget(date)) {
+        if (!Interval.of(startDate(settings), endDate(settings)).isWithin(date)) {
             throw new IllegalArgumentException(
-                    incorrectDateArgumentMessage() + String.format(" Provided date is %s", date));
+                    incorrectDateArgumentMessage(settings) + String.format(" Provided date is %s", date));
         }
     }
 
@@ -114,10 +220,13 @@ public class DateManager implements SettingsListener {
     }
 
     public void validateMonthWithinBudget(FullMonth fullMonth) {
-        if (Boolean.FALSE.equals(isBudgetDateValidation)) {
+        SettingsSnapshot settings = settingsSupplier.get();
+        if (Boolean.FALSE.equals(settings.isBudgetDateValidation())) {
             return;
         }
 
+        LocalDate startDate = startDate(settings);
+        LocalDate endDate = endDate(settings);
         Integer year = fullMonth.getYear();
         int month = fullMonth.getMonth().getValue();
         int startYear = startDate.getYear();
@@ -154,21 +263,17 @@ public class DateManager implements SettingsListener {
         }
     }
 
-    @Override
-    public void onUpdate(Settings settings) {
-        isBudgetDateValidation = settings.getIsBudgetDateValidation();
-    }
-
-    private void notifySettingsUpdate() {
-        Settings settings = Settings.builder()
-                .budgetEndDate(endDate)
-                .budgetStartDate(startDate)
-                .build();
-        SettingsNotificationManager.updateListeners(this.getClass(), settings);
+    private void notifySettingsUpdate(Settings settings, boolean synchronously) {
+        if (synchronously) {
+            SettingsNotificationManager.updateListenersNow(this.getClass(), settings);
+        } else {
+            SettingsNotificationManager.updateListeners(this.getClass(), settings);
+        }
     }
 
-    private String incorrectDateArgumentMessage() {
-        return "Date argument is out of budget. Start date is " + startDate + ". End date is " + endDate + ".";
+    private String incorrectDateArgumentMessage(SettingsSnapshot settings) {
+        return "Date argument is out of budget. Start date is " + startDate(settings)
+                + ". End date is " + endDate(settings) + ".";
     }
 
     public void validateDayOfMonth(Integer day) {
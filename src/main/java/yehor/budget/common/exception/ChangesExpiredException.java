@@ -0,0 +1,11 @@
+package yehor.budget.common.exception;
+
+/**
+ * Changes since the requested sequence number can no longer be listed, because tombstones of the deleted
+ * expenses were removed after it.
+ */
+public class ChangesExpiredException extends RuntimeException {
+    public ChangesExpiredException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,35 @@
+package yehor.budget.common.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Request rejected to protect the application from overload. Responded with its status and
+ * a Retry-After header, so clients back off instead of retrying immediately.
+ */
+@Getter
+public class OverloadedException extends RuntimeException {
+
+    private final HttpStatus status;
+    private final long retryAfterSeconds;
+
+    private OverloadedException(HttpStatus status, String message, long retryAfterSeconds) {
+        super(message);
+        this.status = status;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * The client sends more requests than its share.
+     */
+    public static OverloadedException tooManyRequests(String message, long retryAfterSeconds) {
+        return new OverloadedException(HttpStatus.TOO_MANY_REQUESTS, message, retryAfterSeconds);
+    }
+
+    /**
+     * The application has no capacity for the request, whoever sends it.
+     */
+    public static OverloadedException unavailable(String message, long retryAfterSeconds) {
+        return new OverloadedException(HttpStatus.SERVICE_UNAVAILABLE, message, retryAfterSeconds);
+    }
+}
@@ -1,8 +1,10 @@
 package yehor.budget.common.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.server.ResponseStatusException;
@@ -13,6 +15,7 @@ import java.time.temporal.ChronoUnit;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
 
 @RestControllerAdvice
@@ -32,6 +35,23 @@ public class RestExceptionHandler {
         }
     }
 
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<Object> notReadableExceptionHandler(HttpMessageNotReadableException e,
+                                                              HttpServletRequest request) {
+        log.debug("Rejected unreadable body of {}: {}", request.getRequestURI(), e.getMessage());
+        Map<String, Object> responseObject = buildResponseError(request, BAD_REQUEST, e.getMessage());
+        return new ResponseEntity<>(responseObject, BAD_REQUEST);
+    }
+
+    @ExceptionHandler(OverloadedException.class)
+    public ResponseEntity<Object> overloadedExceptionHandler(OverloadedException e, HttpServletRequest request) {
+        log.warn("Rejected {}: {}", request.getRequestURI(), e.getMessage());
+        Map<String, Object> responseObject = buildResponseError(request, e.getStatus(), e.getMessage());
+        return ResponseEntity.status(e.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(responseObject);
+    }
+
     private Map<String, Object> buildResponseError(HttpServletRequest request, HttpStatus status, String message) {
         Map<String, Object> body = new LinkedHashMap<>();
         body.put("timestamp", LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
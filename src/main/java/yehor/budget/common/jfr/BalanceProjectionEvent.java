@@ -0,0 +1,22 @@
+package yehor.budget.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("yehor.budget.BalanceProjection")
+@Label("Balance Projection")
+@Description("Projection of the balance to the end of the following months")
+@Category({"Budget", "Balance"})
+@StackTrace(false)
+public class BalanceProjectionEvent extends Event {
+
+    @Label("Months")
+    public int months;
+
+    @Label("Income Sources")
+    public int incomeSources;
+}
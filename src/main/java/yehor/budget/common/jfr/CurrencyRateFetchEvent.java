@@ -0,0 +1,20 @@
+package yehor.budget.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("yehor.budget.CurrencyRateFetch")
+@Label("Currency Rate Fetch")
+@Description("Call to the rates provider, the duration of the event is its latency")
+@Category({"Budget", "Currency"})
+public class CurrencyRateFetchEvent extends Event {
+
+    @Label("Currency Pair")
+    public String currencyPair;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
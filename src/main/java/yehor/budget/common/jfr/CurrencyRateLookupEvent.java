@@ -0,0 +1,22 @@
+package yehor.budget.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("yehor.budget.CurrencyRateLookup")
+@Label("Currency Rate Lookup")
+@Description("Lookup of a current currency rate, answered by the cache or by the rates provider")
+@Category({"Budget", "Currency"})
+@StackTrace(false)
+public class CurrencyRateLookupEvent extends Event {
+
+    @Label("Currency Pair")
+    public String currencyPair;
+
+    @Label("Cache Hit")
+    public boolean cacheHit;
+}
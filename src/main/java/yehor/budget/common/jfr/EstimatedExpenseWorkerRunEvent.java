@@ -0,0 +1,28 @@
+package yehor.budget.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("yehor.budget.EstimatedExpenseWorkerRun")
+@Label("Estimated Expense Worker Run")
+@Description("Calculation of estimated expenses from regular expenses of the estimation scope")
+@Category({"Budget", "Workers"})
+@StackTrace(false)
+public class EstimatedExpenseWorkerRunEvent extends Event {
+
+    @Label("Expenses Scanned")
+    public int expensesScanned;
+
+    @Label("Months")
+    public long months;
+
+    @Label("Categories")
+    public int categories;
+
+    @Label("Rows Written")
+    public int rowsWritten;
+}
@@ -0,0 +1,32 @@
+package yehor.budget.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("yehor.budget.StatisticsComputation")
+@Label("Statistics Computation")
+@Description("Computation of monthly statistics of a month not found in the cache, or of periodic statistics")
+@Category({"Budget", "Statistics"})
+@StackTrace(false)
+public class StatisticsComputationEvent extends Event {
+
+    public static final String MONTHLY = "monthly";
+    public static final String PERIODIC = "periodic";
+
+    @Label("Kind")
+    public String kind;
+
+    @Label("Months")
+    public int months;
+
+    @Label("Rows")
+    @Description("Expenses loaded from the database, or expense groups read from the column store")
+    public int rows;
+
+    @Label("From Column Store")
+    public boolean fromColumnStore;
+}
@@ -0,0 +1,152 @@
+package yehor.budget.common.sql;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Data source counting statements, rows and time of their execution in the scope of {@link QueryCounter}
+ * the executing thread is in. Statements slower than the threshold are logged with their bind parameters,
+ * whether they are executed within a scope or not.
+ */
+@Slf4j
+public class CountingDataSource extends DelegatingDataSource {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final long slowThresholdNanos;
+
+    public CountingDataSource(DataSource targetDataSource, long slowThresholdMillis) {
+        super(targetDataSource);
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return countingConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return countingConnection(super.getConnection(username, password));
+    }
+
+    private Connection countingConnection(Connection connection) {
+        return proxy(Connection.class, connection, (method, args) -> {
+            Object result = invoke(connection, method, args);
+            if (result instanceof Statement statement) {
+                String sql = method.getName().startsWith("prepare") ? (String) args[0] : null;
+                return countingStatement(statement, sql);
+            }
+            return result;
+        });
+    }
+
+    private Statement countingStatement(Statement statement, String preparedSql) {
+        Class<? extends Statement> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class
+                : Statement.class;
+        Map<Integer, Object> parameters = new TreeMap<>();
+        return proxy(type, statement, (method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("set") && Objects.nonNull(preparedSql) && Objects.nonNull(args) && args.length >= 2
+                    && args[0] instanceof Integer index) {
+                parameters.put(index, args[1]);
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            } else if (EXECUTE_METHODS.contains(name)) {
+                String sql = Objects.nonNull(args) && args.length > 0 && args[0] instanceof String executed
+                        ? executed
+                        : preparedSql;
+                return execute(statement, method, args, sql, parameters);
+            } else if (name.equals("getResultSet")) {
+                return countingResultSet((ResultSet) invoke(statement, method, args));
+            }
+            return invoke(statement, method, args);
+        });
+    }
+
+    private Object execute(Statement statement, Method method, Object[] args,
+                           String sql, Map<Integer, Object> parameters) throws Throwable {
+        long start = System.nanoTime();
+        Object result = invoke(statement, method, args);
+        long elapsed = System.nanoTime() - start;
+        QueryCounter.current().ifPresent(statistics -> statistics.addStatement(sql, rowsAffected(result), elapsed));
+        if (elapsed >= slowThresholdNanos) {
+            log.warn("Slow statement took {}ms: {} with parameters {}",
+                    TimeUnit.NANOSECONDS.toMillis(elapsed), sql, parameters.values());
+        }
+        return result instanceof ResultSet resultSet ? countingResultSet(resultSet) : result;
+    }
+
+    private ResultSet countingResultSet(ResultSet resultSet) {
+        if (Objects.isNull(resultSet)) {
+            return null;
+        }
+        return proxy(ResultSet.class, resultSet, (method, args) -> {
+            Object result = invoke(resultSet, method, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                QueryCounter.current().ifPresent(QueryStatistics::addRow);
+            }
+            return result;
+        });
+    }
+
+    private static long rowsAffected(Object result) {
+        if (result instanceof Number number) {
+            return number.longValue();
+        }
+        long rows = 0;
+        if (result instanceof int[] counts) {
+            for (int count : counts) {
+                rows += Math.max(0, count);
+            }
+        } else if (result instanceof long[] counts) {
+            for (long count : counts) {
+                rows += Math.max(0, count);
+            }
+        }
+        return rows;
+    }
+
+    // proxies are equal only to themselves, so they can be kept in hash maps by Hibernate
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Object target, Handler handler) {
+        return (T) Proxy.newProxyInstance(CountingDataSource.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> target.toString();
+                    default -> handler.handle(method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(Method method, Object[] args) throws Throwable;
+    }
+}
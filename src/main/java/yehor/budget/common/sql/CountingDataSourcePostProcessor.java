@@ -0,0 +1,25 @@
+package yehor.budget.common.sql;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps data sources of the context into {@link CountingDataSource}.
+ */
+public class CountingDataSourcePostProcessor implements BeanPostProcessor {
+
+    private final long slowThresholdMillis;
+
+    public CountingDataSourcePostProcessor(long slowThresholdMillis) {
+        this.slowThresholdMillis = slowThresholdMillis;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof CountingDataSource)) {
+            return new CountingDataSource(dataSource, slowThresholdMillis);
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,60 @@
+package yehor.budget.common.sql;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Scopes in which statements executed through {@link CountingDataSource} are counted. A scope belongs to the
+ * thread it is started on, so work handed over to other threads is not counted in it.
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<QueryStatistics> CURRENT = new ThreadLocal<>();
+
+    private QueryCounter() {
+    }
+
+    /**
+     * Runs the action in a new scope, the scope it is called within is resumed afterwards.
+     *
+     * @param statisticsConsumer receives statistics of the scope, even if the action fails
+     */
+    public static <T> T count(Supplier<T> action, Consumer<QueryStatistics> statisticsConsumer) {
+        QueryStatistics previous = CURRENT.get();
+        QueryStatistics statistics = new QueryStatistics();
+        CURRENT.set(statistics);
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+            statisticsConsumer.accept(statistics);
+        }
+    }
+
+    /**
+     * Starts a scope that lasts until {@link #stop} is called on the same thread.
+     */
+    public static QueryStatistics start() {
+        QueryStatistics statistics = new QueryStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    public static Optional<QueryStatistics> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    private static void restore(QueryStatistics previous) {
+        if (Objects.isNull(previous)) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
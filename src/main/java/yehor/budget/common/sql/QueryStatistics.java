@@ -0,0 +1,57 @@
+package yehor.budget.common.sql;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Statements executed within a scope, such as an HTTP request or a run of a job. Counted by the thread
+ * the scope is started on.
+ */
+public final class QueryStatistics {
+
+    static final int MAX_RECORDED_STATEMENTS = 50;
+
+    private long statements;
+    private long rows;
+    private long nanos;
+    private final List<String> sqls = new ArrayList<>();
+
+    void addStatement(String sql, long rowsAffected, long elapsedNanos) {
+        statements++;
+        rows += Math.max(0, rowsAffected);
+        nanos += elapsedNanos;
+        if (sqls.size() < MAX_RECORDED_STATEMENTS) {
+            sqls.add(sql);
+        }
+    }
+
+    void addRow() {
+        rows++;
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    /**
+     * @return rows read from result sets and rows affected by updates
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * @return time spent executing statements, without reading their results
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * @return SQL of the first executed statements, in order of execution
+     */
+    public List<String> getSqls() {
+        return Collections.unmodifiableList(sqls);
+    }
+}
@@ -0,0 +1,114 @@
+package yehor.budget.common.trace;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import yehor.budget.common.util.NamedThreadFactory;
+import yehor.budget.common.util.PropertiesHelper;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Appends ended spans to a file as JSON lines, which a collector can tail. Spans are queued and written
+ * in the background, and dropped while the queue is full, so tracing never slows requests down.
+ * Exporting is disabled when no file is configured, which is the default, as the file is not rotated.
+ */
+@Slf4j
+@Component
+public class FileSpanExporter implements SpanExporter {
+
+    static final int QUEUE_CAPACITY = 10_000;
+    private static final int FLUSH_PERIOD_SECONDS = 1;
+
+    private final ObjectMapper objectMapper;
+    private final Path file;
+    private final BlockingQueue<SpanData> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicLong dropped = new AtomicLong();
+    private ScheduledThreadPoolExecutor executor;
+
+    @Autowired
+    public FileSpanExporter(ObjectMapper objectMapper, PropertiesHelper propertiesHelper) {
+        this(objectMapper, toPath(propertiesHelper.getStringProperty("tracing.export.file")));
+    }
+
+    FileSpanExporter(ObjectMapper objectMapper, Path file) {
+        this.objectMapper = objectMapper;
+        this.file = file;
+    }
+
+    @Override
+    public void export(SpanData span) {
+        if (Objects.nonNull(file) && !queue.offer(span)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Writes queued spans to the file.
+     */
+    synchronized void flush() {
+        List<SpanData> spans = new ArrayList<>();
+        queue.drainTo(spans);
+        long droppedSpans = dropped.getAndSet(0);
+        if (droppedSpans > 0) {
+            log.warn("Dropped {} spans, the export queue was full", droppedSpans);
+        }
+        if (spans.isEmpty()) {
+            return;
+        }
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            if (Objects.nonNull(directory)) {
+                Files.createDirectories(directory);
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(file, UTF_8, CREATE, APPEND)) {
+                for (SpanData span : spans) {
+                    writer.write(objectMapper.writeValueAsString(span));
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to export {} spans to {}", spans.size(), file, e);
+        }
+    }
+
+    private static Path toPath(String file) {
+        return file.isBlank() ? null : Path.of(file);
+    }
+
+    @PostConstruct
+    private void startExport() {
+        if (Objects.isNull(file)) {
+            return;
+        }
+        executor = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("span-export"));
+        executor.scheduleWithFixedDelay(this::flush, FLUSH_PERIOD_SECONDS, FLUSH_PERIOD_SECONDS, SECONDS);
+    }
+
+    @PreDestroy
+    private void stopExport() {
+        if (Objects.isNull(executor)) {
+            return;
+        }
+        executor.shutdownNow();
+        flush();
+    }
+}
@@ -0,0 +1,87 @@
+package yehor.budget.common.trace;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Timed operation of a trace, made current on the thread it is started on until it is closed. Spans of requests
+ * that are not sampled are not recording, they are not exported and ignore attributes.
+ * Not thread safe, a span should be closed on the thread it was started on.
+ */
+public final class Span implements AutoCloseable {
+
+    static final Span NOT_RECORDING = new Span(null, null, null, null, null, null);
+
+    private final Tracer tracer;
+    private final TraceContext context;
+    private final String parentSpanId;
+    private final SpanKind kind;
+    private final Span previous;
+    private final long startTimeUnixNano;
+    private final long startNanos;
+    private final Map<String, Object> attributes = new LinkedHashMap<>();
+    private String name;
+    private String error;
+    private boolean ended;
+
+    Span(Tracer tracer, TraceContext context, String parentSpanId, String name, SpanKind kind, Span previous) {
+        this.tracer = tracer;
+        this.context = context;
+        this.parentSpanId = parentSpanId;
+        this.name = name;
+        this.kind = kind;
+        this.previous = previous;
+        this.startTimeUnixNano = Tracer.currentTimeUnixNano();
+        this.startNanos = System.nanoTime();
+    }
+
+    public boolean isRecording() {
+        return Objects.nonNull(tracer);
+    }
+
+    public TraceContext context() {
+        return context;
+    }
+
+    public Span setName(String name) {
+        this.name = name;
+        return this;
+    }
+
+    public Span setAttribute(String key, Object value) {
+        if (isRecording() && Objects.nonNull(value)) {
+            attributes.put(key, value);
+        }
+        return this;
+    }
+
+    public Span recordError(Throwable throwable) {
+        error = throwable.getClass().getSimpleName() + ": " + throwable.getMessage();
+        return this;
+    }
+
+    public Span recordError(String message) {
+        error = message;
+        return this;
+    }
+
+    @Override
+    public void close() {
+        if (!isRecording() || ended) {
+            return;
+        }
+        ended = true;
+        tracer.end(this);
+    }
+
+    Span previous() {
+        return previous;
+    }
+
+    SpanData toData() {
+        long durationNanos = System.nanoTime() - startNanos;
+        return new SpanData(context.traceId(), context.spanId(), parentSpanId, name, kind, startTimeUnixNano,
+                startTimeUnixNano + durationNanos, durationNanos / 1000, Map.copyOf(attributes), error);
+    }
+}
@@ -0,0 +1,21 @@
+package yehor.budget.common.trace;
+
+import java.util.Map;
+
+/**
+ * Ended span, as it is exported.
+ *
+ * @param parentSpanId null for root spans of this service
+ * @param error        message of the exception the span ended with, null if it succeeded
+ */
+public record SpanData(String traceId,
+                       String spanId,
+                       String parentSpanId,
+                       String name,
+                       SpanKind kind,
+                       long startTimeUnixNano,
+                       long endTimeUnixNano,
+                       long durationMicros,
+                       Map<String, Object> attributes,
+                       String error) {
+}
@@ -0,0 +1,9 @@
+package yehor.budget.common.trace;
+
+public interface SpanExporter {
+
+    /**
+     * Called on the thread that ended the span, so it should not block.
+     */
+    void export(SpanData span);
+}
@@ -0,0 +1,5 @@
+package yehor.budget.common.trace;
+
+public enum SpanKind {
+    SERVER, INTERNAL, CLIENT
+}
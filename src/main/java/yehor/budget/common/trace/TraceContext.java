@@ -0,0 +1,40 @@
+package yehor.budget.common.trace;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Identifiers of a span propagated between services in the W3C {@code traceparent} header.
+ */
+public record TraceContext(String traceId, String spanId, boolean sampled) {
+
+    public static final String TRACEPARENT_HEADER = "traceparent";
+
+    private static final Pattern TRACEPARENT = Pattern.compile("^([0-9a-f]{2})-([0-9a-f]{32})-([0-9a-f]{16})-([0-9a-f]{2})");
+    private static final String INVALID_VERSION = "ff";
+    private static final String INVALID_TRACE_ID = "0".repeat(32);
+    private static final String INVALID_SPAN_ID = "0".repeat(16);
+    private static final int SAMPLED_FLAG = 1;
+
+    /**
+     * @return context of the header, or empty if it is missing or malformed
+     */
+    public static Optional<TraceContext> fromTraceparent(String traceparent) {
+        if (Objects.isNull(traceparent)) {
+            return Optional.empty();
+        }
+        Matcher matcher = TRACEPARENT.matcher(traceparent.trim());
+        if (!matcher.find() || matcher.group(1).equals(INVALID_VERSION)
+                || matcher.group(2).equals(INVALID_TRACE_ID) || matcher.group(3).equals(INVALID_SPAN_ID)) {
+            return Optional.empty();
+        }
+        boolean sampled = (Integer.parseInt(matcher.group(4), 16) & SAMPLED_FLAG) != 0;
+        return Optional.of(new TraceContext(matcher.group(2), matcher.group(3), sampled));
+    }
+
+    public String toTraceparent() {
+        return "00-" + traceId + "-" + spanId + (sampled ? "-01" : "-00");
+    }
+}
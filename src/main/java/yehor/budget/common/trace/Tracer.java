@@ -0,0 +1,106 @@
+package yehor.budget.common.trace;
+
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import yehor.budget.common.util.PropertiesHelper;
+
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Starts spans and keeps the current one per thread. Ids of the current span are put into the logging context,
+ * so log lines of a request can be found by its trace id. Only server spans start traces, other spans are
+ * recorded within a sampled request only, so background work is not traced.
+ */
+@Component
+public class Tracer {
+
+    public static final String TRACE_ID_KEY = "traceId";
+    public static final String SPAN_ID_KEY = "spanId";
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final ThreadLocal<Span> current = new ThreadLocal<>();
+    private final SpanExporter spanExporter;
+    private final int samplePercent;
+
+    @Autowired
+    public Tracer(SpanExporter spanExporter, PropertiesHelper propertiesHelper) {
+        this(spanExporter, propertiesHelper.getIntProperty("tracing.sample.percent"));
+    }
+
+    Tracer(SpanExporter spanExporter, int samplePercent) {
+        this.spanExporter = spanExporter;
+        this.samplePercent = samplePercent;
+    }
+
+    /**
+     * Starts a span of a request received by this service, continuing the trace of the caller if there is one.
+     * Requests without a trace are sampled by the configured percentage, the others by the decision of the caller.
+     */
+    public Span startServerSpan(String name, Optional<TraceContext> parent) {
+        boolean sampled = parent.map(TraceContext::sampled)
+                .orElseGet(() -> ThreadLocalRandom.current().nextInt(100) < samplePercent);
+        if (!sampled) {
+            return Span.NOT_RECORDING;
+        }
+        String traceId = parent.map(TraceContext::traceId).orElseGet(() -> randomId(16));
+        String parentSpanId = parent.map(TraceContext::spanId).orElse(null);
+        return start(new TraceContext(traceId, randomId(8), true), parentSpanId, name, SpanKind.SERVER);
+    }
+
+    /**
+     * Starts a child of the current span, or a span that is not recording when there is no current one.
+     */
+    public Span startSpan(String name, SpanKind kind) {
+        Span parent = current.get();
+        if (Objects.isNull(parent)) {
+            return Span.NOT_RECORDING;
+        }
+        TraceContext context = new TraceContext(parent.context().traceId(), randomId(8), true);
+        return start(context, parent.context().spanId(), name, kind);
+    }
+
+    public Optional<Span> currentSpan() {
+        return Optional.ofNullable(current.get());
+    }
+
+    void end(Span span) {
+        Span previous = span.previous();
+        if (Objects.isNull(previous)) {
+            current.remove();
+            MDC.remove(TRACE_ID_KEY);
+            MDC.remove(SPAN_ID_KEY);
+        } else {
+            makeCurrent(previous);
+        }
+        spanExporter.export(span.toData());
+    }
+
+    static long currentTimeUnixNano() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000_000L + now.getNano();
+    }
+
+    private Span start(TraceContext context, String parentSpanId, String name, SpanKind kind) {
+        Span span = new Span(this, context, parentSpanId, name, kind, current.get());
+        makeCurrent(span);
+        return span;
+    }
+
+    private void makeCurrent(Span span) {
+        current.set(span);
+        MDC.put(TRACE_ID_KEY, span.context().traceId());
+        MDC.put(SPAN_ID_KEY, span.context().spanId());
+    }
+
+    private static String randomId(int bytes) {
+        byte[] id = new byte[bytes];
+        ThreadLocalRandom.current().nextBytes(id);
+        return HEX.formatHex(id);
+    }
+}
@@ -0,0 +1,82 @@
+package yehor.budget.common.trace;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import yehor.budget.common.sql.QueryCounter;
+import yehor.budget.common.sql.QueryStatistics;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records spans of service and repository calls made within a traced request. Spans of repository calls
+ * carry the number of statements they executed. Calls of a service from within itself are not traced.
+ * Runs before any other advice, so spans include coalescing and transactions.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class TracingAspect {
+
+    private final Tracer tracer;
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+    @Around("execution(public * *(..)) && (@within(org.springframework.stereotype.Service)"
+            + " || @within(yehor.budget.common.trace.Traced))")
+    public Object traceService(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (tracer.currentSpan().isEmpty()) {
+            return joinPoint.proceed();
+        }
+        String name = joinPoint.getSignature().getDeclaringType().getSimpleName()
+                + "." + joinPoint.getSignature().getName();
+        try (Span span = tracer.startSpan(name, SpanKind.INTERNAL)) {
+            return proceed(joinPoint, span);
+        }
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object traceRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (tracer.currentSpan().isEmpty()) {
+            return joinPoint.proceed();
+        }
+        String name = repositoryName(joinPoint.getThis()) + "." + joinPoint.getSignature().getName();
+        long statementsBefore = QueryCounter.current().map(QueryStatistics::getStatements).orElse(0L);
+        try (Span span = tracer.startSpan(name, SpanKind.CLIENT)) {
+            span.setAttribute("db.system", "postgresql");
+            try {
+                return proceed(joinPoint, span);
+            } finally {
+                QueryCounter.current().ifPresent(statistics ->
+                        span.setAttribute("db.statements", statistics.getStatements() - statementsBefore));
+            }
+        }
+    }
+
+    private Object proceed(ProceedingJoinPoint joinPoint, Span span) throws Throwable {
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            span.recordError(e);
+            throw e;
+        }
+    }
+
+    // repositories are proxies, so they are named by the interface they are declared with
+    private String repositoryName(Object repository) {
+        return repositoryNames.computeIfAbsent(repository.getClass(), type ->
+                Arrays.stream(AopProxyUtils.proxiedUserInterfaces(repository))
+                        .filter(Repository.class::isAssignableFrom)
+                        .findFirst()
+                        .map(Class::getSimpleName)
+                        .orElse(type.getSimpleName()));
+    }
+}
@@ -0,0 +1,25 @@
+package yehor.budget.common.util;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates daemon threads named after their pool and numbered, so background work can be told apart
+ * in thread dumps and does not keep the JVM running.
+ */
+public class NamedThreadFactory implements ThreadFactory {
+
+    private final String name;
+    private final AtomicInteger threadNumber = new AtomicInteger();
+
+    public NamedThreadFactory(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, name + "-" + threadNumber.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+}
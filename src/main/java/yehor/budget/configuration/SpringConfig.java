@@ -4,8 +4,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import yehor.budget.common.SettingsNotificationManager;
 import yehor.budget.common.date.DateManager;
+import yehor.budget.common.sql.CountingDataSourcePostProcessor;
+import yehor.budget.common.trace.Tracer;
 import yehor.budget.service.SettingsService;
 import yehor.budget.service.client.currency.CurrencyRateClient;
 import yehor.budget.service.client.currency.CurrencyRateSimulator;
@@ -16,10 +19,16 @@ import yehor.budget.service.worker.EstimatedExpenseWorker;
 @Slf4j
 public class SpringConfig {
 
+    // static, so data sources are wrapped before beans depending on them are created
+    @Bean
+    public static CountingDataSourcePostProcessor countingDataSourcePostProcessor(Environment environment) {
+        return new CountingDataSourcePostProcessor(
+                environment.getProperty("diagnostics.sql.slow.threshold.millis", Long.class, 200L));
+    }
+
     @Bean
     public SettingsNotificationManager notificationManager(ApplicationContext applicationContext) {
         SettingsNotificationManager notificationManager = new SettingsNotificationManager();
-        notificationManager.addListener(SettingsService.class, dateManager(applicationContext));
         notificationManager.addListener(DateManager.class, applicationContext.getBean(SettingsService.class));
         notificationManager.addListener(SettingsService.class, applicationContext.getBean(EstimatedExpenseWorker.class));
         return notificationManager;
@@ -27,7 +36,7 @@ public class SpringConfig {
 
     @Bean
     public DateManager dateManager(ApplicationContext applicationContext) {
-        return new DateManager(applicationContext.getBean(SettingsService.class).getSettingsEntity());
+        return new DateManager(applicationContext.getBean(SettingsService.class)::getSnapshot);
     }
 
     @Bean
@@ -38,7 +47,7 @@ public class SpringConfig {
             log.info("Using currency rate simulator");
             return new CurrencyRateSimulator();
         } else {
-            return new RatesOracleClient();
+            return new RatesOracleClient(applicationContext.getBean(Tracer.class));
         }
     }
 
@@ -0,0 +1,48 @@
+package yehor.budget.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import yehor.budget.common.Currency;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+@Table(name = "exchange_rates")
+public class ExchangeRate {
+
+    @Id
+    @SequenceGenerator(name = "exchange_rates_sequence", sequenceName = "exchange_rates_exchange_rate_id_seq", allocationSize = 1)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "exchange_rates_sequence")
+    @Column(name = "exchange_rate_id")
+    private Long id;
+
+    @Column(name = "date")
+    private LocalDate date;
+
+    @Column(name = "from_currency")
+    @Enumerated(EnumType.STRING)
+    private Currency fromCurrency;
+
+    @Column(name = "to_currency")
+    @Enumerated(EnumType.STRING)
+    private Currency toCurrency;
+
+    @Column(name = "rate")
+    private BigDecimal rate;
+}
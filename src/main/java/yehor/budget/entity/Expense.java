@@ -59,6 +59,10 @@ public class Expense {
     @Column(name = "note")
     private String note;
 
+    // set by a trigger on every insert and update
+    @Column(name = "change_seq", insertable = false, updatable = false)
+    private Long changeSeq;
+
     @Override
     public String toString() {
         return "Expense{" +
@@ -0,0 +1,38 @@
+package yehor.budget.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Deleted expense, recorded by a trigger on deletion of the expense.
+ */
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+@Table(name = "expense_tombstones")
+public class ExpenseTombstone {
+
+    @Id
+    @Column(name = "expense_id")
+    private Long expenseId;
+
+    @Column(name = "change_seq")
+    private Long changeSeq;
+
+    @Column(name = "date")
+    private LocalDate date;
+
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+}
@@ -0,0 +1,34 @@
+package yehor.budget.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+@Table(name = "job_leases")
+public class JobLease {
+
+    @Id
+    @Column(name = "job_name")
+    private String jobName;
+
+    @Column(name = "owner")
+    private String owner;
+
+    @Column(name = "acquired_at")
+    private LocalDateTime acquiredAt;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,47 @@
+package yehor.budget.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import yehor.budget.common.JobRunResult;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+@Table(name = "job_runs")
+public class JobRun {
+
+    @Id
+    @Column(name = "job_name")
+    private String jobName;
+
+    @Column(name = "node")
+    private String node;
+
+    @Column(name = "last_started_at")
+    private LocalDateTime lastStartedAt;
+
+    @Column(name = "last_finished_at")
+    private LocalDateTime lastFinishedAt;
+
+    @Column(name = "last_result")
+    @Enumerated(EnumType.STRING)
+    private JobRunResult lastResult;
+
+    @Column(name = "last_error")
+    private String lastError;
+
+    @Column(name = "next_run_at")
+    private LocalDateTime nextRunAt;
+}
@@ -0,0 +1,39 @@
+package yehor.budget.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import yehor.budget.entity.ExchangeRate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ExchangeRateRepository extends JpaRepository<ExchangeRate, Long> {
+
+    @Query("SELECT e FROM ExchangeRate e ORDER BY e.date")
+    List<ExchangeRate> findAllOrderedByDate();
+
+    @Query("SELECT e FROM ExchangeRate e WHERE e.date BETWEEN :dateFrom AND :dateTo")
+    List<ExchangeRate> findAllInInterval(@Param("dateFrom") LocalDate dateFrom, @Param("dateTo") LocalDate dateTo);
+
+    /**
+     * Stores the rate unless a rate of the pair is already stored for the date, e.g. by another node.
+     *
+     * @return 1 when the rate is stored, 0 when it was already there
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO exchange_rates (date, from_currency, to_currency, rate) " +
+            "VALUES (:date, :fromCurrency, :toCurrency, :rate) " +
+            "ON CONFLICT (date, from_currency, to_currency) DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("date") LocalDate date,
+                       @Param("fromCurrency") String fromCurrency,
+                       @Param("toCurrency") String toCurrency,
+                       @Param("rate") BigDecimal rate);
+}
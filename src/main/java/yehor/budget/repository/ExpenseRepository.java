@@ -1,17 +1,23 @@
 package yehor.budget.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import yehor.budget.entity.Expense;
+import yehor.budget.repository.projection.DailyCategoryTotal;
+import yehor.budget.repository.projection.ExpenseIndexRow;
+import yehor.budget.repository.projection.ExpenseTagId;
+import yehor.budget.repository.projection.MonthlyExpenseCount;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 
 @Repository
-public interface ExpenseRepository extends JpaRepository<Expense, Long> {
+public interface ExpenseRepository extends JpaRepository<Expense, Long>, JpaSpecificationExecutor<Expense> {
 
     @Query("SELECT SUM(e.value) FROM Expense e WHERE e.date BETWEEN :dateFrom AND :dateTo")
     BigDecimal findSumInInterval(@Param("dateFrom") LocalDate dateFrom,
@@ -33,4 +39,48 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
     @Query("SELECT e FROM Expense e WHERE e.date BETWEEN :dateFrom AND :dateTo AND e.isRegular = true")
     List<Expense> findAllRegularInInterval(@Param("dateFrom") LocalDate dateFrom,
                                            @Param("dateTo") LocalDate dateTo);
+
+    @Query("SELECT new yehor.budget.repository.projection.DailyCategoryTotal(e.date, e.category.id, SUM(e.value)) " +
+            "FROM Expense e GROUP BY e.date, e.category.id")
+    List<DailyCategoryTotal> findAllDailyTotals();
+
+    @Query("SELECT new yehor.budget.repository.projection.DailyCategoryTotal(e.date, e.category.id, SUM(e.value)) " +
+            "FROM Expense e WHERE e.date BETWEEN :dateFrom AND :dateTo GROUP BY e.date, e.category.id")
+    List<DailyCategoryTotal> findDailyTotalsInInterval(@Param("dateFrom") LocalDate dateFrom,
+                                                       @Param("dateTo") LocalDate dateTo);
+
+    @Query("SELECT new yehor.budget.repository.projection.ExpenseIndexRow(e.id, e.date, e.category.id, e.isRegular, e.value) " +
+            "FROM Expense e")
+    List<ExpenseIndexRow> findAllIndexRows();
+
+    @Query("SELECT new yehor.budget.repository.projection.ExpenseIndexRow(e.id, e.date, e.category.id, e.isRegular, e.value) " +
+            "FROM Expense e WHERE e.date BETWEEN :dateFrom AND :dateTo")
+    List<ExpenseIndexRow> findIndexRowsInInterval(@Param("dateFrom") LocalDate dateFrom,
+                                                  @Param("dateTo") LocalDate dateTo);
+
+    @Query("SELECT new yehor.budget.repository.projection.ExpenseTagId(e.id, t.id) FROM Expense e JOIN e.tags t")
+    List<ExpenseTagId> findAllTagIds();
+
+    @Query("SELECT new yehor.budget.repository.projection.ExpenseTagId(e.id, t.id) FROM Expense e JOIN e.tags t " +
+            "WHERE e.date BETWEEN :dateFrom AND :dateTo")
+    List<ExpenseTagId> findTagIdsInInterval(@Param("dateFrom") LocalDate dateFrom,
+                                            @Param("dateTo") LocalDate dateTo);
+
+    @Query("SELECT e FROM Expense e WHERE e.changeSeq > :changeSeq ORDER BY e.changeSeq")
+    List<Expense> findAllChangedAfter(@Param("changeSeq") Long changeSeq, Pageable pageable);
+
+    // deletions are numbered by the same sequence as inserts and updates, and are recorded as tombstones
+    @Query(value = "SELECT GREATEST(" +
+            "(SELECT COALESCE(MAX(change_seq), 0) FROM expenses), " +
+            "(SELECT COALESCE(MAX(change_seq), 0) FROM expense_tombstones))", nativeQuery = true)
+    Long findLastChangeSeq();
+
+    @Query(value = "SELECT to_char(date, 'YYYY-MM') FROM expenses WHERE change_seq > :changeSeq " +
+            "UNION SELECT to_char(date, 'YYYY-MM') FROM expense_tombstones WHERE change_seq > :changeSeq",
+            nativeQuery = true)
+    List<String> findMonthsChangedAfter(@Param("changeSeq") Long changeSeq);
+
+    @Query("SELECT new yehor.budget.repository.projection.MonthlyExpenseCount(YEAR(e.date), MONTH(e.date), COUNT(e)) " +
+            "FROM Expense e GROUP BY YEAR(e.date), MONTH(e.date)")
+    List<MonthlyExpenseCount> countByMonth();
 }
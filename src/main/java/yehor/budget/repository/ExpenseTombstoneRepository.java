@@ -0,0 +1,41 @@
+package yehor.budget.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import yehor.budget.entity.ExpenseTombstone;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ExpenseTombstoneRepository extends JpaRepository<ExpenseTombstone, Long> {
+
+    @Query("SELECT t FROM ExpenseTombstone t WHERE t.changeSeq > :changeSeq ORDER BY t.changeSeq")
+    List<ExpenseTombstone> findAllChangedAfter(@Param("changeSeq") Long changeSeq, Pageable pageable);
+
+    @Query("SELECT MAX(t.changeSeq) FROM ExpenseTombstone t WHERE t.deletedAt < :deletedBefore")
+    Optional<Long> findMaxChangeSeqDeletedBefore(@Param("deletedBefore") LocalDateTime deletedBefore);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ExpenseTombstone t WHERE t.changeSeq <= :changeSeq")
+    int deleteAllChangedUpTo(@Param("changeSeq") Long changeSeq);
+
+    /**
+     * Highest change sequence number of the deleted tombstones, 0 when none were deleted.
+     */
+    @Query(value = "SELECT change_seq FROM expense_tombstones_watermark", nativeQuery = true)
+    long findWatermark();
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE expense_tombstones_watermark SET change_seq = GREATEST(change_seq, :changeSeq)",
+            nativeQuery = true)
+    int raiseWatermark(@Param("changeSeq") Long changeSeq);
+}
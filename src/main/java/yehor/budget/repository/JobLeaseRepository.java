@@ -0,0 +1,38 @@
+package yehor.budget.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import yehor.budget.entity.JobLease;
+
+@Repository
+public interface JobLeaseRepository extends JpaRepository<JobLease, String> {
+
+    /**
+     * Takes the lease when it is free or expired and prolongs it when it is already held by the owner.
+     *
+     * @return 1 when the owner holds the lease after the call, 0 when another owner holds it
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO job_leases (job_name, owner, acquired_at, expires_at) " +
+            "VALUES (:jobName, :owner, now(), now() + :leaseSeconds * INTERVAL '1 second') " +
+            "ON CONFLICT (job_name) DO UPDATE SET " +
+            "owner = EXCLUDED.owner, " +
+            "acquired_at = CASE WHEN job_leases.owner = EXCLUDED.owner " +
+            "THEN job_leases.acquired_at ELSE EXCLUDED.acquired_at END, " +
+            "expires_at = EXCLUDED.expires_at " +
+            "WHERE job_leases.owner = EXCLUDED.owner OR job_leases.expires_at < now()",
+            nativeQuery = true)
+    int acquireOrRenew(@Param("jobName") String jobName,
+                       @Param("owner") String owner,
+                       @Param("leaseSeconds") int leaseSeconds);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM JobLease l WHERE l.jobName = :jobName AND l.owner = :owner")
+    int release(@Param("jobName") String jobName, @Param("owner") String owner);
+}
@@ -0,0 +1,9 @@
+package yehor.budget.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import yehor.budget.entity.JobRun;
+
+@Repository
+public interface JobRunRepository extends JpaRepository<JobRun, String> {
+}
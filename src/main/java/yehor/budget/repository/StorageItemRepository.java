@@ -1,9 +1,21 @@
 package yehor.budget.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import yehor.budget.entity.StorageItem;
+import yehor.budget.repository.projection.StorageItemValue;
+
+import java.time.LocalDate;
+import java.util.List;
 
 @Repository
 public interface StorageItemRepository extends JpaRepository<StorageItem, Long> {
+
+    @Query("SELECT new yehor.budget.repository.projection.StorageItemValue(r.date, i.currency, i.value) " +
+            "FROM StorageItem i JOIN i.storageRecord r " +
+            "WHERE r.date BETWEEN :dateFrom AND :dateTo ORDER BY r.date")
+    List<StorageItemValue> findAllValuesInInterval(@Param("dateFrom") LocalDate dateFrom,
+                                                   @Param("dateTo") LocalDate dateTo);
 }
@@ -0,0 +1,7 @@
+package yehor.budget.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record DailyCategoryTotal(LocalDate date, Long categoryId, BigDecimal total) {
+}
@@ -0,0 +1,7 @@
+package yehor.budget.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record ExpenseIndexRow(Long id, LocalDate date, Long categoryId, Boolean isRegular, BigDecimal value) {
+}
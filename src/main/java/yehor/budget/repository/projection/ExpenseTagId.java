@@ -0,0 +1,4 @@
+package yehor.budget.repository.projection;
+
+public record ExpenseTagId(Long expenseId, Long tagId) {
+}
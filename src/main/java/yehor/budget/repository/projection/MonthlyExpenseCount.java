@@ -0,0 +1,4 @@
+package yehor.budget.repository.projection;
+
+public record MonthlyExpenseCount(Integer year, Integer month, Long count) {
+}
@@ -0,0 +1,9 @@
+package yehor.budget.repository.projection;
+
+import yehor.budget.common.Currency;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record StorageItemValue(LocalDate date, Currency currency, BigDecimal value) {
+}
@@ -0,0 +1,91 @@
+package yehor.budget.repository.specification;
+
+import org.springframework.data.jpa.domain.Specification;
+import yehor.budget.common.ValueBucket;
+import yehor.budget.entity.Expense;
+import yehor.budget.entity.Tag;
+import yehor.budget.web.dto.ExpenseFilterDto;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Filters of expenses evaluated by the database, with the same semantics as the bitmap index.
+ */
+public final class ExpenseSpecifications {
+
+    private ExpenseSpecifications() {
+    }
+
+    public static Specification<Expense> matching(ExpenseFilterDto filter) {
+        return (root, query, builder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (Objects.nonNull(filter.getIsRegular())) {
+                predicates.add(builder.equal(root.get("isRegular"), filter.getIsRegular()));
+            }
+            if (isProvided(filter.getCategoryIds())) {
+                predicates.add(root.get("category").get("id").in(filter.getCategoryIds()));
+            }
+            if (isProvided(filter.getExcludedCategoryIds())) {
+                predicates.add(builder.not(root.get("category").get("id").in(filter.getExcludedCategoryIds())));
+            }
+            if (isProvided(filter.getMonths())) {
+                predicates.add(builder.or(filter.getMonths().stream()
+                        .map(month -> inMonth(root, builder, month))
+                        .toArray(Predicate[]::new)));
+            }
+            if (isProvided(filter.getValueBuckets())) {
+                predicates.add(builder.or(filter.getValueBuckets().stream()
+                        .map(bucket -> inBucket(root, builder, bucket))
+                        .toArray(Predicate[]::new)));
+            }
+            if (isProvided(filter.getTagIds())) {
+                if (Boolean.TRUE.equals(filter.getAllTags())) {
+                    filter.getTagIds().forEach(tagId ->
+                            predicates.add(builder.exists(tagged(root, query, List.of(tagId)))));
+                } else {
+                    predicates.add(builder.exists(tagged(root, query, filter.getTagIds())));
+                }
+            }
+            if (isProvided(filter.getExcludedTagIds())) {
+                predicates.add(builder.not(builder.exists(tagged(root, query, filter.getExcludedTagIds()))));
+            }
+            return builder.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    private static Predicate inMonth(Root<Expense> root, CriteriaBuilder builder, YearMonth month) {
+        return builder.between(root.get("date"), month.atDay(1), month.atEndOfMonth());
+    }
+
+    private static Predicate inBucket(Root<Expense> root, CriteriaBuilder builder, ValueBucket bucket) {
+        List<Predicate> bounds = new ArrayList<>();
+        if (Objects.nonNull(bucket.getLowerBound())) {
+            bounds.add(builder.greaterThanOrEqualTo(root.get("value"), bucket.getLowerBound()));
+        }
+        if (Objects.nonNull(bucket.getUpperBound())) {
+            bounds.add(builder.lessThan(root.get("value"), bucket.getUpperBound()));
+        }
+        return builder.and(bounds.toArray(Predicate[]::new));
+    }
+
+    private static Subquery<Long> tagged(Root<Expense> root, CriteriaQuery<?> query, Collection<Long> tagIds) {
+        Subquery<Long> subquery = query.subquery(Long.class);
+        Root<Expense> expense = subquery.correlate(root);
+        Join<Expense, Tag> tag = expense.join("tags");
+        return subquery.select(tag.get("id")).where(tag.get("id").in(tagIds));
+    }
+
+    private static boolean isProvided(Collection<?> values) {
+        return Objects.nonNull(values) && !values.isEmpty();
+    }
+}
@@ -0,0 +1,87 @@
+package yehor.budget.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import yehor.budget.common.AnalyticsDimension;
+import yehor.budget.common.date.DateManager;
+import yehor.budget.common.exception.OverloadedException;
+import yehor.budget.service.admission.AdmissionService;
+import yehor.budget.service.admission.Bulkhead;
+import yehor.budget.service.index.ExpenseColumnStore;
+import yehor.budget.service.index.ExpenseGroup;
+import yehor.budget.web.dto.AnalyticsGroupDto;
+import yehor.budget.web.dto.AnalyticsQueryDto;
+import yehor.budget.web.dto.AnalyticsResultDto;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * Answers analytics queries from the expense column store. While the store is not built queries are rejected,
+ * instead of loading expenses of the interval for every query.
+ */
+@Service
+@RequiredArgsConstructor
+public class AnalyticsService {
+
+    static final int MAX_PERIOD_YEARS = 10;
+    // the store is usually built within seconds after startup
+    private static final long NOT_BUILT_RETRY_AFTER_SECONDS = 10;
+
+    private final ExpenseColumnStore expenseColumnStore;
+    private final AdmissionService admissionService;
+    private final DateManager dateManager;
+
+    /**
+     * @param client address of the caller
+     * @throws IllegalArgumentException if the query is not valid or too expensive
+     * @throws OverloadedException       if the query is rejected due to overload or the store is not built
+     */
+    public AnalyticsResultDto query(String client, AnalyticsQueryDto query) {
+        validate(query);
+        List<ExpenseGroup> expenseGroups;
+        try (Bulkhead.Permit permit = admissionService.admitAnalytics(client, query.getDateFrom(), query.getDateTo())) {
+            expenseGroups = expenseColumnStore.findGroups(query)
+                    .orElseThrow(() -> OverloadedException.unavailable(
+                            "Expenses are not indexed yet, analytics are not available", NOT_BUILT_RETRY_AFTER_SECONDS));
+        }
+        List<AnalyticsDimension> dimensions = Objects.isNull(query.getGroupBy()) ? List.of() : query.getGroupBy();
+        List<AnalyticsGroupDto> groups = expenseGroups.stream()
+                .map(group -> toDto(dimensions, group))
+                .toList();
+        return AnalyticsResultDto.builder()
+                .groupBy(dimensions)
+                .groups(groups)
+                .build();
+    }
+
+    private AnalyticsGroupDto toDto(List<AnalyticsDimension> dimensions, ExpenseGroup group) {
+        return AnalyticsGroupDto.builder()
+                .keys(IntStream.range(0, dimensions.size())
+                        .mapToObj(i -> dimensions.get(i).label(group.keys()[i]))
+                        .toList())
+                .total(BigDecimal.valueOf(group.total(), 2))
+                .count(group.count())
+                .build();
+    }
+
+    private void validate(AnalyticsQueryDto query) {
+        if (Objects.isNull(query.getDateFrom()) || Objects.isNull(query.getDateTo())) {
+            throw new IllegalArgumentException("Both dateFrom and dateTo should be provided");
+        }
+        if (query.getDateFrom().isAfter(query.getDateTo())) {
+            throw new IllegalArgumentException("dateFrom should not be after dateTo");
+        }
+        if (query.getDateTo().isAfter(query.getDateFrom().plusYears(MAX_PERIOD_YEARS))) {
+            throw new IllegalArgumentException("Interval should not be longer than " + MAX_PERIOD_YEARS + " years");
+        }
+        dateManager.validateDatesWithinBudget(query.getDateFrom(), query.getDateTo());
+        if (Objects.nonNull(query.getGroupBy())
+                && new HashSet<>(query.getGroupBy()).size() != query.getGroupBy().size()) {
+            throw new IllegalArgumentException("Dimensions should not be repeated in groupBy");
+        }
+    }
+}
@@ -10,10 +10,14 @@ import yehor.budget.common.exception.ObjectAlreadyExistsException;
 import yehor.budget.common.exception.ObjectNotFoundException;
 import yehor.budget.entity.Category;
 import yehor.budget.repository.CategoryRepository;
+import yehor.budget.service.cache.CacheInvalidationBus;
+import yehor.budget.service.cache.CachedEntity;
+import yehor.budget.service.cache.InvalidatedCache;
 import yehor.budget.web.converter.CategoryConverter;
 import yehor.budget.web.dto.full.CategoryFullDto;
 import yehor.budget.web.dto.limited.CategoryLimitedDto;
 
+import javax.annotation.PostConstruct;
 import java.util.List;
 
 @Slf4j
@@ -21,14 +25,18 @@ import java.util.List;
 @RequiredArgsConstructor
 public class CategoryService {
 
+    private static final String ALL_CATEGORIES = "all";
+
     private final CategoryRepository categoryRepository;
     private final CategoryConverter categoryConverter;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    private final InvalidatedCache<String, List<CategoryFullDto>> cache = new InvalidatedCache<>();
 
     public List<CategoryFullDto> getAll() {
-        List<Category> categories = categoryRepository.findAll();
-        return categories.stream()
+        return cache.get(ALL_CATEGORIES, key -> categoryRepository.findAll().stream()
                 .map(categoryConverter::convert)
-                .toList();
+                .toList());
     }
 
     public CategoryFullDto save(CategoryLimitedDto categoryDto) {
@@ -36,6 +44,8 @@ public class CategoryService {
         validateNotExists(category);
         CategoryFullDto saved = categoryConverter.convert(categoryRepository.save(category));
         log.info("Saved: {}", saved);
+        // a new category has no cached entries of its own, so everything cached about categories is evicted
+        cacheInvalidationBus.publish(CachedEntity.CATEGORY, List.of());
         return saved;
     }
 
@@ -43,6 +53,7 @@ public class CategoryService {
         try {
             categoryRepository.deleteById(id);
             log.info("Category with id {} is deleted", id);
+            cacheInvalidationBus.publish(CachedEntity.CATEGORY, List.of(id));
         } catch (EmptyResultDataAccessException e) {
             throw new ObjectNotFoundException("Category with id " + id + " not found");
         } catch (DataIntegrityViolationException e) {
@@ -56,6 +67,7 @@ public class CategoryService {
         Category category = categoryConverter.convert(categoryDto);
         CategoryFullDto updated = categoryConverter.convert(categoryRepository.save(category));
         log.info("Updated: {}", updated);
+        cacheInvalidationBus.publish(CachedEntity.CATEGORY, List.of(categoryDto.getId()));
         return updated;
     }
 
@@ -71,4 +83,9 @@ public class CategoryService {
             throw new ObjectNotFoundException("Category with id " + id + " does not exist");
         }
     }
+
+    @PostConstruct
+    private void subscribeToInvalidations() {
+        cacheInvalidationBus.subscribe(CachedEntity.CATEGORY, invalidation -> cache.evictAll());
+    }
 }
@@ -4,7 +4,9 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import yehor.budget.common.util.CalculatorHelper;
 import yehor.budget.repository.RowEstimatedExpenseRepository;
+import yehor.budget.service.cache.CachedEntity;
 import yehor.budget.service.client.currency.CurrencyRateService;
+import yehor.budget.service.flight.SingleFlight;
 import yehor.budget.web.converter.EstimatedExpenseConverter;
 import yehor.budget.web.dto.full.EstimatedExpenseFullDto;
 import yehor.budget.web.dto.full.RowEstimatedExpenseFullDto;
@@ -25,6 +27,7 @@ public class EstimatedExpenseService {
     private final CalculatorHelper calculatorHelper;
     private final CurrencyRateService currencyRateService;
 
+    @SingleFlight(invalidatedBy = {CachedEntity.ESTIMATED_EXPENSE, CachedEntity.EXCHANGE_RATE, CachedEntity.CATEGORY})
     public EstimatedExpenseFullDto getOne() {
         EstimatedExpenseFullDto fullDto = new EstimatedExpenseFullDto();
 
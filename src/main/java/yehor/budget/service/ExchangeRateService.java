@@ -0,0 +1,186 @@
+package yehor.budget.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import yehor.budget.common.Currency;
+import yehor.budget.common.util.CurrencyUtil;
+import yehor.budget.entity.ExchangeRate;
+import yehor.budget.repository.ExchangeRateRepository;
+import yehor.budget.service.cache.CacheInvalidationBus;
+import yehor.budget.service.cache.CachedEntity;
+import yehor.budget.service.client.currency.CurrencyRateClient;
+import yehor.budget.service.client.currency.CurrencyRateService;
+import yehor.budget.service.client.currency.ExchangeRateHistory;
+import yehor.budget.service.worker.JobDefinition;
+import yehor.budget.service.worker.JobScheduler;
+
+import javax.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExchangeRateService {
+
+    public static final int MAX_BACKFILL_DAYS = 366;
+    public static final String CURRENT_RATES_RECORDER_JOB_NAME = "current-exchange-rates-recorder";
+    public static final String BACKFILL_TASK_NAME = "exchange-rates-backfill";
+
+    private final ExchangeRateRepository exchangeRateRepository;
+    private final ExchangeRateHistory exchangeRateHistory;
+    private final CurrencyRateClient currencyRateClient;
+    private final CurrencyRateService currencyRateService;
+    private final JobScheduler jobScheduler;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final AtomicBoolean backfillRunning = new AtomicBoolean();
+
+    public BigDecimal getRate(Currency fromCurrency, Currency toCurrency, LocalDate date) {
+        return currencyRateService.getHistoricalRate(fromCurrency, toCurrency, date);
+    }
+
+    /**
+     * Starts {@link #backfill(LocalDate, LocalDate)} in the background, as it makes a client call per missing rate.
+     * One backfill runs at a time on a node.
+     *
+     * @throws IllegalArgumentException if the interval is invalid
+     * @throws IllegalStateException    if a backfill is running
+     */
+    public void startBackfill(LocalDate dateFrom, LocalDate dateTo) {
+        validateBackfillInterval(dateFrom, dateTo);
+        if (!backfillRunning.compareAndSet(false, true)) {
+            throw new IllegalStateException("Backfill of exchange rates is already running");
+        }
+        jobScheduler.execute(BACKFILL_TASK_NAME, () -> {
+            try {
+                backfill(dateFrom, dateTo);
+            } finally {
+                backfillRunning.set(false);
+            }
+        });
+    }
+
+    /**
+     * Fetches and stores rates of all currency pairs for every date within the interval that does not have them yet.
+     * Rates are fetched outside a transaction, so no connection is held while waiting for the client, and are
+     * stored day by day, so rates fetched before a failure are kept. Rates stored meanwhile by another node
+     * are skipped.
+     *
+     * @return number of stored rates
+     */
+    public int backfill(LocalDate dateFrom, LocalDate dateTo) {
+        validateBackfillInterval(dateFrom, dateTo);
+        Set<String> storedKeys = exchangeRateRepository.findAllInInterval(dateFrom, dateTo).stream()
+                .map(rate -> key(rate.getDate(), rate.getFromCurrency(), rate.getToCurrency()))
+                .collect(Collectors.toSet());
+
+        List<ExchangeRate> savedRates = new ArrayList<>();
+        try {
+            for (LocalDate date = dateFrom; !date.isAfter(dateTo); date = date.plusDays(1)) {
+                List<ExchangeRate> missingRates = new ArrayList<>();
+                for (Currency fromCurrency : Currency.values()) {
+                    for (Currency toCurrency : Currency.values()) {
+                        if (fromCurrency != toCurrency && !storedKeys.contains(key(date, fromCurrency, toCurrency))) {
+                            BigDecimal rate = currencyRateClient.rate(fromCurrency, toCurrency, date);
+                            missingRates.add(exchangeRate(date, fromCurrency, toCurrency, rate));
+                        }
+                    }
+                }
+                savedRates.addAll(saveMissing(missingRates));
+            }
+        } finally {
+            publishInvalidation(savedRates);
+        }
+        log.info("Backfilled {} exchange rates between {} and {}", savedRates.size(), dateFrom, dateTo);
+        return savedRates.size();
+    }
+
+    /**
+     * Stores current rates as the rates of today, so history keeps growing without backfilling.
+     */
+    public void recordCurrentRates() {
+        LocalDate today = LocalDate.now();
+        Set<String> storedKeys = exchangeRateRepository.findAllInInterval(today, today).stream()
+                .map(rate -> key(rate.getDate(), rate.getFromCurrency(), rate.getToCurrency()))
+                .collect(Collectors.toSet());
+
+        List<ExchangeRate> currentRates = new ArrayList<>();
+        for (Currency fromCurrency : Currency.values()) {
+            for (Currency toCurrency : Currency.values()) {
+                if (fromCurrency != toCurrency && !storedKeys.contains(key(today, fromCurrency, toCurrency))) {
+                    BigDecimal rate = currencyRateService.getRate(fromCurrency, toCurrency);
+                    currentRates.add(exchangeRate(today, fromCurrency, toCurrency, rate));
+                }
+            }
+        }
+
+        if (!currentRates.isEmpty()) {
+            List<ExchangeRate> savedRates = saveMissing(currentRates);
+            publishInvalidation(savedRates);
+            log.info("Recorded {} current exchange rates for {}", savedRates.size(), today);
+        }
+    }
+
+    private List<ExchangeRate> saveMissing(List<ExchangeRate> rates) {
+        List<ExchangeRate> savedRates = rates.stream()
+                .filter(rate -> exchangeRateRepository.insertIfAbsent(rate.getDate(), rate.getFromCurrency().name(),
+                        rate.getToCurrency().name(), rate.getRate()) > 0)
+                .toList();
+        if (!savedRates.isEmpty()) {
+            exchangeRateHistory.addAll(savedRates);
+        }
+        return savedRates;
+    }
+
+    private void publishInvalidation(List<ExchangeRate> savedRates) {
+        if (!savedRates.isEmpty()) {
+            cacheInvalidationBus.publish(CachedEntity.EXCHANGE_RATE, savedRates.stream()
+                    .map(ExchangeRate::getDate)
+                    .collect(Collectors.toSet()));
+        }
+    }
+
+    private void validateBackfillInterval(LocalDate dateFrom, LocalDate dateTo) {
+        if (dateFrom.isAfter(dateTo)) {
+            throw new IllegalArgumentException("Reversed order of dates: " + dateFrom + " and " + dateTo);
+        }
+        if (dateTo.isAfter(LocalDate.now())) {
+            throw new IllegalArgumentException("Rates cannot be backfilled for future date " + dateTo);
+        }
+        if (ChronoUnit.DAYS.between(dateFrom, dateTo) >= MAX_BACKFILL_DAYS) {
+            throw new IllegalArgumentException("Rates can be backfilled for at most " + MAX_BACKFILL_DAYS + " days at once");
+        }
+    }
+
+    private ExchangeRate exchangeRate(LocalDate date, Currency fromCurrency, Currency toCurrency, BigDecimal rate) {
+        return ExchangeRate.builder()
+                .date(date)
+                .fromCurrency(fromCurrency)
+                .toCurrency(toCurrency)
+                .rate(rate)
+                .build();
+    }
+
+    private String key(LocalDate date, Currency fromCurrency, Currency toCurrency) {
+        return date + ":" + CurrencyUtil.currencyPair(fromCurrency, toCurrency);
+    }
+
+    @PostConstruct
+    private void currentRatesRecorder() {
+        jobScheduler.schedule(JobDefinition.builder()
+                .name(CURRENT_RATES_RECORDER_JOB_NAME)
+                .task(this::recordCurrentRates)
+                .initialDelay(Duration.ofMinutes(1))
+                .period(Duration.ofDays(1))
+                .clustered(true)
+                .build());
+    }
+}
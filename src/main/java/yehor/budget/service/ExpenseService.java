@@ -2,25 +2,48 @@ package yehor.budget.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
+import yehor.budget.common.ExpenseChangeType;
 import yehor.budget.common.date.DateManager;
+import yehor.budget.common.exception.ChangesExpiredException;
 import yehor.budget.common.exception.ObjectNotFoundException;
 import yehor.budget.entity.Expense;
+import yehor.budget.entity.ExpenseTombstone;
 import yehor.budget.repository.CategoryRepository;
 import yehor.budget.repository.ExpenseRepository;
+import yehor.budget.repository.ExpenseTombstoneRepository;
 import yehor.budget.repository.TagRepository;
+import yehor.budget.repository.specification.ExpenseSpecifications;
+import yehor.budget.service.cache.CacheInvalidationBus;
+import yehor.budget.service.cache.CachedEntity;
+import yehor.budget.service.index.ExpenseBitmapIndex;
+import yehor.budget.service.index.ExpenseSumIndex;
 import yehor.budget.web.converter.ExpenseConverter;
+import yehor.budget.web.dto.CompactExpensesDto;
+import yehor.budget.web.dto.ExpenseChangeDto;
+import yehor.budget.web.dto.ExpenseChangesDto;
+import yehor.budget.web.dto.ExpenseFilterDto;
+import yehor.budget.web.dto.ExpensePageDto;
 import yehor.budget.web.dto.ExpensesByTagDto;
 import yehor.budget.web.dto.full.ExpenseFullDto;
 import yehor.budget.web.dto.limited.ExpenseLimitedDto;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 
 import static java.util.Collections.emptySet;
 
@@ -34,14 +57,20 @@ public class ExpenseService {
     private final CategoryRepository categoryRepository;
     private final TagRepository tagRepository;
     private final DateManager dateManager;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final ExpenseSumIndex expenseSumIndex;
+    private final ExpenseBitmapIndex expenseBitmapIndex;
+    private final ExpenseTombstoneRepository expenseTombstoneRepository;
 
     public BigDecimal findSumInInterval(LocalDate dateFrom, LocalDate dateTo) {
-        return expenseRepository.findSumInInterval(dateFrom, dateTo);
+        return expenseSumIndex.findSum(dateFrom, dateTo)
+                .orElseGet(() -> expenseRepository.findSumInInterval(dateFrom, dateTo));
     }
 
     public BigDecimal findSumInIntervalByCategory(LocalDate dateFrom, LocalDate dateTo, Long categoryId) {
         validateCategoryWithIdExists(categoryId);
-        return expenseRepository.findSumInIntervalByCategory(dateFrom, dateTo, categoryId);
+        return expenseSumIndex.findSum(dateFrom, dateTo, categoryId)
+                .orElseGet(() -> expenseRepository.findSumInIntervalByCategory(dateFrom, dateTo, categoryId));
     }
 
     public List<ExpenseFullDto> findAllInDateByCategory(LocalDate date, Long categoryId) {
@@ -59,6 +88,11 @@ public class ExpenseService {
                 .toList();
     }
 
+    public CompactExpensesDto findAllInIntervalCompact(LocalDate dateFrom, LocalDate dateTo) {
+        List<Expense> expenses = expenseRepository.findAllInInterval(dateFrom, dateTo);
+        return expenseConverter.convertToCompact(expenses);
+    }
+
     @Transactional
     public ExpenseFullDto save(ExpenseLimitedDto expenseDto) {
         validateCategoryWithIdExists(expenseDto.getCategoryId());
@@ -68,6 +102,7 @@ public class ExpenseService {
         Expense savedExpense = expenseRepository.save(expense);
         log.info("Saved: {}", savedExpense);
         dateManager.updateBudgetDatesIfNecessary(savedExpense.getDate());
+        publishInvalidation(Stream.of(savedExpense.getDate()));
         return expenseConverter.convert(savedExpense);
     }
 
@@ -83,26 +118,30 @@ public class ExpenseService {
         validateCategoryWithIdExists(expenseDto.getCategoryId());
         validateTagsWithIdsExist(expenseDto.getTagIds());
 
+        Optional<LocalDate> previousDate = expenseRepository.findById(id).map(Expense::getDate);
         Expense expense = expenseConverter.convert(expenseDto);
         expense.setId(id);
         Expense savedExpense = expenseRepository.save(expense);
         log.info("Updated: {}", savedExpense);
         dateManager.updateBudgetDatesIfNecessary(savedExpense.getDate());
+        publishInvalidation(Stream.concat(previousDate.stream(), Stream.of(savedExpense.getDate())));
         return expenseConverter.convert(savedExpense);
     }
 
     public void deleteById(Long id) {
         validateExists(id);
+        Optional<LocalDate> date = expenseRepository.findById(id).map(Expense::getDate);
         expenseRepository.deleteById(id);
         log.info("Expense with id {} is deleted", id);
+        publishInvalidation(date.stream());
     }
 
     @Transactional(readOnly = true)
     public ExpensesByTagDto getExpensesByTagId(Long id) {
         validateTagsWithIdsExist(Set.of(id));
-        Set<Expense> expenses = Optional.ofNullable(
-                tagRepository.getById(id).getExpenses())
-                .orElse(emptySet());
+        Collection<Expense> expenses = expenseBitmapIndex.findIdsByTag(id)
+                .<Collection<Expense>>map(expenseRepository::findAllById)
+                .orElseGet(() -> Optional.ofNullable(tagRepository.getById(id).getExpenses()).orElse(emptySet()));
         List<ExpenseFullDto> expenseDtos = expenses.stream()
                 .map(expenseConverter::convert)
                 .toList();
@@ -115,6 +154,93 @@ public class ExpenseService {
                 .build();
     }
 
+    /**
+     * Matching expenses, the most recently created first. While the bitmap index is not built,
+     * the filter is evaluated by the database.
+     */
+    @Transactional(readOnly = true)
+    public ExpensePageDto findAllMatching(ExpenseFilterDto filter, int page, int size) {
+        return expenseBitmapIndex.findIds(filter, page, size)
+                .map(idPage -> {
+                    List<Expense> expenses = expenseRepository.findAllById(idPage.ids()).stream()
+                            .sorted(Comparator.comparing(Expense::getId).reversed())
+                            .toList();
+                    return toExpensePage(idPage.totalElements(), expenses, page, size);
+                })
+                .orElseGet(() -> {
+                    Page<Expense> expenses = expenseRepository.findAll(ExpenseSpecifications.matching(filter),
+                            PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "id")));
+                    return toExpensePage(expenses.getTotalElements(), expenses.getContent(), page, size);
+                });
+    }
+
+    private ExpensePageDto toExpensePage(long totalElements, List<Expense> expenses, int page, int size) {
+        return ExpensePageDto.builder()
+                .totalElements(totalElements)
+                .page(page)
+                .size(size)
+                .expenses(expenses.stream()
+                        .map(expenseConverter::convert)
+                        .toList())
+                .build();
+    }
+
+    /**
+     * Changes of expenses after the sequence number, at most the limit of them. An expense changed several times
+     * since then is returned once, with its latest change. Expenses and tombstones are read from one snapshot,
+     * so a change committed between the two reads can not be skipped by a later change in the other table.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public ExpenseChangesDto getChanges(long since, int limit) {
+        long watermark = expenseTombstoneRepository.findWatermark();
+        if (since > 0 && since < watermark) {
+            throw new ChangesExpiredException("Deletions after " + since + " are no longer kept, "
+                    + "changes should be requested since 0");
+        }
+        // both lists are ordered, so the first changes of their merge are within the first changes of each
+        Pageable firstChanges = PageRequest.of(0, limit + 1);
+        List<ExpenseChangeDto> changes = Stream.concat(
+                        expenseRepository.findAllChangedAfter(since, firstChanges).stream()
+                                .map(this::toUpsertChange),
+                        expenseTombstoneRepository.findAllChangedAfter(since, firstChanges).stream()
+                                .map(this::toDeleteChange))
+                .sorted(Comparator.comparing(ExpenseChangeDto::getChangeSeq))
+                .limit(limit + 1L)
+                .toList();
+        boolean hasMore = changes.size() > limit;
+        List<ExpenseChangeDto> page = hasMore ? changes.subList(0, limit) : changes;
+        return ExpenseChangesDto.builder()
+                .since(since)
+                .nextSince(page.isEmpty() ? since : page.get(page.size() - 1).getChangeSeq())
+                .hasMore(hasMore)
+                .changes(page)
+                .build();
+    }
+
+    private ExpenseChangeDto toUpsertChange(Expense expense) {
+        return ExpenseChangeDto.builder()
+                .changeSeq(expense.getChangeSeq())
+                .type(ExpenseChangeType.UPSERT)
+                .expenseId(expense.getId())
+                .expense(expenseConverter.convert(expense))
+                .build();
+    }
+
+    private ExpenseChangeDto toDeleteChange(ExpenseTombstone tombstone) {
+        return ExpenseChangeDto.builder()
+                .changeSeq(tombstone.getChangeSeq())
+                .type(ExpenseChangeType.DELETE)
+                .expenseId(tombstone.getExpenseId())
+                .build();
+    }
+
+    // expenses are cached per month, so months of the changed expenses are published instead of their ids
+    private void publishInvalidation(Stream<LocalDate> dates) {
+        cacheInvalidationBus.publish(CachedEntity.EXPENSE, dates
+                .map(date -> YearMonth.from(date).toString())
+                .toList());
+    }
+
     private void validateExists(Long id) {
         if (Objects.isNull(id) || !expenseRepository.existsById(id)) {
             throw new ObjectNotFoundException(String.format("Expense with id %s does not exist", id));
@@ -7,6 +7,8 @@ import org.springframework.stereotype.Service;
 import yehor.budget.common.exception.ObjectNotFoundException;
 import yehor.budget.entity.FutureExpense;
 import yehor.budget.repository.FutureExpenseRepository;
+import yehor.budget.service.cache.CacheInvalidationBus;
+import yehor.budget.service.cache.CachedEntity;
 import yehor.budget.web.converter.FutureExpenseConverter;
 import yehor.budget.web.dto.full.FutureExpenseFullDto;
 import yehor.budget.web.dto.limited.FutureExpenseLimitedDto;
@@ -23,6 +25,7 @@ public class FutureExpenseService {
 
     private final FutureExpenseRepository futureExpenseRepository;
     private final FutureExpenseConverter futureExpenseConverter;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
     public List<FutureExpenseFullDto> getAll() {
         List<FutureExpense> futureExpenses = futureExpenseRepository.findAll();
@@ -34,6 +37,7 @@ public class FutureExpenseService {
     public FutureExpenseFullDto save(FutureExpenseLimitedDto futureExpenseDto) {
         FutureExpense saved = futureExpenseRepository.save(futureExpenseConverter.convert(futureExpenseDto));
         log.info("Saved: {}", saved);
+        cacheInvalidationBus.publish(CachedEntity.FUTURE_EXPENSE, List.of(saved.getId()));
         return futureExpenseConverter.convert(saved);
     }
 
@@ -41,6 +45,7 @@ public class FutureExpenseService {
         try {
             futureExpenseRepository.deleteById(id);
             log.info("Future expense with id {} is deleted", id);
+            cacheInvalidationBus.publish(CachedEntity.FUTURE_EXPENSE, List.of(id));
         } catch (EmptyResultDataAccessException e) {
             throw new ObjectNotFoundException("Future expense with id " + id + " not found");
         }
@@ -4,18 +4,25 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import yehor.budget.common.SettingsListener;
 import yehor.budget.common.SettingsNotificationManager;
+import yehor.budget.common.SettingsSnapshot;
 import yehor.budget.common.util.PropertiesHelper;
 import yehor.budget.entity.Settings;
 import yehor.budget.repository.SettingsRepository;
+import yehor.budget.service.cache.CacheInvalidationBus;
+import yehor.budget.service.cache.CachedEntity;
 import yehor.budget.web.converter.SettingsConverter;
 import yehor.budget.web.dto.full.SettingsFullDto;
 import yehor.budget.web.dto.limited.SettingsLimitedDto;
 
 import javax.annotation.PostConstruct;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -27,14 +34,32 @@ public class SettingsService implements SettingsListener {
     private final PropertiesHelper propertiesHelper;
     private final SettingsRepository settingsRepository;
     private final SettingsConverter settingsConverter;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    private final AtomicReference<SettingsSnapshot> snapshot = new AtomicReference<>();
 
     public SettingsFullDto getSettings() {
         Settings settings = getSettingsEntity();
         return settingsConverter.convert(settings);
     }
 
+    /**
+     * @return copy of current settings, changing it does not affect settings of the application
+     */
     public Settings getSettingsEntity() {
-        return settingsRepository.getById(SETTINGS_ID);
+        return getSnapshot().toEntity();
+    }
+
+    /**
+     * Lock-free access to current settings. Settings are read from the database only once.
+     */
+    public SettingsSnapshot getSnapshot() {
+        SettingsSnapshot current = snapshot.get();
+        if (Objects.isNull(current)) {
+            snapshot.compareAndSet(null, SettingsSnapshot.of(0, settingsRepository.getById(SETTINGS_ID)));
+            current = snapshot.get();
+        }
+        return current;
     }
 
     @Transactional
@@ -51,11 +76,53 @@ public class SettingsService implements SettingsListener {
 
     @Transactional
     public void updateSettings(Settings newSettings) {
-        Settings existingSettings = settingsRepository.getById(SETTINGS_ID);
-        Settings settings = mergeSettings(newSettings, existingSettings);
-        log.info("Updating settings: {}", settings);
+        SettingsSnapshot current;
+        SettingsSnapshot updated;
+        Settings settings;
+        do {
+            current = getSnapshot();
+            settings = mergeSettings(newSettings, current.toEntity());
+            updated = SettingsSnapshot.of(current.version() + 1, settings);
+        } while (!snapshot.compareAndSet(current, updated));
+
+        log.info("Updating settings to version {}: {}", updated.version(), settings);
+        try {
+            settingsRepository.save(settings);
+        } catch (RuntimeException e) {
+            snapshot.compareAndSet(updated, current);
+            throw e;
+        }
+        rollbackSnapshotIfTransactionFails(current, updated);
+        cacheInvalidationBus.publish(CachedEntity.SETTINGS, List.of(SETTINGS_ID));
         SettingsNotificationManager.updateListeners(this.getClass(), settings);
-        settingsRepository.save(settings);
+    }
+
+    /**
+     * Replaces the snapshot with settings stored in the database, when they were changed by another node.
+     */
+    public void reload() {
+        Settings settings = settingsRepository.findById(SETTINGS_ID).orElseThrow();
+        SettingsSnapshot current;
+        SettingsSnapshot reloaded;
+        do {
+            current = getSnapshot();
+            reloaded = SettingsSnapshot.of(current.version() + 1, settings);
+        } while (!snapshot.compareAndSet(current, reloaded));
+        log.info("Reloaded settings as version {}: {}", reloaded.version(), settings);
+        SettingsNotificationManager.updateListeners(this.getClass(), reloaded.toEntity());
+    }
+
+    private void rollbackSnapshotIfTransactionFails(SettingsSnapshot previous, SettingsSnapshot updated) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK && snapshot.compareAndSet(updated, previous)) {
+                        log.warn("Settings update to version {} is rolled back", updated.version());
+                    }
+                }
+            });
+        }
     }
 
     @PostConstruct
@@ -65,6 +132,7 @@ public class SettingsService implements SettingsListener {
             log.info("Initializing default settings: {}", defaultSettings);
             settingsRepository.save(defaultSettings);
         }
+        cacheInvalidationBus.subscribeRemote(CachedEntity.SETTINGS, invalidation -> reload());
     }
 
     private Settings defaultSettings() {
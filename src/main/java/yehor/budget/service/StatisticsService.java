@@ -2,18 +2,32 @@ package yehor.budget.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import yehor.budget.common.AnalyticsDimension;
 import yehor.budget.common.date.DateManager;
 import yehor.budget.common.date.FullMonth;
+import yehor.budget.common.jfr.StatisticsComputationEvent;
 import yehor.budget.entity.Expense;
 import yehor.budget.common.util.CalculatorHelper;
 import yehor.budget.repository.ExpenseRepository;
+import yehor.budget.service.cache.CacheInvalidationBus;
+import yehor.budget.service.cache.CachedEntity;
+import yehor.budget.service.cache.InvalidatedCache;
+import yehor.budget.service.flight.SingleFlight;
+import yehor.budget.service.index.ExpenseColumnStore;
+import yehor.budget.service.index.ExpenseGroup;
+import yehor.budget.web.dto.AnalyticsQueryDto;
 import yehor.budget.web.dto.MonthlyStatistics;
 import yehor.budget.web.dto.PeriodicStatistics;
+import yehor.budget.web.dto.full.CategoryFullDto;
 
+import javax.annotation.PostConstruct;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.Year;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -24,14 +38,88 @@ import static java.util.stream.Collectors.toMap;
 @RequiredArgsConstructor
 public class StatisticsService {
 
+    private static final int SCALE = 2;
+
     private final ExpenseRepository expenseRepository;
     private final DateManager dateManager;
     private final CalculatorHelper calculatorHelper;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final ExpenseColumnStore expenseColumnStore;
+    private final CategoryService categoryService;
+
+    // keyed by month in the same format expense invalidations are published with
+    private final InvalidatedCache<String, MonthlyStatistics> monthlyStatisticsCache = new InvalidatedCache<>();
 
     public MonthlyStatistics getMonthlyStatistics(FullMonth fullMonth) {
+        return getMonthlyStatistics(fullMonth, getCategoryNames());
+    }
+
+    private MonthlyStatistics getMonthlyStatistics(FullMonth fullMonth, Map<Long, String> categoryNames) {
+        String month = YearMonth.of(fullMonth.getYear(), fullMonth.getMonth()).toString();
+        return monthlyStatisticsCache.get(month, key -> calculateMonthlyStatistics(fullMonth, categoryNames));
+    }
+
+    /**
+     * Totals are computed from the column store when it is loaded, otherwise from expenses, and have the scale
+     * of stored values either way.
+     */
+    private MonthlyStatistics calculateMonthlyStatistics(FullMonth fullMonth, Map<Long, String> categoryNames) {
+        StatisticsComputationEvent event = new StatisticsComputationEvent();
+        event.begin();
+        event.kind = StatisticsComputationEvent.MONTHLY;
+        event.months = 1;
         LocalDate firstDay = LocalDate.of(fullMonth.getYear(), fullMonth.getMonth(), 1);
         LocalDate lastDay = LocalDate.of(fullMonth.getYear(), fullMonth.getMonth(), fullMonth.getMonth().length(Year.isLeap(fullMonth.getYear())));
+        AnalyticsQueryDto query = AnalyticsQueryDto.builder()
+                .dateFrom(firstDay)
+                .dateTo(lastDay)
+                .groupBy(List.of(AnalyticsDimension.CATEGORY, AnalyticsDimension.REGULAR))
+                .build();
+        MonthlyStatistics statistics = expenseColumnStore.findGroups(query)
+                .map(groups -> {
+                    event.fromColumnStore = true;
+                    event.rows = groups.size();
+                    return toMonthlyStatistics(groups, categoryNames);
+                })
+                .orElseGet(() -> calculateMonthlyStatistics(firstDay, lastDay, event));
+        event.commit();
+        return withScale(statistics);
+    }
+
+    private Map<Long, String> getCategoryNames() {
+        return categoryService.getAll().stream()
+                .collect(toMap(CategoryFullDto::getId, CategoryFullDto::getName));
+    }
+
+    private MonthlyStatistics withScale(MonthlyStatistics statistics) {
+        statistics.setTotalExpense(statistics.getTotalExpense().setScale(SCALE, RoundingMode.HALF_UP));
+        statistics.setTotalRegular(statistics.getTotalRegular().setScale(SCALE, RoundingMode.HALF_UP));
+        statistics.setTotalNonRegular(statistics.getTotalNonRegular().setScale(SCALE, RoundingMode.HALF_UP));
+        statistics.getTotalsPerCategory().replaceAll((category, total) -> total.setScale(SCALE, RoundingMode.HALF_UP));
+        return statistics;
+    }
+
+    private MonthlyStatistics toMonthlyStatistics(List<ExpenseGroup> groups, Map<Long, String> categoryNames) {
+        MonthlyStatistics statistics = new MonthlyStatistics();
+        Map<String, BigDecimal> totalsPerCategory = new HashMap<>();
+        for (ExpenseGroup group : groups) {
+            BigDecimal total = BigDecimal.valueOf(group.total(), SCALE);
+            statistics.setTotalExpense(statistics.getTotalExpense().add(total));
+            if (group.keys()[1] == 1) {
+                statistics.setTotalRegular(statistics.getTotalRegular().add(total));
+            } else {
+                statistics.setTotalNonRegular(statistics.getTotalNonRegular().add(total));
+            }
+            totalsPerCategory.merge(categoryNames.get((long) group.keys()[0]), total, BigDecimal::add);
+        }
+        statistics.setTotalsPerCategory(totalsPerCategory);
+        return statistics;
+    }
+
+    private MonthlyStatistics calculateMonthlyStatistics(LocalDate firstDay, LocalDate lastDay,
+                                                         StatisticsComputationEvent event) {
         List<Expense> expenses = expenseRepository.findAllInInterval(firstDay, lastDay);
+        event.rows = expenses.size();
 
         MonthlyStatistics statistics = new MonthlyStatistics();
         for (var expense : expenses) {
@@ -42,7 +130,10 @@ public class StatisticsService {
         return statistics;
     }
 
+    @SingleFlight(invalidatedBy = {CachedEntity.EXPENSE, CachedEntity.CATEGORY})
     public PeriodicStatistics getPeriodicStatistics(FullMonth startFullMonth, FullMonth endFullMonth) {
+        StatisticsComputationEvent event = new StatisticsComputationEvent();
+        event.begin();
         PeriodicStatistics periodicStatistics = new PeriodicStatistics();
         Map<String, MonthlyStatistics> monthToMonthlyStatisticsMap =
                 getMonthToMonthlyStatisticsMap(startFullMonth, endFullMonth);
@@ -63,13 +154,18 @@ public class StatisticsService {
         periodicStatistics.setMonthToMonthlyStatisticsMap(monthToMonthlyStatisticsMap);
         periodicStatistics.setTotalExpense(calculatorHelper.sum(totalExpenses));
 
+        event.kind = StatisticsComputationEvent.PERIODIC;
+        event.months = monthToMonthlyStatisticsMap.size();
+        event.commit();
         return periodicStatistics;
     }
 
     private Map<String, MonthlyStatistics> getMonthToMonthlyStatisticsMap(FullMonth startFullMonth, FullMonth endFullMonth) {
         List<FullMonth> monthsList = dateManager.getMonthsListIn(startFullMonth, endFullMonth);
+        Map<Long, String> categoryNames = getCategoryNames();
         Map<String, MonthlyStatistics> monthToMonthlyStatisticsMap = new LinkedHashMap<>();
-        monthsList.forEach(fullMonth -> monthToMonthlyStatisticsMap.put(fullMonth.toString(), getMonthlyStatistics(fullMonth)));
+        monthsList.forEach(fullMonth -> monthToMonthlyStatisticsMap.put(fullMonth.toString(),
+                getMonthlyStatistics(fullMonth, categoryNames)));
         return monthToMonthlyStatisticsMap;
     }
 
@@ -91,4 +187,16 @@ public class StatisticsService {
         statistics.setTotalsPerCategory(totalsPerCategory);
     }
 
+    @PostConstruct
+    private void subscribeToInvalidations() {
+        cacheInvalidationBus.subscribe(CachedEntity.EXPENSE, invalidation -> {
+            if (invalidation.isEverything()) {
+                monthlyStatisticsCache.evictAll();
+            } else {
+                monthlyStatisticsCache.evict(invalidation.keys());
+            }
+        });
+        // totals per category are keyed by category names
+        cacheInvalidationBus.subscribe(CachedEntity.CATEGORY, invalidation -> monthlyStatisticsCache.evictAll());
+    }
 }
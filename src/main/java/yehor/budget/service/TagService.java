@@ -10,10 +10,14 @@ import yehor.budget.common.exception.ObjectAlreadyExistsException;
 import yehor.budget.common.exception.ObjectNotFoundException;
 import yehor.budget.entity.Tag;
 import yehor.budget.repository.TagRepository;
+import yehor.budget.service.cache.CacheInvalidationBus;
+import yehor.budget.service.cache.CachedEntity;
+import yehor.budget.service.cache.InvalidatedCache;
 import yehor.budget.web.converter.TagConverter;
 import yehor.budget.web.dto.full.TagFullDto;
 import yehor.budget.web.dto.limited.TagLimitedDto;
 
+import javax.annotation.PostConstruct;
 import java.util.List;
 
 @Slf4j
@@ -21,14 +25,18 @@ import java.util.List;
 @RequiredArgsConstructor
 public class TagService {
 
+    private static final String ALL_TAGS = "all";
+
     private final TagRepository tagRepository;
     private final TagConverter tagConverter;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    private final InvalidatedCache<String, List<TagFullDto>> cache = new InvalidatedCache<>();
 
     public List<TagFullDto> getAll() {
-        List<Tag> tags = tagRepository.findAll();
-        return tags.stream()
+        return cache.get(ALL_TAGS, key -> tagRepository.findAll().stream()
                 .map(tagConverter::convert)
-                .toList();
+                .toList());
     }
 
     public TagFullDto save(TagLimitedDto tagDto) {
@@ -36,6 +44,8 @@ public class TagService {
         validateNotExists(tag);
         Tag saved = tagRepository.save(tag);
         log.info("Saved: {}", saved);
+        // a new tag has no cached entries of its own, so everything cached about tags is evicted
+        cacheInvalidationBus.publish(CachedEntity.TAG, List.of());
         return tagConverter.convert(saved);
     }
 
@@ -43,6 +53,7 @@ public class TagService {
         try {
             tagRepository.deleteById(id);
             log.info("Tag with id {} is deleted", id);
+            cacheInvalidationBus.publish(CachedEntity.TAG, List.of(id));
         } catch (EmptyResultDataAccessException e) {
             throw new ObjectNotFoundException("Tag with id " + id + " not found");
         } catch (DataIntegrityViolationException e) {
@@ -56,6 +67,7 @@ public class TagService {
         Tag tag = tagConverter.convert(tagDto);
         Tag saved = tagRepository.save(tag);
         log.info("Updated: {}", saved);
+        cacheInvalidationBus.publish(CachedEntity.TAG, List.of(tagDto.getId()));
         return tagConverter.convert(saved);
     }
 
@@ -70,4 +82,9 @@ public class TagService {
             throw new ObjectNotFoundException("Tag with id " + id + " does not exist");
         }
     }
+
+    @PostConstruct
+    private void subscribeToInvalidations() {
+        cacheInvalidationBus.subscribe(CachedEntity.TAG, invalidation -> cache.evictAll());
+    }
 }
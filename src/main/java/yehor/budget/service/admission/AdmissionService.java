@@ -0,0 +1,110 @@
+package yehor.budget.service.admission;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import yehor.budget.common.date.FullMonth;
+import yehor.budget.common.exception.OverloadedException;
+import yehor.budget.common.util.PropertiesHelper;
+import yehor.budget.service.index.ExpenseColumnStore;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Admits expensive requests by their estimated cost, so a heavy request cannot tie up the database pool
+ * and degrade latency for everyone. The cost of a request is the number of rows it is expected to read,
+ * plus the overhead of a query for each month it covers.
+ */
+@Slf4j
+@Service
+public class AdmissionService {
+
+    // queries for each month of the period run separately when the column store is not built
+    static final long MONTH_QUERY_COST = 100;
+    // average number of expenses per month assumed until the column store is built
+    static final long DEFAULT_EXPENSES_PER_MONTH = 300;
+
+    private final ExpenseColumnStore expenseColumnStore;
+    private final long maxCost;
+    private final long costPerPermit;
+    private final Bulkhead statisticsBulkhead;
+    private final Bulkhead exportBulkhead;
+
+    public AdmissionService(ExpenseColumnStore expenseColumnStore, PropertiesHelper propertiesHelper) {
+        this.expenseColumnStore = expenseColumnStore;
+        this.maxCost = propertiesHelper.getIntProperty("admission.statistics.max.cost");
+        this.costPerPermit = Math.max(1, propertiesHelper.getIntProperty("admission.statistics.cost.per.permit"));
+        this.statisticsBulkhead = new Bulkhead("statistics",
+                propertiesHelper.getIntProperty("admission.statistics.capacity"),
+                propertiesHelper.getIntProperty("admission.statistics.max.queued"),
+                Duration.ofMillis(propertiesHelper.getIntProperty("admission.statistics.max.wait.millis")),
+                propertiesHelper.getIntProperty("admission.statistics.max.per.client"));
+        this.exportBulkhead = new Bulkhead("export",
+                propertiesHelper.getIntProperty("admission.export.capacity"),
+                propertiesHelper.getIntProperty("admission.export.max.queued"),
+                Duration.ofMillis(propertiesHelper.getIntProperty("admission.export.max.wait.millis")),
+                propertiesHelper.getIntProperty("admission.export.max.per.client"));
+    }
+
+    /**
+     * Waits until statistics of the period may be calculated.
+     *
+     * @param client address of the caller. Behind a reverse proxy it is taken from X-Forwarded-For, which is
+     *               trusted only from internal proxies, so clients sharing a proxy do not share a quota
+     * @return permit to be closed once statistics are calculated
+     * @throws IllegalArgumentException if the period is too expensive to calculate
+     * @throws OverloadedException       if the request is rejected due to overload
+     */
+    public Bulkhead.Permit admitPeriodicStatistics(String client, FullMonth startFullMonth, FullMonth endFullMonth) {
+        return admitAggregation(client, toYearMonth(startFullMonth), toYearMonth(endFullMonth));
+    }
+
+    /**
+     * Waits until expenses of the interval may be grouped by an analytics query. Analytics share the capacity
+     * of statistics, as both aggregate expenses of a period.
+     *
+     * @param client address of the caller
+     * @return permit to be closed once the query is answered
+     * @throws IllegalArgumentException if the interval is too expensive to query
+     * @throws OverloadedException       if the request is rejected due to overload
+     */
+    public Bulkhead.Permit admitAnalytics(String client, LocalDate dateFrom, LocalDate dateTo) {
+        return admitAggregation(client, YearMonth.from(dateFrom), YearMonth.from(dateTo));
+    }
+
+    /**
+     * Waits until an export may be streamed. An export holds a database connection until its whole output
+     * is written, so the number of exports at once is limited to leave the pool to other requests.
+     *
+     * @param client address of the caller
+     * @return permit to be closed once the export is written
+     * @throws OverloadedException if the request is rejected due to overload
+     */
+    public Bulkhead.Permit admitExport(String client) {
+        log.debug("Admitting export of {}", client);
+        return exportBulkhead.enter(client, 1);
+    }
+
+    private Bulkhead.Permit admitAggregation(String client, YearMonth from, YearMonth to) {
+        long cost = estimateCost(from, to);
+        if (cost > maxCost) {
+            throw new IllegalArgumentException("Period from " + from + " to " + to
+                    + " is too long, its estimated cost " + cost + " exceeds limit " + maxCost);
+        }
+        log.debug("Admitting aggregation from {} to {} of estimated cost {}", from, to, cost);
+        return statisticsBulkhead.enter(client, (int) Math.min((cost + costPerPermit - 1) / costPerPermit, Integer.MAX_VALUE));
+    }
+
+    long estimateCost(YearMonth from, YearMonth to) {
+        long months = ChronoUnit.MONTHS.between(from, to) + 1;
+        long expenses = expenseColumnStore.countExpenses(from, to)
+                .orElse(months * DEFAULT_EXPENSES_PER_MONTH);
+        return months * MONTH_QUERY_COST + expenses;
+    }
+
+    private YearMonth toYearMonth(FullMonth fullMonth) {
+        return YearMonth.of(fullMonth.getYear(), fullMonth.getMonth());
+    }
+}
@@ -0,0 +1,107 @@
+package yehor.budget.service.admission;
+
+import yehor.budget.common.exception.OverloadedException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits the total weight of requests executed at once. Requests exceeding the capacity wait in a fair queue
+ * for a limited time, and are rejected when the queue is full or the time is out. Each client may execute
+ * a limited number of requests at once, so one client cannot take the whole capacity.
+ */
+public class Bulkhead {
+
+    private final String name;
+    private final int capacity;
+    private final int maxQueued;
+    private final Duration maxWait;
+    private final int maxPerClient;
+
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Map<String, Integer> requestsByClient = new ConcurrentHashMap<>();
+
+    /**
+     * @param capacity     total weight of requests executed at once
+     * @param maxQueued    number of requests waiting for capacity at once
+     * @param maxWait      time a request waits for capacity
+     * @param maxPerClient number of requests of one client executed or waiting at once
+     */
+    public Bulkhead(String name, int capacity, int maxQueued, Duration maxWait, int maxPerClient) {
+        this.name = name;
+        this.capacity = capacity;
+        this.maxQueued = maxQueued;
+        this.maxWait = maxWait;
+        this.maxPerClient = maxPerClient;
+        this.permits = new Semaphore(capacity, true);
+    }
+
+    /**
+     * Waits until the request may be executed.
+     *
+     * @param weight weight of the request, limited to the capacity so the heaviest requests are executed alone
+     * @return permit to be closed once the request is executed
+     * @throws OverloadedException when the client has too many requests, or there is no capacity in time
+     */
+    public Permit enter(String client, int weight) {
+        int permitsToAcquire = Math.max(1, Math.min(weight, capacity));
+        if (requestsByClient.merge(client, 1, Integer::sum) > maxPerClient) {
+            leave(client);
+            throw OverloadedException.tooManyRequests(
+                    "Limit of " + maxPerClient + " concurrent " + name + " requests per client is reached", 1);
+        }
+        try {
+            acquire(permitsToAcquire);
+        } catch (RuntimeException e) {
+            leave(client);
+            throw e;
+        }
+        AtomicBoolean closed = new AtomicBoolean();
+        return () -> {
+            if (closed.compareAndSet(false, true)) {
+                permits.release(permitsToAcquire);
+                leave(client);
+            }
+        };
+    }
+
+    int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    private void acquire(int permitsToAcquire) {
+        long retryAfterSeconds = Math.max(1, maxWait.toSeconds());
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            throw OverloadedException.unavailable("Too many " + name + " requests are waiting", retryAfterSeconds);
+        }
+        try {
+            if (!permits.tryAcquire(permitsToAcquire, maxWait.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw OverloadedException.unavailable(
+                        "No capacity for " + name + " request within " + maxWait.toMillis() + "ms", retryAfterSeconds);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw OverloadedException.unavailable("Interrupted while waiting for capacity", retryAfterSeconds);
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    private void leave(String client) {
+        requestsByClient.computeIfPresent(client, (key, requests) -> requests == 1 ? null : requests - 1);
+    }
+
+    @FunctionalInterface
+    public interface Permit extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
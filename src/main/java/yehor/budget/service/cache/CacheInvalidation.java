@@ -0,0 +1,20 @@
+package yehor.budget.service.cache;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.List;
+
+/**
+ * Notification about changed data.
+ *
+ * @param entity  type of the changed data
+ * @param keys   keys of the changed entries, empty when every entry of the type has to be evicted
+ * @param origin id of the node that made the change
+ */
+public record CacheInvalidation(CachedEntity entity, List<String> keys, String origin) {
+
+    @JsonIgnore
+    public boolean isEverything() {
+        return keys.isEmpty();
+    }
+}
@@ -0,0 +1,211 @@
+package yehor.budget.service.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import yehor.budget.common.util.PropertiesHelper;
+import yehor.budget.service.worker.JobLeaseManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Publishes changes of cached data to every node through Postgres LISTEN/NOTIFY. A notification published
+ * within a transaction is delivered only when the transaction is committed, and the listeners of the publishing
+ * node are notified after the commit as well. Each node listens on its own connection outside the pool, and
+ * evicts everything after reconnecting, since notifications sent while it was disconnected are lost.
+ */
+@Slf4j
+@Component
+public class CacheInvalidationBus {
+
+    static final String CHANNEL = "budget_cache_invalidation";
+    // notification payload must be shorter than 8000 bytes
+    static final int MAX_PAYLOAD_LENGTH = 7900;
+    private static final int POLL_TIMEOUT_MILLIS = 1000;
+    private static final long RECONNECT_DELAY_MILLIS = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final DataSourceProperties dataSourceProperties;
+    private final String nodeId;
+    private final boolean listenEnabled;
+
+    private final Map<CachedEntity, List<Subscription>> subscriptions = new EnumMap<>(CachedEntity.class);
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public CacheInvalidationBus(JdbcTemplate jdbcTemplate,
+                                ObjectMapper objectMapper,
+                                DataSourceProperties dataSourceProperties,
+                                JobLeaseManager jobLeaseManager,
+                                PropertiesHelper propertiesHelper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.dataSourceProperties = dataSourceProperties;
+        this.nodeId = jobLeaseManager.getNodeId();
+        this.listenEnabled = propertiesHelper.getBooleanProperty("cache.invalidation.listen.enabled");
+        for (CachedEntity entity : CachedEntity.values()) {
+            subscriptions.put(entity, new CopyOnWriteArrayList<>());
+        }
+    }
+
+    /**
+     * Listener is notified about changes made by any node, including this one.
+     */
+    public void subscribe(CachedEntity entity, CacheInvalidationListener listener) {
+        subscriptions.get(entity).add(new Subscription(listener, false));
+    }
+
+    /**
+     * Listener is notified only about changes made by other nodes, for data this node keeps up to date itself.
+     */
+    public void subscribeRemote(CachedEntity entity, CacheInvalidationListener listener) {
+        subscriptions.get(entity).add(new Subscription(listener, true));
+    }
+
+    /**
+     * @param keys keys of the changed entries, empty when every entry of the type is changed
+     */
+    public void publish(CachedEntity entity, Collection<?> keys) {
+        CacheInvalidation invalidation = new CacheInvalidation(entity,
+                keys.stream().map(String::valueOf).distinct().toList(),
+                nodeId);
+        notifyNodes(invalidation);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(invalidation, false);
+                }
+            });
+        } else {
+            dispatch(invalidation, false);
+        }
+    }
+
+    void handleNotification(String payload) {
+        CacheInvalidation invalidation;
+        try {
+            invalidation = objectMapper.readValue(payload, CacheInvalidation.class);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to read cache invalidation: {}", payload, e);
+            return;
+        }
+        if (nodeId.equals(invalidation.origin())) {
+            return;
+        }
+        log.debug("Received invalidation of {} {} from node {}", invalidation.entity(),
+                invalidation.keys(), invalidation.origin());
+        dispatch(invalidation, true);
+    }
+
+    void evictEverything() {
+        for (CachedEntity entity : CachedEntity.values()) {
+            dispatch(new CacheInvalidation(entity, List.of(), null), true);
+        }
+    }
+
+    private void notifyNodes(CacheInvalidation invalidation) {
+        String payload = toPayload(invalidation);
+        if (payload.length() > MAX_PAYLOAD_LENGTH) {
+            payload = toPayload(new CacheInvalidation(invalidation.entity(), List.of(), invalidation.origin()));
+        }
+        jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", String.class, CHANNEL, payload);
+    }
+
+    private String toPayload(CacheInvalidation invalidation) {
+        try {
+            return objectMapper.writeValueAsString(invalidation);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to write cache invalidation " + invalidation, e);
+        }
+    }
+
+    private void dispatch(CacheInvalidation invalidation, boolean remote) {
+        for (Subscription subscription : subscriptions.get(invalidation.entity())) {
+            if (subscription.remoteOnly() && !remote) {
+                continue;
+            }
+            try {
+                subscription.listener().onInvalidation(invalidation);
+            } catch (Exception e) {
+                log.error("Failed to invalidate cache of {}", invalidation.entity(), e);
+            }
+        }
+    }
+
+    private void listen() {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                log.info("Node {} is listening for cache invalidations", nodeId);
+                if (reconnecting) {
+                    evictEverything();
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (Objects.nonNull(notifications)) {
+                        for (PGNotification notification : notifications) {
+                            handleNotification(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                log.error("Lost connection for cache invalidations, reconnecting in {}ms", RECONNECT_DELAY_MILLIS, e);
+                reconnecting = true;
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    @PostConstruct
+    private void startListener() {
+        if (!listenEnabled) {
+            log.info("Listening for cache invalidations is disabled");
+            return;
+        }
+        running = true;
+        listenerThread = new Thread(this::listen, "cache-invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    private void stopListener() {
+        running = false;
+        if (Objects.nonNull(listenerThread)) {
+            listenerThread.interrupt();
+        }
+    }
+
+    private record Subscription(CacheInvalidationListener listener, boolean remoteOnly) {
+    }
+}
@@ -0,0 +1,7 @@
+package yehor.budget.service.cache;
+
+@FunctionalInterface
+public interface CacheInvalidationListener {
+
+    void onInvalidation(CacheInvalidation invalidation);
+}
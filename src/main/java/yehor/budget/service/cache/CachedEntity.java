@@ -0,0 +1,16 @@
+package yehor.budget.service.cache;
+
+/**
+ * Types of data whose changes are published through {@link CacheInvalidationBus}.
+ */
+public enum CachedEntity {
+    CATEGORY,
+    TAG,
+    SETTINGS,
+    EXPENSE,
+    EXCHANGE_RATE,
+    BALANCE_RECORD,
+    STORAGE_RECORD,
+    ESTIMATED_EXPENSE,
+    FUTURE_EXPENSE
+}
@@ -0,0 +1,45 @@
+package yehor.budget.service.cache;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Cache evicted by invalidations. A value loaded while an eviction happens is returned but not cached,
+ * since it could have been read before the change was committed.
+ */
+public class InvalidatedCache<K, V> {
+
+    private final Map<K, V> entries = new ConcurrentHashMap<>();
+    private long generation; // guarded by this
+
+    public V get(K key, Function<K, V> loader) {
+        V value = entries.get(key);
+        if (Objects.nonNull(value)) {
+            return value;
+        }
+        long loadGeneration;
+        synchronized (this) {
+            loadGeneration = generation;
+        }
+        value = loader.apply(key);
+        synchronized (this) {
+            if (loadGeneration == generation) {
+                entries.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    public synchronized void evict(Collection<K> keys) {
+        generation++;
+        keys.forEach(entries::remove);
+    }
+
+    public synchronized void evictAll() {
+        generation++;
+        entries.clear();
+    }
+}
@@ -3,7 +3,10 @@ package yehor.budget.service.client.currency;
 import yehor.budget.common.Currency;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 
 public interface CurrencyRateClient {
     BigDecimal rate(Currency fromCurrency, Currency toCurrency);
+
+    BigDecimal rate(Currency fromCurrency, Currency toCurrency, LocalDate date);
 }
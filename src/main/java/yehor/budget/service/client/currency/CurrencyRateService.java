@@ -4,34 +4,100 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import yehor.budget.common.Currency;
+import yehor.budget.common.exception.ObjectNotFoundException;
+import yehor.budget.common.jfr.CurrencyRateFetchEvent;
+import yehor.budget.common.jfr.CurrencyRateLookupEvent;
+import yehor.budget.common.trace.Traced;
 import yehor.budget.common.util.CurrencyUtil;
+import yehor.budget.service.worker.JobDefinition;
+import yehor.budget.service.worker.JobScheduler;
 
 import javax.annotation.PostConstruct;
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
-
-import static java.util.concurrent.TimeUnit.MINUTES;
 
 @RequiredArgsConstructor
 @Component
+@Traced
 @Slf4j
 public class CurrencyRateService {
 
+    public static final String CACHE_EVICTION_JOB_NAME = "currency-rates-cache-eviction";
+
     private final CurrencyRateClient currencyRateClient;
+    private final ExchangeRateHistory exchangeRateHistory;
+    private final JobScheduler jobScheduler;
 
     private final Map<String, BigDecimal> cachedRates = new ConcurrentHashMap<>();
 
     public BigDecimal convert(Currency fromCurrency, Currency toCurrency, BigDecimal value) {
+        return value.multiply(getRate(fromCurrency, toCurrency));
+    }
+
+    public BigDecimal getRate(Currency fromCurrency, Currency toCurrency) {
         String currencyPair = CurrencyUtil.currencyPair(fromCurrency, toCurrency);
+        CurrencyRateLookupEvent event = new CurrencyRateLookupEvent();
+        event.begin();
         BigDecimal rate = cachedRates.get(currencyPair);
+        event.cacheHit = Objects.nonNull(rate);
         if (Objects.isNull(rate)) {
-            rate = currencyRateClient.rate(fromCurrency, toCurrency);
+            rate = fetchRate(fromCurrency, toCurrency, currencyPair);
             cachedRates.put(currencyPair, rate);
         }
-        return value.multiply(rate);
+        if (event.shouldCommit()) {
+            event.currencyPair = currencyPair;
+            event.commit();
+        }
+        return rate;
+    }
+
+    private BigDecimal fetchRate(Currency fromCurrency, Currency toCurrency, String currencyPair) {
+        CurrencyRateFetchEvent event = new CurrencyRateFetchEvent();
+        event.currencyPair = currencyPair;
+        event.begin();
+        try {
+            BigDecimal rate = currencyRateClient.rate(fromCurrency, toCurrency);
+            event.succeeded = true;
+            return rate;
+        } finally {
+            event.commit();
+        }
+    }
+
+    /**
+     * Rates of all currencies to the required one, indexed by {@link Currency#ordinal()},
+     * so bulk conversions can be done with a single lookup per currency.
+     */
+    public double[] getRatesTo(Currency toCurrency, Set<Currency> fromCurrencies) {
+        double[] rates = new double[Currency.values().length];
+        for (Currency fromCurrency : fromCurrencies) {
+            rates[fromCurrency.ordinal()] = fromCurrency == toCurrency
+                    ? 1
+                    : getRate(fromCurrency, toCurrency).doubleValue();
+        }
+        return rates;
+    }
+
+    /**
+     * Same as {@link #getRatesTo(Currency, Set)}, but with the stored rates in effect on the date.
+     */
+    public double[] getRatesTo(Currency toCurrency, Set<Currency> fromCurrencies, LocalDate date) {
+        double[] rates = new double[Currency.values().length];
+        for (Currency fromCurrency : fromCurrencies) {
+            rates[fromCurrency.ordinal()] = getHistoricalRate(fromCurrency, toCurrency, date).doubleValue();
+        }
+        return rates;
+    }
+
+    public BigDecimal getHistoricalRate(Currency fromCurrency, Currency toCurrency, LocalDate date) {
+        return exchangeRateHistory.findRate(fromCurrency, toCurrency, date).orElseThrow(
+                () -> new ObjectNotFoundException("There are no exchange rates stored for "
+                        + CurrencyUtil.currencyPair(fromCurrency, toCurrency)));
     }
 
     public BigDecimal getValueInCurrency(Exchangeable exchangeable, Currency requiredCurrency) {
@@ -46,13 +112,17 @@ public class CurrencyRateService {
 
     @PostConstruct
     private void cacheEvictionScheduler() {
-        new ScheduledThreadPoolExecutor(1)
-                .scheduleAtFixedRate(() -> {
+        jobScheduler.schedule(JobDefinition.builder()
+                .name(CACHE_EVICTION_JOB_NAME)
+                .task(() -> {
                     if (!cachedRates.isEmpty()) {
                         log.info("Evicting cached rates");
                         cachedRates.clear();
                     }
-                }, 60, 60, MINUTES);
+                })
+                .initialDelay(Duration.ofMinutes(60))
+                .period(Duration.ofMinutes(60))
+                .build());
     }
 
 }
\ No newline at end of file
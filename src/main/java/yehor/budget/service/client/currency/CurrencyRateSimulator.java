@@ -6,6 +6,7 @@ import yehor.budget.common.Currency;
 import yehor.budget.common.util.CurrencyUtil;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.Map;
 
 import static yehor.budget.common.Currency.EUR;
@@ -30,4 +31,9 @@ public class CurrencyRateSimulator implements CurrencyRateClient {
         String currencyPair = CurrencyUtil.currencyPair(fromCurrency, toCurrency);
         return simulatedRates.get(currencyPair);
     }
+
+    @Override
+    public BigDecimal rate(Currency fromCurrency, Currency toCurrency, LocalDate date) {
+        return rate(fromCurrency, toCurrency);
+    }
 }
@@ -0,0 +1,145 @@
+package yehor.budget.service.client.currency;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import yehor.budget.common.Currency;
+import yehor.budget.common.util.CurrencyUtil;
+import yehor.budget.entity.ExchangeRate;
+import yehor.budget.repository.ExchangeRateRepository;
+import yehor.budget.service.cache.CacheInvalidation;
+import yehor.budget.service.cache.CacheInvalidationBus;
+import yehor.budget.service.cache.CachedEntity;
+
+import javax.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * In-memory index of the stored exchange rates. Rates of every currency pair are kept in arrays sorted by date,
+ * so a lookup is a binary search for the latest rate on or before the requested date. Only the database is used
+ * to fill the index, historical lookups never call {@link CurrencyRateClient}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ExchangeRateHistory {
+
+    private final ExchangeRateRepository exchangeRateRepository;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    private volatile Map<String, PairRates> ratesByPair;
+
+    /**
+     * Rate in effect on the date. Dates before the first stored rate of the pair get the first rate,
+     * and a pair without stored rates falls back to the inverse of the opposite pair.
+     */
+    public Optional<BigDecimal> findRate(Currency fromCurrency, Currency toCurrency, LocalDate date) {
+        if (fromCurrency == toCurrency) {
+            return Optional.of(BigDecimal.ONE);
+        }
+        Map<String, PairRates> rates = getRatesByPair();
+        PairRates pairRates = rates.get(CurrencyUtil.currencyPair(fromCurrency, toCurrency));
+        if (Objects.nonNull(pairRates)) {
+            return Optional.of(pairRates.rateOn(date));
+        }
+        PairRates inversePairRates = rates.get(CurrencyUtil.currencyPair(toCurrency, fromCurrency));
+        if (Objects.nonNull(inversePairRates)) {
+            return Optional.of(BigDecimal.ONE.divide(inversePairRates.rateOn(date), MathContext.DECIMAL64));
+        }
+        return Optional.empty();
+    }
+
+    public synchronized void addAll(Collection<ExchangeRate> exchangeRates) {
+        Map<String, TreeMap<Integer, BigDecimal>> merged = new HashMap<>();
+        getRatesByPair().forEach((pair, pairRates) -> merged.put(pair, pairRates.toMap()));
+        putAll(merged, exchangeRates);
+        ratesByPair = toPairRates(merged);
+    }
+
+    public synchronized void reload() {
+        ratesByPair = null;
+        getRatesByPair();
+    }
+
+    /**
+     * Loads rates stored by another node. Invalidations are keyed by dates of the stored rates.
+     */
+    void onInvalidation(CacheInvalidation invalidation) {
+        if (invalidation.isEverything()) {
+            reload();
+            return;
+        }
+        List<LocalDate> dates = invalidation.keys().stream()
+                .map(LocalDate::parse)
+                .sorted()
+                .toList();
+        addAll(exchangeRateRepository.findAllInInterval(dates.get(0), dates.get(dates.size() - 1)));
+    }
+
+    private Map<String, PairRates> getRatesByPair() {
+        Map<String, PairRates> rates = ratesByPair;
+        if (Objects.nonNull(rates)) {
+            return rates;
+        }
+        synchronized (this) {
+            if (Objects.isNull(ratesByPair)) {
+                Map<String, TreeMap<Integer, BigDecimal>> loaded = new HashMap<>();
+                putAll(loaded, exchangeRateRepository.findAllOrderedByDate());
+                ratesByPair = toPairRates(loaded);
+                log.info("Loaded exchange rates history for {} currency pairs", loaded.size());
+            }
+            return ratesByPair;
+        }
+    }
+
+    private void putAll(Map<String, TreeMap<Integer, BigDecimal>> ratesByDate, Collection<ExchangeRate> exchangeRates) {
+        for (ExchangeRate exchangeRate : exchangeRates) {
+            String pair = CurrencyUtil.currencyPair(exchangeRate.getFromCurrency(), exchangeRate.getToCurrency());
+            ratesByDate.computeIfAbsent(pair, p -> new TreeMap<>())
+                    .put((int) exchangeRate.getDate().toEpochDay(), exchangeRate.getRate());
+        }
+    }
+
+    private Map<String, PairRates> toPairRates(Map<String, TreeMap<Integer, BigDecimal>> ratesByDate) {
+        Map<String, PairRates> result = new HashMap<>();
+        ratesByDate.forEach((pair, rates) -> result.put(pair, new PairRates(
+                rates.keySet().stream().mapToInt(Integer::intValue).toArray(),
+                rates.values().toArray(BigDecimal[]::new))));
+        return Map.copyOf(result);
+    }
+
+    @PostConstruct
+    private void subscribeToInvalidations() {
+        cacheInvalidationBus.subscribeRemote(CachedEntity.EXCHANGE_RATE, this::onInvalidation);
+    }
+
+    private record PairRates(int[] epochDays, BigDecimal[] rates) {
+
+        BigDecimal rateOn(LocalDate date) {
+            int index = Arrays.binarySearch(epochDays, (int) date.toEpochDay());
+            if (index < 0) {
+                int insertionPoint = -index - 1;
+                index = Math.max(0, insertionPoint - 1);
+            }
+            return rates[index];
+        }
+
+        TreeMap<Integer, BigDecimal> toMap() {
+            TreeMap<Integer, BigDecimal> map = new TreeMap<>();
+            for (int i = 0; i < epochDays.length; i++) {
+                map.put(epochDays[i], rates[i]);
+            }
+            return map;
+        }
+    }
+}
@@ -4,18 +4,29 @@ import com.mashape.unirest.http.HttpResponse;
 import com.mashape.unirest.http.JsonNode;
 import com.mashape.unirest.http.Unirest;
 import com.mashape.unirest.http.exceptions.UnirestException;
+import com.mashape.unirest.request.GetRequest;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import yehor.budget.common.Currency;
 import yehor.budget.common.exception.InternalClientException;
+import yehor.budget.common.trace.Span;
+import yehor.budget.common.trace.SpanKind;
+import yehor.budget.common.trace.TraceContext;
+import yehor.budget.common.trace.Tracer;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
 
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class RatesOracleClient implements CurrencyRateClient {
 
+    private final Tracer tracer;
+
     @Value("${rates.oracle.host.url}")
     private String baseUrl;
 
@@ -24,23 +35,48 @@ public class RatesOracleClient implements CurrencyRateClient {
 
     @Override
     public BigDecimal rate(Currency fromCurrency, Currency toCurrency) {
+        return rate(fromCurrency, toCurrency, Map.of());
+    }
+
+    @Override
+    public BigDecimal rate(Currency fromCurrency, Currency toCurrency, LocalDate date) {
+        return rate(fromCurrency, toCurrency, Map.of("date", date.toString()));
+    }
+
+    private BigDecimal rate(Currency fromCurrency, Currency toCurrency, Map<String, Object> additionalParameters) {
+        try (Span span = tracer.startSpan("GET rates oracle", SpanKind.CLIENT)) {
+            span.setAttribute("http.method", "GET");
+            span.setAttribute("http.url", baseUrl);
+            GetRequest request = Unirest.get(baseUrl);
+            if (span.isRecording()) {
+                request.header(TraceContext.TRACEPARENT_HEADER, span.context().toTraceparent());
+            }
+            return rate(request, fromCurrency, toCurrency, additionalParameters, span);
+        }
+    }
+
+    private BigDecimal rate(GetRequest request, Currency fromCurrency, Currency toCurrency,
+                            Map<String, Object> additionalParameters, Span span) {
         try {
-            HttpResponse<JsonNode> httpResponse = Unirest.get(baseUrl)
+            HttpResponse<JsonNode> httpResponse = request
                     .header("apikey", apiKey)
                     .queryString("from", fromCurrency)
                     .queryString("to", toCurrency)
                     .queryString("amount", 1)
+                    .queryString(additionalParameters)
                     .asJson();
             int status = httpResponse.getStatus();
+            span.setAttribute("http.status_code", status);
             if (status != 200) {
                 String statusText = httpResponse.getStatusText();
                 throw new UnirestException(
                         String.format("Failed to get currency rates. %d status with msg: %s", status, statusText));
             }
             double rate = httpResponse.getBody().getObject().getDouble("result");
-            log.info("Received currency rates {}:{} {}", fromCurrency, toCurrency, rate);
+            log.info("Received currency rates {}:{} {} {}", fromCurrency, toCurrency, rate, additionalParameters);
             return BigDecimal.valueOf(rate);
         } catch (Exception e) {
+            span.recordError(e);
             log.error("Not able to perform a request to " + baseUrl, e);
             throw new InternalClientException("Not able to perform a request to " + baseUrl, e);
         }
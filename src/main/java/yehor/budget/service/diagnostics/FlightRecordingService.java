@@ -0,0 +1,157 @@
+package yehor.budget.service.diagnostics;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import yehor.budget.common.exception.ObjectNotFoundException;
+import yehor.budget.common.util.PropertiesHelper;
+import yehor.budget.web.dto.FlightRecordingDto;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * On-demand Java Flight Recorder recordings, so production can be profiled without restarting it with agents.
+ * Recordings use the JDK profile settings, and custom events of the application are enabled by default.
+ * <p>
+ * Only one recording runs at a time. It is stopped by the recorder once its duration passes, and the last
+ * recording is kept until the next one is started, so its file can be downloaded after it is finished.
+ */
+@Slf4j
+@Service
+public class FlightRecordingService {
+
+    static final String SETTINGS = "profile";
+
+    private final int maxSeconds;
+    private final Object lock = new Object();
+    private Recording recording; // guarded by lock
+    private Path file; // guarded by lock, null until the recording is dumped
+
+    public FlightRecordingService(PropertiesHelper propertiesHelper) {
+        this.maxSeconds = propertiesHelper.getIntProperty("diagnostics.jfr.max.seconds");
+    }
+
+    /**
+     * Starts recording the next {@code seconds} seconds and returns without waiting for it.
+     *
+     * @throws IllegalArgumentException if the duration is not positive or exceeds the limit
+     * @throws IllegalStateException    if another recording is running
+     */
+    public FlightRecordingDto start(int seconds) {
+        if (seconds <= 0 || seconds > maxSeconds) {
+            throw new IllegalArgumentException("Recording duration should be from 1 to " + maxSeconds
+                    + " seconds, but was " + seconds);
+        }
+        synchronized (lock) {
+            if (Objects.nonNull(recording) && !isFinished(recording)) {
+                throw new IllegalStateException("Flight recording " + recording.getId() + " is already running");
+            }
+            discard();
+            try {
+                Recording newRecording = new Recording(Configuration.getConfiguration(SETTINGS));
+                newRecording.setName("budget-on-demand");
+                newRecording.setToDisk(true);
+                newRecording.setDuration(Duration.ofSeconds(seconds));
+                log.info("Starting flight recording of {} seconds", seconds);
+                newRecording.start();
+                recording = newRecording;
+                return toDto(newRecording);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read flight recorder settings " + SETTINGS, e);
+            } catch (ParseException e) {
+                throw new IllegalStateException("Flight recorder settings " + SETTINGS + " are invalid", e);
+            }
+        }
+    }
+
+    /**
+     * @throws ObjectNotFoundException if the recording is not the last one
+     */
+    public FlightRecordingDto getRecording(long id) {
+        synchronized (lock) {
+            return toDto(getLastRecording(id));
+        }
+    }
+
+    /**
+     * @return .jfr file of a finished recording, which is kept until the next recording is started
+     * @throws ObjectNotFoundException if the recording is not the last one
+     * @throws IllegalStateException   if the recording is still running
+     */
+    public Path getRecordingFile(long id) {
+        synchronized (lock) {
+            Recording lastRecording = getLastRecording(id);
+            if (!isFinished(lastRecording)) {
+                throw new IllegalStateException("Flight recording " + id + " is still running");
+            }
+            if (Objects.isNull(file)) {
+                Path newFile = null;
+                try {
+                    newFile = Files.createTempFile("budget-", ".jfr");
+                    lastRecording.dump(newFile);
+                    file = newFile;
+                } catch (IOException e) {
+                    deleteQuietly(newFile);
+                    throw new UncheckedIOException("Failed to write flight recording", e);
+                }
+            }
+            return file;
+        }
+    }
+
+    @PreDestroy
+    private void close() {
+        synchronized (lock) {
+            discard();
+        }
+    }
+
+    private Recording getLastRecording(long id) {
+        if (Objects.isNull(recording) || recording.getId() != id) {
+            throw new ObjectNotFoundException("Flight recording " + id + " is not found");
+        }
+        return recording;
+    }
+
+    private void discard() {
+        if (Objects.nonNull(recording)) {
+            recording.close();
+            recording = null;
+        }
+        deleteQuietly(file);
+        file = null;
+    }
+
+    private static boolean isFinished(Recording recording) {
+        return recording.getState() == RecordingState.STOPPED;
+    }
+
+    private static FlightRecordingDto toDto(Recording recording) {
+        return FlightRecordingDto.builder()
+                .id(recording.getId())
+                .finished(isFinished(recording))
+                .startedAt(recording.getStartTime())
+                .finishesAt(recording.getStartTime().plus(recording.getDuration()))
+                .build();
+    }
+
+    private void deleteQuietly(Path file) {
+        if (Objects.isNull(file)) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete flight recording {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package yehor.budget.service.diagnostics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import yehor.budget.common.sql.QueryCounter;
+import yehor.budget.common.sql.QueryStatistics;
+import yehor.budget.web.dto.QueryMetricsDto;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statements executed by HTTP endpoints and background jobs since the start of the application, so endpoints
+ * executing more statements than expected, such as N+1 selects, stand out.
+ */
+@Slf4j
+@Service
+public class QueryMetricsService {
+
+    private final Map<String, Metrics> metricsByName = new ConcurrentHashMap<>();
+
+    /**
+     * Runs the job and records statements it executed under its name.
+     */
+    public void measureJob(String jobName, Runnable job) {
+        QueryCounter.count(() -> {
+            job.run();
+            return null;
+        }, statistics -> {
+            log.debug("Job {} executed {} statements, read or affected {} rows in {}ms", jobName,
+                    statistics.getStatements(), statistics.getRows(),
+                    TimeUnit.NANOSECONDS.toMillis(statistics.getNanos()));
+            record("job " + jobName, statistics);
+        });
+    }
+
+    public void record(String name, QueryStatistics statistics) {
+        metricsByName.computeIfAbsent(name, key -> new Metrics()).add(statistics);
+    }
+
+    /**
+     * @return metrics ordered by the number of statements, the most first
+     */
+    public List<QueryMetricsDto> getAll() {
+        return metricsByName.entrySet().stream()
+                .map(entry -> entry.getValue().toDto(entry.getKey()))
+                .sorted(Comparator.comparingLong(QueryMetricsDto::getStatements).reversed())
+                .toList();
+    }
+
+    private static final class Metrics {
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAccumulator maxStatements = new LongAccumulator(Math::max, 0);
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+        void add(QueryStatistics statistics) {
+            invocations.increment();
+            statements.add(statistics.getStatements());
+            maxStatements.accumulate(statistics.getStatements());
+            rows.add(statistics.getRows());
+            nanos.add(statistics.getNanos());
+        }
+
+        QueryMetricsDto toDto(String name) {
+            long invocationCount = invocations.sum();
+            long statementCount = statements.sum();
+            return QueryMetricsDto.builder()
+                    .name(name)
+                    .invocations(invocationCount)
+                    .statements(statementCount)
+                    .maxStatements(maxStatements.get())
+                    .avgStatements(invocationCount == 0 ? 0 : (double) statementCount / invocationCount)
+                    .rows(rows.sum())
+                    .dbTimeMillis(TimeUnit.NANOSECONDS.toMillis(nanos.sum()))
+                    .build();
+        }
+    }
+}
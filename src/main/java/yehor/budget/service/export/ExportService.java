@@ -0,0 +1,114 @@
+package yehor.budget.service.export;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import yehor.budget.common.ExportFormat;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports records within dates interval as CSV or NDJSON. Rows are fetched in batches through a forward-only
+ * cursor and written to the output as they are read, so memory used does not depend on the size of the export.
+ * Expenses are exported with the columns read by imports, so an export can be imported back.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+
+    private static final int FETCH_SIZE = 1000;
+    private static final int GZIP_BUFFER_BYTES = 1 << 16;
+
+    private static final ExportQuery EXPENSES = new ExportQuery("expenses",
+            List.of("expense_id", "date", "value", "category", "is_regular", "tags", "note"),
+            "SELECT e.expense_id, e.date, e.value, c.name, e.is_regular, " +
+            "(SELECT string_agg(t.name, ';' ORDER BY t.name) FROM expenses_to_tags et " +
+            "JOIN tags t ON t.tag_id = et.tag_id WHERE et.expense_id = e.expense_id), e.note " +
+            "FROM expenses e JOIN categories c ON c.category_id = e.category_id " +
+            "WHERE e.date BETWEEN ? AND ? ORDER BY e.date, e.expense_id");
+    private static final ExportQuery BALANCE_RECORDS = new ExportQuery("balance records",
+            List.of("balance_record_id", "date", "item_name", "cash", "card"),
+            "SELECT r.balance_record_id, r.date, i.item_name, i.cash, i.card " +
+            "FROM balance_records r JOIN balance_items i ON i.balance_record_id = r.balance_record_id " +
+            "WHERE r.date BETWEEN ? AND ? ORDER BY r.date, r.balance_record_id, i.balance_item_id");
+    private static final ExportQuery STORAGE_RECORDS = new ExportQuery("storage records",
+            List.of("storage_record_id", "date", "stored_in_total", "name", "currency", "value"),
+            "SELECT r.storage_record_id, r.date, r.stored_in_total, i.name, i.currency, i.value " +
+            "FROM storage_records r JOIN storage_items i ON i.storage_record_id = r.storage_record_id " +
+            "WHERE r.date BETWEEN ? AND ? ORDER BY r.date, r.storage_record_id, i.storage_item_id");
+
+    private final DataSource dataSource;
+
+    public void exportExpenses(LocalDate dateFrom, LocalDate dateTo, ExportFormat format, boolean gzip,
+                               OutputStream output) throws IOException {
+        export(EXPENSES, dateFrom, dateTo, format, gzip, output);
+    }
+
+    /**
+     * Exports a row per balance item with id and date of its record.
+     */
+    public void exportBalanceRecords(LocalDate dateFrom, LocalDate dateTo, ExportFormat format, boolean gzip,
+                                     OutputStream output) throws IOException {
+        export(BALANCE_RECORDS, dateFrom, dateTo, format, gzip, output);
+    }
+
+    /**
+     * Exports a row per storage item with id, date and total of its record.
+     */
+    public void exportStorageRecords(LocalDate dateFrom, LocalDate dateTo, ExportFormat format, boolean gzip,
+                                     OutputStream output) throws IOException {
+        export(STORAGE_RECORDS, dateFrom, dateTo, format, gzip, output);
+    }
+
+    private void export(ExportQuery query, LocalDate dateFrom, LocalDate dateTo, ExportFormat format, boolean gzip,
+                        OutputStream output) throws IOException {
+        log.info("Exporting {} from {} to {} as {}", query.name(), dateFrom, dateTo, format);
+        long rows = 0;
+        try (Connection connection = dataSource.getConnection()) {
+            // the driver fetches rows with a cursor only within a transaction, otherwise it reads all of them at once
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(query.sql(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                statement.setFetchSize(FETCH_SIZE);
+                statement.setDate(1, Date.valueOf(dateFrom));
+                statement.setDate(2, Date.valueOf(dateTo));
+                try (ResultSet resultSet = statement.executeQuery();
+                     ExportWriter writer = ExportWriter.of(format, gzip ? new GZIPOutputStream(output, GZIP_BUFFER_BYTES) : output,
+                             query.columns())) {
+                    Object[] values = new Object[query.columns().size()];
+                    while (resultSet.next()) {
+                        for (int i = 0; i < values.length; i++) {
+                            values[i] = toValue(resultSet.getObject(i + 1));
+                        }
+                        writer.writeRow(values);
+                        rows++;
+                    }
+                }
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to export " + query.name(), e);
+        }
+        log.info("Exported {} rows of {}", rows, query.name());
+    }
+
+    private Object toValue(Object value) {
+        return value instanceof Date date ? date.toLocalDate() : value;
+    }
+
+    private record ExportQuery(String name, List<String> columns, String sql) {
+    }
+}
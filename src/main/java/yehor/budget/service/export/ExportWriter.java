@@ -0,0 +1,27 @@
+package yehor.budget.service.export;
+
+import yehor.budget.common.ExportFormat;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Writes rows of an export to the output as they are read, without keeping them. Values may be strings, numbers,
+ * booleans, dates or null. Closing the writer flushes and closes the output.
+ */
+interface ExportWriter extends Closeable {
+
+    static ExportWriter of(ExportFormat format, OutputStream output, List<String> columns) throws IOException {
+        return switch (format) {
+            case CSV -> new CsvExportWriter(output, columns);
+            case NDJSON -> new NdjsonExportWriter(output, columns);
+        };
+    }
+
+    /**
+     * @param values values of the row in order of the columns
+     */
+    void writeRow(Object[] values) throws IOException;
+}
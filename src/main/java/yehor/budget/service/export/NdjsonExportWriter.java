@@ -0,0 +1,61 @@
+package yehor.budget.service.export;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Writes each row as a JSON object keyed by column names on its own line.
+ */
+final class NdjsonExportWriter implements ExportWriter {
+
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .enable(StreamWriteFeature.WRITE_BIGDECIMAL_AS_PLAIN)
+            .build();
+
+    private final JsonGenerator generator;
+    private final List<String> columns;
+
+    NdjsonExportWriter(OutputStream output, List<String> columns) throws IOException {
+        this.generator = JSON_FACTORY.createGenerator(output, JsonEncoding.UTF8);
+        this.generator.setRootValueSeparator(null);
+        this.columns = columns;
+    }
+
+    @Override
+    public void writeRow(Object[] values) throws IOException {
+        generator.writeStartObject();
+        for (int i = 0; i < values.length; i++) {
+            generator.writeFieldName(columns.get(i));
+            writeValue(values[i]);
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+
+    private void writeValue(Object value) throws IOException {
+        if (Objects.isNull(value)) {
+            generator.writeNull();
+        } else if (value instanceof BigDecimal decimal) {
+            generator.writeNumber(decimal);
+        } else if (value instanceof Number number) {
+            generator.writeNumber(number.longValue());
+        } else if (value instanceof Boolean bool) {
+            generator.writeBoolean(bool);
+        } else {
+            generator.writeString(value.toString());
+        }
+    }
+}
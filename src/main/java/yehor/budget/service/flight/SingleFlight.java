@@ -0,0 +1,27 @@
+package yehor.budget.service.flight;
+
+import yehor.budget.service.cache.CachedEntity;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Concurrent calls of the annotated method with equal arguments share one invocation, and every caller receives
+ * its result or exception. The result is shared between callers, so it must not be modified.
+ * <p>
+ * Calls made within a transaction are never shared, since they must see changes of their own transaction.
+ *
+ * @see SingleFlightAspect
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SingleFlight {
+
+    /**
+     * Types of data the result is computed from. Calls started after a change of any of them do not join
+     * invocations started before it, so a client reading its own change never receives an older result.
+     */
+    CachedEntity[] invalidatedBy() default {};
+}
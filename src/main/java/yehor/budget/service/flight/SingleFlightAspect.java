@@ -0,0 +1,95 @@
+package yehor.budget.service.flight;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import yehor.budget.service.cache.CacheInvalidation;
+import yehor.budget.service.cache.CacheInvalidationBus;
+import yehor.budget.service.cache.CachedEntity;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coalesces concurrent calls of methods annotated with {@link SingleFlight}. The first caller invokes the method
+ * on its own thread while the others wait for its result. Invocations in flight are detached when data they depend
+ * on is changed by this or any other node, so later calls start a new invocation. Runs before transactional advice,
+ * so waiting callers do not hold connections.
+ */
+@Slf4j
+@Aspect
+@Component
+// runs right after tracing, so every caller of a coalesced call gets its own span
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class SingleFlightAspect {
+
+    private final Map<Key, Flight> flights = new ConcurrentHashMap<>();
+
+    public SingleFlightAspect(CacheInvalidationBus cacheInvalidationBus) {
+        for (CachedEntity entity : CachedEntity.values()) {
+            cacheInvalidationBus.subscribe(entity, this::onInvalidation);
+        }
+    }
+
+    @Around("@annotation(yehor.budget.service.flight.SingleFlight)")
+    public Object coalesce(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        Method method = AopUtils.getMostSpecificMethod(
+                ((MethodSignature) joinPoint.getSignature()).getMethod(), joinPoint.getTarget().getClass());
+        SingleFlight singleFlight = method.getAnnotation(SingleFlight.class);
+        Key key = new Key(joinPoint.getTarget(), method, Arrays.asList(joinPoint.getArgs()));
+        Flight flight = new Flight(new CompletableFuture<>(), List.of(singleFlight.invalidatedBy()));
+        Flight existing = flights.putIfAbsent(key, flight);
+        if (Objects.nonNull(existing)) {
+            log.debug("Joined call of {} in flight", method.getName());
+            return await(existing);
+        }
+        try {
+            Object result = joinPoint.proceed();
+            flight.result().complete(result);
+            return result;
+        } catch (Throwable e) {
+            flight.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    void onInvalidation(CacheInvalidation invalidation) {
+        flights.values().removeIf(flight -> flight.invalidatedBy().contains(invalidation.entity()));
+    }
+
+    int countFlights() {
+        return flights.size();
+    }
+
+    private Object await(Flight flight) throws Throwable {
+        try {
+            return flight.result().join();
+        } catch (CompletionException e) {
+            throw e.getCause();
+        }
+    }
+
+    private record Key(Object target, Method method, List<Object> args) {
+    }
+
+    private record Flight(CompletableFuture<Object> result, List<CachedEntity> invalidatedBy) {
+    }
+}
@@ -0,0 +1,252 @@
+package yehor.budget.service.index;
+
+import lombok.extern.slf4j.Slf4j;
+import yehor.budget.service.cache.CacheInvalidation;
+import yehor.budget.service.cache.CacheInvalidationBus;
+import yehor.budget.service.cache.CachedEntity;
+import yehor.budget.service.worker.JobDefinition;
+import yehor.budget.service.worker.JobScheduler;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * In-memory index of expenses, built in the background on startup and kept up to date by reloading months
+ * of changed expenses when expense invalidations are received from this or any other node. Data is always
+ * loaded without holding the lock, and a build is repeated if months were reloaded in the meantime.
+ * Until the index is built, queries return nothing and should be answered by the database.
+ * <p>
+ * Indexes may restore their state from a snapshot instead of loading it. Each state is versioned with the last
+ * change of expenses it is known to contain, which is advanced by full loads only, so months reloaded since then
+ * are replayed once again after a restore.
+ *
+ * @param <S> state of the index, accessed only under the lock
+ */
+@Slf4j
+abstract class AbstractExpenseIndex<S> {
+
+    private static final int MAX_BUILD_ATTEMPTS = 3;
+    private static final int CONSISTENCY_CHECK_PERIOD_MINUTES = 60;
+    private static final double CONSISTENCY_CHECK_JITTER = 0.1;
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final JobScheduler jobScheduler;
+    private final String name;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object reloadMonitor = new Object();
+    private S state; // guarded by lock, null until built
+    private long lastChange; // guarded by lock
+    private long modifications; // guarded by lock
+
+    AbstractExpenseIndex(CacheInvalidationBus cacheInvalidationBus, JobScheduler jobScheduler, String name) {
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.jobScheduler = jobScheduler;
+        this.name = name;
+    }
+
+    /**
+     * Loads state of the whole index from the database.
+     */
+    abstract S load();
+
+    /**
+     * Loads expenses of the month from the database.
+     *
+     * @return update of the state to the loaded expenses, applied under the lock
+     */
+    abstract Consumer<S> loadMonth(YearMonth month);
+
+    /**
+     * @return number of differences between the current state and the expected one
+     */
+    abstract int countMismatches(S current, S expected);
+
+    /**
+     * @return last change of expenses in the database, the state loaded afterwards contains every change up to it
+     */
+    long findLastChange() {
+        return 0;
+    }
+
+    /**
+     * Restores the state from a snapshot and brings it up to date with the database.
+     *
+     * @return restored state, or empty when the state should be loaded from the database
+     */
+    Optional<Versioned<S>> restore() {
+        return Optional.empty();
+    }
+
+    public boolean isBuilt() {
+        return read(s -> true).isPresent();
+    }
+
+    public void build() {
+        for (int attempt = 1; attempt <= MAX_BUILD_ATTEMPTS; attempt++) {
+            long startModifications = getModifications();
+            Versioned<S> built = attempt == 1 ? restore().orElseGet(this::loadVersioned) : loadVersioned();
+            lock.writeLock().lock();
+            try {
+                if (modifications == startModifications) {
+                    state = built.state();
+                    lastChange = built.lastChange();
+                    modifications++;
+                    log.info("Built {}", name);
+                    return;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.warn("{} was not built, expenses kept changing during {} attempts", name, MAX_BUILD_ATTEMPTS);
+    }
+
+    /**
+     * Compares the index with the database, and rebuilds it when they differ.
+     *
+     * @return number of differences, or 0 when the check was skipped due to concurrent changes
+     */
+    public int checkConsistency() {
+        long startModifications = getModifications();
+        Versioned<S> expected = loadVersioned();
+        int mismatches;
+        lock.readLock().lock();
+        try {
+            if (Objects.isNull(state) || modifications != startModifications) {
+                return 0;
+            }
+            mismatches = countMismatches(state, expected.state());
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (mismatches > 0) {
+            log.warn("{} differs from the database in {} places, rebuilding it", name, mismatches);
+            build();
+        } else {
+            advanceLastChange(startModifications, expected.lastChange());
+        }
+        return mismatches;
+    }
+
+    void onInvalidation(CacheInvalidation invalidation) {
+        lock.writeLock().lock();
+        try {
+            if (Objects.isNull(state)) {
+                // the index being built could have missed the change, so it is built once again
+                modifications++;
+                return;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (invalidation.isEverything()) {
+            build();
+            return;
+        }
+        invalidation.keys().forEach(key -> reload(YearMonth.parse(key)));
+    }
+
+    <R> Optional<R> read(Function<S, R> query) {
+        lock.readLock().lock();
+        try {
+            return Objects.isNull(state) ? Optional.empty() : Optional.of(query.apply(state));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs the query with the state and the last change it contains.
+     */
+    <R> Optional<R> readVersioned(BiFunction<S, Long, R> query) {
+        lock.readLock().lock();
+        try {
+            return Objects.isNull(state) ? Optional.empty() : Optional.of(query.apply(state, lastChange));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Versioned<S> loadVersioned() {
+        long loadedChange = findLastChange();
+        return new Versioned<>(load(), loadedChange);
+    }
+
+    // the state equal to the one loaded has every change the loaded one has
+    private void advanceLastChange(long startModifications, long loadedChange) {
+        lock.writeLock().lock();
+        try {
+            if (modifications == startModifications) {
+                lastChange = Math.max(lastChange, loadedChange);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // reloads are serialized, so data loaded earlier never overwrites data loaded later
+    private void reload(YearMonth month) {
+        synchronized (reloadMonitor) {
+            Consumer<S> update = loadMonth(month);
+            lock.writeLock().lock();
+            try {
+                update.accept(state);
+                modifications++;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private long getModifications() {
+        lock.readLock().lock();
+        try {
+            return modifications;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return name of the index usable in names of its jobs
+     */
+    String jobName() {
+        return name.replace(' ', '-');
+    }
+
+    // each node keeps its own index, so unlike clustered jobs it is not coordinated between nodes,
+    // and checks are spread in time, so nodes do not load every expense at once
+    @PostConstruct
+    private void startIndexing() {
+        cacheInvalidationBus.subscribe(CachedEntity.EXPENSE, this::onInvalidation);
+        jobScheduler.execute(jobName() + "-build", this::build);
+        jobScheduler.schedule(JobDefinition.builder()
+                .name(jobName() + "-consistency-check")
+                .task(this::checkConsistency)
+                .initialDelay(Duration.ofMinutes(CONSISTENCY_CHECK_PERIOD_MINUTES))
+                .period(Duration.ofMinutes(CONSISTENCY_CHECK_PERIOD_MINUTES))
+                .jitter(CONSISTENCY_CHECK_JITTER)
+                .build());
+    }
+
+    @PreDestroy
+    private void stopIndexing() {
+        jobScheduler.cancel(jobName() + "-consistency-check");
+    }
+
+    /**
+     * State of the index with the last change of expenses it contains.
+     */
+    record Versioned<S>(S state, long lastChange) {
+    }
+}
@@ -0,0 +1,63 @@
+package yehor.budget.service.index;
+
+import yehor.budget.common.AnalyticsDimension;
+import yehor.budget.web.dto.AnalyticsQueryDto;
+
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Analytics query with filters converted to primitives, so they are cheap to check for every expense.
+ * Ids are sorted for a binary search, instead of a bitmap sized by the largest requested id,
+ * and are null when not filtered by them.
+ */
+record ColumnQuery(YearMonth fromMonth, YearMonth toMonth, int fromEpochDay, int toEpochDay,
+                   List<AnalyticsDimension> dimensions, int[] categoryIds, int[] tagIds, Boolean isRegular) {
+
+    static ColumnQuery of(AnalyticsQueryDto query) {
+        return new ColumnQuery(
+                YearMonth.from(query.getDateFrom()),
+                YearMonth.from(query.getDateTo()),
+                Math.toIntExact(query.getDateFrom().toEpochDay()),
+                Math.toIntExact(query.getDateTo().toEpochDay()),
+                Objects.isNull(query.getGroupBy()) ? List.of() : List.copyOf(query.getGroupBy()),
+                toSortedIds(query.getCategoryIds()),
+                toSortedIds(query.getTagIds()),
+                query.getIsRegular());
+    }
+
+    boolean matches(int epochDay, int categoryId, boolean regular) {
+        return epochDay >= fromEpochDay && epochDay <= toEpochDay
+                && (Objects.isNull(categoryIds) || contains(categoryIds, categoryId))
+                && (Objects.isNull(isRegular) || isRegular == regular);
+    }
+
+    static boolean contains(int[] sortedIds, int id) {
+        return Arrays.binarySearch(sortedIds, id) >= 0;
+    }
+
+    /**
+     * @throws IllegalArgumentException if an id is not a positive int, as ids of the columns are
+     */
+    private static int[] toSortedIds(Collection<Long> ids) {
+        if (Objects.isNull(ids) || ids.isEmpty()) {
+            return null;
+        }
+        return ids.stream()
+                .mapToInt(ColumnQuery::toColumnId)
+                .sorted()
+                .distinct()
+                .toArray();
+    }
+
+    private static int toColumnId(Long id) {
+        if (Objects.isNull(id) || id <= 0 || id > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Ids should be positive numbers up to " + Integer.MAX_VALUE
+                    + ", but was " + id);
+        }
+        return id.intValue();
+    }
+}
@@ -0,0 +1,156 @@
+package yehor.budget.service.index;
+
+import yehor.budget.repository.projection.DailyCategoryTotal;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Daily totals of expenses in minor units, per category and over all categories. Each series is a
+ * {@link FenwickTree} indexed by days since the first covered day, and the covered interval grows with a margin
+ * when a date outside of it is set. Not thread safe.
+ */
+final class DailyTotals {
+
+    static final int MARGIN_DAYS = 366;
+
+    private long firstEpochDay;
+    private int numberOfDays;
+    private final Map<Long, FenwickTree> categoryTotals = new HashMap<>();
+    private FenwickTree totals;
+
+    DailyTotals(LocalDate firstDate, LocalDate lastDate) {
+        this.firstEpochDay = firstDate.toEpochDay() - MARGIN_DAYS;
+        this.numberOfDays = (int) (lastDate.toEpochDay() + MARGIN_DAYS - firstEpochDay + 1);
+        this.totals = new FenwickTree(numberOfDays);
+    }
+
+    static DailyTotals of(List<DailyCategoryTotal> dailyTotals) {
+        LocalDate firstDate = dailyTotals.stream().map(DailyCategoryTotal::date).min(LocalDate::compareTo)
+                .orElse(LocalDate.now());
+        LocalDate lastDate = dailyTotals.stream().map(DailyCategoryTotal::date).max(LocalDate::compareTo)
+                .orElse(LocalDate.now());
+        DailyTotals result = new DailyTotals(firstDate, lastDate);
+        dailyTotals.forEach(result::set);
+        return result;
+    }
+
+    static long toMinorUnits(BigDecimal value) {
+        return value.setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    static BigDecimal fromMinorUnits(long value) {
+        return BigDecimal.valueOf(value, 2);
+    }
+
+    void set(DailyCategoryTotal dailyTotal) {
+        set(dailyTotal.categoryId(), dailyTotal.date(), toMinorUnits(dailyTotal.total()));
+    }
+
+    void set(Long categoryId, LocalDate date, long value) {
+        cover(date);
+        int index = indexOf(date);
+        FenwickTree tree = categoryTotals.computeIfAbsent(categoryId, id -> new FenwickTree(numberOfDays));
+        long delta = value - tree.get(index);
+        tree.add(index, delta);
+        totals.add(index, delta);
+    }
+
+    /**
+     * Sets totals of all categories to zero within the interval.
+     */
+    void clear(LocalDate dateFrom, LocalDate dateTo) {
+        int fromIndex = Math.max(0, indexOf(dateFrom));
+        int toIndex = Math.min(numberOfDays - 1, indexOf(dateTo));
+        for (FenwickTree tree : categoryTotals.values()) {
+            for (int index = fromIndex; index <= toIndex; index++) {
+                long value = tree.get(index);
+                if (value != 0) {
+                    tree.add(index, -value);
+                    totals.add(index, -value);
+                }
+            }
+        }
+    }
+
+    long get(Long categoryId, LocalDate date) {
+        FenwickTree tree = categoryTotals.get(categoryId);
+        int index = indexOf(date);
+        if (Objects.isNull(tree) || index < 0 || index >= numberOfDays) {
+            return 0;
+        }
+        return tree.get(index);
+    }
+
+    long sum(LocalDate dateFrom, LocalDate dateTo) {
+        return sum(totals, dateFrom, dateTo);
+    }
+
+    long sum(LocalDate dateFrom, LocalDate dateTo, Long categoryId) {
+        FenwickTree tree = categoryTotals.get(categoryId);
+        return Objects.isNull(tree) ? 0 : sum(tree, dateFrom, dateTo);
+    }
+
+    /**
+     * @return number of days on which totals of any category differ from the other totals
+     */
+    int countMismatchedDays(DailyTotals other) {
+        LocalDate firstDate = LocalDate.ofEpochDay(Math.min(firstEpochDay, other.firstEpochDay));
+        LocalDate lastDate = LocalDate.ofEpochDay(Math.max(firstEpochDay + numberOfDays, other.firstEpochDay + other.numberOfDays));
+        Set<Long> categoryIds = new HashSet<>(categoryTotals.keySet());
+        categoryIds.addAll(other.categoryTotals.keySet());
+
+        int mismatchedDays = 0;
+        for (LocalDate date = firstDate; date.isBefore(lastDate); date = date.plusDays(1)) {
+            for (Long categoryId : categoryIds) {
+                if (get(categoryId, date) != other.get(categoryId, date)) {
+                    mismatchedDays++;
+                    break;
+                }
+            }
+        }
+        return mismatchedDays;
+    }
+
+    private long sum(FenwickTree tree, LocalDate dateFrom, LocalDate dateTo) {
+        int fromIndex = Math.max(0, indexOf(dateFrom));
+        int toIndex = Math.min(numberOfDays - 1, indexOf(dateTo));
+        return fromIndex > toIndex ? 0 : tree.sum(fromIndex, toIndex);
+    }
+
+    private int indexOf(LocalDate date) {
+        long index = date.toEpochDay() - firstEpochDay;
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, index));
+    }
+
+    // grows every series, so the date and a margin around it are covered
+    private void cover(LocalDate date) {
+        long epochDay = date.toEpochDay();
+        long lastEpochDay = firstEpochDay + numberOfDays - 1;
+        if (epochDay >= firstEpochDay && epochDay <= lastEpochDay) {
+            return;
+        }
+        long newFirstEpochDay = Math.min(firstEpochDay, epochDay - MARGIN_DAYS);
+        long newLastEpochDay = Math.max(lastEpochDay, epochDay + MARGIN_DAYS);
+        int newNumberOfDays = (int) (newLastEpochDay - newFirstEpochDay + 1);
+        int offset = (int) (firstEpochDay - newFirstEpochDay);
+
+        categoryTotals.replaceAll((categoryId, tree) -> grow(tree, offset, newNumberOfDays));
+        totals = grow(totals, offset, newNumberOfDays);
+        firstEpochDay = newFirstEpochDay;
+        numberOfDays = newNumberOfDays;
+    }
+
+    private FenwickTree grow(FenwickTree tree, int offset, int newSize) {
+        long[] values = new long[newSize];
+        System.arraycopy(tree.toArray(), 0, values, offset, tree.size());
+        return FenwickTree.of(values);
+    }
+}
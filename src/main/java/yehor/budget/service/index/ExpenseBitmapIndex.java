@@ -0,0 +1,90 @@
+package yehor.budget.service.index;
+
+import org.springframework.stereotype.Component;
+import yehor.budget.repository.ExpenseRepository;
+import yehor.budget.repository.projection.ExpenseIndexRow;
+import yehor.budget.repository.projection.ExpenseTagId;
+import yehor.budget.service.cache.CacheInvalidationBus;
+import yehor.budget.service.worker.JobScheduler;
+import yehor.budget.web.dto.ExpenseFilterDto;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Secondary indexes of expenses as bitmaps of expense ids, so filters combining categories, tags, months,
+ * value buckets and the regular flag are evaluated without querying the database.
+ */
+@Component
+public class ExpenseBitmapIndex extends AbstractExpenseIndex<ExpenseBitmaps> {
+
+    private final ExpenseRepository expenseRepository;
+
+    public ExpenseBitmapIndex(ExpenseRepository expenseRepository, CacheInvalidationBus cacheInvalidationBus,
+                              JobScheduler jobScheduler) {
+        super(cacheInvalidationBus, jobScheduler, "expense bitmap index");
+        this.expenseRepository = expenseRepository;
+    }
+
+    /**
+     * @return ids of matching expenses, the most recently created first, or empty when the index is not built
+     */
+    public Optional<IdPage> findIds(ExpenseFilterDto filter, int page, int size) {
+        return read(bitmaps -> toPage(bitmaps.evaluate(filter), page, size));
+    }
+
+    /**
+     * @return ids of expenses with the tag, or empty when the index is not built
+     */
+    public Optional<List<Long>> findIdsByTag(Long tagId) {
+        return read(bitmaps -> toIds(bitmaps.tag(tagId)));
+    }
+
+    @Override
+    ExpenseBitmaps load() {
+        return ExpenseBitmaps.of(expenseRepository.findAllIndexRows(), expenseRepository.findAllTagIds());
+    }
+
+    @Override
+    Consumer<ExpenseBitmaps> loadMonth(YearMonth month) {
+        LocalDate dateFrom = month.atDay(1);
+        LocalDate dateTo = month.atEndOfMonth();
+        List<ExpenseIndexRow> rows = expenseRepository.findIndexRowsInInterval(dateFrom, dateTo);
+        List<ExpenseTagId> tagIds = expenseRepository.findTagIdsInInterval(dateFrom, dateTo);
+        return bitmaps -> {
+            bitmaps.removeMonth(month);
+            bitmaps.addAll(rows, tagIds);
+            bitmaps.trim();
+        };
+    }
+
+    @Override
+    int countMismatches(ExpenseBitmaps current, ExpenseBitmaps expected) {
+        return current.countMismatches(expected);
+    }
+
+    private IdPage toPage(BitSet ids, int page, int size) {
+        List<Long> pageIds = new ArrayList<>(size);
+        long skip = (long) page * size;
+        for (int id = ids.length() - 1; id >= 0 && pageIds.size() < size; id = ids.previousSetBit(id - 1)) {
+            if (skip > 0) {
+                skip--;
+            } else {
+                pageIds.add((long) id);
+            }
+        }
+        return new IdPage(ids.cardinality(), pageIds);
+    }
+
+    private List<Long> toIds(BitSet ids) {
+        return ids.stream().mapToObj(id -> (long) id).toList();
+    }
+
+    public record IdPage(long totalElements, List<Long> ids) {
+    }
+}
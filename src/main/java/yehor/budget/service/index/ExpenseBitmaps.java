@@ -0,0 +1,206 @@
+package yehor.budget.service.index;
+
+import yehor.budget.common.ValueBucket;
+import yehor.budget.repository.projection.ExpenseIndexRow;
+import yehor.budget.repository.projection.ExpenseTagId;
+import yehor.budget.web.dto.ExpenseFilterDto;
+
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Bitmaps of expense ids per category, tag, value bucket and regular flag, and sorted ids per month. Filters
+ * are evaluated with word-wise AND, OR and AND NOT of the bitmaps. Not thread safe.
+ * <p>
+ * A bitmap takes a bit for every id up to the highest one it contains, whatever its lowest id is, so each
+ * category, tag and bucket costs up to a bit per expense ever created. Months cover narrow ranges of ids,
+ * so their ids are kept as sorted arrays, taking 4 bytes per expense of the month. Bitmaps are trimmed after
+ * months are reloaded, so they do not keep words of removed ids.
+ */
+final class ExpenseBitmaps {
+
+    private BitSet all = new BitSet();
+    private BitSet regular = new BitSet();
+    private final Map<Long, BitSet> categories = new HashMap<>();
+    private final Map<Long, BitSet> tags = new HashMap<>();
+    private final Map<YearMonth, int[]> months = new HashMap<>();
+    private final Map<ValueBucket, BitSet> valueBuckets = new EnumMap<>(ValueBucket.class);
+
+    static ExpenseBitmaps of(List<ExpenseIndexRow> rows, List<ExpenseTagId> tagIds) {
+        ExpenseBitmaps bitmaps = new ExpenseBitmaps();
+        bitmaps.addAll(rows, tagIds);
+        return bitmaps;
+    }
+
+    void addAll(List<ExpenseIndexRow> rows, List<ExpenseTagId> tagIds) {
+        Map<YearMonth, IntStream.Builder> monthIds = new HashMap<>();
+        for (ExpenseIndexRow row : rows) {
+            int id = Math.toIntExact(row.id());
+            all.set(id);
+            if (Boolean.TRUE.equals(row.isRegular())) {
+                regular.set(id);
+            }
+            categories.computeIfAbsent(row.categoryId(), key -> new BitSet()).set(id);
+            monthIds.computeIfAbsent(YearMonth.from(row.date()), key -> IntStream.builder()).add(id);
+            valueBuckets.computeIfAbsent(ValueBucket.of(row.value()), key -> new BitSet()).set(id);
+        }
+        for (ExpenseTagId tagId : tagIds) {
+            tags.computeIfAbsent(tagId.tagId(), key -> new BitSet()).set(Math.toIntExact(tagId.expenseId()));
+        }
+        monthIds.forEach((month, ids) -> months.put(month,
+                IntStream.concat(IntStream.of(months.getOrDefault(month, new int[0])), ids.build())
+                        .sorted()
+                        .distinct()
+                        .toArray()));
+    }
+
+    /**
+     * Removes expenses of the month from every bitmap.
+     */
+    void removeMonth(YearMonth month) {
+        int[] ids = months.remove(month);
+        if (Objects.isNull(ids)) {
+            return;
+        }
+        clear(all, ids);
+        clear(regular, ids);
+        removeFrom(categories, ids);
+        removeFrom(tags, ids);
+        removeFrom(valueBuckets, ids);
+    }
+
+    /**
+     * Releases words of bitmaps beyond their highest ids, left after expenses are removed.
+     */
+    void trim() {
+        all = trimmed(all);
+        regular = trimmed(regular);
+        categories.replaceAll((key, bitmap) -> trimmed(bitmap));
+        tags.replaceAll((key, bitmap) -> trimmed(bitmap));
+        valueBuckets.replaceAll((key, bitmap) -> trimmed(bitmap));
+    }
+
+    BitSet evaluate(ExpenseFilterDto filter) {
+        BitSet result = (BitSet) all.clone();
+        if (Objects.nonNull(filter.getIsRegular())) {
+            if (filter.getIsRegular()) {
+                result.and(regular);
+            } else {
+                result.andNot(regular);
+            }
+        }
+        and(result, categories, filter.getCategoryIds());
+        if (Objects.nonNull(filter.getMonths()) && !filter.getMonths().isEmpty()) {
+            result.and(monthUnion(filter.getMonths()));
+        }
+        and(result, valueBuckets, filter.getValueBuckets());
+        if (Boolean.TRUE.equals(filter.getAllTags()) && Objects.nonNull(filter.getTagIds())) {
+            filter.getTagIds().forEach(tagId -> result.and(tags.getOrDefault(tagId, new BitSet())));
+        } else {
+            and(result, tags, filter.getTagIds());
+        }
+        andNot(result, categories, filter.getExcludedCategoryIds());
+        andNot(result, tags, filter.getExcludedTagIds());
+        return result;
+    }
+
+    BitSet tag(Long tagId) {
+        return (BitSet) tags.getOrDefault(tagId, new BitSet()).clone();
+    }
+
+    /**
+     * @return bits allocated by the bitmaps, with 32 bits per id of a month
+     */
+    long countAllocatedBits() {
+        return Stream.of(Stream.of(all, regular), categories.values().stream(), tags.values().stream(),
+                        valueBuckets.values().stream())
+                .flatMap(bitmaps -> bitmaps)
+                .mapToLong(BitSet::size)
+                .sum()
+                + months.values().stream().mapToLong(ids -> (long) ids.length * Integer.SIZE).sum();
+    }
+
+    int countMismatches(ExpenseBitmaps other) {
+        int mismatches = all.equals(other.all) ? 0 : 1;
+        mismatches += regular.equals(other.regular) ? 0 : 1;
+        mismatches += countMismatches(categories, other.categories);
+        mismatches += countMismatches(tags, other.tags);
+        mismatches += (int) Stream.concat(months.keySet().stream(), other.months.keySet().stream())
+                .distinct()
+                .filter(month -> !Arrays.equals(months.get(month), other.months.get(month)))
+                .count();
+        mismatches += countMismatches(valueBuckets, other.valueBuckets);
+        return mismatches;
+    }
+
+    private static <K> void and(BitSet result, Map<K, BitSet> bitmaps, Collection<K> keys) {
+        if (Objects.nonNull(keys) && !keys.isEmpty()) {
+            result.and(union(bitmaps, keys));
+        }
+    }
+
+    private static <K> void andNot(BitSet result, Map<K, BitSet> bitmaps, Collection<K> keys) {
+        if (Objects.nonNull(keys) && !keys.isEmpty()) {
+            result.andNot(union(bitmaps, keys));
+        }
+    }
+
+    private static <K> BitSet union(Map<K, BitSet> bitmaps, Collection<K> keys) {
+        BitSet union = new BitSet();
+        for (K key : keys) {
+            BitSet bitmap = bitmaps.get(key);
+            if (Objects.nonNull(bitmap)) {
+                union.or(bitmap);
+            }
+        }
+        return union;
+    }
+
+    private BitSet monthUnion(Collection<YearMonth> keys) {
+        BitSet union = new BitSet();
+        for (YearMonth month : keys) {
+            int[] ids = months.get(month);
+            if (Objects.nonNull(ids)) {
+                for (int id : ids) {
+                    union.set(id);
+                }
+            }
+        }
+        return union;
+    }
+
+    private static <K> void removeFrom(Map<K, BitSet> bitmaps, int[] ids) {
+        bitmaps.values().forEach(bitmap -> clear(bitmap, ids));
+        bitmaps.values().removeIf(BitSet::isEmpty);
+    }
+
+    private static void clear(BitSet bitmap, int[] ids) {
+        for (int id : ids) {
+            bitmap.clear(id);
+        }
+    }
+
+    // a clone has only the words up to the highest id, so a bitmap is copied once most of its words are unused
+    private static BitSet trimmed(BitSet bitmap) {
+        return bitmap.size() > 2 * bitmap.length() + Long.SIZE ? (BitSet) bitmap.clone() : bitmap;
+    }
+
+    private static <K> int countMismatches(Map<K, BitSet> bitmaps, Map<K, BitSet> otherBitmaps) {
+        Set<K> keys = new HashSet<>(bitmaps.keySet());
+        keys.addAll(otherBitmaps.keySet());
+        return (int) keys.stream()
+                .filter(key -> !Objects.equals(bitmaps.get(key), otherBitmaps.get(key)))
+                .count();
+    }
+}
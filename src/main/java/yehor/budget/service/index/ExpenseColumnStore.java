@@ -0,0 +1,182 @@
+package yehor.budget.service.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import yehor.budget.common.util.PropertiesHelper;
+import yehor.budget.repository.ExpenseRepository;
+import yehor.budget.repository.projection.ExpenseIndexRow;
+import yehor.budget.repository.projection.ExpenseTagId;
+import yehor.budget.repository.projection.MonthlyExpenseCount;
+import yehor.budget.service.cache.CacheInvalidationBus;
+import yehor.budget.service.worker.JobDefinition;
+import yehor.budget.service.worker.JobScheduler;
+import yehor.budget.web.dto.AnalyticsQueryDto;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * Columnar in-memory store of expenses for analytics, so expenses are grouped, filtered and aggregated
+ * by scanning arrays of primitives instead of loading entities.
+ * <p>
+ * The store is periodically written to a snapshot file when snapshots are enabled. On startup the snapshot
+ * is restored and only months with expenses changed after it are reloaded, so the store is warm without
+ * loading every expense.
+ */
+@Slf4j
+@Component
+public class ExpenseColumnStore extends AbstractExpenseIndex<ExpenseColumns> {
+
+    private static final String SNAPSHOT_FILE_NAME = "expense-columns.snapshot";
+    private static final int SNAPSHOT_PERIOD_MINUTES = 15;
+
+    private final ExpenseRepository expenseRepository;
+    private final Path snapshotFile; // null when snapshots are disabled
+    private final JobScheduler jobScheduler;
+
+    public ExpenseColumnStore(ExpenseRepository expenseRepository,
+                              CacheInvalidationBus cacheInvalidationBus,
+                              JobScheduler jobScheduler,
+                              PropertiesHelper propertiesHelper) {
+        super(cacheInvalidationBus, jobScheduler, "expense column store");
+        this.expenseRepository = expenseRepository;
+        this.jobScheduler = jobScheduler;
+        String snapshotDirectory = propertiesHelper.getStringProperty("index.snapshot.directory");
+        this.snapshotFile = Objects.isNull(snapshotDirectory) || snapshotDirectory.isBlank()
+                ? null
+                : Path.of(snapshotDirectory, SNAPSHOT_FILE_NAME);
+    }
+
+    /**
+     * @return groups of matching expenses, or empty when the store is not built
+     */
+    public Optional<List<ExpenseGroup>> findGroups(AnalyticsQueryDto query) {
+        ColumnQuery columnQuery = ColumnQuery.of(query);
+        return read(columns -> columns.aggregate(columnQuery));
+    }
+
+    /**
+     * @return number of expenses in months from the first to the last one, or empty when the store is not built
+     */
+    public Optional<Long> countExpenses(YearMonth from, YearMonth to) {
+        return read(columns -> columns.countByMonth().entrySet().stream()
+                .filter(entry -> !entry.getKey().isBefore(from) && !entry.getKey().isAfter(to))
+                .mapToLong(Map.Entry::getValue)
+                .sum());
+    }
+
+    /**
+     * Writes the store to the snapshot file, unless snapshots are disabled or the store is not built.
+     */
+    public void writeSnapshot() {
+        if (Objects.isNull(snapshotFile)) {
+            return;
+        }
+        Optional<Versioned<ExpenseColumns>> snapshot =
+                readVersioned((columns, lastChange) -> new Versioned<>(columns.copy(), lastChange));
+        if (snapshot.isEmpty()) {
+            return;
+        }
+        try {
+            ExpenseColumnsSnapshot.write(snapshotFile, snapshot.get());
+            log.info("Written snapshot {} of expenses up to change {}", snapshotFile, snapshot.get().lastChange());
+        } catch (IOException e) {
+            log.error("Failed to write snapshot {}", snapshotFile, e);
+        }
+    }
+
+    @Override
+    ExpenseColumns load() {
+        return ExpenseColumns.of(expenseRepository.findAllIndexRows(), expenseRepository.findAllTagIds());
+    }
+
+    @Override
+    Consumer<ExpenseColumns> loadMonth(YearMonth month) {
+        LocalDate dateFrom = month.atDay(1);
+        LocalDate dateTo = month.atEndOfMonth();
+        List<ExpenseIndexRow> rows = expenseRepository.findIndexRowsInInterval(dateFrom, dateTo);
+        List<ExpenseTagId> tagIds = expenseRepository.findTagIdsInInterval(dateFrom, dateTo);
+        return columns -> columns.replaceMonth(month, rows, tagIds);
+    }
+
+    @Override
+    int countMismatches(ExpenseColumns current, ExpenseColumns expected) {
+        return current.countMismatchedMonths(expected);
+    }
+
+    @Override
+    long findLastChange() {
+        return expenseRepository.findLastChangeSeq();
+    }
+
+    @Override
+    Optional<Versioned<ExpenseColumns>> restore() {
+        if (Objects.isNull(snapshotFile)) {
+            return Optional.empty();
+        }
+        return ExpenseColumnsSnapshot.read(snapshotFile).flatMap(this::replayChanges);
+    }
+
+    private Optional<Versioned<ExpenseColumns>> replayChanges(Versioned<ExpenseColumns> snapshot) {
+        long lastChange = findLastChange();
+        if (snapshot.lastChange() > lastChange) {
+            log.warn("Ignoring snapshot {} of change {} ahead of the database at change {}",
+                    snapshotFile, snapshot.lastChange(), lastChange);
+            return Optional.empty();
+        }
+        ExpenseColumns columns = snapshot.state();
+        Set<YearMonth> changedMonths = new TreeSet<>();
+        expenseRepository.findMonthsChangedAfter(snapshot.lastChange())
+                .forEach(month -> changedMonths.add(YearMonth.parse(month)));
+        // counts catch changes missing from the change log, such as expenses deleted before tombstones were recorded
+        Map<YearMonth, Integer> counts = columns.countByMonth();
+        for (MonthlyExpenseCount count : expenseRepository.countByMonth()) {
+            YearMonth month = YearMonth.of(count.year(), count.month());
+            Integer snapshotCount = counts.remove(month);
+            if (Objects.isNull(snapshotCount) || snapshotCount.longValue() != count.count()) {
+                changedMonths.add(month);
+            }
+        }
+        changedMonths.addAll(counts.keySet());
+
+        changedMonths.forEach(month -> loadMonth(month).accept(columns));
+        log.info("Restored expense column store from snapshot {} of change {}, reloaded {} changed months",
+                snapshotFile, snapshot.lastChange(), changedMonths.size());
+        return Optional.of(new Versioned<>(columns, lastChange));
+    }
+
+    @PostConstruct
+    private void startSnapshots() {
+        if (Objects.isNull(snapshotFile)) {
+            return;
+        }
+        jobScheduler.schedule(JobDefinition.builder()
+                .name(jobName() + "-snapshot")
+                .task(this::writeSnapshot)
+                .initialDelay(Duration.ofMinutes(SNAPSHOT_PERIOD_MINUTES))
+                .period(Duration.ofMinutes(SNAPSHOT_PERIOD_MINUTES))
+                .build());
+    }
+
+    // the latest state is written on shutdown, so the next start replays as few changes as possible
+    @PreDestroy
+    private void stopSnapshots() {
+        if (Objects.isNull(snapshotFile)) {
+            return;
+        }
+        jobScheduler.cancel(jobName() + "-snapshot");
+        writeSnapshot();
+    }
+}
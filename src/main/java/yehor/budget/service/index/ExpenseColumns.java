@@ -0,0 +1,134 @@
+package yehor.budget.service.index;
+
+import yehor.budget.repository.projection.ExpenseIndexRow;
+import yehor.budget.repository.projection.ExpenseTagId;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static java.util.stream.Collectors.groupingBy;
+
+/**
+ * Expenses in {@link MonthColumns} per month. Months are scanned in parallel, each into its own groups,
+ * which are merged afterwards. Not thread safe for writes, concurrent scans are safe.
+ */
+final class ExpenseColumns {
+
+    private final NavigableMap<YearMonth, MonthColumns> months = new TreeMap<>();
+
+    static ExpenseColumns of(List<ExpenseIndexRow> rows, List<ExpenseTagId> tagIds) {
+        ExpenseColumns columns = new ExpenseColumns();
+        Map<Long, int[]> tagsByExpense = tagsByExpense(tagIds);
+        rows.stream()
+                .collect(groupingBy(row -> YearMonth.from(row.date())))
+                .forEach((month, monthRows) -> columns.months.put(month, MonthColumns.of(month, monthRows, tagsByExpense)));
+        return columns;
+    }
+
+    static ExpenseColumns ofMonths(Collection<MonthColumns> monthColumns) {
+        ExpenseColumns columns = new ExpenseColumns();
+        monthColumns.forEach(month -> columns.months.put(month.month(), month));
+        return columns;
+    }
+
+    /**
+     * @return columns with the same months, which are not changed by later writes to these columns
+     */
+    ExpenseColumns copy() {
+        return ofMonths(months.values());
+    }
+
+    Collection<MonthColumns> months() {
+        return Collections.unmodifiableCollection(months.values());
+    }
+
+    Map<YearMonth, Integer> countByMonth() {
+        Map<YearMonth, Integer> counts = new HashMap<>();
+        months.forEach((month, columns) -> counts.put(month, columns.size()));
+        return counts;
+    }
+
+    /**
+     * Replaces expenses of the month with the given ones.
+     */
+    void replaceMonth(YearMonth month, List<ExpenseIndexRow> rows, List<ExpenseTagId> tagIds) {
+        if (rows.isEmpty()) {
+            months.remove(month);
+        } else {
+            months.put(month, MonthColumns.of(month, rows, tagsByExpense(tagIds)));
+        }
+    }
+
+    /**
+     * @return groups ordered by their keys
+     */
+    List<ExpenseGroup> aggregate(ColumnQuery query) {
+        if (query.fromMonth().isAfter(query.toMonth())) {
+            return List.of();
+        }
+        Map<GroupKey, long[]> groups = months.subMap(query.fromMonth(), true, query.toMonth(), true)
+                .values()
+                .parallelStream()
+                .map(month -> {
+                    Map<GroupKey, long[]> monthGroups = new HashMap<>();
+                    month.aggregate(query, monthGroups);
+                    return monthGroups;
+                })
+                .reduce(ExpenseColumns::merge)
+                .orElseGet(Map::of);
+
+        List<ExpenseGroup> result = new ArrayList<>(groups.size());
+        groups.forEach((key, aggregates) -> result.add(new ExpenseGroup(key.keys(), aggregates[0], aggregates[1])));
+        result.sort(Comparator.comparing(ExpenseGroup::keys, Arrays::compare));
+        return result;
+    }
+
+    /**
+     * @return number of months with expenses different from the other columns
+     */
+    int countMismatchedMonths(ExpenseColumns other) {
+        Set<YearMonth> keys = new HashSet<>(months.keySet());
+        keys.addAll(other.months.keySet());
+        return (int) keys.stream()
+                .filter(month -> {
+                    MonthColumns columns = months.get(month);
+                    MonthColumns otherColumns = other.months.get(month);
+                    return Objects.isNull(columns) || Objects.isNull(otherColumns) || !columns.sameAs(otherColumns);
+                })
+                .count();
+    }
+
+    // merges into the larger map, so fewer groups are copied
+    private static Map<GroupKey, long[]> merge(Map<GroupKey, long[]> left, Map<GroupKey, long[]> right) {
+        Map<GroupKey, long[]> target = left.size() >= right.size() ? left : right;
+        Map<GroupKey, long[]> source = target == left ? right : left;
+        source.forEach((key, aggregates) -> target.merge(key, aggregates, (a, b) -> {
+            a[0] += b[0];
+            a[1] += b[1];
+            return a;
+        }));
+        return target;
+    }
+
+    private static Map<Long, int[]> tagsByExpense(List<ExpenseTagId> tagIds) {
+        Map<Long, int[]> tagsByExpense = new HashMap<>();
+        tagIds.stream()
+                .sorted(Comparator.comparing(ExpenseTagId::tagId))
+                .collect(groupingBy(ExpenseTagId::expenseId))
+                .forEach((expenseId, tags) -> tagsByExpense.put(expenseId,
+                        tags.stream().mapToInt(tag -> Math.toIntExact(tag.tagId())).toArray()));
+        return tagsByExpense;
+    }
+}
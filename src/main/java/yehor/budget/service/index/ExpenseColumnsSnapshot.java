@@ -0,0 +1,100 @@
+package yehor.budget.service.index;
+
+import lombok.extern.slf4j.Slf4j;
+import yehor.budget.service.index.AbstractExpenseIndex.Versioned;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Binary snapshot of {@link ExpenseColumns} in a memory mapped file. The layout is the magic number, format version,
+ * last change of expenses, number of months, columns of each month and CRC32 of everything before it.
+ * Snapshots are written to a temporary file which then replaces the previous one, so a snapshot is never
+ * read half written. Snapshots of other versions or with a wrong checksum are ignored.
+ */
+@Slf4j
+final class ExpenseColumnsSnapshot {
+
+    static final int MAGIC = 0x42455843;
+    static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 2 * Integer.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int CHECKSUM_BYTES = Long.BYTES;
+
+    private ExpenseColumnsSnapshot() {
+    }
+
+    static void write(Path file, Versioned<ExpenseColumns> snapshot) throws IOException {
+        Collection<MonthColumns> months = snapshot.state().months();
+        long size = HEADER_BYTES + months.stream().mapToLong(MonthColumns::byteSize).sum() + CHECKSUM_BYTES;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot of " + size + " bytes does not fit into one mapped buffer");
+        }
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporaryFile, CREATE, TRUNCATE_EXISTING, READ, WRITE)) {
+            MappedByteBuffer buffer = channel.map(READ_WRITE, 0, size);
+            buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(snapshot.lastChange()).putInt(months.size());
+            months.forEach(month -> month.writeTo(buffer));
+            buffer.putLong(checksum(buffer, buffer.position()));
+            buffer.force();
+        }
+        Files.move(temporaryFile, file, REPLACE_EXISTING, ATOMIC_MOVE);
+    }
+
+    /**
+     * @return snapshot in the file, or empty when there is no readable snapshot
+     */
+    static Optional<Versioned<ExpenseColumns>> read(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(file, READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + CHECKSUM_BYTES || size > Integer.MAX_VALUE) {
+                log.warn("Ignoring snapshot {} of unexpected size {}", file, size);
+                return Optional.empty();
+            }
+            MappedByteBuffer buffer = channel.map(READ_ONLY, 0, size);
+            int checksumPosition = (int) size - CHECKSUM_BYTES;
+            if (buffer.getLong(checksumPosition) != checksum(buffer, checksumPosition)
+                    || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                log.warn("Ignoring snapshot {} of another format or with a wrong checksum", file);
+                return Optional.empty();
+            }
+            long lastChange = buffer.getLong();
+            int numberOfMonths = buffer.getInt();
+            List<MonthColumns> months = new ArrayList<>(numberOfMonths);
+            for (int i = 0; i < numberOfMonths; i++) {
+                months.add(MonthColumns.readFrom(buffer));
+            }
+            return Optional.of(new Versioned<>(ExpenseColumns.ofMonths(months), lastChange));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to read snapshot {}", file, e);
+            return Optional.empty();
+        }
+    }
+
+    private static long checksum(ByteBuffer buffer, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(0, length));
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,27 @@
+package yehor.budget.service.index;
+
+import java.util.Arrays;
+
+/**
+ * Total in minor units and count of expenses in a group.
+ *
+ * @param keys keys of the group in order of the query dimensions, see {@link yehor.budget.common.AnalyticsDimension}
+ */
+public record ExpenseGroup(int[] keys, long total, long count) {
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof ExpenseGroup other
+                && Arrays.equals(keys, other.keys) && total == other.total && count == other.count);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(keys) + Long.hashCode(total) * 17 + Long.hashCode(count);
+    }
+
+    @Override
+    public String toString() {
+        return "ExpenseGroup[keys=" + Arrays.toString(keys) + ", total=" + total + ", count=" + count + "]";
+    }
+}
@@ -0,0 +1,59 @@
+package yehor.budget.service.index;
+
+import org.springframework.stereotype.Component;
+import yehor.budget.repository.ExpenseRepository;
+import yehor.budget.repository.projection.DailyCategoryTotal;
+import yehor.budget.service.cache.CacheInvalidationBus;
+import yehor.budget.service.worker.JobScheduler;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Index of daily expense totals per category, so sums over any interval are answered in O(log n)
+ * without querying the database.
+ */
+@Component
+public class ExpenseSumIndex extends AbstractExpenseIndex<DailyTotals> {
+
+    private final ExpenseRepository expenseRepository;
+
+    public ExpenseSumIndex(ExpenseRepository expenseRepository, CacheInvalidationBus cacheInvalidationBus,
+                           JobScheduler jobScheduler) {
+        super(cacheInvalidationBus, jobScheduler, "expense sum index");
+        this.expenseRepository = expenseRepository;
+    }
+
+    public Optional<BigDecimal> findSum(LocalDate dateFrom, LocalDate dateTo) {
+        return read(totals -> DailyTotals.fromMinorUnits(totals.sum(dateFrom, dateTo)));
+    }
+
+    public Optional<BigDecimal> findSum(LocalDate dateFrom, LocalDate dateTo, Long categoryId) {
+        return read(totals -> DailyTotals.fromMinorUnits(totals.sum(dateFrom, dateTo, categoryId)));
+    }
+
+    @Override
+    DailyTotals load() {
+        return DailyTotals.of(expenseRepository.findAllDailyTotals());
+    }
+
+    @Override
+    Consumer<DailyTotals> loadMonth(YearMonth month) {
+        LocalDate dateFrom = month.atDay(1);
+        LocalDate dateTo = month.atEndOfMonth();
+        List<DailyCategoryTotal> loaded = expenseRepository.findDailyTotalsInInterval(dateFrom, dateTo);
+        return totals -> {
+            totals.clear(dateFrom, dateTo);
+            loaded.forEach(totals::set);
+        };
+    }
+
+    @Override
+    int countMismatches(DailyTotals current, DailyTotals expected) {
+        return current.countMismatchedDays(expected);
+    }
+}
@@ -0,0 +1,74 @@
+package yehor.budget.service.index;
+
+/**
+ * Binary indexed tree over a fixed number of values, so both a point update and a range sum take O(log n).
+ */
+final class FenwickTree {
+
+    private final long[] tree;
+    private final long[] values;
+
+    FenwickTree(int size) {
+        this.tree = new long[size + 1];
+        this.values = new long[size];
+    }
+
+    /**
+     * Builds the tree in O(n), values are copied.
+     */
+    static FenwickTree of(long[] values) {
+        FenwickTree fenwickTree = new FenwickTree(values.length);
+        long[] tree = fenwickTree.tree;
+        for (int i = 0; i < values.length; i++) {
+            fenwickTree.values[i] = values[i];
+            tree[i + 1] += values[i];
+            int parent = (i + 1) + ((i + 1) & -(i + 1));
+            if (parent < tree.length) {
+                tree[parent] += tree[i + 1];
+            }
+        }
+        return fenwickTree;
+    }
+
+    int size() {
+        return values.length;
+    }
+
+    long get(int index) {
+        return values[index];
+    }
+
+    void set(int index, long value) {
+        add(index, value - values[index]);
+    }
+
+    void add(int index, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        values[index] += delta;
+        for (int i = index + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * @return sum of values between the indexes, both inclusive
+     */
+    long sum(int fromIndex, int toIndex) {
+        return prefixSum(toIndex + 1) - prefixSum(fromIndex);
+    }
+
+    long[] toArray() {
+        return values.clone();
+    }
+
+    // sum of values before the index
+    private long prefixSum(int index) {
+        long sum = 0;
+        for (int i = index; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+}
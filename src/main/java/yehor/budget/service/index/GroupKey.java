@@ -0,0 +1,24 @@
+package yehor.budget.service.index;
+
+import java.util.Arrays;
+
+/**
+ * Keys of a group, one per dimension of the query.
+ */
+record GroupKey(int[] keys) {
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof GroupKey other && Arrays.equals(keys, other.keys));
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(keys);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(keys);
+    }
+}
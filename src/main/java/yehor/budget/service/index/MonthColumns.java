@@ -0,0 +1,218 @@
+package yehor.budget.service.index;
+
+import yehor.budget.common.AnalyticsDimension;
+import yehor.budget.repository.projection.ExpenseIndexRow;
+
+import java.nio.ByteBuffer;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Expenses of one month in columns of primitives ordered by expense id. Tags of the expense at position i
+ * are tagIds[tagOffsets[i]] until tagIds[tagOffsets[i + 1]]. Immutable.
+ */
+final class MonthColumns {
+
+    private final YearMonth month;
+    private final long[] ids;
+    private final int[] epochDays;
+    private final long[] values;
+    private final int[] categoryIds;
+    private final boolean[] regular;
+    private final int[] tagOffsets;
+    private final int[] tagIds;
+
+    private MonthColumns(YearMonth month, int size, int numberOfTags) {
+        this.month = month;
+        this.ids = new long[size];
+        this.epochDays = new int[size];
+        this.values = new long[size];
+        this.categoryIds = new int[size];
+        this.regular = new boolean[size];
+        this.tagOffsets = new int[size + 1];
+        this.tagIds = new int[numberOfTags];
+    }
+
+    /**
+     * @param rows          expenses of the month
+     * @param tagsByExpense tag ids by expense id, expenses without tags may be missing
+     */
+    static MonthColumns of(YearMonth month, List<ExpenseIndexRow> rows, Map<Long, int[]> tagsByExpense) {
+        List<ExpenseIndexRow> sorted = rows.stream().sorted(Comparator.comparing(ExpenseIndexRow::id)).toList();
+        int numberOfTags = sorted.stream()
+                .map(row -> tagsByExpense.get(row.id()))
+                .filter(Objects::nonNull)
+                .mapToInt(tags -> tags.length)
+                .sum();
+        MonthColumns columns = new MonthColumns(month, sorted.size(), numberOfTags);
+        int tagOffset = 0;
+        for (int i = 0; i < sorted.size(); i++) {
+            ExpenseIndexRow row = sorted.get(i);
+            columns.ids[i] = row.id();
+            columns.epochDays[i] = Math.toIntExact(row.date().toEpochDay());
+            columns.values[i] = DailyTotals.toMinorUnits(row.value());
+            columns.categoryIds[i] = Math.toIntExact(row.categoryId());
+            columns.regular[i] = Boolean.TRUE.equals(row.isRegular());
+            columns.tagOffsets[i] = tagOffset;
+            int[] tags = tagsByExpense.get(row.id());
+            if (Objects.nonNull(tags)) {
+                System.arraycopy(tags, 0, columns.tagIds, tagOffset, tags.length);
+                tagOffset += tags.length;
+            }
+        }
+        columns.tagOffsets[sorted.size()] = tagOffset;
+        return columns;
+    }
+
+    /**
+     * Reads columns written by {@link #writeTo} from the current position of the buffer.
+     */
+    static MonthColumns readFrom(ByteBuffer buffer) {
+        YearMonth month = YearMonth.of(buffer.getInt(), buffer.getInt());
+        int size = buffer.getInt();
+        int numberOfTags = buffer.getInt();
+        MonthColumns columns = new MonthColumns(month, size, numberOfTags);
+        buffer.asLongBuffer().get(columns.ids);
+        skip(buffer, size * Long.BYTES);
+        buffer.asIntBuffer().get(columns.epochDays);
+        skip(buffer, size * Integer.BYTES);
+        buffer.asLongBuffer().get(columns.values);
+        skip(buffer, size * Long.BYTES);
+        buffer.asIntBuffer().get(columns.categoryIds);
+        skip(buffer, size * Integer.BYTES);
+        for (int i = 0; i < size; i++) {
+            columns.regular[i] = buffer.get() != 0;
+        }
+        buffer.asIntBuffer().get(columns.tagOffsets);
+        skip(buffer, (size + 1) * Integer.BYTES);
+        buffer.asIntBuffer().get(columns.tagIds);
+        skip(buffer, numberOfTags * Integer.BYTES);
+        return columns;
+    }
+
+    /**
+     * Writes the month, number of expenses and tags and then each column, from the current position of the buffer.
+     */
+    void writeTo(ByteBuffer buffer) {
+        buffer.putInt(month.getYear()).putInt(month.getMonthValue()).putInt(ids.length).putInt(tagIds.length);
+        buffer.asLongBuffer().put(ids);
+        skip(buffer, ids.length * Long.BYTES);
+        buffer.asIntBuffer().put(epochDays);
+        skip(buffer, epochDays.length * Integer.BYTES);
+        buffer.asLongBuffer().put(values);
+        skip(buffer, values.length * Long.BYTES);
+        buffer.asIntBuffer().put(categoryIds);
+        skip(buffer, categoryIds.length * Integer.BYTES);
+        for (boolean isRegular : regular) {
+            buffer.put((byte) (isRegular ? 1 : 0));
+        }
+        buffer.asIntBuffer().put(tagOffsets);
+        skip(buffer, tagOffsets.length * Integer.BYTES);
+        buffer.asIntBuffer().put(tagIds);
+        skip(buffer, tagIds.length * Integer.BYTES);
+    }
+
+    /**
+     * @return number of bytes written by {@link #writeTo}
+     */
+    long byteSize() {
+        long size = ids.length;
+        return 4L * Integer.BYTES + size * (2 * Long.BYTES + 3 * Integer.BYTES + 1)
+                + Integer.BYTES + (long) tagIds.length * Integer.BYTES;
+    }
+
+    YearMonth month() {
+        return month;
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    /**
+     * Adds totals and counts of matching expenses to their groups.
+     */
+    void aggregate(ColumnQuery query, Map<GroupKey, long[]> groups) {
+        List<AnalyticsDimension> dimensions = query.dimensions();
+        int[][] keysByDay = keysByDay(dimensions);
+        int firstEpochDay = Math.toIntExact(month.atDay(1).toEpochDay());
+        int tagPosition = dimensions.indexOf(AnalyticsDimension.TAG);
+
+        for (int i = 0; i < ids.length; i++) {
+            if (!query.matches(epochDays[i], categoryIds[i], regular[i]) || !matchesTags(query.tagIds(), i)) {
+                continue;
+            }
+            int[] keys = new int[dimensions.size()];
+            int day = epochDays[i] - firstEpochDay;
+            for (int d = 0; d < keys.length; d++) {
+                keys[d] = switch (dimensions.get(d)) {
+                    case CATEGORY -> categoryIds[i];
+                    case REGULAR -> regular[i] ? 1 : 0;
+                    case TAG -> AnalyticsDimension.UNTAGGED;
+                    default -> keysByDay[d][day];
+                };
+            }
+            if (tagPosition < 0 || tagOffsets[i] == tagOffsets[i + 1]) {
+                add(groups, keys, values[i]);
+            } else {
+                for (int t = tagOffsets[i]; t < tagOffsets[i + 1]; t++) {
+                    int[] tagKeys = keys.clone();
+                    tagKeys[tagPosition] = tagIds[t];
+                    add(groups, tagKeys, values[i]);
+                }
+            }
+        }
+    }
+
+    boolean sameAs(MonthColumns other) {
+        return month.equals(other.month)
+                && Arrays.equals(ids, other.ids)
+                && Arrays.equals(epochDays, other.epochDays)
+                && Arrays.equals(values, other.values)
+                && Arrays.equals(categoryIds, other.categoryIds)
+                && Arrays.equals(regular, other.regular)
+                && Arrays.equals(tagOffsets, other.tagOffsets)
+                && Arrays.equals(tagIds, other.tagIds);
+    }
+
+    private boolean matchesTags(int[] queryTagIds, int i) {
+        if (Objects.isNull(queryTagIds)) {
+            return true;
+        }
+        for (int t = tagOffsets[i]; t < tagOffsets[i + 1]; t++) {
+            if (ColumnQuery.contains(queryTagIds, tagIds[t])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // keys of date dimensions are the same for every expense of a day, so they are computed once per day
+    private int[][] keysByDay(List<AnalyticsDimension> dimensions) {
+        int[][] keysByDay = new int[dimensions.size()][];
+        for (int d = 0; d < dimensions.size(); d++) {
+            AnalyticsDimension dimension = dimensions.get(d);
+            if (dimension.isDate()) {
+                keysByDay[d] = new int[month.lengthOfMonth()];
+                for (int day = 0; day < keysByDay[d].length; day++) {
+                    keysByDay[d][day] = dimension.keyOf(month.atDay(day + 1));
+                }
+            }
+        }
+        return keysByDay;
+    }
+
+    private static void skip(ByteBuffer buffer, int bytes) {
+        buffer.position(buffer.position() + bytes);
+    }
+
+    private static void add(Map<GroupKey, long[]> groups, int[] keys, long value) {
+        long[] aggregates = groups.computeIfAbsent(new GroupKey(keys), key -> new long[2]);
+        aggregates[0] += value;
+        aggregates[1]++;
+    }
+}
@@ -0,0 +1,210 @@
+package yehor.budget.service.ingest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Reads expenses from CSV with a header naming the columns date, value, category, and optionally is_regular,
+ * tags and note, in any order. Fields may be quoted, with quotes inside of them doubled. Tags are separated by
+ * semicolons. Records are read one by one, so files of any size are read in constant memory.
+ */
+final class ExpenseCsvReader {
+
+    static final List<String> REQUIRED_COLUMNS = List.of("date", "value", "category");
+    private static final BigDecimal MIN_VALUE = BigDecimal.ONE;
+    private static final BigDecimal MAX_VALUE = new BigDecimal("1000000000");
+    private static final int MAX_NAME_LENGTH = 50;
+    private static final int MAX_NOTE_LENGTH = 255;
+
+    private final Reader reader;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private int line = 1;
+    private int recordLine;
+    private int next = -2; // look ahead character, -2 when not read yet
+
+    ExpenseCsvReader(Reader reader) throws IOException {
+        this.reader = reader;
+        List<String> header = readRecord();
+        if (Objects.isNull(header)) {
+            throw new IllegalArgumentException("File is empty");
+        }
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(), i);
+        }
+        List<String> missingColumns = REQUIRED_COLUMNS.stream().filter(column -> !columns.containsKey(column)).toList();
+        if (!missingColumns.isEmpty()) {
+            throw new IllegalArgumentException("Header does not contain columns " + missingColumns);
+        }
+    }
+
+    /**
+     * @return next row, or null at the end of input
+     * @throws InvalidRowException when the row is not a valid expense, reading may be continued afterwards
+     */
+    ExpenseImportRow next() throws IOException {
+        List<String> fields = readRecord();
+        if (Objects.isNull(fields)) {
+            return null;
+        }
+        try {
+            return toRow(fields);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRowException(recordLine, e.getMessage());
+        }
+    }
+
+    private ExpenseImportRow toRow(List<String> fields) {
+        String dateField = field(fields, "date");
+        LocalDate date;
+        try {
+            date = LocalDate.parse(dateField);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Provided value is not a valid date " + dateField);
+        }
+
+        String valueField = field(fields, "value");
+        BigDecimal value;
+        try {
+            value = new BigDecimal(valueField);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Provided value is not a valid number " + valueField);
+        }
+        if (value.compareTo(MIN_VALUE) < 0 || value.compareTo(MAX_VALUE) >= 0) {
+            throw new IllegalArgumentException("Value should be between " + MIN_VALUE + " and " + MAX_VALUE);
+        }
+        if (value.stripTrailingZeros().scale() > 2) {
+            throw new IllegalArgumentException("Value cannot have more than 2 decimal places " + valueField);
+        }
+
+        String category = field(fields, "category");
+        if (category.isEmpty() || category.length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("Category should have from 1 to " + MAX_NAME_LENGTH + " characters");
+        }
+
+        String isRegularField = field(fields, "is_regular").toLowerCase();
+        if (!isRegularField.isEmpty() && !isRegularField.equals("true") && !isRegularField.equals("false")) {
+            throw new IllegalArgumentException("Provided value is not a valid boolean " + isRegularField);
+        }
+
+        List<String> tags = Arrays.stream(field(fields, "tags").split(";"))
+                .map(String::trim)
+                .filter(tag -> !tag.isEmpty())
+                .distinct()
+                .toList();
+        if (tags.stream().anyMatch(tag -> tag.length() > MAX_NAME_LENGTH)) {
+            throw new IllegalArgumentException("Tags should have up to " + MAX_NAME_LENGTH + " characters");
+        }
+
+        String note = field(fields, "note");
+        if (note.length() > MAX_NOTE_LENGTH) {
+            throw new IllegalArgumentException("Note should have up to " + MAX_NOTE_LENGTH + " characters");
+        }
+
+        long valueInMinorUnits = value.movePointRight(2).longValueExact();
+        return new ExpenseImportRow(recordLine, date, valueInMinorUnits, category, Boolean.parseBoolean(isRegularField),
+                tags, note.isEmpty() ? null : note);
+    }
+
+    // missing optional columns and fields are read as empty
+    private String field(List<String> fields, String column) {
+        Integer index = columns.get(column);
+        return Objects.isNull(index) || index >= fields.size() ? "" : fields.get(index).trim();
+    }
+
+    // reads fields of the next not empty record, quoted fields may contain separators, quotes and line breaks
+    private List<String> readRecord() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean empty = true;
+        recordLine = line;
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                if (empty) {
+                    return null;
+                }
+                fields.add(field.toString());
+                return fields;
+            }
+            if (quoted) {
+                if (c == '"') {
+                    if (peek() == '"') {
+                        read();
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    countLine(c);
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+                empty = false;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                empty = false;
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                line++;
+                if (!empty) {
+                    fields.add(field.toString());
+                    return fields;
+                }
+                recordLine = line;
+            } else {
+                field.append((char) c);
+                empty = false;
+            }
+        }
+    }
+
+    private void countLine(int c) {
+        if (c == '\n') {
+            line++;
+        }
+    }
+
+    private int read() throws IOException {
+        if (next != -2) {
+            int c = next;
+            next = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private int peek() throws IOException {
+        if (next == -2) {
+            next = reader.read();
+        }
+        return next;
+    }
+
+    static class InvalidRowException extends IllegalArgumentException {
+
+        private final int line;
+
+        InvalidRowException(int line, String message) {
+            super(message);
+            this.line = line;
+        }
+
+        int getLine() {
+            return line;
+        }
+    }
+}
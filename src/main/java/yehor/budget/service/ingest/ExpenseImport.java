@@ -0,0 +1,103 @@
+package yehor.budget.service.ingest;
+
+import yehor.budget.common.ExpenseImportStatus;
+import yehor.budget.web.dto.ExpenseImportDto;
+import yehor.budget.web.dto.ExpenseImportErrorDto;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one import, updated by the importing thread and read by any other.
+ */
+final class ExpenseImport {
+
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final String id;
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong rowsRejected = new AtomicLong();
+    private final List<ExpenseImportErrorDto> errors = new ArrayList<>(); // guarded by this
+    private volatile ExpenseImportStatus status = ExpenseImportStatus.QUEUED;
+    private volatile long rowsImported;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String failure;
+
+    ExpenseImport(String id) {
+        this.id = id;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    void start() {
+        startedAt = Instant.now();
+        status = ExpenseImportStatus.COPYING;
+    }
+
+    void rowRead() {
+        rowsRead.incrementAndGet();
+    }
+
+    void reject(int line, String message) {
+        rowsRejected.incrementAndGet();
+        report(line, message);
+    }
+
+    /**
+     * Reports an error of a row rejected in bulk, which is counted by {@link #rejected}.
+     */
+    synchronized void report(int line, String message) {
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new ExpenseImportErrorDto(line, message));
+        }
+    }
+
+    void rejected(long rows) {
+        rowsRejected.addAndGet(rows);
+    }
+
+    void merging() {
+        status = ExpenseImportStatus.MERGING;
+    }
+
+    void complete(long importedRows) {
+        rowsImported = importedRows;
+        finishedAt = Instant.now();
+        status = ExpenseImportStatus.COMPLETED;
+    }
+
+    void fail(String message) {
+        failure = message;
+        finishedAt = Instant.now();
+        status = ExpenseImportStatus.FAILED;
+    }
+
+    boolean isFinished() {
+        return Objects.nonNull(finishedAt);
+    }
+
+    synchronized ExpenseImportDto toDto() {
+        Instant start = startedAt;
+        Instant end = Objects.isNull(finishedAt) ? Instant.now() : finishedAt;
+        long millis = Objects.isNull(start) ? 0 : Math.max(1, Duration.between(start, end).toMillis());
+        return ExpenseImportDto.builder()
+                .id(id)
+                .status(status)
+                .rowsRead(rowsRead.get())
+                .rowsRejected(rowsRejected.get())
+                .rowsImported(rowsImported)
+                .rowsPerSecond(millis == 0 ? 0 : rowsRead.get() * 1000 / millis)
+                .startedAt(start)
+                .finishedAt(finishedAt)
+                .failure(failure)
+                .errors(List.copyOf(errors))
+                .build();
+    }
+}
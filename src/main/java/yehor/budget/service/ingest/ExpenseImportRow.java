@@ -0,0 +1,11 @@
+package yehor.budget.service.ingest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * @param line line of the input the row starts on
+ */
+record ExpenseImportRow(int line, LocalDate date, long valueInMinorUnits, String category, boolean isRegular,
+                        List<String> tags, String note) {
+}
@@ -0,0 +1,278 @@
+package yehor.budget.service.ingest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.stereotype.Service;
+import yehor.budget.common.date.DateManager;
+import yehor.budget.common.exception.ObjectNotFoundException;
+import yehor.budget.common.util.NamedThreadFactory;
+import yehor.budget.service.cache.CacheInvalidationBus;
+import yehor.budget.service.cache.CachedEntity;
+import yehor.budget.web.dto.ExpenseImportDto;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Imports expenses from CSV in bulk. Valid rows are streamed with binary COPY into a staging table, then categories
+ * and tags are resolved by name and rows are merged into expenses with a few set based statements, all in one
+ * transaction. Rows which are invalid or refer to missing categories or tags are rejected and reported.
+ * Imports run one at a time in the background. Their progress is kept in memory of the node which runs them,
+ * for the last 20 imports, so it is not known to other nodes or after a restart.
+ */
+@Slf4j
+@Service
+public class ExpenseImportService {
+
+    private static final int MAX_KEPT_IMPORTS = 20;
+    private static final int COPY_BUFFER_BYTES = 1 << 16;
+    private static final int STAGING_COLUMNS = 7;
+
+    private static final String CREATE_STAGING_TABLE = "CREATE TEMP TABLE expense_import_staging (" +
+            "line_no INT NOT NULL, date DATE NOT NULL, value_minor BIGINT NOT NULL, category TEXT NOT NULL, " +
+            "is_regular BOOLEAN NOT NULL, tags TEXT[] NOT NULL, note TEXT, expense_id BIGINT) ON COMMIT DROP";
+    private static final String COPY_STAGING = "COPY expense_import_staging " +
+            "(line_no, date, value_minor, category, is_regular, tags, note) FROM STDIN WITH (FORMAT binary)";
+    private static final String MISSING_CATEGORY = "NOT EXISTS (SELECT 1 FROM categories c WHERE c.name = s.category)";
+    private static final String MISSING_TAG = "EXISTS (SELECT 1 FROM unnest(s.tags) AS n(name) " +
+            "WHERE NOT EXISTS (SELECT 1 FROM tags t WHERE t.name = n.name))";
+
+    private final DataSource dataSource;
+    private final DateManager dateManager;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    private final Map<String, ExpenseImport> imports = new LinkedHashMap<>(); // guarded by itself
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(new NamedThreadFactory("expense-import"));
+
+    public ExpenseImportService(DataSource dataSource, DateManager dateManager, CacheInvalidationBus cacheInvalidationBus) {
+        this.dataSource = dataSource;
+        this.dateManager = dateManager;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+    }
+
+    /**
+     * Stores the input and queues its import.
+     */
+    public ExpenseImportDto startImport(InputStream csv) {
+        ExpenseImport expenseImport = new ExpenseImport(UUID.randomUUID().toString());
+        Path file;
+        try {
+            file = Files.createTempFile("expense-import-", ".csv");
+            Files.copy(csv, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store the file for import", e);
+        }
+        register(expenseImport);
+        executor.execute(() -> {
+            try {
+                runImport(expenseImport, file);
+            } finally {
+                deleteQuietly(file);
+            }
+        });
+        return expenseImport.toDto();
+    }
+
+    /**
+     * @throws ObjectNotFoundException if the import was not started by this node or is no longer kept
+     */
+    public ExpenseImportDto getImport(String id) {
+        synchronized (imports) {
+            ExpenseImport expenseImport = imports.get(id);
+            if (Objects.isNull(expenseImport)) {
+                throw new ObjectNotFoundException(String.format("Import with id %s does not exist", id));
+            }
+            return expenseImport.toDto();
+        }
+    }
+
+    void runImport(ExpenseImport expenseImport, Path file) {
+        expenseImport.start();
+        log.info("Importing expenses {}", expenseImport.getId());
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                ImportResult result = importInTransaction(connection, expenseImport, file);
+                connection.commit();
+                afterCommit(result);
+                expenseImport.complete(result.importedRows());
+                log.info("Imported expenses {}: {}", expenseImport.getId(), expenseImport.toDto());
+            } catch (Exception e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (IllegalArgumentException e) {
+            expenseImport.fail(e.getMessage());
+        } catch (Exception e) {
+            log.error("Failed to import expenses {}", expenseImport.getId(), e);
+            expenseImport.fail("Import failed: " + e.getMessage());
+        }
+    }
+
+    private ImportResult importInTransaction(Connection connection, ExpenseImport expenseImport, Path file)
+            throws SQLException, IOException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_STAGING_TABLE);
+            // rows are inserted with their tags, so tags do not need to touch change numbers of their expenses
+            statement.execute("SET LOCAL budget.bulk_import = 'on'");
+        }
+        copyToStaging(connection, expenseImport, file);
+
+        expenseImport.merging();
+        rejectMissing(connection, expenseImport, "SELECT s.line_no, s.category FROM expense_import_staging s WHERE "
+                + MISSING_CATEGORY, "Category %s does not exist");
+        rejectMissing(connection, expenseImport, "SELECT s.line_no, n.name FROM expense_import_staging s " +
+                "CROSS JOIN LATERAL unnest(s.tags) AS n(name) " +
+                "WHERE NOT EXISTS (SELECT 1 FROM tags t WHERE t.name = n.name)", "Tag %s does not exist");
+
+        try (Statement statement = connection.createStatement()) {
+            expenseImport.rejected(statement.executeUpdate("DELETE FROM expense_import_staging s WHERE "
+                    + MISSING_CATEGORY + " OR " + MISSING_TAG));
+            statement.executeUpdate("UPDATE expense_import_staging SET expense_id = nextval('expenses_expense_id_seq')");
+            int importedRows = statement.executeUpdate(
+                    "INSERT INTO expenses (expense_id, date, value, is_regular, category_id, note) " +
+                    "SELECT s.expense_id, s.date, s.value_minor / 100.0, s.is_regular, c.category_id, s.note " +
+                    "FROM expense_import_staging s JOIN categories c ON c.name = s.category");
+            statement.executeUpdate("INSERT INTO expenses_to_tags (expense_id, tag_id) " +
+                    "SELECT s.expense_id, t.tag_id FROM expense_import_staging s " +
+                    "CROSS JOIN LATERAL unnest(s.tags) AS n(name) JOIN tags t ON t.name = n.name");
+            return new ImportResult(importedRows, findDateRange(statement), findMonths(statement));
+        }
+    }
+
+    private void copyToStaging(Connection connection, ExpenseImport expenseImport, Path file)
+            throws SQLException, IOException {
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        PGCopyOutputStream copyStream = new PGCopyOutputStream(pgConnection, COPY_STAGING, COPY_BUFFER_BYTES);
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            ExpenseCsvReader csvReader = new ExpenseCsvReader(reader);
+            PgBinaryCopyWriter writer = new PgBinaryCopyWriter(copyStream);
+            while (true) {
+                ExpenseImportRow row;
+                try {
+                    row = csvReader.next();
+                } catch (ExpenseCsvReader.InvalidRowException e) {
+                    expenseImport.rowRead();
+                    expenseImport.reject(e.getLine(), e.getMessage());
+                    continue;
+                }
+                if (Objects.isNull(row)) {
+                    break;
+                }
+                expenseImport.rowRead();
+                writer.startTuple(STAGING_COLUMNS)
+                        .writeInt(row.line())
+                        .writeDate(row.date())
+                        .writeLong(row.valueInMinorUnits())
+                        .writeText(row.category())
+                        .writeBoolean(row.isRegular())
+                        .writeTextArray(row.tags())
+                        .writeText(row.note());
+            }
+            writer.close();
+        } catch (IOException | RuntimeException e) {
+            if (copyStream.isActive()) {
+                copyStream.cancelCopy();
+            }
+            throw e;
+        }
+    }
+
+    // reports the first rows with missing names, all of them are counted when deleted
+    private void rejectMissing(Connection connection, ExpenseImport expenseImport, String query, String message)
+            throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(query + " ORDER BY 1 LIMIT ?")) {
+            statement.setInt(1, ExpenseImport.MAX_REPORTED_ERRORS);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    expenseImport.report(resultSet.getInt(1), String.format(message, resultSet.getString(2)));
+                }
+            }
+        }
+    }
+
+    private List<LocalDate> findDateRange(Statement statement) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery("SELECT MIN(date), MAX(date) FROM expense_import_staging")) {
+            resultSet.next();
+            Date min = resultSet.getDate(1);
+            Date max = resultSet.getDate(2);
+            return Objects.isNull(min) ? List.of() : List.of(min.toLocalDate(), max.toLocalDate());
+        }
+    }
+
+    private List<String> findMonths(Statement statement) throws SQLException {
+        List<String> months = new ArrayList<>();
+        try (ResultSet resultSet = statement.executeQuery(
+                "SELECT DISTINCT to_char(date, 'YYYY-MM') FROM expense_import_staging")) {
+            while (resultSet.next()) {
+                months.add(resultSet.getString(1));
+            }
+        }
+        return months;
+    }
+
+    // budget dates are extended once for the whole import
+    private void afterCommit(ImportResult result) {
+        if (result.importedRows() == 0) {
+            return;
+        }
+        result.dateRange().forEach(dateManager::updateBudgetDatesIfNecessary);
+        dateManager.flushPendingBudgetDates();
+        cacheInvalidationBus.publish(CachedEntity.EXPENSE, result.months());
+    }
+
+    private void register(ExpenseImport expenseImport) {
+        synchronized (imports) {
+            imports.put(expenseImport.getId(), expenseImport);
+            Iterator<ExpenseImport> iterator = imports.values().iterator();
+            while (imports.size() > MAX_KEPT_IMPORTS && iterator.hasNext()) {
+                if (iterator.next().isFinished()) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete {}", file, e);
+        }
+    }
+
+    @PreDestroy
+    private void stopImports() {
+        executor.shutdownNow();
+    }
+
+    private record ImportResult(int importedRows, List<LocalDate> dateRange, List<String> months) {
+    }
+}
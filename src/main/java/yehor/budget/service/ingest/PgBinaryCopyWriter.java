@@ -0,0 +1,102 @@
+package yehor.budget.service.ingest;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Writes tuples in the binary format of Postgres COPY, so values are sent without being formatted and parsed
+ * as text. Each tuple is started with the number of its fields, which are then written in order of the columns.
+ */
+final class PgBinaryCopyWriter implements Closeable {
+
+    static final byte[] SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+    private static final long POSTGRES_EPOCH_DAY = LocalDate.of(2000, 1, 1).toEpochDay();
+    private static final int TEXT_OID = 25;
+
+    private final DataOutputStream output;
+
+    PgBinaryCopyWriter(OutputStream output) throws IOException {
+        this.output = new DataOutputStream(output);
+        this.output.write(SIGNATURE);
+        this.output.writeInt(0); // flags
+        this.output.writeInt(0); // length of header extension
+    }
+
+    PgBinaryCopyWriter startTuple(int numberOfFields) throws IOException {
+        output.writeShort(numberOfFields);
+        return this;
+    }
+
+    PgBinaryCopyWriter writeInt(int value) throws IOException {
+        output.writeInt(Integer.BYTES);
+        output.writeInt(value);
+        return this;
+    }
+
+    PgBinaryCopyWriter writeLong(long value) throws IOException {
+        output.writeInt(Long.BYTES);
+        output.writeLong(value);
+        return this;
+    }
+
+    PgBinaryCopyWriter writeBoolean(boolean value) throws IOException {
+        output.writeInt(1);
+        output.writeByte(value ? 1 : 0);
+        return this;
+    }
+
+    PgBinaryCopyWriter writeDate(LocalDate value) throws IOException {
+        return writeInt(Math.toIntExact(value.toEpochDay() - POSTGRES_EPOCH_DAY));
+    }
+
+    PgBinaryCopyWriter writeText(String value) throws IOException {
+        if (Objects.isNull(value)) {
+            output.writeInt(-1);
+            return this;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+        return this;
+    }
+
+    /**
+     * Writes one dimensional text[] without nulls.
+     */
+    PgBinaryCopyWriter writeTextArray(List<String> values) throws IOException {
+        byte[][] elements = new byte[values.size()][];
+        int length = 3 * Integer.BYTES + (values.isEmpty() ? 0 : 2 * Integer.BYTES);
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = values.get(i).getBytes(StandardCharsets.UTF_8);
+            length += Integer.BYTES + elements[i].length;
+        }
+        output.writeInt(length);
+        output.writeInt(values.isEmpty() ? 0 : 1); // dimensions
+        output.writeInt(0); // has nulls
+        output.writeInt(TEXT_OID);
+        if (!values.isEmpty()) {
+            output.writeInt(elements.length);
+            output.writeInt(1); // lower bound
+        }
+        for (byte[] element : elements) {
+            output.writeInt(element.length);
+            output.write(element);
+        }
+        return this;
+    }
+
+    /**
+     * Writes the trailer and closes the underlying stream.
+     */
+    @Override
+    public void close() throws IOException {
+        output.writeShort(-1);
+        output.close();
+    }
+}
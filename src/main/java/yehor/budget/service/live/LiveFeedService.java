@@ -0,0 +1,264 @@
+package yehor.budget.service.live;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import yehor.budget.common.date.FullMonth;
+import yehor.budget.common.util.NamedThreadFactory;
+import yehor.budget.service.EstimatedExpenseService;
+import yehor.budget.service.StatisticsService;
+import yehor.budget.service.cache.CacheInvalidation;
+import yehor.budget.service.cache.CacheInvalidationBus;
+import yehor.budget.service.cache.CachedEntity;
+import yehor.budget.service.recording.BalanceRecordingService;
+import yehor.budget.web.dto.LiveStatisticsDto;
+import yehor.budget.web.dto.MonthlyStatistics;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Pushes updates of dashboards to subscribers over SSE when data changes on any node: statistics of the current
+ * month, estimated expenses after a worker run and the latest balance record. Each update is computed once
+ * after a change, with changes arriving in the meantime coalesced into it, and the same event is sent to every
+ * subscriber, so the load depends on the rate of changes rather than on the number of subscribers. Updates are
+ * computed by a single thread, which also queues heartbeats that keep connections open through proxies, and events
+ * are written to clients by a small pool of send threads, so a slow client does not hold back the others.
+ */
+@Slf4j
+@Service
+public class LiveFeedService {
+
+    static final String STATISTICS_EVENT = "monthly-statistics";
+    static final String ESTIMATED_EXPENSES_EVENT = "estimated-expenses";
+    static final String BALANCE_RECORD_EVENT = "balance-record";
+    private static final int MAX_SUBSCRIBERS = 1000;
+    private static final long SUBSCRIPTION_TIMEOUT_MILLIS = MINUTES.toMillis(30);
+    private static final int HEARTBEAT_PERIOD_SECONDS = 15;
+    private static final int SEND_THREADS = 4;
+    private static final int MAX_QUEUED_EVENTS = 16;
+    private static final Duration SEND_TIMEOUT = Duration.ofSeconds(10);
+
+    private final StatisticsService statisticsService;
+    private final EstimatedExpenseService estimatedExpenseService;
+    private final BalanceRecordingService balanceRecordingService;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final ObjectMapper objectMapper;
+
+    private final ExecutorService sendExecutor = Executors.newFixedThreadPool(SEND_THREADS,
+            new NamedThreadFactory("live-feed-send"));
+    private final SseEmitterRegistry registry = new SseEmitterRegistry(MAX_SUBSCRIBERS, MAX_QUEUED_EVENTS,
+            SEND_TIMEOUT, sendExecutor);
+    // last sent events by name, sent to new subscribers instead of computing them again
+    private final Map<String, String> lastEvents = new HashMap<>(); // accessed by the executor only
+    private final AtomicBoolean statisticsPending = new AtomicBoolean();
+    private final AtomicBoolean estimatedExpensesPending = new AtomicBoolean();
+    private final AtomicBoolean balanceRecordPending = new AtomicBoolean();
+    private volatile boolean categoriesChanged;
+    private MonthlyStatistics lastStatistics; // accessed by the executor only
+    private YearMonth lastStatisticsMonth; // accessed by the executor only
+    private ScheduledThreadPoolExecutor executor;
+
+    public LiveFeedService(StatisticsService statisticsService,
+                           EstimatedExpenseService estimatedExpenseService,
+                           BalanceRecordingService balanceRecordingService,
+                           CacheInvalidationBus cacheInvalidationBus,
+                           ObjectMapper objectMapper) {
+        this.statisticsService = statisticsService;
+        this.estimatedExpenseService = estimatedExpenseService;
+        this.balanceRecordingService = balanceRecordingService;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Registers a subscriber, which first receives the current state of every dashboard and then its updates.
+     *
+     * @throws IllegalStateException when there are too many subscribers or the feed is stopped
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = registry.register(new SseEmitter(SUBSCRIPTION_TIMEOUT_MILLIS));
+        try {
+            executor.execute(() -> {
+                try {
+                    sendCurrentState(emitter);
+                } catch (Exception e) {
+                    log.error("Failed to send current state to a new subscriber", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            emitter.complete();
+            throw new IllegalStateException("Live feed is stopped", e);
+        }
+        return emitter;
+    }
+
+    /**
+     * @param previous statistics sent last, or null when every category should be sent
+     * @return update from the previous statistics to the current ones, or null when nothing changed
+     */
+    static LiveStatisticsDto toUpdate(YearMonth month, MonthlyStatistics previous, MonthlyStatistics current) {
+        Map<String, BigDecimal> totals = Objects.requireNonNullElse(current.getTotalsPerCategory(), Map.of());
+        if (Objects.isNull(previous)) {
+            return toDto(month, current, totals, true);
+        }
+        Map<String, BigDecimal> previousTotals = Objects.requireNonNullElse(previous.getTotalsPerCategory(), Map.of());
+        Map<String, BigDecimal> changedTotals = new HashMap<>();
+        totals.forEach((category, total) -> {
+            BigDecimal previousTotal = previousTotals.get(category);
+            if (Objects.isNull(previousTotal) || previousTotal.compareTo(total) != 0) {
+                changedTotals.put(category, total);
+            }
+        });
+        previousTotals.keySet().stream()
+                .filter(category -> !totals.containsKey(category))
+                .forEach(category -> changedTotals.put(category, BigDecimal.ZERO));
+        if (changedTotals.isEmpty() && previous.getTotalExpense().compareTo(current.getTotalExpense()) == 0
+                && previous.getTotalRegular().compareTo(current.getTotalRegular()) == 0) {
+            return null;
+        }
+        return toDto(month, current, changedTotals, false);
+    }
+
+    private static LiveStatisticsDto toDto(YearMonth month, MonthlyStatistics statistics,
+                                           Map<String, BigDecimal> totalsPerCategory, boolean complete) {
+        return LiveStatisticsDto.builder()
+                .month(month.toString())
+                .totalExpense(statistics.getTotalExpense())
+                .totalRegular(statistics.getTotalRegular())
+                .totalNonRegular(statistics.getTotalNonRegular())
+                .totalsPerCategory(totalsPerCategory)
+                .complete(complete)
+                .build();
+    }
+
+    private void sendCurrentState(SseEmitter emitter) {
+        YearMonth month = YearMonth.now();
+        if (Objects.isNull(lastStatistics) || !month.equals(lastStatisticsMonth)) {
+            lastStatistics = statisticsService.getMonthlyStatistics(FullMonth.of(month.atDay(1)));
+            lastStatisticsMonth = month;
+        }
+        registry.send(emitter, STATISTICS_EVENT, toJson(toUpdate(month, null, lastStatistics)));
+        String estimatedExpenses = lastEvents.computeIfAbsent(ESTIMATED_EXPENSES_EVENT,
+                name -> toJson(estimatedExpenseService.getOne()));
+        registry.send(emitter, ESTIMATED_EXPENSES_EVENT, estimatedExpenses);
+        if (!lastEvents.containsKey(BALANCE_RECORD_EVENT)) {
+            balanceRecordingService.getLatest().ifPresent(
+                    balanceRecord -> lastEvents.put(BALANCE_RECORD_EVENT, toJson(balanceRecord)));
+        }
+        String balanceRecord = lastEvents.get(BALANCE_RECORD_EVENT);
+        if (Objects.nonNull(balanceRecord)) {
+            registry.send(emitter, BALANCE_RECORD_EVENT, balanceRecord);
+        }
+    }
+
+    private void publishStatistics() {
+        YearMonth month = YearMonth.now();
+        MonthlyStatistics current = statisticsService.getMonthlyStatistics(FullMonth.of(month.atDay(1)));
+        // totals per category are keyed by category names, so every category is sent again after they change
+        boolean complete = categoriesChanged || !month.equals(lastStatisticsMonth);
+        categoriesChanged = false;
+        MonthlyStatistics previous = complete ? null : lastStatistics;
+        LiveStatisticsDto update = toUpdate(month, previous, current);
+        lastStatistics = current;
+        lastStatisticsMonth = month;
+        if (Objects.nonNull(update)) {
+            registry.broadcast(STATISTICS_EVENT, toJson(update));
+        }
+    }
+
+    private void publishEstimatedExpenses() {
+        String event = toJson(estimatedExpenseService.getOne());
+        lastEvents.put(ESTIMATED_EXPENSES_EVENT, event);
+        registry.broadcast(ESTIMATED_EXPENSES_EVENT, event);
+    }
+
+    private void publishBalanceRecord() {
+        balanceRecordingService.getLatest().ifPresentOrElse(balanceRecord -> {
+            String event = toJson(balanceRecord);
+            lastEvents.put(BALANCE_RECORD_EVENT, event);
+            registry.broadcast(BALANCE_RECORD_EVENT, event);
+        }, () -> lastEvents.remove(BALANCE_RECORD_EVENT));
+    }
+
+    private void onExpenseInvalidation(CacheInvalidation invalidation) {
+        if (invalidation.isEverything() || invalidation.keys().contains(YearMonth.now().toString())) {
+            schedule(statisticsPending, this::publishStatistics);
+        }
+    }
+
+    // while there are no subscribers nothing is computed, and the last state is forgotten as it gets outdated
+    private void schedule(AtomicBoolean pending, Runnable publish) {
+        if (!pending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                pending.set(false);
+                try {
+                    if (registry.size() > 0) {
+                        publish.run();
+                    } else {
+                        forgetState();
+                    }
+                } catch (Exception e) {
+                    log.error("Failed to publish live update", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Live update is not published, the feed is stopped");
+        }
+    }
+
+    private void forgetState() {
+        lastStatistics = null;
+        lastEvents.clear();
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to write live update " + value, e);
+        }
+    }
+
+    @PostConstruct
+    private void startFeed() {
+        executor = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("live-feed"));
+        executor.scheduleAtFixedRate(registry::heartbeat,
+                HEARTBEAT_PERIOD_SECONDS, HEARTBEAT_PERIOD_SECONDS, SECONDS);
+        cacheInvalidationBus.subscribe(CachedEntity.EXPENSE, this::onExpenseInvalidation);
+        cacheInvalidationBus.subscribe(CachedEntity.CATEGORY, invalidation -> {
+            categoriesChanged = true;
+            schedule(statisticsPending, this::publishStatistics);
+        });
+        cacheInvalidationBus.subscribe(CachedEntity.ESTIMATED_EXPENSE,
+                invalidation -> schedule(estimatedExpensesPending, this::publishEstimatedExpenses));
+        cacheInvalidationBus.subscribe(CachedEntity.BALANCE_RECORD,
+                invalidation -> schedule(balanceRecordPending, this::publishBalanceRecord));
+    }
+
+    @PreDestroy
+    private void stopFeed() {
+        executor.shutdownNow();
+        registry.completeAll();
+        sendExecutor.shutdown();
+    }
+}
@@ -0,0 +1,207 @@
+package yehor.budget.service.live;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Open SSE connections. Events are queued per subscriber and sent by the send executor, so the caller never waits
+ * for a client. A subscriber whose queue is full, or whose send has not finished within the send timeout, is
+ * dropped, so a stalled client delays neither other clients nor heartbeats. Emitters are also removed when they
+ * complete, time out or fail to send, so a client which went away is dropped at the latest on the next heartbeat.
+ */
+@Slf4j
+final class SseEmitterRegistry {
+
+    private final Map<SseEmitter, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final int maxEmitters;
+    private final int maxQueuedEvents;
+    private final long sendTimeoutNanos;
+    private final Executor sendExecutor;
+
+    SseEmitterRegistry(int maxEmitters, int maxQueuedEvents, Duration sendTimeout, Executor sendExecutor) {
+        this.maxEmitters = maxEmitters;
+        this.maxQueuedEvents = maxQueuedEvents;
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.sendExecutor = sendExecutor;
+    }
+
+    /**
+     * @throws IllegalStateException when the registry is full
+     */
+    SseEmitter register(SseEmitter emitter) {
+        if (subscribers.size() >= maxEmitters) {
+            throw new IllegalStateException("Limit of " + maxEmitters + " subscribers is reached");
+        }
+        subscribers.put(emitter, new Subscriber(emitter));
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(() -> subscribers.remove(emitter));
+        emitter.onError(e -> subscribers.remove(emitter));
+        return emitter;
+    }
+
+    /**
+     * Queues the event for every emitter.
+     *
+     * @param json data of the event, serialized once for all of them
+     */
+    void broadcast(String name, String json) {
+        subscribers.values().forEach(subscriber -> subscriber.enqueue(event(name, json)));
+    }
+
+    void send(SseEmitter emitter, String name, String json) {
+        Subscriber subscriber = subscribers.get(emitter);
+        if (Objects.nonNull(subscriber)) {
+            subscriber.enqueue(event(name, json));
+        }
+    }
+
+    /**
+     * Drops subscribers stalled in a send and queues a heartbeat for the others.
+     */
+    void heartbeat() {
+        long now = System.nanoTime();
+        subscribers.values().forEach(subscriber -> {
+            if (subscriber.isStalled(now)) {
+                subscriber.drop(new IOException("Event was not sent within " + sendTimeoutNanos / 1_000_000 + "ms"));
+            } else {
+                subscriber.enqueue(SseEmitter.event().comment("heartbeat"));
+            }
+        });
+    }
+
+    void completeAll() {
+        subscribers.values().forEach(subscriber -> subscriber.drop(null));
+        subscribers.clear();
+    }
+
+    int size() {
+        return subscribers.size();
+    }
+
+    private static SseEmitter.SseEventBuilder event(String name, String json) {
+        return SseEmitter.event().name(name).data(json, MediaType.APPLICATION_JSON);
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> queue = new ArrayDeque<>(); // guarded by this
+        private boolean draining; // guarded by this
+        private boolean dropped; // guarded by this
+        private Throwable dropError; // guarded by this, null when dropped on completion of the registry
+        private volatile long sendStartedNanos; // 0 while not sending
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void enqueue(SseEmitter.SseEventBuilder event) {
+            boolean full;
+            boolean startDraining = false;
+            synchronized (this) {
+                if (dropped) {
+                    return;
+                }
+                full = queue.size() >= maxQueuedEvents;
+                if (!full) {
+                    queue.add(event);
+                    startDraining = !draining;
+                    draining = true;
+                }
+            }
+            if (full) {
+                drop(new IOException("More than " + maxQueuedEvents + " events are waiting to be sent"));
+            } else if (startDraining) {
+                try {
+                    sendExecutor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    synchronized (this) {
+                        draining = false;
+                    }
+                    drop(e);
+                }
+            }
+        }
+
+        boolean isStalled(long now) {
+            long startedNanos = sendStartedNanos;
+            return startedNanos != 0 && now - startedNanos > sendTimeoutNanos;
+        }
+
+        /**
+         * Removes the subscriber and completes its emitter, with an error unless the error is null. An emitter
+         * in the middle of a send is completed by the sending thread once the send returns, as the emitter
+         * is locked while sending.
+         */
+        void drop(Throwable error) {
+            subscribers.remove(emitter, this);
+            boolean completeNow;
+            synchronized (this) {
+                if (dropped) {
+                    return;
+                }
+                dropped = true;
+                dropError = error;
+                queue.clear();
+                completeNow = !draining;
+            }
+            if (Objects.nonNull(error)) {
+                log.debug("Dropping subscriber: {}", error.getMessage());
+            }
+            if (completeNow) {
+                complete(error);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                SseEmitter.SseEventBuilder event;
+                Throwable error;
+                synchronized (this) {
+                    event = dropped ? null : queue.poll();
+                    error = dropError;
+                    if (Objects.isNull(event)) {
+                        draining = false;
+                        if (!dropped) {
+                            return;
+                        }
+                    }
+                }
+                if (Objects.isNull(event)) {
+                    complete(error);
+                    return;
+                }
+                sendStartedNanos = System.nanoTime();
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    drop(e);
+                } finally {
+                    sendStartedNanos = 0;
+                }
+            }
+        }
+
+        private void complete(Throwable error) {
+            try {
+                if (Objects.isNull(error)) {
+                    emitter.complete();
+                } else {
+                    emitter.completeWithError(error);
+                }
+            } catch (Exception e) {
+                log.debug("Failed to complete subscriber", e);
+            }
+        }
+    }
+}
@@ -5,6 +5,7 @@ import org.springframework.stereotype.Service;
 import yehor.budget.common.Currency;
 import yehor.budget.common.date.DateManager;
 import yehor.budget.common.date.MonthWeek;
+import yehor.budget.common.jfr.BalanceProjectionEvent;
 import yehor.budget.entity.FutureExpense;
 import yehor.budget.entity.recording.BalanceRecord;
 import yehor.budget.entity.recording.ExpectedExpenseRecord;
@@ -33,6 +34,8 @@ public class BalanceEstimationService {
     public List<BalanceEstimateDto> getBalanceEstimation(BalanceRecord balanceRecord,
                                                          LocalDate currentDate,
                                                          BigDecimal currentTotal) {
+        BalanceProjectionEvent event = new BalanceProjectionEvent();
+        event.begin();
         ExpectedExpenseRecord expectedExpenseRecord = balanceRecord.getExpectedExpenseRecord();
         Map<MonthWeek, BigDecimal> estimatedExpensePerWeek = Map.of(
                 MonthWeek.DAYS_1_TO_7, expectedExpenseRecord.getTotal1to7(),
@@ -53,6 +56,9 @@ public class BalanceEstimationService {
                     estimatedExpensePerWeek);
             estimates.add(estimate);
         }
+        event.months = estimates.size();
+        event.incomeSources = balanceRecord.getIncomeSourceRecords().size();
+        event.commit();
         return estimates;
     }
 
@@ -106,16 +112,20 @@ public class BalanceEstimationService {
 
     BigDecimal getExpensesForDaysLeftInCurrentWeek(MonthWeek currentMonthWeek, LocalDate currentDate,
                                                    Map<MonthWeek, BigDecimal> estimatedExpensePerWeek) {
+        int daysLeftInWeek = getDaysLeftInCurrentWeek(currentMonthWeek, currentDate);
+        BigDecimal expensesForCurrentWeek = estimatedExpensePerWeek.get(currentMonthWeek);
+        return expensesForCurrentWeek
+                .divide(BigDecimal.valueOf(7), RoundingMode.CEILING)
+                .multiply(BigDecimal.valueOf(daysLeftInWeek));
+    }
+
+    int getDaysLeftInCurrentWeek(MonthWeek currentMonthWeek, LocalDate currentDate) {
         int lastDayOfCurrentWeek;
         if (currentMonthWeek == MonthWeek.DAYS_22_TO_31) {
             lastDayOfCurrentWeek = dateManager.getLastDayOfMonth(currentDate);
         } else {
             lastDayOfCurrentWeek = currentMonthWeek.getRange().get(currentMonthWeek.getRange().size() - 1);
         }
-        int daysLeftInWeek = lastDayOfCurrentWeek - currentDate.getDayOfMonth();
-        BigDecimal expensesForCurrentWeek = estimatedExpensePerWeek.get(currentMonthWeek);
-        return expensesForCurrentWeek
-                .divide(BigDecimal.valueOf(7), RoundingMode.CEILING)
-                .multiply(BigDecimal.valueOf(daysLeftInWeek));
+        return lastDayOfCurrentWeek - currentDate.getDayOfMonth();
     }
 }
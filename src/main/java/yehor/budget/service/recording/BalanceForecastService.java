@@ -0,0 +1,226 @@
+package yehor.budget.service.recording;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import yehor.budget.common.Currency;
+import yehor.budget.common.date.DateManager;
+import yehor.budget.common.date.MonthWeek;
+import yehor.budget.common.util.PageableHelper;
+import yehor.budget.entity.Expense;
+import yehor.budget.entity.FutureExpense;
+import yehor.budget.entity.recording.BalanceRecord;
+import yehor.budget.repository.ExpenseRepository;
+import yehor.budget.repository.FutureExpenseRepository;
+import yehor.budget.repository.recording.BalanceRecordRepository;
+import yehor.budget.service.SettingsService;
+import yehor.budget.service.worker.EstimatedExpenseWorker;
+import yehor.budget.web.dto.full.BalanceForecastDto;
+import yehor.budget.web.dto.full.MonthlyBalanceForecastDto;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import static yehor.budget.service.recording.WeeklyExpenseDistribution.NUMBER_OF_WEEKS;
+
+/**
+ * Monte Carlo counterpart of {@link BalanceEstimationService}. Instead of projecting the average weekly
+ * expenses, every simulated path draws weekly expenses per category from their historical distribution,
+ * and the resulting end-of-month balances are reported as percentile bands.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BalanceForecastService {
+
+    private static final Currency CURRENCY_FOR_FORECAST = Currency.UAH;
+    private static final int PATHS_PER_TASK = 256;
+
+    private final ExpenseRepository expenseRepository;
+    private final FutureExpenseRepository futureExpenseRepository;
+    private final BalanceRecordRepository balanceRecordRepository;
+    private final SettingsService settingsService;
+    private final PageableHelper pageableHelper;
+    private final DateManager dateManager;
+    private final BalanceEstimationService balanceEstimationService;
+
+    @Transactional(readOnly = true)
+    public Optional<BalanceForecastDto> getForecast(int numberOfMonths, int numberOfPaths) {
+        Optional<BalanceRecord> latestOpt = pageableHelper.getLatestByDate(balanceRecordRepository);
+        return latestOpt.map(balanceRecord ->
+                getForecast(balanceRecord, numberOfMonths, numberOfPaths, new SplittableRandom()));
+    }
+
+    BalanceForecastDto getForecast(BalanceRecord balanceRecord,
+                                   int numberOfMonths,
+                                   int numberOfPaths,
+                                   SplittableRandom random) {
+        long start = System.currentTimeMillis();
+        WeeklyExpenseDistribution distribution = WeeklyExpenseDistribution.of(getHistoricalExpenses());
+        MonthlyPlan plan = getMonthlyPlan(balanceRecord, numberOfMonths);
+        double startTotal = getTotalBalance(balanceRecord);
+
+        double[][] balances = new double[numberOfMonths][numberOfPaths];
+        ForkJoinPool.commonPool().invoke(
+                new SimulationTask(plan, distribution, startTotal, balances, 0, numberOfPaths, random));
+
+        List<MonthlyBalanceForecastDto> months = new ArrayList<>();
+        for (int month = 0; month < numberOfMonths; month++) {
+            months.add(getMonthlyForecast(plan.endOfMonthDates[month], balances[month]));
+        }
+        log.info("Simulated {} paths for {} months in {}ms",
+                numberOfPaths, numberOfMonths, System.currentTimeMillis() - start);
+
+        return BalanceForecastDto.builder()
+                .startDate(balanceRecord.getDate())
+                .startTotal(toBigDecimal(startTotal))
+                .currency(CURRENCY_FOR_FORECAST)
+                .numberOfPaths(numberOfPaths)
+                .months(months)
+                .build();
+    }
+
+    private List<Expense> getHistoricalExpenses() {
+        String scopePattern = settingsService.getSettingsEntity().getEstimatedExpenseWorkerEndDateScopePattern();
+        return expenseRepository.findAllRegularInInterval(
+                EstimatedExpenseWorker.getEndDateForEstimation(scopePattern), LocalDate.now());
+    }
+
+    private MonthlyPlan getMonthlyPlan(BalanceRecord balanceRecord, int numberOfMonths) {
+        MonthlyPlan plan = new MonthlyPlan(numberOfMonths);
+        LocalDate currentDate = balanceRecord.getDate();
+        for (int month = 0; month < numberOfMonths; month++) {
+            MonthWeek currentMonthWeek = MonthWeek.of(currentDate);
+            for (MonthWeek monthWeek : currentMonthWeek.getMonthWeeksAfter()) {
+                plan.weekWeights[month][monthWeek.ordinal()] = 1;
+            }
+            plan.weekWeights[month][currentMonthWeek.ordinal()] =
+                    balanceEstimationService.getDaysLeftInCurrentWeek(currentMonthWeek, currentDate) / 7.0;
+            plan.incomes[month] = balanceEstimationService
+                    .getIncomesTilEndOfMonth(currentDate, balanceRecord).doubleValue();
+            plan.startDates[month] = currentDate;
+            plan.endOfMonthDates[month] = dateManager.getLastDateOfMonth(currentDate);
+            currentDate = plan.endOfMonthDates[month].plusDays(1);
+        }
+        setPlannedExpenses(plan);
+        return plan;
+    }
+
+    private void setPlannedExpenses(MonthlyPlan plan) {
+        List<FutureExpense> futureExpenses = futureExpenseRepository.getFutureExpensesInInterval(
+                plan.startDates[0], plan.endOfMonthDates[plan.endOfMonthDates.length - 1]);
+        for (FutureExpense futureExpense : futureExpenses) {
+            for (int month = 0; month < plan.endOfMonthDates.length; month++) {
+                if (!futureExpense.getDate().isAfter(plan.endOfMonthDates[month])) {
+                    plan.plannedExpenses[month] += futureExpense.getValue().doubleValue();
+                    break;
+                }
+            }
+        }
+    }
+
+    private double getTotalBalance(BalanceRecord balanceRecord) {
+        return balanceRecord.getBalanceItems().stream()
+                .map(item -> item.getCard().add(item.getCash()))
+                .reduce(BigDecimal.ZERO, BigDecimal::add)
+                .doubleValue();
+    }
+
+    private MonthlyBalanceForecastDto getMonthlyForecast(LocalDate endOfMonthDate, double[] balances) {
+        Arrays.sort(balances);
+        return MonthlyBalanceForecastDto.builder()
+                .endOfMonthDate(endOfMonthDate)
+                .mean(toBigDecimal(Arrays.stream(balances).average().orElse(0)))
+                .percentile5(toBigDecimal(percentile(balances, 5)))
+                .percentile25(toBigDecimal(percentile(balances, 25)))
+                .percentile50(toBigDecimal(percentile(balances, 50)))
+                .percentile75(toBigDecimal(percentile(balances, 75)))
+                .percentile95(toBigDecimal(percentile(balances, 95)))
+                .build();
+    }
+
+    private double percentile(double[] sortedValues, int percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * sortedValues.length);
+        return sortedValues[Math.max(0, rank - 1)];
+    }
+
+    private BigDecimal toBigDecimal(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_EVEN);
+    }
+
+    private static class MonthlyPlan {
+        private final LocalDate[] startDates;
+        private final LocalDate[] endOfMonthDates;
+        private final double[][] weekWeights;
+        private final double[] incomes;
+        private final double[] plannedExpenses;
+
+        MonthlyPlan(int numberOfMonths) {
+            startDates = new LocalDate[numberOfMonths];
+            endOfMonthDates = new LocalDate[numberOfMonths];
+            weekWeights = new double[numberOfMonths][NUMBER_OF_WEEKS];
+            incomes = new double[numberOfMonths];
+            plannedExpenses = new double[numberOfMonths];
+        }
+    }
+
+    private static class SimulationTask extends RecursiveAction {
+        private final transient MonthlyPlan plan;
+        private final transient WeeklyExpenseDistribution distribution;
+        private final double startTotal;
+        private final double[][] balances;
+        private final int fromPath;
+        private final int toPath;
+        private final SplittableRandom random;
+
+        SimulationTask(MonthlyPlan plan, WeeklyExpenseDistribution distribution, double startTotal,
+                       double[][] balances, int fromPath, int toPath, SplittableRandom random) {
+            this.plan = plan;
+            this.distribution = distribution;
+            this.startTotal = startTotal;
+            this.balances = balances;
+            this.fromPath = fromPath;
+            this.toPath = toPath;
+            this.random = random;
+        }
+
+        @Override
+        protected void compute() {
+            if (toPath - fromPath <= PATHS_PER_TASK) {
+                simulate();
+                return;
+            }
+            int middlePath = (fromPath + toPath) >>> 1;
+            invokeAll(
+                    new SimulationTask(plan, distribution, startTotal, balances, fromPath, middlePath, random.split()),
+                    new SimulationTask(plan, distribution, startTotal, balances, middlePath, toPath, random));
+        }
+
+        private void simulate() {
+            int numberOfMonths = balances.length;
+            for (int path = fromPath; path < toPath; path++) {
+                double balance = startTotal;
+                for (int month = 0; month < numberOfMonths; month++) {
+                    double expenses = plan.plannedExpenses[month];
+                    double[] weekWeights = plan.weekWeights[month];
+                    for (int week = 0; week < NUMBER_OF_WEEKS; week++) {
+                        if (weekWeights[week] > 0) {
+                            expenses += weekWeights[week] * distribution.sample(week, random);
+                        }
+                    }
+                    balance += plan.incomes[month] - expenses;
+                    balances[month][path] = balance;
+                }
+            }
+        }
+    }
+}
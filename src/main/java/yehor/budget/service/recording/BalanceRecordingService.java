@@ -17,6 +17,9 @@ import yehor.budget.repository.recording.ExpectedExpenseRecordRepository;
 import yehor.budget.repository.recording.IncomeSourceRecordRepository;
 import yehor.budget.service.EstimatedExpenseService;
 import yehor.budget.service.IncomeSourceService;
+import yehor.budget.service.cache.CacheInvalidationBus;
+import yehor.budget.service.cache.CachedEntity;
+import yehor.budget.service.flight.SingleFlight;
 import yehor.budget.web.converter.BalanceConverter;
 import yehor.budget.web.converter.EstimatedExpenseConverter;
 import yehor.budget.web.converter.IncomeSourceConverter;
@@ -48,7 +51,10 @@ public class BalanceRecordingService {
     private final BalanceEstimationService balanceEstimationService;
     private final EstimatedExpenseConverter estimatedExpenseConverter;
     private final ExpectedExpenseRecordRepository expectedExpenseRecordRepository;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
+    @SingleFlight(invalidatedBy = {CachedEntity.BALANCE_RECORD, CachedEntity.ESTIMATED_EXPENSE,
+            CachedEntity.EXCHANGE_RATE, CachedEntity.FUTURE_EXPENSE})
     @Transactional(readOnly = true)
     public Optional<BalanceRecordFullDto> getLatest() {
         Optional<BalanceRecord> latestOpt = pageableHelper.getLatestByDate(balanceRecordRepository);
@@ -70,6 +76,7 @@ public class BalanceRecordingService {
 
         BalanceRecordFullDtoWithoutEstimates saved = balanceConverter.convertToDtoWithNoEstimates(savedRecord);
         log.info("Saved: {}", savedRecord);
+        cacheInvalidationBus.publish(CachedEntity.BALANCE_RECORD, List.of(savedRecord.getId()));
         return saved;
     }
 
@@ -84,6 +91,7 @@ public class BalanceRecordingService {
         try {
             balanceRecordRepository.deleteById(id);
             log.info("Balance record with id {} is deleted", id);
+            cacheInvalidationBus.publish(CachedEntity.BALANCE_RECORD, List.of(id));
         } catch (EmptyResultDataAccessException e) {
             throw new ObjectNotFoundException("Balance with id " + id + " not found");
         }
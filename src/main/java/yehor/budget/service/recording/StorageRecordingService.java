@@ -12,16 +12,24 @@ import yehor.budget.entity.StorageItem;
 import yehor.budget.entity.StorageRecord;
 import yehor.budget.repository.StorageItemRepository;
 import yehor.budget.repository.StorageRecordRepository;
+import yehor.budget.repository.projection.StorageItemValue;
+import yehor.budget.service.cache.CacheInvalidationBus;
+import yehor.budget.service.cache.CachedEntity;
 import yehor.budget.service.client.currency.CurrencyRateService;
 import yehor.budget.web.converter.StorageConverter;
+import yehor.budget.web.dto.StorageTimeSeriesDto;
 import yehor.budget.web.dto.full.StorageRecordFullDto;
 import yehor.budget.web.dto.limited.StorageRecordLimitedDto;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -35,6 +43,7 @@ public class StorageRecordingService {
     private final PageableHelper pageableHelper;
     private final StorageConverter storageConverter;
     private final CurrencyRateService currencyRateService;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
     @Transactional(readOnly = true)
     public Optional<StorageRecordFullDto> getLatest() {
@@ -56,6 +65,7 @@ public class StorageRecordingService {
 
         StorageRecordFullDto saved = storageConverter.convert(savedRecord);
         log.info("Saved: {}", saved);
+        cacheInvalidationBus.publish(CachedEntity.STORAGE_RECORD, List.of(savedRecord.getId()));
         return saved;
     }
 
@@ -67,11 +77,61 @@ public class StorageRecordingService {
                 .toList();
     }
 
+    /**
+     * Re-values the whole storage history within the interval in the required currency. Items are loaded with
+     * a single query and rates are looked up once per currency, or once per currency and date when historical
+     * rates are requested.
+     */
+    @Transactional(readOnly = true)
+    public StorageTimeSeriesDto getTimeSeries(LocalDate dateFrom, LocalDate dateTo, Currency currency, boolean historical) {
+        List<StorageItemValue> itemValues = storageItemRepository.findAllValuesInInterval(dateFrom, dateTo);
+        int numberOfItems = itemValues.size();
+
+        List<LocalDate> dates = new ArrayList<>();
+        int[] dateIndexes = new int[numberOfItems];
+        int[] currencies = new int[numberOfItems];
+        double[] values = new double[numberOfItems];
+        Set<Currency> usedCurrencies = EnumSet.noneOf(Currency.class);
+        for (int i = 0; i < numberOfItems; i++) {
+            StorageItemValue itemValue = itemValues.get(i);
+            if (dates.isEmpty() || !dates.get(dates.size() - 1).equals(itemValue.date())) {
+                dates.add(itemValue.date());
+            }
+            dateIndexes[i] = dates.size() - 1;
+            currencies[i] = itemValue.currency().ordinal();
+            values[i] = itemValue.value().doubleValue();
+            usedCurrencies.add(itemValue.currency());
+        }
+
+        double[][] rates = new double[dates.size()][];
+        if (historical) {
+            for (int date = 0; date < rates.length; date++) {
+                rates[date] = currencyRateService.getRatesTo(currency, usedCurrencies, dates.get(date));
+            }
+        } else {
+            Arrays.fill(rates, currencyRateService.getRatesTo(currency, usedCurrencies));
+        }
+
+        double[] totals = new double[dates.size()];
+        for (int i = 0; i < numberOfItems; i++) {
+            totals[dateIndexes[i]] += values[i] * rates[dateIndexes[i]][currencies[i]];
+        }
+
+        return StorageTimeSeriesDto.builder()
+                .currency(currency)
+                .dates(dates)
+                .totals(Arrays.stream(totals)
+                        .mapToObj(total -> BigDecimal.valueOf(total).setScale(2, RoundingMode.HALF_EVEN))
+                        .toList())
+                .build();
+    }
+
     @Transactional
     public void delete(Long id) {
         try {
             storageRecordRepository.deleteById(id);
             log.info("Storage record with id {} is deleted", id);
+            cacheInvalidationBus.publish(CachedEntity.STORAGE_RECORD, List.of(id));
         } catch (EmptyResultDataAccessException e) {
             throw new ObjectNotFoundException("Storage with id " + id + " not found");
         }
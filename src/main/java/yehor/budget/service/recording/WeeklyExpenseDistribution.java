@@ -0,0 +1,92 @@
+package yehor.budget.service.recording;
+
+import yehor.budget.common.date.FullMonth;
+import yehor.budget.common.date.MonthWeek;
+import yehor.budget.entity.Expense;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Per-category spending of each {@link MonthWeek} modelled as a normal distribution (truncated at zero).
+ * Mean and variance are taken over the same months the estimated expense worker averages over, so a month
+ * without spending in a category counts as a zero observation.
+ */
+final class WeeklyExpenseDistribution {
+
+    static final int NUMBER_OF_WEEKS = MonthWeek.values().length;
+
+    // categories without variance contribute a constant per week, so they are summed up once
+    private final double[] constantPerWeek;
+    private final double[][] meansPerWeek;
+    private final double[][] deviationsPerWeek;
+
+    private WeeklyExpenseDistribution(double[] constantPerWeek, double[][] meansPerWeek, double[][] deviationsPerWeek) {
+        this.constantPerWeek = constantPerWeek;
+        this.meansPerWeek = meansPerWeek;
+        this.deviationsPerWeek = deviationsPerWeek;
+    }
+
+    static WeeklyExpenseDistribution of(List<Expense> expenses) {
+        long numOfMonths = expenses.stream()
+                .map(e -> FullMonth.of(e.getDate()))
+                .distinct().count();
+
+        Map<Long, Map<FullMonth, double[]>> categoryToMonthlySums = new HashMap<>();
+        for (Expense expense : expenses) {
+            double[] weeklySums = categoryToMonthlySums
+                    .computeIfAbsent(expense.getCategory().getId(), id -> new HashMap<>())
+                    .computeIfAbsent(FullMonth.of(expense.getDate()), month -> new double[NUMBER_OF_WEEKS]);
+            weeklySums[MonthWeek.of(expense.getDate()).ordinal()] += expense.getValue().doubleValue();
+        }
+
+        double[] constantPerWeek = new double[NUMBER_OF_WEEKS];
+        List<List<double[]>> randomPerWeek = new ArrayList<>();
+        for (int week = 0; week < NUMBER_OF_WEEKS; week++) {
+            randomPerWeek.add(new ArrayList<>());
+        }
+
+        for (Map<FullMonth, double[]> monthlySums : categoryToMonthlySums.values()) {
+            for (int week = 0; week < NUMBER_OF_WEEKS; week++) {
+                double sum = 0;
+                double sumOfSquares = 0;
+                for (double[] weeklySums : monthlySums.values()) {
+                    sum += weeklySums[week];
+                    sumOfSquares += weeklySums[week] * weeklySums[week];
+                }
+                double mean = sum / numOfMonths;
+                double variance = Math.max(0, sumOfSquares / numOfMonths - mean * mean);
+                if (variance == 0) {
+                    constantPerWeek[week] += mean;
+                } else {
+                    randomPerWeek.get(week).add(new double[]{mean, Math.sqrt(variance)});
+                }
+            }
+        }
+
+        double[][] meansPerWeek = new double[NUMBER_OF_WEEKS][];
+        double[][] deviationsPerWeek = new double[NUMBER_OF_WEEKS][];
+        for (int week = 0; week < NUMBER_OF_WEEKS; week++) {
+            List<double[]> parameters = randomPerWeek.get(week);
+            meansPerWeek[week] = parameters.stream().mapToDouble(p -> p[0]).toArray();
+            deviationsPerWeek[week] = parameters.stream().mapToDouble(p -> p[1]).toArray();
+        }
+        return new WeeklyExpenseDistribution(constantPerWeek, meansPerWeek, deviationsPerWeek);
+    }
+
+    double sample(int week, SplittableRandom random) {
+        double value = constantPerWeek[week];
+        double[] means = meansPerWeek[week];
+        double[] deviations = deviationsPerWeek[week];
+        for (int i = 0; i < means.length; i++) {
+            double categoryValue = means[i] + deviations[i] * random.nextGaussian();
+            if (categoryValue > 0) {
+                value += categoryValue;
+            }
+        }
+        return value;
+    }
+}
@@ -8,8 +8,8 @@ import yehor.budget.common.SettingsListener;
 import yehor.budget.common.date.DateManager;
 import yehor.budget.common.date.MonthWeek;
 import yehor.budget.common.date.FullMonth;
+import yehor.budget.common.jfr.EstimatedExpenseWorkerRunEvent;
 import yehor.budget.common.util.CalculatorHelper;
-import yehor.budget.common.util.WaiterUtil;
 import yehor.budget.entity.Category;
 import yehor.budget.entity.Expense;
 import yehor.budget.entity.RowEstimatedExpense;
@@ -17,6 +17,8 @@ import yehor.budget.entity.Settings;
 import yehor.budget.repository.ExpenseRepository;
 import yehor.budget.repository.RowEstimatedExpenseRepository;
 import yehor.budget.service.SettingsService;
+import yehor.budget.service.cache.CacheInvalidationBus;
+import yehor.budget.service.cache.CachedEntity;
 
 import javax.annotation.PostConstruct;
 import java.math.BigDecimal;
@@ -25,8 +27,6 @@ import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
 import static java.math.BigDecimal.ZERO;
@@ -40,14 +40,16 @@ import static java.util.stream.Collectors.reducing;
 public class EstimatedExpenseWorker implements SettingsListener {
 
     public static final Pattern EXPECTED_EXPENSE_END_DATE_SCOPE_PATTERN = Pattern.compile("\\d+[dMy]$");
+    public static final String JOB_NAME = "estimated-expense-worker";
 
     private final ExpenseRepository expenseRepository;
     private final RowEstimatedExpenseRepository rowEstimatedExpenseRepository;
     private final CalculatorHelper calculatorHelper;
     private final SettingsService settingsService;
     private final DateManager dateManager;
+    private final JobScheduler jobScheduler;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
-    ScheduledThreadPoolExecutor executor;
     int currentInitDelay;
     int currentPeriod;
     String currentEstimationScopePattern;
@@ -63,15 +65,14 @@ public class EstimatedExpenseWorker implements SettingsListener {
     }
 
     @Override
-    public void onUpdate(Settings settings) {
+    public synchronized void onUpdate(Settings settings) {
         int initialDelay = settings.getEstimatedExpenseWorkerInitDelay();
         int period = settings.getEstimatedExpenseWorkerPeriod();
         String estimationScopePattern = settings.getEstimatedExpenseWorkerEndDateScopePattern();
         if (currentInitDelay != initialDelay
                 || currentPeriod != period
                 || estimationScopePatternNeedsUpdating(estimationScopePattern)) {
-            executor.shutdown();
-            WaiterUtil.waitFor(() -> executor.isShutdown(), Duration.ofMillis(500));
+            // a running calculation is let to finish, only the next runs are rescheduled
             startTask(initialDelay, period, estimationScopePattern);
         }
     }
@@ -83,12 +84,13 @@ public class EstimatedExpenseWorker implements SettingsListener {
             currentEstimationScopePattern = estimationScopePattern;
         }
         log.info("Starting estimated expense worker with initialDelay: " + initialDelay + "m and period: " + period + "m");
-        executor = new ScheduledThreadPoolExecutor(1);
-        executor.scheduleAtFixedRate(
-                new EstimatedExpenseTask(),
-                initialDelay,
-                period,
-                TimeUnit.MINUTES);
+        jobScheduler.schedule(JobDefinition.builder()
+                .name(JOB_NAME)
+                .task(new EstimatedExpenseTask())
+                .initialDelay(Duration.ofMinutes(initialDelay))
+                .period(Duration.ofMinutes(period))
+                .clustered(true)
+                .build());
     }
 
     private boolean estimationScopePatternNeedsUpdating(String estimationScopePattern) {
@@ -105,6 +107,8 @@ public class EstimatedExpenseWorker implements SettingsListener {
         @Override
         @Transactional
         public void run() {
+            EstimatedExpenseWorkerRunEvent event = new EstimatedExpenseWorkerRunEvent();
+            event.begin();
             log.info("Calculation of estimated expenses started");
             try {
                 List<Expense> expenses = expenseRepository.findAllRegularInInterval(
@@ -114,6 +118,9 @@ public class EstimatedExpenseWorker implements SettingsListener {
                         .distinct().count();
                 Map<Category, List<Expense>> categorisedExpenses = expenses.stream().collect(
                         groupingBy(Expense::getCategory));
+                event.expensesScanned = expenses.size();
+                event.months = numOfMonthsUnderCalculation;
+                event.categories = categorisedExpenses.size();
 
                 for (var categorisedExpense : categorisedExpenses.entrySet()) {
                     Category category = categorisedExpense.getKey();
@@ -126,34 +133,41 @@ public class EstimatedExpenseWorker implements SettingsListener {
                     setAvgValues(weeksListMap, numOfMonthsUnderCalculation);
                     RowEstimatedExpense rowEstimatedExpense = getRowOfEstimatedExpenses(category, weeksListMap);
                     saveRowToDatabase(rowEstimatedExpense);
+                    event.rowsWritten++;
                 }
+                cacheInvalidationBus.publish(CachedEntity.ESTIMATED_EXPENSE, List.of());
             } catch (Exception e) {
                 log.error("Exception is thrown during calculation of estimated expenses.", e);
             }
+            event.commit();
             log.info("Calculation of estimated expenses finished");
         }
     }
 
     private LocalDate getEndDateForEstimation() {
+        return getEndDateForEstimation(currentEstimationScopePattern);
+    }
+
+    public static LocalDate getEndDateForEstimation(String estimationScopePattern) {
         try {
-            if (currentEstimationScopePattern.endsWith("d")) {
-                return LocalDate.now().minusDays(getNumberFromPattern());
-            } else if (currentEstimationScopePattern.endsWith("M")) {
-                return LocalDate.now().minusMonths(getNumberFromPattern());
-            } else if (currentEstimationScopePattern.endsWith("y")) {
-                return LocalDate.now().minusYears(getNumberFromPattern());
+            if (estimationScopePattern.endsWith("d")) {
+                return LocalDate.now().minusDays(getNumberFromPattern(estimationScopePattern));
+            } else if (estimationScopePattern.endsWith("M")) {
+                return LocalDate.now().minusMonths(getNumberFromPattern(estimationScopePattern));
+            } else if (estimationScopePattern.endsWith("y")) {
+                return LocalDate.now().minusYears(getNumberFromPattern(estimationScopePattern));
             } else {
                 // if all previous do not match, pattern value should be a valid LocalDate represented as String
-                return LocalDate.parse(currentEstimationScopePattern);
+                return LocalDate.parse(estimationScopePattern);
             }
         } catch (Exception e) {
             throw new IllegalArgumentException("Illegal estimation end date scope pattern provided: "
-            + currentEstimationScopePattern);
+            + estimationScopePattern);
         }
     }
 
-    private Long getNumberFromPattern() {
-        return Long.parseLong(currentEstimationScopePattern.substring(0, currentEstimationScopePattern.length() - 1));
+    private static Long getNumberFromPattern(String estimationScopePattern) {
+        return Long.parseLong(estimationScopePattern.substring(0, estimationScopePattern.length() - 1));
     }
 
     private void setAvgValues(Map<MonthWeek, BigDecimal> weeksListMap, long divider) {
@@ -0,0 +1,57 @@
+package yehor.budget.service.worker;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import yehor.budget.common.util.PropertiesHelper;
+import yehor.budget.repository.ExpenseTombstoneRepository;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Deletes tombstones of expenses deleted longer than the retention period ago, so the change feed
+ * keeps deletions only for as long as clients are expected to sync. The highest deleted change is kept
+ * as a watermark, and clients that synced before it are told to sync again from 0.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ExpenseTombstoneCleaner {
+
+    public static final String JOB_NAME = "expense-tombstone-cleaner";
+    private static final int DEFAULT_RETENTION_DAYS = 90;
+
+    private final ExpenseTombstoneRepository expenseTombstoneRepository;
+    private final JobScheduler jobScheduler;
+    private final PropertiesHelper propertiesHelper;
+
+    public int deleteExpiredTombstones() {
+        int configuredRetentionDays = propertiesHelper.getIntProperty("expenses.tombstones.retention.days");
+        int retentionDays = configuredRetentionDays > 0 ? configuredRetentionDays : DEFAULT_RETENTION_DAYS;
+        Optional<Long> expiredChangeSeq = expenseTombstoneRepository
+                .findMaxChangeSeqDeletedBefore(LocalDateTime.now().minusDays(retentionDays));
+        if (expiredChangeSeq.isEmpty()) {
+            log.info("No expense tombstones older than {} days", retentionDays);
+            return 0;
+        }
+        // the watermark is raised before the deletion, so a reader never misses deletions below the watermark it sees
+        expenseTombstoneRepository.raiseWatermark(expiredChangeSeq.get());
+        int deleted = expenseTombstoneRepository.deleteAllChangedUpTo(expiredChangeSeq.get());
+        log.info("Deleted {} expense tombstones older than {} days", deleted, retentionDays);
+        return deleted;
+    }
+
+    @PostConstruct
+    private void startCleaning() {
+        jobScheduler.schedule(JobDefinition.builder()
+                .name(JOB_NAME)
+                .task(this::deleteExpiredTombstones)
+                .initialDelay(Duration.ofMinutes(10))
+                .period(Duration.ofDays(1))
+                .clustered(true)
+                .build());
+    }
+}
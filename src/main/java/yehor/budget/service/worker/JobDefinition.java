@@ -0,0 +1,30 @@
+package yehor.budget.service.worker;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Periodic job run by {@link JobScheduler}.
+ */
+@Getter
+@Builder
+public class JobDefinition {
+
+    private final String name;
+    private final Runnable task;
+    @Builder.Default
+    private final Duration initialDelay = Duration.ZERO;
+    private final Duration period;
+    /**
+     * Fraction of the period a run is randomly delayed by, so nodes do not run their local jobs all at once.
+     */
+    @Builder.Default
+    private final double jitter = 0;
+    /**
+     * Clustered jobs run only on the node holding their lease. Their last and next runs are stored,
+     * so a run missed while no node was up is caught up after a restart.
+     */
+    private final boolean clustered;
+}
@@ -0,0 +1,141 @@
+package yehor.budget.service.worker;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import yehor.budget.common.util.PropertiesHelper;
+import yehor.budget.entity.JobLease;
+import yehor.budget.repository.JobLeaseRepository;
+import yehor.budget.web.dto.full.JobLeaseFullDto;
+
+import javax.annotation.PreDestroy;
+import java.net.InetAddress;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Makes sure each scheduled job runs on exactly one node. A node that holds the lease of a job keeps prolonging it
+ * with a heartbeat, and other nodes take it over once it expires. A node stops considering itself the lease holder
+ * when it cannot prolong the lease in time, even if the database is not reachable.
+ */
+@Slf4j
+@Component
+public class JobLeaseManager {
+
+    private static final int DEFAULT_LEASE_SECONDS = 60;
+
+    private final JobLeaseRepository jobLeaseRepository;
+    @Getter
+    private final String nodeId;
+    private final int leaseSeconds;
+
+    // job name to local deadline of the held lease in System.nanoTime() terms, 0 when the lease is not held
+    private final Map<String, Long> leaseDeadlines = new ConcurrentHashMap<>();
+
+    public JobLeaseManager(JobLeaseRepository jobLeaseRepository, PropertiesHelper propertiesHelper) {
+        this.jobLeaseRepository = jobLeaseRepository;
+        String configuredNodeId = propertiesHelper.getStringProperty("jobs.node.id");
+        this.nodeId = configuredNodeId.isBlank() ? generateNodeId() : configuredNodeId;
+        int configuredLeaseSeconds = propertiesHelper.getIntProperty("jobs.lease.duration.seconds");
+        this.leaseSeconds = configuredLeaseSeconds > 0 ? configuredLeaseSeconds : DEFAULT_LEASE_SECONDS;
+        log.info("Node {} competes for job leases of {}s", nodeId, leaseSeconds);
+    }
+
+    /**
+     * Registers the job, so its lease is competed for by the heartbeat.
+     */
+    public void register(String jobName) {
+        leaseDeadlines.putIfAbsent(jobName, 0L);
+    }
+
+    /**
+     * @return true when this node holds the lease of the job and should run it
+     */
+    public boolean isLeaseHolder(String jobName) {
+        register(jobName);
+        if (!holds(jobName)) {
+            tryAcquire(jobName);
+        }
+        return holds(jobName);
+    }
+
+    /**
+     * @return period in which leases should be prolonged, so they are held until the next heartbeat
+     */
+    public long getHeartbeatPeriodSeconds() {
+        return Math.max(1, leaseSeconds / 3);
+    }
+
+    public List<JobLeaseFullDto> getLeases() {
+        LocalDateTime now = LocalDateTime.now();
+        return jobLeaseRepository.findAll().stream()
+                .map(lease -> convert(lease, now))
+                .toList();
+    }
+
+    public void heartbeat() {
+        leaseDeadlines.keySet().forEach(this::tryAcquire);
+    }
+
+    private boolean holds(String jobName) {
+        long deadline = leaseDeadlines.getOrDefault(jobName, 0L);
+        return deadline != 0 && deadline - System.nanoTime() > 0;
+    }
+
+    private void tryAcquire(String jobName) {
+        boolean wasHeld = holds(jobName);
+        long requestedAt = System.nanoTime();
+        try {
+            boolean acquired = jobLeaseRepository.acquireOrRenew(jobName, nodeId, leaseSeconds) == 1;
+            leaseDeadlines.put(jobName, acquired ? requestedAt + TimeUnit.SECONDS.toNanos(leaseSeconds) : 0L);
+            if (acquired && !wasHeld) {
+                log.info("Node {} acquired lease of job {}", nodeId, jobName);
+            } else if (!acquired && wasHeld) {
+                log.warn("Node {} lost lease of job {}", nodeId, jobName);
+            }
+        } catch (Exception e) {
+            // the local deadline is kept, so the lease is considered held only until it expires
+            log.error("Failed to acquire lease of job {} for node {}", jobName, nodeId, e);
+        }
+    }
+
+    private JobLeaseFullDto convert(JobLease lease, LocalDateTime now) {
+        return JobLeaseFullDto.builder()
+                .jobName(lease.getJobName())
+                .owner(lease.getOwner())
+                .acquiredAt(lease.getAcquiredAt())
+                .expiresAt(lease.getExpiresAt())
+                .expired(lease.getExpiresAt().isBefore(now))
+                .heldByThisNode(nodeId.equals(lease.getOwner()) && holds(lease.getJobName()))
+                .build();
+    }
+
+    private static String generateNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    // the heartbeat is run by the job scheduler, which is stopped before leases are released
+    @PreDestroy
+    private void releaseLeases() {
+        leaseDeadlines.keySet().stream()
+                .filter(this::holds)
+                .forEach(jobName -> {
+                    try {
+                        jobLeaseRepository.release(jobName, nodeId);
+                        log.info("Node {} released lease of job {}", nodeId, jobName);
+                    } catch (Exception e) {
+                        log.error("Failed to release lease of job {}", jobName, e);
+                    }
+                });
+    }
+}
@@ -0,0 +1,406 @@
+package yehor.budget.service.worker;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import yehor.budget.common.JobRunResult;
+import yehor.budget.common.exception.ObjectNotFoundException;
+import yehor.budget.common.util.PropertiesHelper;
+import yehor.budget.entity.JobRun;
+import yehor.budget.repository.JobRunRepository;
+import yehor.budget.service.diagnostics.QueryMetricsService;
+import yehor.budget.web.dto.full.JobFullDto;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs periodic jobs of this node on a shared pool of named threads. A run of a job is never started while its
+ * previous run is in progress, and the next run is scheduled once a run finishes, one period after it started.
+ * Runs are measured, including statements they execute, and results of clustered jobs are stored.
+ * On shutdown, running jobs are given time to finish before they are interrupted.
+ */
+@Slf4j
+@Component
+public class JobScheduler {
+
+    static final String HEARTBEAT_JOB_NAME = "job-lease-heartbeat";
+
+    private static final int DEFAULT_POOL_SIZE = 4;
+    private static final int DEFAULT_SHUTDOWN_TIMEOUT_SECONDS = 30;
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final JobLeaseManager jobLeaseManager;
+    private final JobRunRepository jobRunRepository;
+    private final QueryMetricsService queryMetricsService;
+    private final ScheduledThreadPoolExecutor executor;
+    private final int shutdownTimeoutSeconds;
+    private final Map<String, ScheduledJob> jobs = new ConcurrentHashMap<>();
+    private volatile boolean stopped;
+
+    @Autowired
+    public JobScheduler(JobLeaseManager jobLeaseManager, JobRunRepository jobRunRepository,
+                        QueryMetricsService queryMetricsService, PropertiesHelper propertiesHelper) {
+        this(jobLeaseManager, jobRunRepository, queryMetricsService,
+                positiveOrDefault(propertiesHelper.getIntProperty("jobs.scheduler.pool.size"), DEFAULT_POOL_SIZE),
+                positiveOrDefault(propertiesHelper.getIntProperty("jobs.scheduler.shutdown.timeout.seconds"),
+                        DEFAULT_SHUTDOWN_TIMEOUT_SECONDS));
+    }
+
+    JobScheduler(JobLeaseManager jobLeaseManager, JobRunRepository jobRunRepository,
+                 QueryMetricsService queryMetricsService, int poolSize, int shutdownTimeoutSeconds) {
+        this.jobLeaseManager = jobLeaseManager;
+        this.jobRunRepository = jobRunRepository;
+        this.queryMetricsService = queryMetricsService;
+        this.shutdownTimeoutSeconds = shutdownTimeoutSeconds;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ScheduledThreadPoolExecutor(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "job-scheduler-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Schedules the job, or reschedules it with the new definition when a job with the same name exists.
+     * A run in progress is let to finish. A clustered job scheduled for the first time continues from
+     * its stored next run, and runs after the initial delay if that run was missed.
+     */
+    public void schedule(JobDefinition definition) {
+        Objects.requireNonNull(definition.getPeriod(), "Period of job " + definition.getName() + " is not set");
+        ScheduledJob created = new ScheduledJob(definition);
+        ScheduledJob existing = jobs.putIfAbsent(definition.getName(), created);
+        if (Objects.isNull(existing)) {
+            if (definition.isClustered()) {
+                jobLeaseManager.register(definition.getName());
+            }
+            scheduleNext(created, initialDelay(definition));
+            return;
+        }
+        synchronized (existing) {
+            existing.definition = definition;
+            existing.cancelled = false;
+            cancelNextRun(existing);
+        }
+        log.info("Rescheduling job {} with initial delay {} and period {}",
+                definition.getName(), definition.getInitialDelay(), definition.getPeriod());
+        scheduleNext(existing, definition.getInitialDelay());
+    }
+
+    /**
+     * Runs the task once in the background, on a thread named after it.
+     */
+    public void execute(String name, Runnable task) {
+        if (stopped) {
+            return;
+        }
+        executor.execute(() -> runNamed(name, () -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                log.error("Background task {} failed", name, e);
+            }
+        }));
+    }
+
+    /**
+     * Starts a run of the job now, outside of its schedule.
+     *
+     * @throws ObjectNotFoundException if there is no such job
+     * @throws IllegalStateException   if the job is running
+     */
+    public void trigger(String name) {
+        ScheduledJob job = getJob(name);
+        synchronized (job) {
+            if (job.running) {
+                throw new IllegalStateException("Job " + name + " is already running");
+            }
+        }
+        log.info("Job {} is triggered manually", name);
+        executor.execute(() -> run(job, false));
+    }
+
+    /**
+     * Cancels next runs of the job and interrupts a run in progress.
+     *
+     * @throws ObjectNotFoundException if there is no such job
+     */
+    public void cancel(String name) {
+        ScheduledJob job = getJob(name);
+        synchronized (job) {
+            job.cancelled = true;
+            job.nextRunAt = null;
+            cancelNextRun(job);
+            if (Objects.nonNull(job.runner)) {
+                job.runner.interrupt();
+            }
+        }
+        log.info("Job {} is cancelled", name);
+    }
+
+    /**
+     * Schedules the cancelled job again, from its initial delay.
+     *
+     * @throws ObjectNotFoundException if there is no such job
+     */
+    public void resume(String name) {
+        schedule(getJob(name).definition);
+    }
+
+    public List<JobFullDto> getJobs() {
+        return jobs.values().stream()
+                .map(ScheduledJob::toDto)
+                .sorted(Comparator.comparing(JobFullDto::getName))
+                .toList();
+    }
+
+    private void run(ScheduledJob job, boolean scheduled) {
+        JobDefinition definition;
+        synchronized (job) {
+            definition = job.definition;
+            if (job.running || (scheduled && job.cancelled)) {
+                job.skips++;
+                if (scheduled) {
+                    scheduleNext(job, nextDelay(definition, System.nanoTime()));
+                }
+                return;
+            }
+            job.running = true;
+            job.runner = Thread.currentThread();
+        }
+        long start = System.nanoTime();
+        boolean ran = false;
+        try {
+            if (definition.isClustered() && !jobLeaseManager.isLeaseHolder(definition.getName())) {
+                log.debug("Job {} is skipped, it is run by another node", definition.getName());
+                synchronized (job) {
+                    job.skips++;
+                }
+                return;
+            }
+            ran = true;
+            runNamed(definition.getName(), () -> runMeasured(job, definition));
+        } finally {
+            synchronized (job) {
+                job.running = false;
+                job.runner = null;
+                if (scheduled) {
+                    scheduleNext(job, nextDelay(definition, start));
+                }
+            }
+            if (ran && definition.isClustered()) {
+                storeRun(job);
+            }
+        }
+    }
+
+    private void runMeasured(ScheduledJob job, JobDefinition definition) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        JobRunResult result = JobRunResult.SUCCEEDED;
+        String error = null;
+        try {
+            queryMetricsService.measureJob(definition.getName(), definition.getTask());
+        } catch (Exception e) {
+            log.error("Job {} failed", definition.getName(), e);
+            result = JobRunResult.FAILED;
+            error = truncate(e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+        long duration = System.nanoTime() - start;
+        synchronized (job) {
+            job.runs++;
+            job.failures += result == JobRunResult.FAILED ? 1 : 0;
+            job.lastStartedAt = startedAt;
+            job.lastFinishedAt = LocalDateTime.now();
+            job.lastResult = result;
+            job.lastError = error;
+            job.lastDurationNanos = duration;
+            job.maxDurationNanos = Math.max(job.maxDurationNanos, duration);
+            job.totalDurationNanos += duration;
+        }
+    }
+
+    // the pool thread is named after the job while it runs, so the job can be found in thread dumps
+    private void runNamed(String name, Runnable task) {
+        Thread thread = Thread.currentThread();
+        String threadName = thread.getName();
+        thread.setName(threadName + " " + name);
+        try {
+            task.run();
+        } finally {
+            thread.setName(threadName);
+            // an interrupt of a cancelled run must not leak into the next task of the thread
+            Thread.interrupted();
+        }
+    }
+
+    private void scheduleNext(ScheduledJob job, Duration delay) {
+        synchronized (job) {
+            if (stopped || job.cancelled) {
+                job.nextRunAt = null;
+                return;
+            }
+            cancelNextRun(job);
+            job.nextRunAt = LocalDateTime.now().plus(delay);
+            job.nextRun = executor.schedule(() -> run(job, true), delay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void cancelNextRun(ScheduledJob job) {
+        if (Objects.nonNull(job.nextRun)) {
+            job.nextRun.cancel(false);
+            job.nextRun = null;
+        }
+    }
+
+    private Duration initialDelay(JobDefinition definition) {
+        if (!definition.isClustered()) {
+            return definition.getInitialDelay();
+        }
+        try {
+            Optional<LocalDateTime> nextRunAt = jobRunRepository.findById(definition.getName())
+                    .map(JobRun::getNextRunAt);
+            if (nextRunAt.isEmpty()) {
+                return definition.getInitialDelay();
+            }
+            LocalDateTime now = LocalDateTime.now();
+            if (nextRunAt.get().isBefore(now)) {
+                log.info("Job {} missed its run at {}, catching up", definition.getName(), nextRunAt.get());
+                return definition.getInitialDelay();
+            }
+            return Duration.between(now, nextRunAt.get());
+        } catch (Exception e) {
+            log.error("Failed to read the last run of job {}", definition.getName(), e);
+            return definition.getInitialDelay();
+        }
+    }
+
+    // next run is one period after the start of the previous one plus jitter, but not before the previous finished
+    private Duration nextDelay(JobDefinition definition, long startNanos) {
+        long periodNanos = definition.getPeriod().toNanos();
+        long jitterNanos = (long) (periodNanos * definition.getJitter() * ThreadLocalRandom.current().nextDouble());
+        long elapsedNanos = System.nanoTime() - startNanos;
+        return Duration.ofNanos(Math.max(0, periodNanos + jitterNanos - elapsedNanos));
+    }
+
+    private void storeRun(ScheduledJob job) {
+        JobRun jobRun;
+        synchronized (job) {
+            jobRun = JobRun.builder()
+                    .jobName(job.definition.getName())
+                    .node(jobLeaseManager.getNodeId())
+                    .lastStartedAt(job.lastStartedAt)
+                    .lastFinishedAt(job.lastFinishedAt)
+                    .lastResult(job.lastResult)
+                    .lastError(job.lastError)
+                    .nextRunAt(job.nextRunAt)
+                    .build();
+        }
+        try {
+            jobRunRepository.save(jobRun);
+        } catch (Exception e) {
+            log.error("Failed to store the last run of job {}", jobRun.getJobName(), e);
+        }
+    }
+
+    private ScheduledJob getJob(String name) {
+        ScheduledJob job = jobs.get(name);
+        if (Objects.isNull(job)) {
+            throw new ObjectNotFoundException("Job " + name + " does not exist");
+        }
+        return job;
+    }
+
+    private static String truncate(String error) {
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+
+    private static int positiveOrDefault(int value, int defaultValue) {
+        return value > 0 ? value : defaultValue;
+    }
+
+    // leases are prolonged by the scheduler, so clustered jobs keep running on the node holding them
+    @PostConstruct
+    private void startHeartbeat() {
+        long period = jobLeaseManager.getHeartbeatPeriodSeconds();
+        schedule(JobDefinition.builder()
+                .name(HEARTBEAT_JOB_NAME)
+                .task(jobLeaseManager::heartbeat)
+                .initialDelay(Duration.ofSeconds(period))
+                .period(Duration.ofSeconds(period))
+                .build());
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        stopped = true;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(shutdownTimeoutSeconds, TimeUnit.SECONDS)) {
+                log.warn("Jobs did not finish in {}s, interrupting them", shutdownTimeoutSeconds);
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class ScheduledJob {
+        private JobDefinition definition;
+        private ScheduledFuture<?> nextRun;
+        private Thread runner;
+        private boolean running;
+        private boolean cancelled;
+        private LocalDateTime lastStartedAt;
+        private LocalDateTime lastFinishedAt;
+        private LocalDateTime nextRunAt;
+        private JobRunResult lastResult;
+        private String lastError;
+        private long runs;
+        private long failures;
+        private long skips;
+        private long lastDurationNanos;
+        private long maxDurationNanos;
+        private long totalDurationNanos;
+
+        ScheduledJob(JobDefinition definition) {
+            this.definition = definition;
+        }
+
+        synchronized JobFullDto toDto() {
+            return JobFullDto.builder()
+                    .name(definition.getName())
+                    .clustered(definition.isClustered())
+                    .running(running)
+                    .cancelled(cancelled)
+                    .periodSeconds(definition.getPeriod().toSeconds())
+                    .lastStartedAt(lastStartedAt)
+                    .lastFinishedAt(lastFinishedAt)
+                    .lastResult(lastResult)
+                    .lastError(lastError)
+                    .nextRunAt(nextRunAt)
+                    .runs(runs)
+                    .failures(failures)
+                    .skips(skips)
+                    .lastDurationMillis(TimeUnit.NANOSECONDS.toMillis(lastDurationNanos))
+                    .maxDurationMillis(TimeUnit.NANOSECONDS.toMillis(maxDurationNanos))
+                    .avgDurationMillis(runs == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalDurationNanos / runs))
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package yehor.budget.web.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import yehor.budget.service.AnalyticsService;
+import yehor.budget.web.dto.AnalyticsQueryDto;
+import yehor.budget.web.dto.AnalyticsResultDto;
+
+import javax.servlet.http.HttpServletRequest;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+@RestController
+@RequestMapping("/api/v1/analytics")
+@RequiredArgsConstructor
+@Tag(name = "Analytics Controller")
+public class AnalyticsController {
+
+    private final AnalyticsService analyticsService;
+
+    @PostMapping("/query")
+    @Operation(summary = "Get totals and counts of expenses grouped by dimensions")
+    public AnalyticsResultDto query(@RequestBody AnalyticsQueryDto query, HttpServletRequest request) {
+        try {
+            return analyticsService.query(request.getRemoteAddr(), query);
+        } catch (IllegalArgumentException exception) {
+            throw new ResponseStatusException(BAD_REQUEST, exception.getMessage());
+        }
+    }
+}
@@ -10,7 +10,9 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 import yehor.budget.common.date.DateManager;
 import yehor.budget.common.exception.ObjectNotFoundException;
+import yehor.budget.service.recording.BalanceForecastService;
 import yehor.budget.service.recording.BalanceRecordingService;
+import yehor.budget.web.dto.full.BalanceForecastDto;
 import yehor.budget.web.dto.full.BalanceRecordFullDto;
 import yehor.budget.web.dto.full.BalanceRecordFullDtoWithoutEstimates;
 import yehor.budget.web.dto.limited.BalanceRecordLimitedDto;
@@ -27,7 +29,11 @@ import static org.springframework.http.HttpStatus.NOT_FOUND;
 @Tag(name = "Balance Controller")
 public class BalanceController {
 
+    private static final int MAX_FORECAST_MONTHS = 120;
+    private static final int MAX_FORECAST_PATHS = 100_000;
+
     private final BalanceRecordingService balanceRecordingService;
+    private final BalanceForecastService balanceForecastService;
     private final DateManager dateManager;
 
     @GetMapping
@@ -79,6 +85,28 @@ public class BalanceController {
         }
     }
 
+    @GetMapping("/forecast")
+    @Operation(summary = "Get Monte Carlo forecast of balance based on latest balance record")
+    public BalanceForecastDto getForecast(@RequestParam(value = "months", defaultValue = "24") Integer months,
+                                          @RequestParam(value = "paths", defaultValue = "10000") Integer paths) {
+        try {
+            validateForecastParameters(months, paths);
+        } catch (IllegalArgumentException exception) {
+            throw new ResponseStatusException(BAD_REQUEST, exception.getMessage());
+        }
+        return balanceForecastService.getForecast(months, paths).orElseThrow(
+                () -> new ResponseStatusException(NOT_FOUND, "There are no balance records"));
+    }
+
+    private void validateForecastParameters(Integer months, Integer paths) {
+        if (months < 1 || months > MAX_FORECAST_MONTHS) {
+            throw new IllegalArgumentException("Number of months should be between 1 and " + MAX_FORECAST_MONTHS);
+        }
+        if (paths < 1 || paths > MAX_FORECAST_PATHS) {
+            throw new IllegalArgumentException("Number of paths should be between 1 and " + MAX_FORECAST_PATHS);
+        }
+    }
+
     private void validateBalanceItems(BalanceRecordLimitedDto balanceRecordDto) {
         if (CollectionUtils.isEmpty(balanceRecordDto.getBalanceItems())) {
             throw new IllegalArgumentException("Balance items are not provided");
@@ -0,0 +1,90 @@
+package yehor.budget.web.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import yehor.budget.common.exception.ObjectNotFoundException;
+import yehor.budget.service.diagnostics.FlightRecordingService;
+import yehor.budget.service.diagnostics.QueryMetricsService;
+import yehor.budget.web.dto.FlightRecordingDto;
+import yehor.budget.web.dto.QueryMetricsDto;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+@RestController
+@RequestMapping("/api/v1/diagnostics")
+@RequiredArgsConstructor
+@Tag(name = "Diagnostics Controller")
+public class DiagnosticsController {
+
+    private static final DateTimeFormatter FILE_NAME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final QueryMetricsService queryMetricsService;
+    private final FlightRecordingService flightRecordingService;
+
+    @GetMapping("/queries")
+    @Operation(summary = "Get statements executed per endpoint and job since the start of the application")
+    public ResponseEntity<List<QueryMetricsDto>> getQueryMetrics() {
+        return new ResponseEntity<>(queryMetricsService.getAll(), HttpStatus.OK);
+    }
+
+    @PostMapping("/recordings")
+    @Operation(summary = "Start recording the next seconds with Java Flight Recorder, one recording at a time")
+    public ResponseEntity<FlightRecordingDto> startFlightRecording(@RequestParam(defaultValue = "60") int seconds) {
+        try {
+            return new ResponseEntity<>(flightRecordingService.start(seconds), HttpStatus.ACCEPTED);
+        } catch (IllegalArgumentException exception) {
+            throw new ResponseStatusException(BAD_REQUEST, exception.getMessage());
+        } catch (IllegalStateException exception) {
+            throw new ResponseStatusException(CONFLICT, exception.getMessage());
+        }
+    }
+
+    @GetMapping("/recordings/{id}")
+    @Operation(summary = "Get state of the last flight recording")
+    public ResponseEntity<FlightRecordingDto> getFlightRecording(@PathVariable long id) {
+        try {
+            return new ResponseEntity<>(flightRecordingService.getRecording(id), HttpStatus.OK);
+        } catch (ObjectNotFoundException exception) {
+            throw new ResponseStatusException(NOT_FOUND, exception.getMessage());
+        }
+    }
+
+    @GetMapping(value = "/recordings/{id}/file", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @Operation(summary = "Download the .jfr file of the last flight recording once it is finished")
+    public ResponseEntity<Resource> getFlightRecordingFile(@PathVariable long id) {
+        try {
+            Path file = flightRecordingService.getRecordingFile(id);
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                            .filename("budget-" + LocalDateTime.now().format(FILE_NAME_FORMATTER) + ".jfr")
+                            .build().toString())
+                    .body(new FileSystemResource(file));
+        } catch (ObjectNotFoundException exception) {
+            throw new ResponseStatusException(NOT_FOUND, exception.getMessage());
+        } catch (IllegalStateException exception) {
+            throw new ResponseStatusException(CONFLICT, exception.getMessage());
+        }
+    }
+}
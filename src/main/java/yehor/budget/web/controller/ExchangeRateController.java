@@ -0,0 +1,67 @@
+package yehor.budget.web.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import yehor.budget.common.Currency;
+import yehor.budget.common.date.DateManager;
+import yehor.budget.common.exception.ObjectNotFoundException;
+import yehor.budget.service.ExchangeRateService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+@RestController
+@RequestMapping("/api/v1/exchange-rates")
+@RequiredArgsConstructor
+@Tag(name = "Exchange Rate Controller")
+public class ExchangeRateController {
+
+    private final ExchangeRateService exchangeRateService;
+    private final DateManager dateManager;
+
+    @GetMapping
+    @Operation(summary = "Get stored exchange rate in effect on date")
+    public ResponseEntity<BigDecimal> getRate(@RequestParam("from") Currency fromCurrency,
+                                              @RequestParam("to") Currency toCurrency,
+                                              @RequestParam("date") String dateParam) {
+        try {
+            LocalDate date = dateManager.parse(dateParam);
+            BigDecimal rate = exchangeRateService.getRate(fromCurrency, toCurrency, date);
+            return new ResponseEntity<>(rate, HttpStatus.OK);
+        } catch (IllegalArgumentException exception) {
+            throw new ResponseStatusException(BAD_REQUEST, exception.getMessage());
+        } catch (ObjectNotFoundException exception) {
+            throw new ResponseStatusException(NOT_FOUND, exception.getMessage());
+        }
+    }
+
+    @PostMapping("/backfill")
+    @Operation(summary = "Start fetching and storing exchange rates missing within dates interval",
+            description = "Rates are stored day by day in the background, one backfill at a time")
+    public ResponseEntity<Void> backfill(@RequestParam("dateFrom") String dateFromParam,
+                                         @RequestParam("dateTo") String dateToParam) {
+        try {
+            LocalDate dateFrom = dateManager.parse(dateFromParam);
+            LocalDate dateTo = dateManager.parse(dateToParam);
+            exchangeRateService.startBackfill(dateFrom, dateTo);
+            return new ResponseEntity<>(HttpStatus.ACCEPTED);
+        } catch (IllegalArgumentException exception) {
+            throw new ResponseStatusException(BAD_REQUEST, exception.getMessage());
+        } catch (IllegalStateException exception) {
+            throw new ResponseStatusException(CONFLICT, exception.getMessage());
+        }
+    }
+}
@@ -4,6 +4,7 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -16,8 +17,13 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 import yehor.budget.common.date.DateManager;
+import yehor.budget.common.exception.ChangesExpiredException;
 import yehor.budget.common.exception.ObjectNotFoundException;
 import yehor.budget.service.ExpenseService;
+import yehor.budget.web.dto.CompactExpensesDto;
+import yehor.budget.web.dto.ExpenseChangesDto;
+import yehor.budget.web.dto.ExpenseFilterDto;
+import yehor.budget.web.dto.ExpensePageDto;
 import yehor.budget.web.dto.ExpensesByTagDto;
 import yehor.budget.web.dto.full.CategoryFullDto;
 import yehor.budget.web.dto.full.ExpenseFullDto;
@@ -34,6 +40,7 @@ import java.util.Objects;
 import java.util.Set;
 
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.GONE;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 
 @RestController
@@ -42,6 +49,10 @@ import static org.springframework.http.HttpStatus.NOT_FOUND;
 @Tag(name = "Expense Controller")
 public class ExpenseController {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+    // compact lists are also selected by a query parameter, only on the endpoints which have them
+    private static final String COMPACT_VIEW = "view=compact";
+
     private final DateManager dateManager;
     private final ExpenseService expenseService;
 
@@ -113,6 +124,31 @@ public class ExpenseController {
         }
     }
 
+    @GetMapping(value = "/interval", produces = CompactExpensesDto.MEDIA_TYPE)
+    @Operation(summary = "Get expenses within dates interval as columns referring to categories and tags listed once")
+    public ResponseEntity<CompactExpensesDto> getCompactExpensesInInterval(@RequestParam("dateFrom") String dateFromParam,
+                                                                           @RequestParam("dateTo") String dateToParam) {
+        try {
+            LocalDate dateFrom = dateManager.parse(dateFromParam);
+            LocalDate dateTo = dateManager.parse(dateToParam);
+
+            dateManager.validateDatesInSequentialOrder(dateFrom, dateTo);
+            dateManager.validateDatesWithinBudget(dateFrom, dateTo);
+
+            CompactExpensesDto expenses = expenseService.findAllInIntervalCompact(dateFrom, dateTo);
+            return new ResponseEntity<>(expenses, HttpStatus.OK);
+        } catch (IllegalArgumentException exception) {
+            throw new ResponseStatusException(BAD_REQUEST, exception.getMessage());
+        }
+    }
+
+    @GetMapping(value = "/interval", params = COMPACT_VIEW)
+    @Operation(summary = "Get expenses within dates interval as columns, for clients which cannot set Accept header")
+    public ResponseEntity<CompactExpensesDto> getCompactExpensesInIntervalByView(@RequestParam("dateFrom") String dateFromParam,
+                                                                                 @RequestParam("dateTo") String dateToParam) {
+        return asCompact(getCompactExpensesInInterval(dateFromParam, dateToParam));
+    }
+
     @GetMapping("/monthly")
     @Operation(summary = "Get list of expenses for one month")
     public ResponseEntity<List<ExpenseFullDto>> getMonthlyExpenses(@RequestParam("month") Month month,
@@ -130,6 +166,30 @@ public class ExpenseController {
         }
     }
 
+    @GetMapping(value = "/monthly", produces = CompactExpensesDto.MEDIA_TYPE)
+    @Operation(summary = "Get expenses for one month as columns referring to categories and tags listed once")
+    public ResponseEntity<CompactExpensesDto> getCompactMonthlyExpenses(@RequestParam("month") Month month,
+                                                                        @RequestParam("year") Integer year) {
+        try {
+            LocalDate dateFrom = LocalDate.of(year, month, 1);
+            LocalDate dateTo = dateManager.getLastDateOfMonth(dateFrom);
+
+            dateManager.validateDatesWithinBudget(dateFrom, dateTo);
+
+            CompactExpensesDto expenses = expenseService.findAllInIntervalCompact(dateFrom, dateTo);
+            return new ResponseEntity<>(expenses, HttpStatus.OK);
+        } catch (IllegalArgumentException exception) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, exception.getMessage());
+        }
+    }
+
+    @GetMapping(value = "/monthly", params = COMPACT_VIEW)
+    @Operation(summary = "Get expenses for one month as columns, for clients which cannot set Accept header")
+    public ResponseEntity<CompactExpensesDto> getCompactMonthlyExpensesByView(@RequestParam("month") Month month,
+                                                                              @RequestParam("year") Integer year) {
+        return asCompact(getCompactMonthlyExpenses(month, year));
+    }
+
     @GetMapping("/sum")
     @Operation(summary = "Get sum of expenses within dates interval")
     public ResponseEntity<BigDecimal> getExpensesSumInInterval(@RequestParam("dateFrom") String dateFromParam,
@@ -208,6 +268,61 @@ public class ExpenseController {
         }
     }
 
+    @PostMapping("/filter")
+    @Operation(summary = "Get page of expenses matching filter, the most recently created first")
+    public ResponseEntity<ExpensePageDto> getExpensesMatching(@RequestBody ExpenseFilterDto filter,
+                                                              @RequestParam(value = "page", defaultValue = "0") int page,
+                                                              @RequestParam(value = "size", defaultValue = "50") int size) {
+        try {
+            validatePage(page, size);
+            ExpensePageDto expensePage = expenseService.findAllMatching(filter, page, size);
+            return new ResponseEntity<>(expensePage, HttpStatus.OK);
+        } catch (IllegalArgumentException exception) {
+            throw new ResponseStatusException(BAD_REQUEST, exception.getMessage());
+        }
+    }
+
+    @GetMapping("/changes")
+    @Operation(summary = "Get changes of expenses after the change sequence number, in order of the changes",
+            description = "Deletions are kept for expenses.tombstones.retention.days, "
+                    + "a client that has not synced for longer gets 410 Gone and should sync again from 0")
+    public ResponseEntity<ExpenseChangesDto> getExpenseChanges(@RequestParam(value = "since", defaultValue = "0") long since,
+                                                               @RequestParam(value = "limit", defaultValue = "500") int limit) {
+        try {
+            validateChangesPage(since, limit);
+            ExpenseChangesDto changes = expenseService.getChanges(since, limit);
+            return new ResponseEntity<>(changes, HttpStatus.OK);
+        } catch (IllegalArgumentException exception) {
+            throw new ResponseStatusException(BAD_REQUEST, exception.getMessage());
+        } catch (ChangesExpiredException exception) {
+            throw new ResponseStatusException(GONE, exception.getMessage());
+        }
+    }
+
+    private ResponseEntity<CompactExpensesDto> asCompact(ResponseEntity<CompactExpensesDto> response) {
+        return ResponseEntity.status(response.getStatusCode())
+                .contentType(MediaType.parseMediaType(CompactExpensesDto.MEDIA_TYPE))
+                .body(response.getBody());
+    }
+
+    private void validateChangesPage(long since, int limit) {
+        if (since < 0) {
+            throw new IllegalArgumentException("Change sequence number cannot be negative");
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit should be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    private void validatePage(int page, int size) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Page cannot be negative");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size should be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
     private void validateValue(BigDecimal value) {
         if (value.compareTo(BigDecimal.ONE) < 0) {
             throw new IllegalArgumentException("Value cannot be negative or zero!");
@@ -0,0 +1,49 @@
+package yehor.budget.web.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import yehor.budget.common.exception.ObjectNotFoundException;
+import yehor.budget.service.ingest.ExpenseImportService;
+import yehor.budget.web.dto.ExpenseImportDto;
+
+import java.io.InputStream;
+
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+@RestController
+@RequestMapping("/api/v1/expenses/imports")
+@RequiredArgsConstructor
+@Tag(name = "Expense Import Controller")
+public class ExpenseImportController {
+
+    private final ExpenseImportService expenseImportService;
+
+    @PostMapping(consumes = "text/csv")
+    @Operation(summary = "Start import of expenses from CSV with columns date, value, category, is_regular, tags and note")
+    public ResponseEntity<ExpenseImportDto> startImport(InputStream csv) {
+        ExpenseImportDto expenseImport = expenseImportService.startImport(csv);
+        return new ResponseEntity<>(expenseImport, HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get progress and errors of import",
+            description = "Progress is kept in memory of the node which runs the import, for its last 20 imports, "
+                    + "so it is not found on other nodes, after a restart or once 20 newer imports are started")
+    public ResponseEntity<ExpenseImportDto> getImport(@PathVariable String id) {
+        try {
+            ExpenseImportDto expenseImport = expenseImportService.getImport(id);
+            return new ResponseEntity<>(expenseImport, HttpStatus.OK);
+        } catch (ObjectNotFoundException exception) {
+            throw new ResponseStatusException(NOT_FOUND, exception.getMessage());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package yehor.budget.web.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import yehor.budget.common.ExportFormat;
+import yehor.budget.common.date.DateManager;
+import yehor.budget.service.admission.AdmissionService;
+import yehor.budget.service.admission.Bulkhead;
+import yehor.budget.service.export.ExportService;
+
+import javax.servlet.http.HttpServletRequest;
+import java.time.LocalDate;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+@RestController
+@RequestMapping("/api/v1/exports")
+@RequiredArgsConstructor
+@Tag(name = "Export Controller")
+public class ExportController {
+
+    private final ExportService exportService;
+    private final DateManager dateManager;
+    private final AdmissionService admissionService;
+
+    @GetMapping("/expenses")
+    @Operation(summary = "Export expenses within dates interval as CSV or NDJSON, optionally compressed with gzip")
+    public ResponseEntity<StreamingResponseBody> exportExpenses(@RequestParam("dateFrom") String dateFromParam,
+                                                                @RequestParam("dateTo") String dateToParam,
+                                                                @RequestParam(value = "format", defaultValue = "CSV") ExportFormat format,
+                                                                @RequestParam(value = "gzip", defaultValue = "false") boolean gzip,
+                                                                HttpServletRequest request) {
+        try {
+            LocalDate dateFrom = dateManager.parse(dateFromParam);
+            LocalDate dateTo = dateManager.parse(dateToParam);
+
+            dateManager.validateDatesInSequentialOrder(dateFrom, dateTo);
+            dateManager.validateDatesWithinBudget(dateFrom, dateTo);
+
+            return toResponse("expenses", dateFrom, dateTo, format, gzip, request,
+                    output -> exportService.exportExpenses(dateFrom, dateTo, format, gzip, output));
+        } catch (IllegalArgumentException exception) {
+            throw new ResponseStatusException(BAD_REQUEST, exception.getMessage());
+        }
+    }
+
+    @GetMapping("/balance")
+    @Operation(summary = "Export balance items of records within dates interval as CSV or NDJSON, optionally compressed with gzip")
+    public ResponseEntity<StreamingResponseBody> exportBalanceRecords(@RequestParam("dateFrom") String dateFromParam,
+                                                                      @RequestParam("dateTo") String dateToParam,
+                                                                      @RequestParam(value = "format", defaultValue = "CSV") ExportFormat format,
+                                                                      @RequestParam(value = "gzip", defaultValue = "false") boolean gzip,
+                                                                HttpServletRequest request) {
+        try {
+            LocalDate dateFrom = dateManager.parse(dateFromParam);
+            LocalDate dateTo = dateManager.parse(dateToParam);
+
+            dateManager.validateDatesInSequentialOrder(dateFrom, dateTo);
+            dateManager.validateDatesWithinBudget(dateFrom, dateTo);
+
+            return toResponse("balance", dateFrom, dateTo, format, gzip, request,
+                    output -> exportService.exportBalanceRecords(dateFrom, dateTo, format, gzip, output));
+        } catch (IllegalArgumentException exception) {
+            throw new ResponseStatusException(BAD_REQUEST, exception.getMessage());
+        }
+    }
+
+    @GetMapping("/storage")
+    @Operation(summary = "Export storage items of records within dates interval as CSV or NDJSON, optionally compressed with gzip")
+    public ResponseEntity<StreamingResponseBody> exportStorageRecords(@RequestParam("dateFrom") String dateFromParam,
+                                                                      @RequestParam("dateTo") String dateToParam,
+                                                                      @RequestParam(value = "format", defaultValue = "CSV") ExportFormat format,
+                                                                      @RequestParam(value = "gzip", defaultValue = "false") boolean gzip,
+                                                                HttpServletRequest request) {
+        try {
+            LocalDate dateFrom = dateManager.parse(dateFromParam);
+            LocalDate dateTo = dateManager.parse(dateToParam);
+
+            dateManager.validateDatesInSequentialOrder(dateFrom, dateTo);
+            dateManager.validateDatesWithinBudget(dateFrom, dateTo);
+
+            return toResponse("storage", dateFrom, dateTo, format, gzip, request,
+                    output -> exportService.exportStorageRecords(dateFrom, dateTo, format, gzip, output));
+        } catch (IllegalArgumentException exception) {
+            throw new ResponseStatusException(BAD_REQUEST, exception.getMessage());
+        }
+    }
+
+    private ResponseEntity<StreamingResponseBody> toResponse(String name, LocalDate dateFrom, LocalDate dateTo,
+                                                             ExportFormat format, boolean gzip,
+                                                             HttpServletRequest request, StreamingResponseBody body) {
+        // admitted before the response is started, so a rejected export is answered with 503 and Retry-After
+        Bulkhead.Permit permit = admissionService.admitExport(request.getRemoteAddr());
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(format.getContentType()));
+        String filename = String.format("%s-%s-%s.%s", name, dateFrom, dateTo, format.getExtension());
+        headers.setContentDisposition(ContentDisposition.attachment().filename(filename).build());
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        StreamingResponseBody admittedBody = output -> {
+            try (permit) {
+                body.writeTo(output);
+            }
+        };
+        return new ResponseEntity<>(admittedBody, headers, HttpStatus.OK);
+    }
+}
@@ -0,0 +1,86 @@
+package yehor.budget.web.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import yehor.budget.common.exception.ObjectNotFoundException;
+import yehor.budget.service.worker.JobLeaseManager;
+import yehor.budget.service.worker.JobScheduler;
+import yehor.budget.web.dto.full.JobFullDto;
+import yehor.budget.web.dto.full.JobLeaseFullDto;
+
+import java.util.List;
+
+import static org.springframework.http.HttpStatus.CONFLICT;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+@RestController
+@RequestMapping("/api/v1/jobs")
+@RequiredArgsConstructor
+@Tag(name = "Job Controller")
+public class JobController {
+
+    private final JobLeaseManager jobLeaseManager;
+    private final JobScheduler jobScheduler;
+
+    @GetMapping
+    @Operation(summary = "Get jobs scheduled on the node serving the request with their runs")
+    public ResponseEntity<List<JobFullDto>> getJobs() {
+        return new ResponseEntity<>(jobScheduler.getJobs(), HttpStatus.OK);
+    }
+
+    @PostMapping("/{name}/trigger")
+    @Operation(summary = "Run job now on the node serving the request")
+    public ResponseEntity<Void> triggerJob(@PathVariable("name") String name) {
+        try {
+            jobScheduler.trigger(name);
+            return new ResponseEntity<>(HttpStatus.ACCEPTED);
+        } catch (ObjectNotFoundException exception) {
+            throw new ResponseStatusException(NOT_FOUND, exception.getMessage());
+        } catch (IllegalStateException exception) {
+            throw new ResponseStatusException(CONFLICT, exception.getMessage());
+        }
+    }
+
+    @PostMapping("/{name}/cancel")
+    @Operation(summary = "Cancel next runs of job and interrupt its current run on the node serving the request")
+    public ResponseEntity<Void> cancelJob(@PathVariable("name") String name) {
+        try {
+            jobScheduler.cancel(name);
+            return new ResponseEntity<>(HttpStatus.OK);
+        } catch (ObjectNotFoundException exception) {
+            throw new ResponseStatusException(NOT_FOUND, exception.getMessage());
+        }
+    }
+
+    @PostMapping("/{name}/resume")
+    @Operation(summary = "Schedule cancelled job again on the node serving the request")
+    public ResponseEntity<Void> resumeJob(@PathVariable("name") String name) {
+        try {
+            jobScheduler.resume(name);
+            return new ResponseEntity<>(HttpStatus.OK);
+        } catch (ObjectNotFoundException exception) {
+            throw new ResponseStatusException(NOT_FOUND, exception.getMessage());
+        }
+    }
+
+    @GetMapping("/leases")
+    @Operation(summary = "Get leases of scheduled jobs and nodes holding them")
+    public ResponseEntity<List<JobLeaseFullDto>> getLeases() {
+        return new ResponseEntity<>(jobLeaseManager.getLeases(), HttpStatus.OK);
+    }
+
+    @GetMapping("/node")
+    @Operation(summary = "Get id of the node serving the request")
+    public ResponseEntity<String> getNodeId() {
+        return new ResponseEntity<>(jobLeaseManager.getNodeId(), HttpStatus.OK);
+    }
+}
@@ -0,0 +1,33 @@
+package yehor.budget.web.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import yehor.budget.service.live.LiveFeedService;
+
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+@RestController
+@RequestMapping("/api/v1/live")
+@RequiredArgsConstructor
+@Tag(name = "Live Feed Controller")
+public class LiveFeedController {
+
+    private final LiveFeedService liveFeedService;
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Subscribe to server-sent updates of current month statistics, estimated expenses and the latest balance record")
+    public SseEmitter subscribe() {
+        try {
+            return liveFeedService.subscribe();
+        } catch (IllegalStateException exception) {
+            throw new ResponseStatusException(SERVICE_UNAVAILABLE, exception.getMessage());
+        }
+    }
+}
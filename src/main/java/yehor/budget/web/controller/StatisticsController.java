@@ -12,9 +12,12 @@ import org.springframework.web.server.ResponseStatusException;
 import yehor.budget.common.date.DateManager;
 import yehor.budget.common.date.FullMonth;
 import yehor.budget.service.StatisticsService;
+import yehor.budget.service.admission.AdmissionService;
+import yehor.budget.service.admission.Bulkhead;
 import yehor.budget.web.dto.MonthlyStatistics;
 import yehor.budget.web.dto.PeriodicStatistics;
 
+import javax.servlet.http.HttpServletRequest;
 import java.time.Month;
 
 @RestController
@@ -25,6 +28,7 @@ public class StatisticsController {
 
     private final StatisticsService statisticsService;
     private final DateManager dateManager;
+    private final AdmissionService admissionService;
 
     @GetMapping("/monthly")
     @Operation(summary = "Get statistics for one month")
@@ -44,7 +48,8 @@ public class StatisticsController {
     public PeriodicStatistics getPeriodicStatistics(@RequestParam("startMonth") Month startMonth,
                                                     @RequestParam("startYear") Integer startYear,
                                                     @RequestParam("endMonth") Month endMonth,
-                                                    @RequestParam("endYear") Integer endYear) {
+                                                    @RequestParam("endYear") Integer endYear,
+                                                    HttpServletRequest request) {
         FullMonth startFullMonth = FullMonth.of(startMonth, startYear);
         FullMonth endFullMonth = FullMonth.of(endMonth, endYear);
 
@@ -56,6 +61,14 @@ public class StatisticsController {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, exception.getMessage());
         }
 
-        return statisticsService.getPeriodicStatistics(startFullMonth, endFullMonth);
+        Bulkhead.Permit permit;
+        try {
+            permit = admissionService.admitPeriodicStatistics(request.getRemoteAddr(), startFullMonth, endFullMonth);
+        } catch (IllegalArgumentException exception) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, exception.getMessage());
+        }
+        try (permit) {
+            return statisticsService.getPeriodicStatistics(startFullMonth, endFullMonth);
+        }
     }
 }
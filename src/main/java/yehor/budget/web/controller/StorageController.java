@@ -8,9 +8,11 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.util.CollectionUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import yehor.budget.common.Currency;
 import yehor.budget.common.date.DateManager;
 import yehor.budget.common.exception.ObjectNotFoundException;
 import yehor.budget.service.recording.StorageRecordingService;
+import yehor.budget.web.dto.StorageTimeSeriesDto;
 import yehor.budget.web.dto.full.StorageRecordFullDto;
 import yehor.budget.web.dto.limited.StorageRecordLimitedDto;
 
@@ -78,6 +80,28 @@ public class StorageController {
         }
     }
 
+    @GetMapping("/time-series")
+    @Operation(summary = "Get storage totals within dates interval re-valued in provided currency with current or historical rates")
+    public ResponseEntity<StorageTimeSeriesDto> getTimeSeries(@RequestParam("dateFrom") String dateFromParam,
+                                                              @RequestParam("dateTo") String dateToParam,
+                                                              @RequestParam(value = "currency", defaultValue = "USD") Currency currency,
+                                                              @RequestParam(value = "historical", defaultValue = "false") boolean historical) {
+        try {
+            LocalDate dateFrom = dateManager.parse(dateFromParam);
+            LocalDate dateTo = dateManager.parse(dateToParam);
+
+            dateManager.validateDatesInSequentialOrder(dateFrom, dateTo);
+            dateManager.validateDatesWithinBudget(dateFrom, dateTo);
+
+            StorageTimeSeriesDto timeSeries = storageRecordingService.getTimeSeries(dateFrom, dateTo, currency, historical);
+            return new ResponseEntity<>(timeSeries, HttpStatus.OK);
+        } catch (IllegalArgumentException exception) {
+            throw new ResponseStatusException(BAD_REQUEST, exception.getMessage());
+        } catch (ObjectNotFoundException exception) {
+            throw new ResponseStatusException(NOT_FOUND, exception.getMessage());
+        }
+    }
+
     private void validateStorageItems(StorageRecordLimitedDto storageRecord) {
         if (CollectionUtils.isEmpty(storageRecord.getStorageItems())) {
             throw new IllegalArgumentException("Storage items are not provided");
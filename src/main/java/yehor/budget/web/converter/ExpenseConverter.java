@@ -5,9 +5,19 @@ import org.springframework.stereotype.Component;
 import yehor.budget.entity.Expense;
 import yehor.budget.repository.CategoryRepository;
 import yehor.budget.repository.TagRepository;
+import yehor.budget.web.dto.CompactExpensesDto;
+import yehor.budget.web.dto.full.CategoryFullDto;
 import yehor.budget.web.dto.full.ExpenseFullDto;
+import yehor.budget.web.dto.full.TagFullDto;
 import yehor.budget.web.dto.limited.ExpenseLimitedDto;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import static java.util.stream.Collectors.toSet;
 
 @Component
@@ -31,6 +41,45 @@ public class ExpenseConverter {
                 .build();
     }
 
+    public CompactExpensesDto convertToCompact(List<Expense> expenses) {
+        List<CategoryFullDto> categories = new ArrayList<>();
+        List<TagFullDto> tags = new ArrayList<>();
+        Map<Long, Integer> categoryIndexes = new HashMap<>();
+        Map<Long, Integer> tagIndexes = new HashMap<>();
+        int size = expenses.size();
+        CompactExpensesDto compact = CompactExpensesDto.builder()
+                .categories(categories)
+                .tags(tags)
+                .ids(new long[size])
+                .dates(new LocalDate[size])
+                .values(new BigDecimal[size])
+                .isRegular(new boolean[size])
+                .categoryIndexes(new int[size])
+                .tagIndexes(new int[size][])
+                .notes(new String[size])
+                .build();
+        for (int i = 0; i < size; i++) {
+            Expense expense = expenses.get(i);
+            compact.getIds()[i] = expense.getId();
+            compact.getDates()[i] = expense.getDate();
+            compact.getValues()[i] = expense.getValue();
+            compact.getIsRegular()[i] = Boolean.TRUE.equals(expense.getIsRegular());
+            compact.getCategoryIndexes()[i] = categoryIndexes.computeIfAbsent(expense.getCategory().getId(), id -> {
+                categories.add(categoryConverter.convert(expense.getCategory()));
+                return categories.size() - 1;
+            });
+            compact.getTagIndexes()[i] = expense.getTags().stream()
+                    .mapToInt(tag -> tagIndexes.computeIfAbsent(tag.getId(), id -> {
+                        tags.add(tagConverter.convert(tag));
+                        return tags.size() - 1;
+                    }))
+                    .sorted()
+                    .toArray();
+            compact.getNotes()[i] = expense.getNote();
+        }
+        return compact;
+    }
+
     public Expense convert(ExpenseLimitedDto expenseDto) {
         return Expense.builder()
                 .value(expenseDto.getValue())
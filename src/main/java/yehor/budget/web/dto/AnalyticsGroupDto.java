@@ -0,0 +1,19 @@
+package yehor.budget.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsGroupDto {
+    private List<String> keys;
+    private BigDecimal total;
+    private long count;
+}
@@ -0,0 +1,28 @@
+package yehor.budget.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import yehor.budget.common.AnalyticsDimension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Expenses within the interval matching every provided criterion are grouped by the dimensions in the
+ * given order. An expense with several tags is counted in the group of each of its tags.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsQueryDto {
+    private LocalDate dateFrom;
+    private LocalDate dateTo;
+    private List<AnalyticsDimension> groupBy;
+    private Set<Long> categoryIds;
+    private Set<Long> tagIds;
+    private Boolean isRegular;
+}
@@ -0,0 +1,18 @@
+package yehor.budget.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import yehor.budget.common.AnalyticsDimension;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsResultDto {
+    private List<AnalyticsDimension> groupBy;
+    private List<AnalyticsGroupDto> groups;
+}
@@ -0,0 +1,35 @@
+package yehor.budget.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import yehor.budget.web.dto.full.CategoryFullDto;
+import yehor.budget.web.dto.full.TagFullDto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Expenses as columns, where the values of the expense at position i are at index i of every column.
+ * Categories and tags are listed once, and expenses refer to them by their index in these lists.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompactExpensesDto {
+
+    public static final String MEDIA_TYPE = "application/vnd.budget.compact+json";
+
+    private List<CategoryFullDto> categories;
+    private List<TagFullDto> tags;
+    private long[] ids;
+    private LocalDate[] dates;
+    private BigDecimal[] values;
+    private boolean[] isRegular;
+    private int[] categoryIndexes;
+    private int[][] tagIndexes;
+    private String[] notes;
+}
@@ -0,0 +1,22 @@
+package yehor.budget.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import yehor.budget.common.ExpenseChangeType;
+import yehor.budget.web.dto.full.ExpenseFullDto;
+
+/**
+ * Created or updated expense with its current state, or id of deleted expense.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseChangeDto {
+    private Long changeSeq;
+    private ExpenseChangeType type;
+    private Long expenseId;
+    private ExpenseFullDto expense;
+}
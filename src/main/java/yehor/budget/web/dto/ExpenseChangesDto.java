@@ -0,0 +1,22 @@
+package yehor.budget.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Changes ordered by their sequence numbers. The next page is requested since nextSince while hasMore is set.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseChangesDto {
+    private long since;
+    private long nextSince;
+    private boolean hasMore;
+    private List<ExpenseChangeDto> changes;
+}
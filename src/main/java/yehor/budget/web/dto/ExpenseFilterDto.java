@@ -0,0 +1,29 @@
+package yehor.budget.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import yehor.budget.common.ValueBucket;
+
+import java.time.YearMonth;
+import java.util.Set;
+
+/**
+ * Expenses match the filter when they match every provided criterion. An expense matches a set when it has
+ * any of its values, or all of them in case of tags when allTags is set. Not provided criteria match everything.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseFilterDto {
+    private Set<Long> categoryIds;
+    private Set<Long> excludedCategoryIds;
+    private Set<Long> tagIds;
+    private Boolean allTags;
+    private Set<Long> excludedTagIds;
+    private Boolean isRegular;
+    private Set<YearMonth> months;
+    private Set<ValueBucket> valueBuckets;
+}
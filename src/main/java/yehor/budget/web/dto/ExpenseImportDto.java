@@ -0,0 +1,30 @@
+package yehor.budget.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import yehor.budget.common.ExpenseImportStatus;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Progress of an import. Rejected rows are not imported, and only the first of their errors are listed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseImportDto {
+    private String id;
+    private ExpenseImportStatus status;
+    private long rowsRead;
+    private long rowsRejected;
+    private long rowsImported;
+    private long rowsPerSecond;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String failure;
+    private List<ExpenseImportErrorDto> errors;
+}
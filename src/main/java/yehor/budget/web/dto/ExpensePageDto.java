@@ -0,0 +1,20 @@
+package yehor.budget.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import yehor.budget.web.dto.full.ExpenseFullDto;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpensePageDto {
+    private long totalElements;
+    private int page;
+    private int size;
+    private List<ExpenseFullDto> expenses;
+}
@@ -0,0 +1,22 @@
+package yehor.budget.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * On-demand flight recording. Its file can be downloaded once it is finished.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlightRecordingDto {
+    private long id;
+    private boolean finished;
+    private Instant startedAt;
+    private Instant finishesAt;
+}
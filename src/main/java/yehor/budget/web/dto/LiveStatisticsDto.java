@@ -0,0 +1,24 @@
+package yehor.budget.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LiveStatisticsDto {
+
+    private String month;
+    private BigDecimal totalExpense;
+    private BigDecimal totalRegular;
+    private BigDecimal totalNonRegular;
+    // every category when complete, otherwise only categories whose totals changed, with 0 for removed ones
+    private Map<String, BigDecimal> totalsPerCategory;
+    private boolean complete;
+}
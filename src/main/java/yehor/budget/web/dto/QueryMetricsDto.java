@@ -0,0 +1,20 @@
+package yehor.budget.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueryMetricsDto {
+    private String name;
+    private long invocations;
+    private long statements;
+    private long maxStatements;
+    private double avgStatements;
+    private long rows;
+    private long dbTimeMillis;
+}
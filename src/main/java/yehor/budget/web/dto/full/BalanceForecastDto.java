@@ -0,0 +1,23 @@
+package yehor.budget.web.dto.full;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import yehor.budget.common.Currency;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceForecastDto {
+    private LocalDate startDate;
+    private BigDecimal startTotal;
+    private Currency currency;
+    private Integer numberOfPaths;
+    private List<MonthlyBalanceForecastDto> months;
+}
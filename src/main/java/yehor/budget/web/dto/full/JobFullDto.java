@@ -0,0 +1,32 @@
+package yehor.budget.web.dto.full;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import yehor.budget.common.JobRunResult;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobFullDto {
+    private String name;
+    private Boolean clustered;
+    private Boolean running;
+    private Boolean cancelled;
+    private Long periodSeconds;
+    private LocalDateTime lastStartedAt;
+    private LocalDateTime lastFinishedAt;
+    private JobRunResult lastResult;
+    private String lastError;
+    private LocalDateTime nextRunAt;
+    private Long runs;
+    private Long failures;
+    private Long skips;
+    private Long lastDurationMillis;
+    private Long maxDurationMillis;
+    private Long avgDurationMillis;
+}
@@ -0,0 +1,21 @@
+package yehor.budget.web.dto.full;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobLeaseFullDto {
+    private String jobName;
+    private String owner;
+    private LocalDateTime acquiredAt;
+    private LocalDateTime expiresAt;
+    private Boolean expired;
+    private Boolean heldByThisNode;
+}
@@ -0,0 +1,23 @@
+package yehor.budget.web.dto.full;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonthlyBalanceForecastDto {
+    private LocalDate endOfMonthDate;
+    private BigDecimal mean;
+    private BigDecimal percentile5;
+    private BigDecimal percentile25;
+    private BigDecimal percentile50;
+    private BigDecimal percentile75;
+    private BigDecimal percentile95;
+}
@@ -0,0 +1,104 @@
+package yehor.budget.web.filter;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import yehor.budget.common.sql.QueryCounter;
+import yehor.budget.common.sql.QueryStatistics;
+import yehor.budget.service.diagnostics.QueryMetricsService;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts statements executed while handling each request. Their number, rows and time are sent in response
+ * headers, which are added once the response body is started, and recorded in metrics of the handler's
+ * URL pattern. Statements of asynchronously written responses are not counted.
+ */
+@Component
+@RequiredArgsConstructor
+public class QueryStatisticsFilter extends OncePerRequestFilter {
+
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+    public static final String QUERY_ROWS_HEADER = "X-Query-Rows";
+    public static final String QUERY_TIME_HEADER = "X-Query-Time-Ms";
+
+    private final QueryMetricsService queryMetricsService;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        QueryStatistics statistics = QueryCounter.start();
+        StatisticsHeadersResponse responseWrapper = new StatisticsHeadersResponse(response, statistics);
+        try {
+            filterChain.doFilter(request, responseWrapper);
+            responseWrapper.addStatisticsHeaders();
+        } finally {
+            QueryCounter.stop();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (Objects.nonNull(pattern)) {
+                queryMetricsService.record(request.getMethod() + " " + pattern, statistics);
+            }
+        }
+    }
+
+    private static final class StatisticsHeadersResponse extends HttpServletResponseWrapper {
+
+        private final QueryStatistics statistics;
+        private boolean headersAdded;
+
+        StatisticsHeadersResponse(HttpServletResponse response, QueryStatistics statistics) {
+            super(response);
+            this.statistics = statistics;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addStatisticsHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addStatisticsHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addStatisticsHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int status, String message) throws IOException {
+            addStatisticsHeaders();
+            super.sendError(status, message);
+        }
+
+        @Override
+        public void sendError(int status) throws IOException {
+            addStatisticsHeaders();
+            super.sendError(status);
+        }
+
+        void addStatisticsHeaders() {
+            if (headersAdded || isCommitted()) {
+                return;
+            }
+            headersAdded = true;
+            setHeader(QUERY_COUNT_HEADER, String.valueOf(statistics.getStatements()));
+            setHeader(QUERY_ROWS_HEADER, String.valueOf(statistics.getRows()));
+            setHeader(QUERY_TIME_HEADER, String.valueOf(TimeUnit.NANOSECONDS.toMillis(statistics.getNanos())));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package yehor.budget.web.filter;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import yehor.budget.common.trace.Span;
+import yehor.budget.common.trace.TraceContext;
+import yehor.budget.common.trace.Tracer;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Starts a server span for each request, continuing the trace of the {@code traceparent} header if there is one.
+ * The trace id is sent back in a response header, so a response can be matched with its logs and spans.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class TracingFilter extends OncePerRequestFilter {
+
+    public static final String TRACE_ID_HEADER = "X-Trace-Id";
+
+    private final Tracer tracer;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Span span = tracer.startServerSpan(request.getMethod(),
+                TraceContext.fromTraceparent(request.getHeader(TraceContext.TRACEPARENT_HEADER)));
+        if (!span.isRecording()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        try (span) {
+            response.setHeader(TRACE_ID_HEADER, span.context().traceId());
+            span.setAttribute("http.method", request.getMethod());
+            span.setAttribute("http.target", request.getRequestURI());
+            try {
+                filterChain.doFilter(request, response);
+            } catch (IOException | ServletException | RuntimeException e) {
+                span.recordError(e);
+                throw e;
+            } finally {
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                if (Objects.nonNull(pattern)) {
+                    span.setName(request.getMethod() + " " + pattern);
+                    span.setAttribute("http.route", pattern);
+                }
+                span.setAttribute("http.status_code", response.getStatus());
+                if (response.getStatus() >= HttpServletResponse.SC_INTERNAL_SERVER_ERROR) {
+                    span.recordError("HTTP " + response.getStatus());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package common.assertion;
+
+import yehor.budget.common.sql.QueryCounter;
+import yehor.budget.common.sql.QueryStatistics;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Assertions on statements executed through the counting data source, to catch N+1 selects in tests
+ * running against a database.
+ */
+public final class QueryAssertions {
+
+    private QueryAssertions() {
+    }
+
+    public static QueryStatistics assertMaxQueries(int maxStatements, Runnable action) {
+        AtomicReference<QueryStatistics> statistics = new AtomicReference<>();
+        QueryCounter.count(() -> {
+            action.run();
+            return null;
+        }, statistics::set);
+        assertTrue(statistics.get().getStatements() <= maxStatements, () -> "Expected at most " + maxStatements
+                + " statements, but " + statistics.get().getStatements() + " were executed: "
+                + String.join("\n", statistics.get().getSqls()));
+        return statistics.get();
+    }
+}
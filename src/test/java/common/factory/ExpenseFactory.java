@@ -2,6 +2,7 @@ package common.factory;
 
 import lombok.experimental.UtilityClass;
 import yehor.budget.entity.Expense;
+import yehor.budget.web.dto.CompactExpensesDto;
 import yehor.budget.web.dto.ExpensesByTagDto;
 import yehor.budget.web.dto.full.ExpenseFullDto;
 import yehor.budget.web.dto.limited.ExpenseLimitedDto;
@@ -123,6 +124,20 @@ public class ExpenseFactory {
         return List.of(expenseFullDto1, expenseFullDto2, expenseFullDto3);
     }
 
+    public static CompactExpensesDto defaultCompactExpensesDto() {
+        return CompactExpensesDto.builder()
+                .categories(List.of(defaultCategoryFullDto()))
+                .tags(List.of(defaultTagFullDto(), secondTagFullDto()))
+                .ids(new long[]{1L, 2L})
+                .dates(new LocalDate[]{LocalDate.of(2022, 6, 6), LocalDate.of(2022, 6, 7)})
+                .values(new BigDecimal[]{new BigDecimal("10.00"), new BigDecimal("100.00")})
+                .isRegular(new boolean[]{true, false})
+                .categoryIndexes(new int[]{0, 0})
+                .tagIndexes(new int[][]{{0}, {0, 1}})
+                .notes(new String[]{"Some information", null})
+                .build();
+    }
+
     public static List<Expense> defaultExpenseList() {
         Expense expense1 = defaultExpense();
         Expense expense2 = secondExpense();
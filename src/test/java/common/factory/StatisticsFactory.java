@@ -41,9 +41,9 @@ public class StatisticsFactory {
 
     public static MonthlyStatistics emptyMonthStatistics() {
         return MonthlyStatistics.builder()
-                .totalExpense(BigDecimal.ZERO)
-                .totalRegular(BigDecimal.ZERO)
-                .totalNonRegular(BigDecimal.ZERO)
+                .totalExpense(new BigDecimal("0.00"))
+                .totalRegular(new BigDecimal("0.00"))
+                .totalNonRegular(new BigDecimal("0.00"))
                 .totalsPerCategory(Collections.emptyMap())
                 .build();
     }
@@ -0,0 +1,76 @@
+package context.webmvc;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import yehor.budget.common.AnalyticsDimension;
+import yehor.budget.service.AnalyticsService;
+import yehor.budget.web.dto.AnalyticsGroupDto;
+import yehor.budget.web.dto.AnalyticsQueryDto;
+import yehor.budget.web.dto.AnalyticsResultDto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class AnalyticsWebMvcTest extends BaseWebMvcTest {
+
+    protected static final String ANALYTICS_QUERY_URL = ANALYTICS_URL.concat("/query");
+
+    @MockBean
+    private AnalyticsService analyticsService;
+
+    // Query analytics
+
+    @Test
+    void testQuery() throws Exception {
+        AnalyticsQueryDto query = AnalyticsQueryDto.builder()
+                .dateFrom(LocalDate.of(2023, 1, 1))
+                .dateTo(LocalDate.of(2023, 12, 31))
+                .groupBy(List.of(AnalyticsDimension.MONTH))
+                .build();
+        AnalyticsResultDto expectedResult = AnalyticsResultDto.builder()
+                .groupBy(List.of(AnalyticsDimension.MONTH))
+                .groups(List.of(AnalyticsGroupDto.builder()
+                        .keys(List.of("2023-03"))
+                        .total(new BigDecimal("55.00"))
+                        .count(2)
+                        .build()))
+                .build();
+
+        when(analyticsService.query(any(), eq(query))).thenReturn(expectedResult);
+
+        String response = mockMvc.perform(post(ANALYTICS_QUERY_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(query)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        AnalyticsResultDto actualResult = objectMapper.readValue(response, AnalyticsResultDto.class);
+
+        assertEquals(expectedResult, actualResult);
+    }
+
+    @Test
+    void testTryQueryingWithInvalidInterval() throws Exception {
+        String expectedErrorMessage = "dateFrom should not be after dateTo";
+
+        when(analyticsService.query(any(), any())).thenThrow(new IllegalArgumentException(expectedErrorMessage));
+
+        String response = mockMvc.perform(post(ANALYTICS_QUERY_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AnalyticsQueryDto())))
+                .andExpect(status().isBadRequest())
+                .andReturn().getResponse().getContentAsString();
+
+        verifyResponseErrorObject(response, BAD_REQUEST, expectedErrorMessage);
+    }
+}
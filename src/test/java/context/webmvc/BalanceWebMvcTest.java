@@ -6,7 +6,9 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import yehor.budget.common.date.DateManager;
 import yehor.budget.common.exception.ObjectNotFoundException;
+import yehor.budget.service.recording.BalanceForecastService;
 import yehor.budget.service.recording.BalanceRecordingService;
+import yehor.budget.web.dto.full.BalanceForecastDto;
 import yehor.budget.web.dto.full.BalanceRecordFullDto;
 import yehor.budget.web.dto.full.BalanceRecordFullDtoWithoutEstimates;
 import yehor.budget.web.dto.limited.BalanceRecordLimitedDto;
@@ -19,6 +21,7 @@ import java.util.Optional;
 import static common.factory.BalanceFactory.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
@@ -28,10 +31,13 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 class BalanceWebMvcTest extends BaseWebMvcTest {
 
     protected static final String BALANCE_INTERVAL_URL = BALANCE_URL + "/interval";
+    protected static final String BALANCE_FORECAST_URL = BALANCE_URL + "/forecast";
 
     @MockBean
     private BalanceRecordingService balanceRecordingService;
     @MockBean
+    private BalanceForecastService balanceForecastService;
+    @MockBean
     private DateManager dateManager;
 
     // Get latest balance record
@@ -244,4 +250,50 @@ class BalanceWebMvcTest extends BaseWebMvcTest {
 
         verifyResponseErrorObject(response, NOT_FOUND, expectedErrorMessage);
     }
+
+    // Get balance forecast
+
+    @Test
+    void testGetForecastSuccessfully() throws Exception {
+        BalanceForecastDto expectedForecast = BalanceForecastDto.builder()
+                .startDate(LocalDate.now())
+                .startTotal(DEFAULT_BALANCE_RECORD_TOTAL)
+                .numberOfPaths(100)
+                .months(Collections.emptyList())
+                .build();
+
+        when(balanceForecastService.getForecast(12, 100)).thenReturn(Optional.of(expectedForecast));
+
+        String response = mockMvc.perform(get(BALANCE_FORECAST_URL)
+                        .param("months", "12")
+                        .param("paths", "100"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(expectedForecast, objectMapper.readValue(response, BalanceForecastDto.class));
+    }
+
+    @Test
+    void testTryGettingForecastWithTooManyMonths() throws Exception {
+        String expectedErrorMessage = "Number of months should be between 1 and 120";
+
+        String response = mockMvc.perform(get(BALANCE_FORECAST_URL)
+                        .param("months", "121"))
+                .andExpect(status().isBadRequest())
+                .andReturn().getResponse().getContentAsString();
+
+        verifyResponseErrorObject(response, BAD_REQUEST, expectedErrorMessage);
+        verify(balanceForecastService, never()).getForecast(anyInt(), anyInt());
+    }
+
+    @Test
+    void testGetForecastThrowsExceptionWhenNotFound() throws Exception {
+        when(balanceForecastService.getForecast(24, 10000)).thenReturn(Optional.empty());
+
+        String response = mockMvc.perform(get(BALANCE_FORECAST_URL))
+                .andExpect(status().isNotFound())
+                .andReturn().getResponse().getContentAsString();
+
+        verifyResponseErrorObject(response, NOT_FOUND, "There are no balance records");
+    }
 }
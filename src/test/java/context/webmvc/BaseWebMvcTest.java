@@ -33,6 +33,8 @@ abstract class BaseWebMvcTest {
     protected static final String INCOME_SOURCES_URL = BASE_URL.concat("/income-sources");
     protected static final String BALANCE_URL = BASE_URL.concat("/balance");
     protected static final String STORAGE_URL = BASE_URL.concat("/storage");
+    protected static final String EXCHANGE_RATES_URL = BASE_URL.concat("/exchange-rates");
+    protected static final String ANALYTICS_URL = BASE_URL.concat("/analytics");
 
     @Autowired
     protected MockMvc mockMvc;
@@ -0,0 +1,126 @@
+package context.webmvc;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import yehor.budget.common.Currency;
+import yehor.budget.common.date.DateManager;
+import yehor.budget.common.exception.ObjectNotFoundException;
+import yehor.budget.service.ExchangeRateService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ExchangeRateWebMvcTest extends BaseWebMvcTest {
+
+    protected static final String EXCHANGE_RATES_BACKFILL_URL = EXCHANGE_RATES_URL + "/backfill";
+
+    @MockBean
+    private ExchangeRateService exchangeRateService;
+    @MockBean
+    private DateManager dateManager;
+
+    // Get rate
+
+    @Test
+    void testGetRateSuccessfully() throws Exception {
+        LocalDate date = LocalDate.of(2022, 6, 6);
+        BigDecimal expectedRate = new BigDecimal("36.6");
+
+        when(dateManager.parse("2022-06-06")).thenReturn(date);
+        when(exchangeRateService.getRate(Currency.USD, Currency.UAH, date)).thenReturn(expectedRate);
+
+        String response = mockMvc.perform(get(EXCHANGE_RATES_URL)
+                        .param("from", "USD")
+                        .param("to", "UAH")
+                        .param("date", "2022-06-06"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(expectedRate, new BigDecimal(response));
+    }
+
+    @Test
+    void testGetRateThrowsExceptionWhenRatesAreNotStored() throws Exception {
+        String expectedErrorMessage = "There are no exchange rates stored for USD:UAH";
+        LocalDate date = LocalDate.of(2022, 6, 6);
+
+        when(dateManager.parse("2022-06-06")).thenReturn(date);
+        when(exchangeRateService.getRate(Currency.USD, Currency.UAH, date))
+                .thenThrow(new ObjectNotFoundException(expectedErrorMessage));
+
+        String response = mockMvc.perform(get(EXCHANGE_RATES_URL)
+                        .param("from", "USD")
+                        .param("to", "UAH")
+                        .param("date", "2022-06-06"))
+                .andExpect(status().isNotFound())
+                .andReturn().getResponse().getContentAsString();
+
+        verifyResponseErrorObject(response, NOT_FOUND, expectedErrorMessage);
+    }
+
+    // Backfill
+
+    @Test
+    void testBackfillSuccessfully() throws Exception {
+        LocalDate dateFrom = LocalDate.of(2022, 6, 6);
+        LocalDate dateTo = LocalDate.of(2022, 6, 7);
+
+        when(dateManager.parse("2022-06-06")).thenReturn(dateFrom);
+        when(dateManager.parse("2022-06-07")).thenReturn(dateTo);
+
+        mockMvc.perform(post(EXCHANGE_RATES_BACKFILL_URL)
+                        .param("dateFrom", "2022-06-06")
+                        .param("dateTo", "2022-06-07"))
+                .andExpect(status().isAccepted());
+
+        verify(exchangeRateService).startBackfill(dateFrom, dateTo);
+    }
+
+    @Test
+    void testBackfillThrowsExceptionWhenBackfillIsRunning() throws Exception {
+        String expectedErrorMessage = "Backfill of exchange rates is already running";
+        LocalDate dateFrom = LocalDate.of(2022, 6, 6);
+        LocalDate dateTo = LocalDate.of(2022, 6, 7);
+
+        when(dateManager.parse("2022-06-06")).thenReturn(dateFrom);
+        when(dateManager.parse("2022-06-07")).thenReturn(dateTo);
+        doThrow(new IllegalStateException(expectedErrorMessage)).when(exchangeRateService).startBackfill(dateFrom, dateTo);
+
+        String response = mockMvc.perform(post(EXCHANGE_RATES_BACKFILL_URL)
+                        .param("dateFrom", "2022-06-06")
+                        .param("dateTo", "2022-06-07"))
+                .andExpect(status().isConflict())
+                .andReturn().getResponse().getContentAsString();
+
+        verifyResponseErrorObject(response, CONFLICT, expectedErrorMessage);
+    }
+
+    @Test
+    void testBackfillThrowsExceptionWhenParsingOfDateFails() throws Exception {
+        String expectedErrorMessage = "expectedErrorMessage";
+
+        when(dateManager.parse("invalid")).thenThrow(new IllegalArgumentException(expectedErrorMessage));
+
+        String response = mockMvc.perform(post(EXCHANGE_RATES_BACKFILL_URL)
+                        .param("dateFrom", "invalid")
+                        .param("dateTo", "2022-06-07"))
+                .andExpect(status().isBadRequest())
+                .andReturn().getResponse().getContentAsString();
+
+        verifyResponseErrorObject(response, BAD_REQUEST, expectedErrorMessage);
+        verify(exchangeRateService, never()).startBackfill(any(), any());
+    }
+}
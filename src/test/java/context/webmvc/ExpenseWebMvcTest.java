@@ -1,24 +1,36 @@
 package context.webmvc;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectReader;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+import yehor.budget.common.ExpenseChangeType;
 import yehor.budget.common.date.DateManager;
 import yehor.budget.common.exception.ObjectNotFoundException;
 import yehor.budget.service.ExpenseService;
+import yehor.budget.web.dto.CompactExpensesDto;
+import yehor.budget.web.dto.ExpenseChangeDto;
+import yehor.budget.web.dto.ExpenseChangesDto;
+import yehor.budget.web.dto.ExpenseFilterDto;
+import yehor.budget.web.dto.ExpensePageDto;
 import yehor.budget.web.dto.ExpensesByTagDto;
 import yehor.budget.web.dto.full.ExpenseFullDto;
 import yehor.budget.web.dto.limited.ExpenseLimitedDto;
 
 import javax.persistence.EntityNotFoundException;
+import java.lang.reflect.Type;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.Month;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import static common.factory.ExpenseFactory.DEFAULT_EXPENSE_ID;
+import static common.factory.ExpenseFactory.defaultCompactExpensesDto;
 import static common.factory.ExpenseFactory.defaultExpenseByTagDto;
 import static common.factory.ExpenseFactory.defaultExpenseFullDto;
 import static common.factory.ExpenseFactory.defaultExpenseFullDtoList;
@@ -26,6 +38,8 @@ import static common.factory.ExpenseFactory.defaultExpenseLimitedDto;
 import static common.factory.TagFactory.DEFAULT_TAG_ID;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -37,6 +51,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 class ExpenseWebMvcTest extends BaseWebMvcTest {
@@ -319,6 +334,73 @@ class ExpenseWebMvcTest extends BaseWebMvcTest {
         assertEquals(expectedExpenseInterval, actualExpenseInterval);
     }
 
+    @Test
+    void testGetCompactExpensesInIntervalByAcceptHeader() throws Exception {
+        CompactExpensesDto expectedExpenses = defaultCompactExpensesDto();
+        LocalDate dateFrom = LocalDate.of(2022, 6, 6);
+        LocalDate dateTo = LocalDate.of(2022, 7, 7);
+
+        when(dateManager.parse("2022-06-06")).thenReturn(dateFrom);
+        when(dateManager.parse("2022-07-07")).thenReturn(dateTo);
+        when(expenseService.findAllInIntervalCompact(dateFrom, dateTo)).thenReturn(expectedExpenses);
+
+        String response = mockMvc.perform(get(EXPENSE_INTERVAL_URL)
+                        .param("dateFrom", "2022-06-06")
+                        .param("dateTo", "2022-07-07")
+                        .accept(CompactExpensesDto.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(CompactExpensesDto.MEDIA_TYPE))
+                .andReturn().getResponse().getContentAsString();
+
+        verify(expenseService, never()).findAllInInterval(any(), any());
+        assertEquals(expectedExpenses, objectMapper.readValue(response, CompactExpensesDto.class));
+    }
+
+    @Test
+    void testGetCompactExpensesInIntervalByViewParameter() throws Exception {
+        CompactExpensesDto expectedExpenses = defaultCompactExpensesDto();
+        LocalDate dateFrom = LocalDate.of(2022, 6, 6);
+        LocalDate dateTo = LocalDate.of(2022, 7, 7);
+
+        when(dateManager.parse("2022-06-06")).thenReturn(dateFrom);
+        when(dateManager.parse("2022-07-07")).thenReturn(dateTo);
+        when(expenseService.findAllInIntervalCompact(dateFrom, dateTo)).thenReturn(expectedExpenses);
+
+        String response = mockMvc.perform(get(EXPENSE_INTERVAL_URL)
+                        .param("dateFrom", "2022-06-06")
+                        .param("dateTo", "2022-07-07")
+                        .param("view", "compact"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(CompactExpensesDto.MEDIA_TYPE))
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(expectedExpenses, objectMapper.readValue(response, CompactExpensesDto.class));
+    }
+
+    @Test
+    void testGetExpensesInIntervalAsCbor() throws Exception {
+        List<ExpenseFullDto> expectedExpenseInterval = defaultExpenseFullDtoList();
+        LocalDate dateFrom = LocalDate.of(2022, 6, 6);
+        LocalDate dateTo = LocalDate.of(2022, 7, 7);
+
+        when(dateManager.parse("2022-06-06")).thenReturn(dateFrom);
+        when(dateManager.parse("2022-07-07")).thenReturn(dateTo);
+        when(expenseService.findAllInInterval(dateFrom, dateTo)).thenReturn(expectedExpenseInterval);
+
+        byte[] response = mockMvc.perform(get(EXPENSE_INTERVAL_URL)
+                        .param("dateFrom", "2022-06-06")
+                        .param("dateTo", "2022-07-07")
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        Type listType = new TypeReference<List<ExpenseFullDto>>() {}.getType();
+        Object actualExpenseInterval = new MappingJackson2CborHttpMessageConverter()
+                .read(listType, null, new MockHttpInputMessage(response));
+        assertEquals(expectedExpenseInterval, actualExpenseInterval);
+    }
+
     @Test
     void testTryGettingExpensesInIntervalFailingSequentialOrderCheck() throws Exception {
         String expectedErrorMessage = "expectedErrorMessage";
@@ -729,4 +811,82 @@ class ExpenseWebMvcTest extends BaseWebMvcTest {
 
         verifyResponseErrorObject(response, NOT_FOUND, expectedErrorMessage);
     }
+
+    // Get expenses matching filter
+    @Test
+    void testGetExpensesMatching() throws Exception {
+        ExpenseFilterDto filter = ExpenseFilterDto.builder().categoryIds(Set.of(1L)).isRegular(true).build();
+        ExpensePageDto expectedPage = ExpensePageDto.builder()
+                .totalElements(1)
+                .page(0)
+                .size(10)
+                .expenses(List.of(defaultExpenseFullDto()))
+                .build();
+
+        when(expenseService.findAllMatching(filter, 0, 10)).thenReturn(expectedPage);
+
+        String response = mockMvc.perform(post(EXPENSES_URL.concat("/filter"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(filter))
+                        .param("page", "0")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        ExpensePageDto actualPage = objectMapper.readValue(response, ExpensePageDto.class);
+
+        assertEquals(expectedPage, actualPage);
+    }
+
+    @Test
+    void testTryGettingExpensesMatchingWithTooLargePage() throws Exception {
+        String expectedErrorMessage = "Page size should be between 1 and 1000";
+
+        String response = mockMvc.perform(post(EXPENSES_URL.concat("/filter"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ExpenseFilterDto()))
+                        .param("size", "1001"))
+                .andExpect(status().isBadRequest())
+                .andReturn().getResponse().getContentAsString();
+
+        verifyResponseErrorObject(response, BAD_REQUEST, expectedErrorMessage);
+        verify(expenseService, never()).findAllMatching(any(), anyInt(), anyInt());
+    }
+
+    // Get expense changes
+
+    @Test
+    void testGetExpenseChanges() throws Exception {
+        ExpenseChangesDto expectedChanges = ExpenseChangesDto.builder()
+                .since(10L)
+                .nextSince(11L)
+                .hasMore(false)
+                .changes(List.of(new ExpenseChangeDto(11L, ExpenseChangeType.DELETE, 3L, null)))
+                .build();
+
+        when(expenseService.getChanges(10L, 100)).thenReturn(expectedChanges);
+
+        String response = mockMvc.perform(get(EXPENSES_URL.concat("/changes"))
+                        .param("since", "10")
+                        .param("limit", "100"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        ExpenseChangesDto actualChanges = objectMapper.readValue(response, ExpenseChangesDto.class);
+
+        assertEquals(expectedChanges, actualChanges);
+    }
+
+    @Test
+    void testTryGettingExpenseChangesWithTooLargeLimit() throws Exception {
+        String expectedErrorMessage = "Limit should be between 1 and 1000";
+
+        String response = mockMvc.perform(get(EXPENSES_URL.concat("/changes"))
+                        .param("limit", "1001"))
+                .andExpect(status().isBadRequest())
+                .andReturn().getResponse().getContentAsString();
+
+        verifyResponseErrorObject(response, BAD_REQUEST, expectedErrorMessage);
+        verify(expenseService, never()).getChanges(anyLong(), anyInt());
+    }
 }
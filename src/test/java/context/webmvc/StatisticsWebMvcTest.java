@@ -2,8 +2,11 @@ package context.webmvc;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import yehor.budget.common.date.DateManager;
+import yehor.budget.common.exception.OverloadedException;
 import yehor.budget.service.StatisticsService;
+import yehor.budget.service.admission.AdmissionService;
 import yehor.budget.web.dto.MonthlyStatistics;
 import yehor.budget.web.dto.PeriodicStatistics;
 
@@ -17,7 +20,9 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 class StatisticsWebMvcTest extends BaseWebMvcTest {
@@ -29,6 +34,8 @@ class StatisticsWebMvcTest extends BaseWebMvcTest {
     private StatisticsService statisticsService;
     @MockBean
     private DateManager dateManager;
+    @MockBean
+    private AdmissionService admissionService;
 
     // Get monthly statistics
 
@@ -127,4 +134,43 @@ class StatisticsWebMvcTest extends BaseWebMvcTest {
         verify(statisticsService, never()).getPeriodicStatistics(any(), any());
     }
 
+    @Test
+    void testTryGettingPeriodicStatisticsWhenPeriodTooLong() throws Exception {
+        String expectedErrorMessage = "expectedErrorMessage";
+
+        when(admissionService.admitPeriodicStatistics(any(), any(), any()))
+                .thenThrow(new IllegalArgumentException(expectedErrorMessage));
+
+        String response = mockMvc.perform(get(PERIODIC_STATISTICS_URL)
+                        .param("startMonth", "JANUARY")
+                        .param("startYear", "1950")
+                        .param("endMonth", "DECEMBER")
+                        .param("endYear", "2049"))
+                .andExpect(status().isBadRequest())
+                .andReturn().getResponse().getContentAsString();
+
+        verifyResponseErrorObject(response, BAD_REQUEST, expectedErrorMessage);
+        verify(statisticsService, never()).getPeriodicStatistics(any(), any());
+    }
+
+    @Test
+    void testTryGettingPeriodicStatisticsWhenOverloaded() throws Exception {
+        String expectedErrorMessage = "expectedErrorMessage";
+
+        when(admissionService.admitPeriodicStatistics(any(), any(), any()))
+                .thenThrow(OverloadedException.unavailable(expectedErrorMessage, 2));
+
+        String response = mockMvc.perform(get(PERIODIC_STATISTICS_URL)
+                        .param("startMonth", "JUNE")
+                        .param("startYear", "2022")
+                        .param("endMonth", "JULY")
+                        .param("endYear", "2022"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"))
+                .andReturn().getResponse().getContentAsString();
+
+        verifyResponseErrorObject(response, SERVICE_UNAVAILABLE, expectedErrorMessage);
+        verify(statisticsService, never()).getPeriodicStatistics(any(), any());
+    }
+
 }
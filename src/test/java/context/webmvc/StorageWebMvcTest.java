@@ -4,12 +4,15 @@ import com.fasterxml.jackson.databind.ObjectReader;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import yehor.budget.common.Currency;
 import yehor.budget.common.date.DateManager;
 import yehor.budget.common.exception.ObjectNotFoundException;
 import yehor.budget.service.recording.StorageRecordingService;
+import yehor.budget.web.dto.StorageTimeSeriesDto;
 import yehor.budget.web.dto.full.StorageRecordFullDto;
 import yehor.budget.web.dto.limited.StorageRecordLimitedDto;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
@@ -18,6 +21,7 @@ import java.util.Optional;
 import static common.factory.StorageFactory.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.Mockito.*;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
@@ -27,6 +31,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 class StorageWebMvcTest extends BaseWebMvcTest {
 
     protected static final String STORAGE_INTERVAL_URL = STORAGE_URL + "/interval";
+    protected static final String STORAGE_TIME_SERIES_URL = STORAGE_URL + "/time-series";
 
     @MockBean
     private StorageRecordingService storageRecordingService;
@@ -119,6 +124,58 @@ class StorageWebMvcTest extends BaseWebMvcTest {
         verify(storageRecordingService, never()).save(storageRecordDto);
     }
 
+    // Get storage time series
+
+    @Test
+    void testGetTimeSeries() throws Exception {
+        String from = "2022-06-06";
+        String to = "2022-07-07";
+        LocalDate dateFrom = LocalDate.of(2022, 6, 6);
+        LocalDate dateTo = LocalDate.of(2022, 7, 7);
+        StorageTimeSeriesDto expectedTimeSeries = StorageTimeSeriesDto.builder()
+                .currency(Currency.EUR)
+                .dates(List.of(dateFrom, dateTo))
+                .totals(List.of(new BigDecimal("10.00"), new BigDecimal("20.00")))
+                .build();
+
+        when(dateManager.parse(from)).thenReturn(dateFrom);
+        when(dateManager.parse(to)).thenReturn(dateTo);
+        when(storageRecordingService.getTimeSeries(dateFrom, dateTo, Currency.EUR, false)).thenReturn(expectedTimeSeries);
+
+        String response = mockMvc.perform(get(STORAGE_TIME_SERIES_URL)
+                        .param("dateFrom", from)
+                        .param("dateTo", to)
+                        .param("currency", "EUR"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        StorageTimeSeriesDto actualTimeSeries = objectMapper.readValue(response, StorageTimeSeriesDto.class);
+        assertEquals(expectedTimeSeries, actualTimeSeries);
+    }
+
+    @Test
+    void testTryGettingTimeSeriesFailingSequentialOrderCheck() throws Exception {
+        String expectedErrorMessage = "expectedErrorMessage";
+        String from = "2022-07-07";
+        String to = "2022-06-06";
+        LocalDate dateFrom = LocalDate.of(2022, 7, 7);
+        LocalDate dateTo = LocalDate.of(2022, 6, 6);
+
+        when(dateManager.parse(from)).thenReturn(dateFrom);
+        when(dateManager.parse(to)).thenReturn(dateTo);
+        doThrow(new IllegalArgumentException(expectedErrorMessage))
+                .when(dateManager).validateDatesInSequentialOrder(dateFrom, dateTo);
+
+        String response = mockMvc.perform(get(STORAGE_TIME_SERIES_URL)
+                        .param("dateFrom", from)
+                        .param("dateTo", to))
+                .andExpect(status().isBadRequest())
+                .andReturn().getResponse().getContentAsString();
+
+        verifyResponseErrorObject(response, BAD_REQUEST, expectedErrorMessage);
+        verify(storageRecordingService, never()).getTimeSeries(any(), any(), any(), anyBoolean());
+    }
+
     // Get storage records in interval
 
     @Test
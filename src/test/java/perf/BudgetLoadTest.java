@@ -0,0 +1,84 @@
+package perf;
+
+import liquibase.integration.spring.SpringLiquibase;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import yehor.budget.BudgetApplication;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Load test of the whole application. Applies the Liquibase changelog to a dedicated Postgres database, fills it
+ * with synthetic data, starts the application on a random port and drives the scenario mix against its controllers
+ * while the estimated expense worker runs on its schedule. Latency percentiles and throughput of each scenario
+ * are logged once the run is over.
+ * <p>
+ * Excluded from the regular build, run with the perf profile against a database the run may overwrite:
+ * <pre>
+ * docker run -d -p 5433:5432 -e POSTGRES_PASSWORD=root -e POSTGRES_DB=budget_perf postgres
+ * mvn test -Pperf -Dskip.npm -Dskip.installnodenpm -Dperf.expenses=1000000 -Dperf.users=32
+ * </pre>
+ * See {@link PerfConfig} for every property.
+ */
+@Slf4j
+class BudgetLoadTest {
+
+    private static final String CHANGE_LOG = "classpath:/db/changelog/db.changelog-master.xml";
+    private static final double MAX_ERROR_RATE = 0.01;
+
+    @Test
+    void testBudgetUnderLoad() throws Exception {
+        PerfConfig config = PerfConfig.fromSystemProperties();
+        prepareDatabase(config);
+
+        try (ConfigurableApplicationContext context = startApplication(config)) {
+            Integer port = context.getEnvironment().getProperty("local.server.port", Integer.class);
+            TrafficDriver trafficDriver = new TrafficDriver(new Scenarios(port, config), config);
+            Map<String, LatencyRecorder> recorders = trafficDriver.run();
+            log.info("{} users, {} expenses, {}s measured{}{}", config.users(), config.expenses(),
+                    config.duration().toSeconds(), System.lineSeparator(), trafficDriver.report(recorders));
+
+            long requests = recorders.values().stream().mapToLong(LatencyRecorder::count).sum();
+            long errors = recorders.values().stream().mapToLong(LatencyRecorder::errors).sum();
+            assertTrue(requests > 0, "No request was answered");
+            assertTrue(errors <= requests * MAX_ERROR_RATE, errors + " of " + requests + " requests failed");
+        }
+    }
+
+    private void prepareDatabase(PerfConfig config) throws Exception {
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+                config.datasourceUrl(), config.username(), config.password(), true);
+        try {
+            SpringLiquibase liquibase = new SpringLiquibase();
+            liquibase.setDataSource(dataSource);
+            liquibase.setChangeLog(CHANGE_LOG);
+            liquibase.setResourceLoader(new DefaultResourceLoader());
+            liquibase.afterPropertiesSet();
+            if (config.regenerate()) {
+                new SyntheticDataGenerator(new JdbcTemplate(dataSource), config).generate();
+            }
+        } finally {
+            dataSource.destroy();
+        }
+    }
+
+    private ConfigurableApplicationContext startApplication(PerfConfig config) {
+        return new SpringApplicationBuilder(BudgetApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=" + config.datasourceUrl(),
+                        "spring.datasource.username=" + config.username(),
+                        "spring.datasource.password=" + config.password(),
+                        "spring.liquibase.change-log=" + CHANGE_LOG,
+                        "api.currency.exchange.simulate=true",
+                        "index.snapshot.directory=")
+                .run();
+    }
+}
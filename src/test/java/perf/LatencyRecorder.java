@@ -0,0 +1,70 @@
+package perf;
+
+import java.util.Arrays;
+
+/**
+ * Latencies and outcomes of requests of one scenario. Recorded by a single thread, and merged once the run is over.
+ */
+class LatencyRecorder {
+
+    private long[] latencies = new long[1024];
+    private int count;
+    private long errors;
+    private long rejected;
+
+    void record(long latencyNanos, int status) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyNanos;
+        if (status == 429 || status == 503) {
+            rejected++;
+        } else if (status >= 400) {
+            errors++;
+        }
+    }
+
+    void recordFailure(long latencyNanos) {
+        record(latencyNanos, 599);
+    }
+
+    LatencyRecorder merge(LatencyRecorder other) {
+        LatencyRecorder merged = new LatencyRecorder();
+        merged.latencies = Arrays.copyOf(latencies, count + other.count);
+        System.arraycopy(other.latencies, 0, merged.latencies, count, other.count);
+        merged.count = count + other.count;
+        merged.errors = errors + other.errors;
+        merged.rejected = rejected + other.rejected;
+        return merged;
+    }
+
+    long count() {
+        return count;
+    }
+
+    long errors() {
+        return errors;
+    }
+
+    long rejected() {
+        return rejected;
+    }
+
+    /**
+     * @param percentiles from 0 to 100
+     * @return latencies in milliseconds below which each percentile of requests were answered
+     */
+    double[] percentilesMillis(double... percentiles) {
+        double[] result = new double[percentiles.length];
+        if (count == 0) {
+            return result;
+        }
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        for (int i = 0; i < percentiles.length; i++) {
+            int index = (int) Math.ceil(percentiles[i] / 100 * count) - 1;
+            result[i] = sorted[Math.max(0, Math.min(index, count - 1))] / 1e6;
+        }
+        return result;
+    }
+}
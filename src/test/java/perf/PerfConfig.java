@@ -0,0 +1,89 @@
+package perf;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Configuration of a load test run, read from system properties so it can be passed with -D on the command line.
+ *
+ * @param datasourceUrl       Postgres database the run owns, its data is replaced by generated data
+ * @param expenses            number of generated expenses
+ * @param regularShare        share of regular expenses
+ * @param seed                seed of generated data, so runs with equal configuration load equal data
+ * @param years               number of years before today the data is spread over
+ * @param regenerate          whether data is regenerated, or data of the previous run is reused
+ * @param users               number of concurrent clients, each sending its next request once answered
+ * @param warmup              time requests are sent without being measured
+ * @param duration            time requests are measured
+ * @param mix                 weights of request scenarios by name
+ * @param workerPeriodMinutes period of estimated expense worker runs during the test
+ */
+record PerfConfig(String datasourceUrl,
+                  String username,
+                  String password,
+                  int categories,
+                  int tags,
+                  long expenses,
+                  double regularShare,
+                  double taggedShare,
+                  int incomeSources,
+                  double seed,
+                  int years,
+                  boolean regenerate,
+                  int users,
+                  Duration warmup,
+                  Duration duration,
+                  Map<String, Integer> mix,
+                  int workerPeriodMinutes) {
+
+    static final String DEFAULT_MIX = "expenses-monthly:25,expenses-interval:10,expenses-sum:10,"
+            + "statistics-monthly:15,statistics-periodic:10,estimated-expenses:10,balance-latest:5,"
+            + "storage-latest:5,analytics:5,expense-create:5";
+
+    static PerfConfig fromSystemProperties() {
+        return new PerfConfig(
+                property("perf.datasource.url", "jdbc:postgresql://localhost:5433/budget_perf"),
+                property("perf.datasource.username", "postgres"),
+                property("perf.datasource.password", "root"),
+                Integer.parseInt(property("perf.categories", "25")),
+                Integer.parseInt(property("perf.tags", "40")),
+                Long.parseLong(property("perf.expenses", "10000")),
+                Double.parseDouble(property("perf.regular.share", "0.3")),
+                Double.parseDouble(property("perf.tagged.share", "0.4")),
+                Integer.parseInt(property("perf.income.sources", "4")),
+                Double.parseDouble(property("perf.seed", "0.42")),
+                Integer.parseInt(property("perf.years", "5")),
+                Boolean.parseBoolean(property("perf.regenerate", "true")),
+                Integer.parseInt(property("perf.users", "16")),
+                Duration.ofSeconds(Long.parseLong(property("perf.warmup.seconds", "15"))),
+                Duration.ofSeconds(Long.parseLong(property("perf.duration.seconds", "60"))),
+                parseMix(property("perf.mix", DEFAULT_MIX)),
+                Integer.parseInt(property("perf.worker.period.minutes", "1")));
+    }
+
+    LocalDate lastDay() {
+        return LocalDate.now();
+    }
+
+    LocalDate firstDay() {
+        return lastDay().minusYears(years).plusDays(1);
+    }
+
+    static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] nameAndWeight = entry.trim().split(":");
+            if (nameAndWeight.length != 2) {
+                throw new IllegalArgumentException("Scenario weight " + entry + " is not in format name:weight");
+            }
+            weights.put(nameAndWeight[0].trim(), Integer.parseInt(nameAndWeight[1].trim()));
+        }
+        return weights;
+    }
+
+    private static String property(String key, String defaultValue) {
+        return System.getProperty(key, defaultValue);
+    }
+}
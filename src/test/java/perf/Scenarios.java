@@ -0,0 +1,125 @@
+package perf;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.BiFunction;
+
+/**
+ * Requests sent by clients of the budget, each with parameters picked at random within the generated data.
+ */
+final class Scenarios {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final String baseUrl;
+    private final PerfConfig config;
+    private final Map<String, BiFunction<Scenarios, Random, HttpRequest>> scenarios = Map.of(
+            "expenses-monthly", Scenarios::expensesMonthly,
+            "expenses-interval", Scenarios::expensesInterval,
+            "expenses-sum", Scenarios::expensesSum,
+            "statistics-monthly", Scenarios::statisticsMonthly,
+            "statistics-periodic", Scenarios::statisticsPeriodic,
+            "estimated-expenses", (scenarios, random) -> scenarios.get("/estimated-expenses"),
+            "balance-latest", (scenarios, random) -> scenarios.get("/balance"),
+            "storage-latest", (scenarios, random) -> scenarios.get("/storage"),
+            "analytics", Scenarios::analytics,
+            "expense-create", Scenarios::expenseCreate);
+
+    Scenarios(int port, PerfConfig config) {
+        this.baseUrl = "http://localhost:" + port + "/api/v1";
+        this.config = config;
+        config.mix().keySet().forEach(name -> {
+            if (!scenarios.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown scenario " + name + ", known are " + scenarios.keySet());
+            }
+        });
+    }
+
+    /**
+     * @return names of scenarios repeated by their weights, so a uniformly picked name follows the mix
+     */
+    List<String> weightedNames() {
+        return config.mix().entrySet().stream()
+                .flatMap(entry -> Collections.nCopies(entry.getValue(), entry.getKey()).stream())
+                .toList();
+    }
+
+    HttpRequest request(String name, Random random) {
+        return scenarios.get(name).apply(this, random);
+    }
+
+    private HttpRequest expensesMonthly(Random random) {
+        YearMonth month = randomMonth(random);
+        return get("/expenses/monthly?month=" + month.getMonth() + "&year=" + month.getYear());
+    }
+
+    private HttpRequest expensesInterval(Random random) {
+        LocalDate dateFrom = randomDay(random);
+        return get("/expenses/interval?dateFrom=" + dateFrom + "&dateTo=" + dateFrom.plusDays(random.nextInt(14)));
+    }
+
+    private HttpRequest expensesSum(Random random) {
+        LocalDate dateFrom = randomDay(random);
+        return get("/expenses/sum?dateFrom=" + dateFrom + "&dateTo=" + dateFrom.plusDays(random.nextInt(90)));
+    }
+
+    private HttpRequest statisticsMonthly(Random random) {
+        YearMonth month = randomMonth(random);
+        return get("/statistics/monthly?month=" + month.getMonth() + "&year=" + month.getYear());
+    }
+
+    private HttpRequest statisticsPeriodic(Random random) {
+        YearMonth start = randomMonth(random);
+        YearMonth end = start.plusMonths(random.nextInt(12));
+        if (end.isAfter(YearMonth.from(config.lastDay()))) {
+            end = YearMonth.from(config.lastDay());
+        }
+        return get("/statistics/periodic?startMonth=" + start.getMonth() + "&startYear=" + start.getYear()
+                + "&endMonth=" + end.getMonth() + "&endYear=" + end.getYear());
+    }
+
+    private HttpRequest analytics(Random random) {
+        LocalDate dateFrom = randomDay(random);
+        String body = "{\"dateFrom\":\"" + dateFrom + "\",\"dateTo\":\"" + dateFrom.plusMonths(3)
+                + "\",\"groupBy\":[\"MONTH\",\"CATEGORY\"]}";
+        return post("/analytics/query", body);
+    }
+
+    private HttpRequest expenseCreate(Random random) {
+        String body = "{\"value\":" + (1 + random.nextInt(100_000)) / 100.0
+                + ",\"date\":\"" + randomDay(random)
+                + "\",\"isRegular\":" + (random.nextDouble() < config.regularShare())
+                + ",\"categoryId\":" + (1 + random.nextInt(config.categories()))
+                + ",\"tagIds\":[" + (1 + random.nextInt(config.tags())) + "]}";
+        return post("/expenses", body);
+    }
+
+    private LocalDate randomDay(Random random) {
+        long days = ChronoUnit.DAYS.between(config.firstDay(), config.lastDay());
+        return config.firstDay().plusDays(random.nextLong(days + 1));
+    }
+
+    private YearMonth randomMonth(Random random) {
+        return YearMonth.from(randomDay(random));
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(REQUEST_TIMEOUT).GET().build();
+    }
+
+    private HttpRequest post(String path, String body) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+}
@@ -0,0 +1,117 @@
+package perf;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+
+/**
+ * Replaces data of the database with synthetic budget data. Rows are generated by Postgres itself with
+ * generate_series and a seeded random(), so millions of expenses are created without sending them over the network.
+ * Expenses are spread uniformly over the configured years, values are skewed towards small ones, and categories
+ * and tags of the expenses follow the configured shares.
+ */
+@Slf4j
+class SyntheticDataGenerator {
+
+    private static final int BALANCE_ITEMS_PER_RECORD = 3;
+    private static final int STORAGE_ITEMS_PER_RECORD = 2;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PerfConfig config;
+
+    SyntheticDataGenerator(JdbcTemplate jdbcTemplate, PerfConfig config) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.config = config;
+    }
+
+    void generate() {
+        long start = System.nanoTime();
+        jdbcTemplate.execute("TRUNCATE settings, categories, tags, expenses, expenses_to_tags, expense_tombstones, "
+                + "row_estimated_expenses, future_expenses, income_sources, balance_records, balance_items, "
+                + "income_source_records, expected_expense_records, storage_records, storage_items "
+                + "RESTART IDENTITY CASCADE");
+        // the seed holds for the session, so the generator has to run on a single connection
+        jdbcTemplate.execute("SELECT setseed(" + config.seed() + ")");
+        Date firstDay = Date.valueOf(config.firstDay());
+        Date lastDay = Date.valueOf(config.lastDay());
+
+        jdbcTemplate.update("INSERT INTO settings (settings_id, budget_start_date, budget_end_date, "
+                + "budget_date_validation, estimated_expense_worker_init_delay, estimated_expense_worker_period, "
+                + "estimated_expense_worker_end_date_scope_pattern) VALUES (1, ?, ?, false, ?, ?, '1y')",
+                firstDay, lastDay, config.workerPeriodMinutes(), config.workerPeriodMinutes());
+        jdbcTemplate.update("INSERT INTO categories (name) SELECT 'Category ' || i FROM generate_series(1, ?) i",
+                config.categories());
+        jdbcTemplate.update("INSERT INTO tags (name) SELECT 'Tag ' || i FROM generate_series(1, ?) i",
+                config.tags());
+        generateExpenses(firstDay, lastDay);
+        generateIncomeSources();
+        generateBalanceRecords(firstDay, lastDay);
+        generateStorageRecords(firstDay, lastDay);
+        jdbcTemplate.execute("ANALYZE");
+        log.info("Generated {} expenses in {}s", config.expenses(), (System.nanoTime() - start) / 1_000_000_000);
+    }
+
+    private void generateExpenses(Date firstDay, Date lastDay) {
+        // the category is squared so that a few categories have most of the expenses, as in real budgets
+        jdbcTemplate.update("INSERT INTO expenses (date, value, is_regular, category_id, note) "
+                        + "SELECT ?::date + floor(random() * (?::date - ?::date + 1))::int, "
+                        + "round((1 + random() * random() * 5000)::numeric, 2), "
+                        + "random() < ?, "
+                        + "1 + floor(power(random(), 2) * ?)::int, "
+                        + "CASE WHEN random() < 0.2 THEN 'Note ' || i END "
+                        + "FROM generate_series(1, ?) i",
+                firstDay, lastDay, firstDay, config.regularShare(), config.categories(), config.expenses());
+        // touching expenses of each inserted tag is pointless for new data and slow for millions of them
+        jdbcTemplate.execute("ALTER TABLE expenses_to_tags DISABLE TRIGGER expenses_to_tags_change_seq_trg");
+        try {
+            jdbcTemplate.update("INSERT INTO expenses_to_tags (expense_id, tag_id) "
+                            + "SELECT DISTINCT e.expense_id, 1 + floor(random() * ?)::int "
+                            + "FROM expenses e CROSS JOIN generate_series(1, 2) "
+                            + "WHERE random() < ?",
+                    config.tags(), config.taggedShare() / 2);
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE expenses_to_tags ENABLE TRIGGER expenses_to_tags_change_seq_trg");
+        }
+    }
+
+    private void generateIncomeSources() {
+        jdbcTemplate.update("INSERT INTO income_sources (name, value, currency, accrual_day) "
+                        + "SELECT 'Income ' || i, round((500 + random() * 3000)::numeric, 2), "
+                        + "CASE WHEN i % 2 = 0 THEN 'USD' ELSE 'UAH' END, 1 + floor(random() * 28)::int "
+                        + "FROM generate_series(1, ?) i",
+                config.incomeSources());
+    }
+
+    // balance is recorded weekly, with income sources and expected expenses as they were at the time
+    private void generateBalanceRecords(Date firstDay, Date lastDay) {
+        jdbcTemplate.update("INSERT INTO balance_records (date) "
+                + "SELECT d::date FROM generate_series(?::date, ?::date, interval '7 days') d", firstDay, lastDay);
+        jdbcTemplate.update("INSERT INTO balance_items (item_name, balance_record_id, cash, card) "
+                        + "SELECT 'Account ' || i, r.balance_record_id, round((random() * 1000)::numeric, 2), "
+                        + "round((random() * 10000)::numeric, 2) "
+                        + "FROM balance_records r CROSS JOIN generate_series(1, ?) i",
+                BALANCE_ITEMS_PER_RECORD);
+        jdbcTemplate.update("INSERT INTO income_source_records (name, value, currency, accrual_day, balance_record_id) "
+                + "SELECT s.name, s.value, s.currency, s.accrual_day, r.balance_record_id "
+                + "FROM balance_records r CROSS JOIN income_sources s");
+        jdbcTemplate.update("INSERT INTO expected_expense_records (total_expected_expenses_days_1_7, "
+                + "total_expected_expenses_days_8_14, total_expected_expenses_days_15_21, "
+                + "total_expected_expenses_days_22_31, balance_record_id) "
+                + "SELECT round((random() * 2000)::numeric, 2), round((random() * 2000)::numeric, 2), "
+                + "round((random() * 2000)::numeric, 2), round((random() * 2000)::numeric, 2), r.balance_record_id "
+                + "FROM balance_records r");
+    }
+
+    private void generateStorageRecords(Date firstDay, Date lastDay) {
+        jdbcTemplate.update("INSERT INTO storage_records (date) "
+                + "SELECT d::date FROM generate_series(?::date, ?::date, interval '1 month') d", firstDay, lastDay);
+        jdbcTemplate.update("INSERT INTO storage_items (storage_record_id, currency, value, name) "
+                        + "SELECT r.storage_record_id, CASE WHEN i % 2 = 0 THEN 'USD' ELSE 'UAH' END, "
+                        + "round((random() * 20000)::numeric, 2), 'Storage ' || i "
+                        + "FROM storage_records r CROSS JOIN generate_series(1, ?) i",
+                STORAGE_ITEMS_PER_RECORD);
+        jdbcTemplate.update("UPDATE storage_records r SET stored_in_total = "
+                + "(SELECT SUM(i.value) FROM storage_items i WHERE i.storage_record_id = r.storage_record_id)");
+    }
+}
@@ -0,0 +1,119 @@
+package perf;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Sends requests of the scenario mix from a number of concurrent clients. Each client sends its next request once
+ * the previous one is answered, so the load adapts to the latency like that of real users. Requests sent during
+ * the warmup are not measured.
+ */
+@Slf4j
+class TrafficDriver {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 100};
+
+    private final Scenarios scenarios;
+    private final PerfConfig config;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    TrafficDriver(Scenarios scenarios, PerfConfig config) {
+        this.scenarios = scenarios;
+        this.config = config;
+    }
+
+    /**
+     * @return recorded latencies by scenario
+     */
+    Map<String, LatencyRecorder> run() throws Exception {
+        List<String> weightedNames = scenarios.weightedNames();
+        long measureFrom = System.nanoTime() + config.warmup().toNanos();
+        long measureTo = measureFrom + config.duration().toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(config.users());
+        try {
+            List<Future<Map<String, LatencyRecorder>>> clients = new ArrayList<>();
+            for (int user = 0; user < config.users(); user++) {
+                Random random = new Random(user);
+                clients.add(executor.submit(() -> runClient(weightedNames, random, measureFrom, measureTo)));
+            }
+            Map<String, LatencyRecorder> recorders = new TreeMap<>();
+            for (Future<Map<String, LatencyRecorder>> client : clients) {
+                client.get().forEach((name, recorder) -> recorders.merge(name, recorder, LatencyRecorder::merge));
+            }
+            return recorders;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    String report(Map<String, LatencyRecorder> recorders) {
+        double seconds = config.duration().toMillis() / 1000.0;
+        StringBuilder report = new StringBuilder(String.format(Locale.ROOT,
+                "%-20s %9s %9s %8s %8s %9s %9s %9s %9s %9s%n", "scenario", "requests", "req/s", "errors",
+                "rejected", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        LatencyRecorder total = new LatencyRecorder();
+        for (Map.Entry<String, LatencyRecorder> entry : recorders.entrySet()) {
+            appendRow(report, entry.getKey(), entry.getValue(), seconds);
+            total = total.merge(entry.getValue());
+        }
+        appendRow(report, "total", total, seconds);
+        return report.toString();
+    }
+
+    private Map<String, LatencyRecorder> runClient(List<String> weightedNames, Random random,
+                                                   long measureFrom, long measureTo) {
+        Map<String, LatencyRecorder> recorders = new HashMap<>();
+        while (!Thread.currentThread().isInterrupted()) {
+            String name = weightedNames.get(random.nextInt(weightedNames.size()));
+            long start = System.nanoTime();
+            if (start >= measureTo) {
+                break;
+            }
+            int status;
+            try {
+                status = httpClient.send(scenarios.request(name, random), HttpResponse.BodyHandlers.discarding())
+                        .statusCode();
+            } catch (IOException e) {
+                log.debug("Request of {} failed", name, e);
+                status = -1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            long latency = System.nanoTime() - start;
+            if (start >= measureFrom) {
+                LatencyRecorder recorder = recorders.computeIfAbsent(name, key -> new LatencyRecorder());
+                if (status < 0) {
+                    recorder.recordFailure(latency);
+                } else {
+                    recorder.record(latency, status);
+                }
+            }
+        }
+        return recorders;
+    }
+
+    private void appendRow(StringBuilder report, String name, LatencyRecorder recorder, double seconds) {
+        double[] percentiles = recorder.percentilesMillis(PERCENTILES);
+        report.append(String.format(Locale.ROOT, "%-20s %9d %9.1f %8d %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                name, recorder.count(), recorder.count() / seconds, recorder.errors(), recorder.rejected(),
+                percentiles[0], percentiles[1], percentiles[2], percentiles[3], percentiles[4]));
+    }
+}
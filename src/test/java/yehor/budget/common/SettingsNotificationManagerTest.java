@@ -1,11 +1,15 @@
 package yehor.budget.common;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import yehor.budget.entity.Settings;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 
 class SettingsNotificationManagerTest {
@@ -22,8 +26,43 @@ class SettingsNotificationManagerTest {
 
         SettingsNotificationManager.updateListeners(String.class, new Settings());
 
-        verify(listener1, times(1)).onUpdate(any(Settings.class));
-        verify(listener2, times(1)).onUpdate(any(Settings.class));
+        verify(listener1, timeout(1000).times(1)).onUpdate(any(Settings.class));
+        verify(listener2, timeout(1000).times(1)).onUpdate(any(Settings.class));
     }
 
-}
\ No newline at end of file
+    @Test
+    void testFailingListenerDoesNotPreventOthersFromUpdating() {
+        settingsNotificationManager.addListener(Integer.class, listener1);
+        settingsNotificationManager.addListener(Integer.class, listener2);
+        doThrow(new IllegalStateException()).when(listener1).onUpdate(any());
+
+        SettingsNotificationManager.updateListeners(Integer.class, new Settings());
+
+        verify(listener2, timeout(1000).times(1)).onUpdate(any(Settings.class));
+    }
+
+    @Test
+    void testListenersAreUpdatedOnlyAfterTransactionIsCommitted() {
+        settingsNotificationManager.addListener(Long.class, listener1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            SettingsNotificationManager.updateListeners(Long.class, new Settings());
+
+            verify(listener1, after(200).never()).onUpdate(any(Settings.class));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(listener1, timeout(1000).times(1)).onUpdate(any(Settings.class));
+    }
+
+    @Test
+    void testUpdateWithoutListenersDoesNothing() {
+        SettingsNotificationManager.updateListeners(Double.class, new Settings());
+
+        verify(listener1, after(100).never()).onUpdate(any(Settings.class));
+    }
+}
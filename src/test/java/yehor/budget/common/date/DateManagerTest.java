@@ -4,26 +4,32 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import yehor.budget.common.SettingsNotificationManager;
+import yehor.budget.common.SettingsSnapshot;
 import yehor.budget.entity.Settings;
 
 import java.time.LocalDate;
 import java.time.Month;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Stream;
 
 import static common.factory.SettingsFactory.defaultSettings;
 import static common.factory.SettingsFactory.settingsWithBudgetDateValidationOff;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
-import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.times;
 
 class DateManagerTest {
 
+    private final AtomicReference<SettingsSnapshot> snapshot = new AtomicReference<>();
     private DateManager dateManager;
     private Settings settings;
 
@@ -33,6 +39,7 @@ class DateManagerTest {
         try (var mock = mockStatic(SettingsNotificationManager.class)) {
 
             dateManager.updateBudgetDatesIfNecessary(settings.getBudgetEndDate().minusDays(5));
+            dateManager.flushPendingBudgetDates();
 
             mock.verifyNoInteractions();
             assertEquals(settings.getBudgetEndDate(), dateManager.getEndDate());
@@ -46,15 +53,19 @@ class DateManagerTest {
 
             LocalDate newEndDate = settings.getBudgetEndDate().plusDays(5);
             Settings expectedSettings = Settings.builder()
-                    .budgetStartDate(settings.getBudgetStartDate())
                     .budgetEndDate(newEndDate)
                     .build();
 
             dateManager.updateBudgetDatesIfNecessary(newEndDate);
 
+            mock.verifyNoInteractions();
+            assertEquals(newEndDate, dateManager.getEndDate());
+            assertTrue(dateManager.isWithinBudget(newEndDate));
+
+            dateManager.flushPendingBudgetDates();
+
             mock.verify(() -> SettingsNotificationManager.updateListeners(eq(DateManager.class), eq(expectedSettings)));
             assertEquals(newEndDate, dateManager.getEndDate());
-            assertNotEquals(settings.getBudgetEndDate(), dateManager.getEndDate());
         }
     }
 
@@ -64,6 +75,7 @@ class DateManagerTest {
         try (var mock = mockStatic(SettingsNotificationManager.class)) {
 
             dateManager.updateBudgetDatesIfNecessary(settings.getBudgetStartDate().plusDays(5));
+            dateManager.flushPendingBudgetDates();
 
             mock.verifyNoInteractions();
             assertEquals(settings.getBudgetStartDate(), dateManager.getStartDate());
@@ -78,14 +90,87 @@ class DateManagerTest {
             LocalDate newStartDate = settings.getBudgetStartDate().minusDays(5);
             Settings expectedSettings = Settings.builder()
                     .budgetStartDate(newStartDate)
-                    .budgetEndDate(settings.getBudgetEndDate())
                     .build();
 
             dateManager.updateBudgetDatesIfNecessary(newStartDate);
 
+            mock.verifyNoInteractions();
+            assertEquals(newStartDate, dateManager.getStartDate());
+            assertTrue(dateManager.isWithinBudget(newStartDate));
+
+            dateManager.flushPendingBudgetDates();
+
             mock.verify(() -> SettingsNotificationManager.updateListeners(eq(DateManager.class), eq(expectedSettings)));
             assertEquals(newStartDate, dateManager.getStartDate());
-            assertNotEquals(settings.getBudgetStartDate(), dateManager.getStartDate());
+        }
+    }
+
+    @Test
+    void testFlushPendingBudgetDatesCoalescesExtensionsIntoSingleUpdate() {
+        setUp(defaultSettings());
+        try (var mock = mockStatic(SettingsNotificationManager.class)) {
+
+            LocalDate newEndDate = settings.getBudgetEndDate().plusDays(10);
+            Settings expectedSettings = Settings.builder()
+                    .budgetEndDate(newEndDate)
+                    .build();
+
+            dateManager.updateBudgetDatesIfNecessary(settings.getBudgetEndDate().plusDays(3));
+            dateManager.updateBudgetDatesIfNecessary(newEndDate);
+            dateManager.updateBudgetDatesIfNecessary(settings.getBudgetEndDate().plusDays(7));
+            dateManager.flushPendingBudgetDates();
+
+            mock.verify(() -> SettingsNotificationManager.updateListeners(any(), any()), times(1));
+            mock.verify(() -> SettingsNotificationManager.updateListeners(eq(DateManager.class), eq(expectedSettings)));
+        }
+    }
+
+    @Test
+    void testUpdateBudgetDatesIfNecessaryExtendsDatesOnlyAfterCommit() {
+        setUp(defaultSettings());
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            LocalDate rolledBackEndDate = settings.getBudgetEndDate().plusDays(10);
+            dateManager.updateBudgetDatesIfNecessary(rolledBackEndDate);
+            TransactionSynchronizationManager.clearSynchronization();
+
+            assertEquals(settings.getBudgetEndDate(), dateManager.getEndDate());
+
+            TransactionSynchronizationManager.initSynchronization();
+            LocalDate committedEndDate = settings.getBudgetEndDate().plusDays(5);
+            dateManager.updateBudgetDatesIfNecessary(committedEndDate);
+
+            assertEquals(settings.getBudgetEndDate(), dateManager.getEndDate());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+            assertEquals(committedEndDate, dateManager.getEndDate());
+        } finally {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+        }
+    }
+
+    @Test
+    void testFlushPendingBudgetDatesClearsPendingDatesOnceSettingsContainThem() {
+        setUp(defaultSettings());
+        try (var mock = mockStatic(SettingsNotificationManager.class)) {
+
+            LocalDate newEndDate = settings.getBudgetEndDate().plusDays(5);
+            dateManager.updateBudgetDatesIfNecessary(newEndDate);
+            dateManager.flushPendingBudgetDates();
+
+            settings.setBudgetEndDate(newEndDate);
+            snapshot.set(SettingsSnapshot.of(1, settings));
+            dateManager.flushPendingBudgetDates();
+
+            LocalDate narrowedEndDate = newEndDate.minusDays(10);
+            settings.setBudgetEndDate(narrowedEndDate);
+            snapshot.set(SettingsSnapshot.of(2, settings));
+
+            assertEquals(narrowedEndDate, dateManager.getEndDate());
+            mock.verify(() -> SettingsNotificationManager.updateListeners(any(), any()), times(1));
         }
     }
 
@@ -439,6 +524,7 @@ class DateManagerTest {
 
     private void setUp(Settings settings) {
         this.settings = settings;
-        dateManager = new DateManager(settings);
+        snapshot.set(SettingsSnapshot.of(0, settings));
+        dateManager = new DateManager(snapshot::get);
     }
 }
\ No newline at end of file
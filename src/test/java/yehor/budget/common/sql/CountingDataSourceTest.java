@@ -0,0 +1,122 @@
+package yehor.budget.common.sql;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static common.assertion.QueryAssertions.assertMaxQueries;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CountingDataSourceTest {
+
+    private static final String SELECT_SQL = "SELECT * FROM expenses WHERE id = ?";
+    private static final String UPDATE_SQL = "UPDATE expenses SET value = 1";
+
+    private final DataSource targetDataSource = mock(DataSource.class);
+    private final Connection connection = mock(Connection.class);
+    private final PreparedStatement preparedStatement = mock(PreparedStatement.class);
+    private final Statement statement = mock(Statement.class);
+    private final ResultSet resultSet = mock(ResultSet.class);
+
+    private final CountingDataSource dataSource = new CountingDataSource(targetDataSource, 200);
+
+    @Test
+    void testStatementsAndRowsAreCountedInScope() throws SQLException {
+        mockConnection();
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(statement.executeUpdate(UPDATE_SQL)).thenReturn(3);
+
+        QueryStatistics statistics = assertMaxQueries(2, () -> {
+            try (Connection counted = dataSource.getConnection()) {
+                PreparedStatement select = counted.prepareStatement(SELECT_SQL);
+                select.setLong(1, 10L);
+                ResultSet rows = select.executeQuery();
+                while (rows.next()) {
+                    rows.getLong(1);
+                }
+                counted.createStatement().executeUpdate(UPDATE_SQL);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertEquals(2, statistics.getStatements());
+        assertEquals(5, statistics.getRows());
+        assertEquals(List.of(SELECT_SQL, UPDATE_SQL), statistics.getSqls());
+        verify(preparedStatement).setLong(1, 10L);
+        verify(connection).close();
+    }
+
+    @Test
+    void testStatementsAreNotCountedOutsideOfScope() throws SQLException {
+        mockConnection();
+
+        dataSource.getConnection().prepareStatement(SELECT_SQL).executeQuery().next();
+
+        assertTrue(QueryCounter.current().isEmpty());
+        verify(resultSet).next();
+    }
+
+    @Test
+    void testEnclosingScopeIsResumedAfterNestedScope() throws SQLException {
+        mockConnection();
+        QueryStatistics outer = QueryCounter.start();
+        try {
+            QueryCounter.count(() -> {
+                try {
+                    return dataSource.getConnection().prepareStatement(SELECT_SQL).executeQuery();
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }, nested -> assertEquals(1, nested.getStatements()));
+            dataSource.getConnection().createStatement().executeUpdate(UPDATE_SQL);
+
+            assertEquals(1, outer.getStatements());
+            assertEquals(List.of(UPDATE_SQL), outer.getSqls());
+        } finally {
+            QueryCounter.stop();
+        }
+    }
+
+    @Test
+    void testFailedStatementIsRethrownAsIs() throws SQLException {
+        mockConnection();
+        SQLException exception = new SQLException("failed");
+        when(preparedStatement.executeQuery()).thenThrow(exception);
+        PreparedStatement counted = dataSource.getConnection().prepareStatement(SELECT_SQL);
+
+        assertEquals(exception, assertThrows(SQLException.class, counted::executeQuery));
+    }
+
+    @Test
+    void testProxiesAreEqualOnlyToThemselves() throws SQLException {
+        mockConnection();
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+
+        assertEquals(first, first);
+        assertNotEquals(first, second);
+        assertFalse(first.equals(connection));
+    }
+
+    private void mockConnection() throws SQLException {
+        when(targetDataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(connection.createStatement()).thenReturn(statement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+    }
+}
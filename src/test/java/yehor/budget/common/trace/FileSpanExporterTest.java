@@ -0,0 +1,60 @@
+package yehor.budget.common.trace;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FileSpanExporterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSpansAreAppendedAsJsonLines() throws IOException {
+        Path file = tempDir.resolve("traces/spans.jsonl");
+        FileSpanExporter exporter = new FileSpanExporter(objectMapper, file);
+
+        exporter.export(span("first"));
+        exporter.flush();
+        exporter.export(span("second"));
+        exporter.flush();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertEquals("first", first.get("name").asText());
+        assertEquals("4bf92f3577b34da6a3ce929d0e0e4736", first.get("traceId").asText());
+        assertEquals(2, first.get("durationMicros").asLong());
+        assertEquals(200, first.get("attributes").get("http.status_code").asInt());
+        assertEquals("second", objectMapper.readTree(lines.get(1)).get("name").asText());
+    }
+
+    @Test
+    void testSpansAreDroppedWhileQueueIsFull() throws IOException {
+        Path file = tempDir.resolve("spans.jsonl");
+        FileSpanExporter exporter = new FileSpanExporter(objectMapper, file);
+
+        for (int i = 0; i < FileSpanExporter.QUEUE_CAPACITY + 10; i++) {
+            exporter.export(span("span"));
+        }
+        exporter.flush();
+
+        assertEquals(FileSpanExporter.QUEUE_CAPACITY, Files.readAllLines(file).size());
+    }
+
+    private SpanData span(String name) {
+        return new SpanData("4bf92f3577b34da6a3ce929d0e0e4736", "00f067aa0ba902b7", null, name,
+                SpanKind.SERVER, 1_000, 3_000, 2, Map.of("http.status_code", 200), null);
+    }
+}
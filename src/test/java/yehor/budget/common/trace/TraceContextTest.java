@@ -0,0 +1,44 @@
+package yehor.budget.common.trace;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TraceContextTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final String SPAN_ID = "00f067aa0ba902b7";
+
+    @Test
+    void testTraceparentIsParsed() {
+        TraceContext context = TraceContext.fromTraceparent("00-" + TRACE_ID + "-" + SPAN_ID + "-01").orElseThrow();
+
+        assertEquals(new TraceContext(TRACE_ID, SPAN_ID, true), context);
+        assertEquals("00-" + TRACE_ID + "-" + SPAN_ID + "-01", context.toTraceparent());
+    }
+
+    @Test
+    void testSampledFlagIsRead() {
+        assertFalse(TraceContext.fromTraceparent("00-" + TRACE_ID + "-" + SPAN_ID + "-00").orElseThrow().sampled());
+        assertTrue(TraceContext.fromTraceparent("00-" + TRACE_ID + "-" + SPAN_ID + "-03").orElseThrow().sampled());
+    }
+
+    @Test
+    void testHeaderOfFutureVersionIsParsed() {
+        assertTrue(TraceContext.fromTraceparent("01-" + TRACE_ID + "-" + SPAN_ID + "-01-extra").isPresent());
+    }
+
+    @Test
+    void testInvalidHeadersAreIgnored() {
+        assertEquals(Optional.empty(), TraceContext.fromTraceparent(null));
+        assertEquals(Optional.empty(), TraceContext.fromTraceparent("garbage"));
+        assertEquals(Optional.empty(), TraceContext.fromTraceparent("ff-" + TRACE_ID + "-" + SPAN_ID + "-01"));
+        assertEquals(Optional.empty(), TraceContext.fromTraceparent("00-" + "0".repeat(32) + "-" + SPAN_ID + "-01"));
+        assertEquals(Optional.empty(), TraceContext.fromTraceparent("00-" + TRACE_ID + "-" + "0".repeat(16) + "-01"));
+        assertEquals(Optional.empty(), TraceContext.fromTraceparent("00-" + TRACE_ID.toUpperCase() + "-" + SPAN_ID + "-01"));
+    }
+}
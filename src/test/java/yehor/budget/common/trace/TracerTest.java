@@ -0,0 +1,80 @@
+package yehor.budget.common.trace;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TracerTest {
+
+    private final List<SpanData> exported = new ArrayList<>();
+    private final Tracer tracer = new Tracer(exported::add, 100);
+
+    @Test
+    void testChildSpansAreExportedWithinTraceOfServerSpan() {
+        try (Span server = tracer.startServerSpan("GET /api/v1/balance", Optional.empty())) {
+            try (Span child = tracer.startSpan("BalanceRecordingService.getLatest", SpanKind.INTERNAL)) {
+                child.setAttribute("key", "value");
+                assertEquals(child.context().spanId(), MDC.get(Tracer.SPAN_ID_KEY));
+            }
+            assertEquals(server.context().traceId(), MDC.get(Tracer.TRACE_ID_KEY));
+            assertEquals(server.context().spanId(), MDC.get(Tracer.SPAN_ID_KEY));
+        }
+
+        assertEquals(2, exported.size());
+        SpanData child = exported.get(0);
+        SpanData server = exported.get(1);
+        assertEquals(server.traceId(), child.traceId());
+        assertEquals(server.spanId(), child.parentSpanId());
+        assertNull(server.parentSpanId());
+        assertEquals("value", child.attributes().get("key"));
+        assertTrue(server.endTimeUnixNano() >= child.endTimeUnixNano());
+        assertTrue(tracer.currentSpan().isEmpty());
+        assertNull(MDC.get(Tracer.TRACE_ID_KEY));
+    }
+
+    @Test
+    void testServerSpanContinuesTraceOfCaller() {
+        TraceContext parent = new TraceContext("4bf92f3577b34da6a3ce929d0e0e4736", "00f067aa0ba902b7", true);
+
+        tracer.startServerSpan("GET", Optional.of(parent)).close();
+
+        assertEquals(parent.traceId(), exported.get(0).traceId());
+        assertEquals(parent.spanId(), exported.get(0).parentSpanId());
+    }
+
+    @Test
+    void testNothingIsRecordedOutsideOfSampledRequest() {
+        TraceContext notSampled = new TraceContext("4bf92f3577b34da6a3ce929d0e0e4736", "00f067aa0ba902b7", false);
+
+        try (Span span = tracer.startSpan("background", SpanKind.INTERNAL)) {
+            assertFalse(span.isRecording());
+        }
+        try (Span span = tracer.startServerSpan("GET", Optional.of(notSampled))) {
+            assertFalse(span.isRecording());
+            assertTrue(tracer.currentSpan().isEmpty());
+        }
+        try (Span span = new Tracer(exported::add, 0).startServerSpan("GET", Optional.empty())) {
+            assertFalse(span.isRecording());
+        }
+
+        assertTrue(exported.isEmpty());
+    }
+
+    @Test
+    void testSpanIsExportedOnce() {
+        Span span = tracer.startServerSpan("GET", Optional.empty());
+
+        span.close();
+        span.close();
+
+        assertEquals(1, exported.size());
+    }
+}
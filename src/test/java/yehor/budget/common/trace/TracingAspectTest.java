@@ -0,0 +1,63 @@
+package yehor.budget.common.trace;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TracingAspectTest {
+
+    private final List<SpanData> exported = new ArrayList<>();
+    private final Tracer tracer = new Tracer(exported::add, 100);
+    private final Calculator proxy = createProxy();
+
+    @Test
+    void testServiceCallWithinRequestIsTraced() {
+        try (Span ignored = tracer.startServerSpan("GET", Optional.empty())) {
+            assertEquals(4, proxy.square(2));
+        }
+
+        assertEquals(2, exported.size());
+        assertEquals("Calculator.square", exported.get(0).name());
+        assertEquals(SpanKind.INTERNAL, exported.get(0).kind());
+        assertEquals(exported.get(1).spanId(), exported.get(0).parentSpanId());
+    }
+
+    @Test
+    void testServiceCallOutsideOfRequestIsNotTraced() {
+        assertEquals(4, proxy.square(2));
+
+        assertEquals(List.of(), exported);
+    }
+
+    @Test
+    void testFailureIsRecorded() {
+        try (Span ignored = tracer.startServerSpan("GET", Optional.empty())) {
+            assertThrows(IllegalArgumentException.class, () -> proxy.square(-1));
+        }
+
+        assertEquals("IllegalArgumentException: Negative", exported.get(0).error());
+    }
+
+    private Calculator createProxy() {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new Calculator());
+        factory.addAspect(new TracingAspect(tracer));
+        return factory.getProxy();
+    }
+
+    @Service
+    static class Calculator {
+        public int square(int value) {
+            if (value < 0) {
+                throw new IllegalArgumentException("Negative");
+            }
+            return value * value;
+        }
+    }
+}
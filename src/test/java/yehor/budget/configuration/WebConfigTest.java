@@ -0,0 +1,107 @@
+package yehor.budget.configuration;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import yehor.budget.web.dto.full.ExpenseFullDto;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static common.factory.ExpenseFactory.defaultExpenseFullDtoList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WebConfigTest {
+
+    private final MappingJackson2HttpMessageConverter jsonConverter = new MappingJackson2HttpMessageConverter();
+    private final MappingJackson2CborHttpMessageConverter defaultCborConverter = new MappingJackson2CborHttpMessageConverter();
+    private final List<HttpMessageConverter<?>> converters = configureConverters();
+    private final MappingJackson2CborHttpMessageConverter cborConverter =
+            (MappingJackson2CborHttpMessageConverter) converters.get(1);
+
+    @Test
+    void testCborConverterReplacesDefaultOneAfterJson() {
+        assertEquals(2, converters.size());
+        assertEquals(jsonConverter, converters.get(0));
+        assertInstanceOf(MappingJackson2CborHttpMessageConverter.class, converters.get(1));
+        assertNotSame(defaultCborConverter, converters.get(1));
+    }
+
+    @Test
+    void testListOfDtosIsReadBack() throws IOException {
+        List<ExpenseFullDto> expenses = defaultExpenseFullDtoList();
+        Type type = new TypeReference<List<ExpenseFullDto>>() {}.getType();
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+
+        cborConverter.write(expenses, type, MediaType.APPLICATION_CBOR, outputMessage);
+        Object actualExpenses = cborConverter.read(type, null, new MockHttpInputMessage(outputMessage.getBodyAsBytes()));
+
+        assertEquals(expenses, actualExpenses);
+    }
+
+    @Test
+    void testCborWrittenByOtherEncodersIsRead() throws IOException {
+        byte[] cbor = concat(
+                bytes(0xA2, 0x65), "value".getBytes(StandardCharsets.UTF_8), bytes(0xF9, 0x3E, 0x00),
+                bytes(0x64), "date".getBytes(StandardCharsets.UTF_8),
+                bytes(0xD9, 0x03, 0xEC, 0x6A), "2022-06-06".getBytes(StandardCharsets.UTF_8));
+
+        ExpenseFullDto expense = (ExpenseFullDto) cborConverter.read(ExpenseFullDto.class, null, new MockHttpInputMessage(cbor));
+
+        assertEquals(0, new BigDecimal("1.5").compareTo(expense.getValue()));
+        assertEquals(LocalDate.of(2022, 6, 6), expense.getDate());
+    }
+
+    @Test
+    void testTruncatedCborIsRejected() {
+        byte[] cbor = concat(bytes(0xA1, 0x65), "value".getBytes(StandardCharsets.UTF_8), bytes(0xF9, 0x3E));
+
+        assertThrows(HttpMessageNotReadableException.class,
+                () -> cborConverter.read(ExpenseFullDto.class, null, new MockHttpInputMessage(cbor)));
+    }
+
+    private List<HttpMessageConverter<?>> configureConverters() {
+        List<HttpMessageConverter<?>> configuredConverters = new ArrayList<>(List.of(jsonConverter, defaultCborConverter));
+        new WebConfig(Jackson2ObjectMapperBuilder.json().modulesToInstall(new ParameterNamesModule()))
+                .extendMessageConverters(configuredConverters);
+        return configuredConverters;
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        int length = 0;
+        for (byte[] part : parts) {
+            length += part.length;
+        }
+        byte[] result = new byte[length];
+        int position = 0;
+        for (byte[] part : parts) {
+            System.arraycopy(part, 0, result, position, part.length);
+            position += part.length;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,96 @@
+package yehor.budget.service;
+
+import org.junit.jupiter.api.Test;
+import yehor.budget.common.AnalyticsDimension;
+import yehor.budget.common.date.DateManager;
+import yehor.budget.common.exception.OverloadedException;
+import yehor.budget.service.admission.AdmissionService;
+import yehor.budget.service.admission.Bulkhead;
+import yehor.budget.service.index.ExpenseColumnStore;
+import yehor.budget.service.index.ExpenseGroup;
+import yehor.budget.web.dto.AnalyticsGroupDto;
+import yehor.budget.web.dto.AnalyticsQueryDto;
+import yehor.budget.web.dto.AnalyticsResultDto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AnalyticsServiceTest {
+
+    private static final LocalDate DATE_FROM = LocalDate.of(2023, 1, 1);
+    private static final LocalDate DATE_TO = LocalDate.of(2023, 12, 31);
+
+    private final ExpenseColumnStore expenseColumnStoreMock = mock(ExpenseColumnStore.class);
+    private final AdmissionService admissionServiceMock = mock(AdmissionService.class);
+    private final DateManager dateManagerMock = mock(DateManager.class);
+    private final Bulkhead.Permit permitMock = mock(Bulkhead.Permit.class);
+
+    private final AnalyticsService analyticsService =
+            new AnalyticsService(expenseColumnStoreMock, admissionServiceMock, dateManagerMock);
+
+    @Test
+    void testQuery() {
+        AnalyticsQueryDto query = query(DATE_FROM, DATE_TO);
+        when(admissionServiceMock.admitAnalytics("client", DATE_FROM, DATE_TO)).thenReturn(permitMock);
+        when(expenseColumnStoreMock.findGroups(query))
+                .thenReturn(Optional.of(List.of(new ExpenseGroup(new int[]{2023}, 5500, 2))));
+
+        AnalyticsResultDto actualResult = analyticsService.query("client", query);
+
+        assertEquals(AnalyticsResultDto.builder()
+                .groupBy(List.of(AnalyticsDimension.YEAR))
+                .groups(List.of(new AnalyticsGroupDto(List.of("2023"), new BigDecimal("55.00"), 2)))
+                .build(), actualResult);
+        verify(permitMock).close();
+    }
+
+    @Test
+    void testQueryIsRejectedWhileStoreIsNotBuilt() {
+        AnalyticsQueryDto query = query(DATE_FROM, DATE_TO);
+        when(admissionServiceMock.admitAnalytics("client", DATE_FROM, DATE_TO)).thenReturn(permitMock);
+        when(expenseColumnStoreMock.findGroups(query)).thenReturn(Optional.empty());
+
+        assertThrows(OverloadedException.class, () -> analyticsService.query("client", query));
+
+        verify(permitMock).close();
+    }
+
+    @Test
+    void testTooLongIntervalIsRejected() {
+        AnalyticsQueryDto query = query(DATE_FROM, DATE_FROM.plusYears(AnalyticsService.MAX_PERIOD_YEARS).plusDays(1));
+
+        assertThrows(IllegalArgumentException.class, () -> analyticsService.query("client", query));
+
+        verify(admissionServiceMock, never()).admitAnalytics(any(), any(), any());
+    }
+
+    @Test
+    void testIntervalOutsideOfBudgetIsRejected() {
+        AnalyticsQueryDto query = query(DATE_FROM, DATE_TO);
+        doThrow(new IllegalArgumentException("Out of budget"))
+                .when(dateManagerMock).validateDatesWithinBudget(DATE_FROM, DATE_TO);
+
+        assertThrows(IllegalArgumentException.class, () -> analyticsService.query("client", query));
+
+        verify(expenseColumnStoreMock, never()).findGroups(any());
+    }
+
+    private AnalyticsQueryDto query(LocalDate dateFrom, LocalDate dateTo) {
+        return AnalyticsQueryDto.builder()
+                .dateFrom(dateFrom)
+                .dateTo(dateTo)
+                .groupBy(List.of(AnalyticsDimension.YEAR))
+                .build();
+    }
+}
@@ -7,6 +7,7 @@ import yehor.budget.common.exception.ObjectAlreadyExistsException;
 import yehor.budget.common.exception.ObjectNotFoundException;
 import yehor.budget.entity.Category;
 import yehor.budget.repository.CategoryRepository;
+import yehor.budget.service.cache.CacheInvalidationBus;
 import yehor.budget.web.converter.CategoryConverter;
 import yehor.budget.web.dto.full.CategoryFullDto;
 import yehor.budget.web.dto.limited.CategoryLimitedDto;
@@ -33,8 +34,10 @@ class CategoryServiceTest {
 
     private final CategoryRepository categoryRepositoryMock = mock(CategoryRepository.class);
     private final CategoryConverter categoryConverterMock = mock(CategoryConverter.class);
+    private final CacheInvalidationBus cacheInvalidationBus = mock(CacheInvalidationBus.class);
 
-    private final CategoryService categoryService = new CategoryService(categoryRepositoryMock, categoryConverterMock);
+    private final CategoryService categoryService = new CategoryService(categoryRepositoryMock, categoryConverterMock,
+            cacheInvalidationBus);
 
     @Test
     void testGetAll() {
@@ -0,0 +1,130 @@
+package yehor.budget.service;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import yehor.budget.common.Currency;
+import yehor.budget.entity.ExchangeRate;
+import yehor.budget.repository.ExchangeRateRepository;
+import yehor.budget.service.cache.CacheInvalidationBus;
+import yehor.budget.service.cache.CachedEntity;
+import yehor.budget.service.client.currency.CurrencyRateClient;
+import yehor.budget.service.client.currency.CurrencyRateService;
+import yehor.budget.service.client.currency.ExchangeRateHistory;
+import yehor.budget.service.worker.JobScheduler;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ExchangeRateServiceTest {
+
+    private final ExchangeRateRepository exchangeRateRepository = mock(ExchangeRateRepository.class);
+    private final ExchangeRateHistory exchangeRateHistory = mock(ExchangeRateHistory.class);
+    private final CurrencyRateClient currencyRateClient = mock(CurrencyRateClient.class);
+    private final CurrencyRateService currencyRateService = mock(CurrencyRateService.class);
+    private final JobScheduler jobScheduler = mock(JobScheduler.class);
+    private final CacheInvalidationBus cacheInvalidationBus = mock(CacheInvalidationBus.class);
+
+    private final ExchangeRateService exchangeRateService = new ExchangeRateService(exchangeRateRepository,
+            exchangeRateHistory, currencyRateClient, currencyRateService, jobScheduler, cacheInvalidationBus);
+
+    @Test
+    void testBackfillFetchesOnlyMissingRates() {
+        LocalDate dateFrom = LocalDate.of(2022, 1, 1);
+        LocalDate dateTo = LocalDate.of(2022, 1, 2);
+        ExchangeRate storedRate = ExchangeRate.builder()
+                .date(dateFrom)
+                .fromCurrency(Currency.USD)
+                .toCurrency(Currency.UAH)
+                .rate(new BigDecimal("36.6"))
+                .build();
+
+        when(exchangeRateRepository.findAllInInterval(dateFrom, dateTo)).thenReturn(List.of(storedRate));
+        when(currencyRateClient.rate(any(), any(), any())).thenReturn(BigDecimal.TEN);
+        when(exchangeRateRepository.insertIfAbsent(any(), any(), any(), any())).thenReturn(1);
+        when(exchangeRateRepository.insertIfAbsent(dateTo, "USD", "EUR", BigDecimal.TEN)).thenReturn(0);
+
+        int numberOfSaved = exchangeRateService.backfill(dateFrom, dateTo);
+
+        int numberOfPairs = Currency.values().length * (Currency.values().length - 1);
+        assertEquals(2 * numberOfPairs - 2, numberOfSaved);
+        verify(currencyRateClient, never()).rate(Currency.USD, Currency.UAH, dateFrom);
+        verify(currencyRateClient, times(1)).rate(Currency.USD, Currency.UAH, dateTo);
+        verify(exchangeRateHistory, times(2)).addAll(anyList());
+        verify(cacheInvalidationBus, times(1)).publish(CachedEntity.EXCHANGE_RATE, Set.of(dateFrom, dateTo));
+    }
+
+    @Test
+    void testStartBackfillRunsOneBackfillAtATime() {
+        LocalDate dateFrom = LocalDate.of(2022, 1, 1);
+        LocalDate dateTo = LocalDate.of(2022, 1, 2);
+        ArgumentCaptor<Runnable> taskArgumentCaptor = ArgumentCaptor.forClass(Runnable.class);
+
+        exchangeRateService.startBackfill(dateFrom, dateTo);
+
+        verify(jobScheduler).execute(eq(ExchangeRateService.BACKFILL_TASK_NAME), taskArgumentCaptor.capture());
+        verifyNoInteractions(currencyRateClient);
+        assertThrows(IllegalStateException.class, () -> exchangeRateService.startBackfill(dateFrom, dateTo));
+
+        taskArgumentCaptor.getValue().run();
+
+        exchangeRateService.startBackfill(dateFrom, dateTo);
+        verify(jobScheduler, times(2)).execute(eq(ExchangeRateService.BACKFILL_TASK_NAME), any());
+    }
+
+    @Test
+    void testBackfillFailsForReversedDates() {
+        LocalDate dateFrom = LocalDate.of(2022, 1, 2);
+        LocalDate dateTo = LocalDate.of(2022, 1, 1);
+
+        assertThrows(IllegalArgumentException.class, () -> exchangeRateService.backfill(dateFrom, dateTo));
+        verifyNoInteractions(currencyRateClient, exchangeRateRepository);
+    }
+
+    @Test
+    void testBackfillFailsForTooLongInterval() {
+        LocalDate dateFrom = LocalDate.of(2020, 1, 1);
+        LocalDate dateTo = LocalDate.of(2022, 1, 1);
+
+        assertThrows(IllegalArgumentException.class, () -> exchangeRateService.backfill(dateFrom, dateTo));
+        verifyNoInteractions(currencyRateClient, exchangeRateRepository);
+    }
+
+    @Test
+    void testRecordCurrentRatesSkipsAlreadyRecordedDay() {
+        LocalDate today = LocalDate.now();
+        List<ExchangeRate> storedRates = new ArrayList<>();
+        for (Currency fromCurrency : Currency.values()) {
+            for (Currency toCurrency : Currency.values()) {
+                if (fromCurrency != toCurrency) {
+                    storedRates.add(ExchangeRate.builder()
+                            .date(today)
+                            .fromCurrency(fromCurrency)
+                            .toCurrency(toCurrency)
+                            .rate(BigDecimal.ONE)
+                            .build());
+                }
+            }
+        }
+        when(exchangeRateRepository.findAllInInterval(today, today)).thenReturn(storedRates);
+
+        exchangeRateService.recordCurrentRates();
+
+        verifyNoInteractions(currencyRateService, exchangeRateHistory);
+        verify(exchangeRateRepository, never()).insertIfAbsent(any(), any(), any(), any());
+    }
+}
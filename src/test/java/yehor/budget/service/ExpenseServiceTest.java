@@ -1,14 +1,31 @@
 package yehor.budget.service;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import yehor.budget.common.ExpenseChangeType;
 import yehor.budget.common.date.DateManager;
+import yehor.budget.common.exception.ChangesExpiredException;
 import yehor.budget.common.exception.ObjectNotFoundException;
 import yehor.budget.entity.Category;
 import yehor.budget.entity.Expense;
+import yehor.budget.entity.ExpenseTombstone;
 import yehor.budget.repository.CategoryRepository;
 import yehor.budget.repository.ExpenseRepository;
+import yehor.budget.repository.ExpenseTombstoneRepository;
 import yehor.budget.repository.TagRepository;
+import yehor.budget.service.cache.CacheInvalidationBus;
+import yehor.budget.service.index.ExpenseBitmapIndex;
+import yehor.budget.service.index.ExpenseSumIndex;
 import yehor.budget.web.converter.ExpenseConverter;
+import yehor.budget.web.dto.CompactExpensesDto;
+import yehor.budget.web.dto.ExpenseChangeDto;
+import yehor.budget.web.dto.ExpenseChangesDto;
+import yehor.budget.web.dto.ExpenseFilterDto;
+import yehor.budget.web.dto.ExpensePageDto;
 import yehor.budget.web.dto.ExpensesByTagDto;
 import yehor.budget.web.dto.full.ExpenseFullDto;
 import yehor.budget.web.dto.limited.ExpenseLimitedDto;
@@ -22,6 +39,7 @@ import java.util.Optional;
 import static common.factory.CategoryFactory.DEFAULT_CATEGORY_ID;
 import static common.factory.CategoryFactory.defaultCategory;
 import static common.factory.ExpenseFactory.DEFAULT_EXPENSE_ID;
+import static common.factory.ExpenseFactory.defaultCompactExpensesDto;
 import static common.factory.ExpenseFactory.defaultExpense;
 import static common.factory.ExpenseFactory.defaultExpenseByTagDto;
 import static common.factory.ExpenseFactory.defaultExpenseFullDto;
@@ -36,8 +54,11 @@ import static common.factory.TagFactory.DEFAULT_TAG_ID;
 import static common.factory.TagFactory.defaultTag;
 import static common.factory.TagFactory.tagWithExpenses;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -51,9 +72,14 @@ class ExpenseServiceTest {
     private final CategoryRepository categoryRepositoryMock = mock(CategoryRepository.class);
     private final TagRepository tagRepositoryMock = mock(TagRepository.class);
     private final DateManager dateManagerMock = mock(DateManager.class);
+    private final CacheInvalidationBus cacheInvalidationBus = mock(CacheInvalidationBus.class);
+    private final ExpenseSumIndex expenseSumIndex = mock(ExpenseSumIndex.class);
+    private final ExpenseBitmapIndex expenseBitmapIndex = mock(ExpenseBitmapIndex.class);
+    private final ExpenseTombstoneRepository expenseTombstoneRepositoryMock = mock(ExpenseTombstoneRepository.class);
 
     private final ExpenseService expenseService = new ExpenseService(
-            expenseConverterMock, expenseRepositoryMock, categoryRepositoryMock, tagRepositoryMock, dateManagerMock);
+            expenseConverterMock, expenseRepositoryMock, categoryRepositoryMock, tagRepositoryMock, dateManagerMock,
+            cacheInvalidationBus, expenseSumIndex, expenseBitmapIndex, expenseTombstoneRepositoryMock);
 
     @Test
     void testGetById() {
@@ -98,6 +124,20 @@ class ExpenseServiceTest {
         assertEquals(expectedSum, actualSum);
     }
 
+    @Test
+    void testFindSumInIntervalUsesBuiltIndex() {
+        BigDecimal expectedSum = new BigDecimal("100.00");
+        LocalDate date1 = LocalDate.now();
+        LocalDate date2 = date1.plusDays(1);
+
+        when(expenseSumIndex.findSum(date1, date2)).thenReturn(Optional.of(expectedSum));
+
+        BigDecimal actualSum = expenseService.findSumInInterval(date1, date2);
+
+        assertEquals(expectedSum, actualSum);
+        verify(expenseRepositoryMock, never()).findSumInInterval(any(), any());
+    }
+
     @Test
     void testFindSumInIntervalByCategory() {
         Long categoryId = 1L;
@@ -193,6 +233,22 @@ class ExpenseServiceTest {
         assertEquals(expectedDtoList, actualDtoList);
     }
 
+    @Test
+    void testFindAllInIntervalCompact() {
+        LocalDate date1 = LocalDate.now();
+        LocalDate date2 = date1.plusDays(1);
+        List<Expense> expenses = List.of(defaultExpense(), secondExpense());
+        CompactExpensesDto expectedExpenses = defaultCompactExpensesDto();
+
+        when(expenseRepositoryMock.findAllInInterval(date1, date2)).thenReturn(expenses);
+        when(expenseConverterMock.convertToCompact(expenses)).thenReturn(expectedExpenses);
+
+        CompactExpensesDto actualExpenses = expenseService.findAllInIntervalCompact(date1, date2);
+
+        assertEquals(expectedExpenses, actualExpenses);
+        verify(expenseConverterMock, never()).convert(any(Expense.class));
+    }
+
     @Test
     void testSave() {
         LocalDate now = LocalDate.now();
@@ -416,4 +472,92 @@ class ExpenseServiceTest {
                     .getById(any());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFindAllMatchingReadsIdsFromIndex() {
+        ExpenseFilterDto filter = ExpenseFilterDto.builder().isRegular(true).build();
+        Expense expense = defaultExpense();
+        ExpenseFullDto expenseDto = defaultExpenseFullDto();
+
+        when(expenseBitmapIndex.findIds(filter, 0, 10))
+                .thenReturn(Optional.of(new ExpenseBitmapIndex.IdPage(1, List.of(expense.getId()))));
+        when(expenseRepositoryMock.findAllById(List.of(expense.getId()))).thenReturn(List.of(expense));
+        when(expenseConverterMock.convert(expense)).thenReturn(expenseDto);
+
+        ExpensePageDto actualPage = expenseService.findAllMatching(filter, 0, 10);
+
+        assertEquals(new ExpensePageDto(1, 0, 10, List.of(expenseDto)), actualPage);
+        verify(expenseRepositoryMock, never()).findAll(anySpecification(), any(PageRequest.class));
+    }
+
+    @Test
+    void testFindAllMatchingQueriesDatabaseWhileIndexIsNotBuilt() {
+        ExpenseFilterDto filter = ExpenseFilterDto.builder().isRegular(true).build();
+        Expense expense = defaultExpense();
+        ExpenseFullDto expenseDto = defaultExpenseFullDto();
+        PageRequest pageRequest = PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "id"));
+
+        when(expenseBitmapIndex.findIds(filter, 1, 10)).thenReturn(Optional.empty());
+        when(expenseRepositoryMock.findAll(anySpecification(), eq(pageRequest)))
+                .thenReturn(new PageImpl<>(List.of(expense), pageRequest, 11));
+        when(expenseConverterMock.convert(expense)).thenReturn(expenseDto);
+
+        ExpensePageDto actualPage = expenseService.findAllMatching(filter, 1, 10);
+
+        assertEquals(new ExpensePageDto(11, 1, 10, List.of(expenseDto)), actualPage);
+    }
+
+    @Test
+    void testGetChangesMergesUpsertsAndDeletesInOrder() {
+        Expense expense1 = Expense.builder().id(1L).changeSeq(11L).build();
+        Expense expense2 = Expense.builder().id(2L).changeSeq(14L).build();
+        ExpenseTombstone tombstone = ExpenseTombstone.builder().expenseId(3L).changeSeq(12L).build();
+        ExpenseFullDto expenseDto1 = ExpenseFullDto.builder().id(1L).build();
+        ExpenseFullDto expenseDto2 = ExpenseFullDto.builder().id(2L).build();
+
+        when(expenseRepositoryMock.findAllChangedAfter(10L, PageRequest.of(0, 3))).thenReturn(List.of(expense1, expense2));
+        when(expenseTombstoneRepositoryMock.findAllChangedAfter(10L, PageRequest.of(0, 3))).thenReturn(List.of(tombstone));
+        when(expenseConverterMock.convert(expense1)).thenReturn(expenseDto1);
+        when(expenseConverterMock.convert(expense2)).thenReturn(expenseDto2);
+
+        ExpenseChangesDto actualChanges = expenseService.getChanges(10L, 2);
+
+        assertEquals(ExpenseChangesDto.builder()
+                .since(10L)
+                .nextSince(12L)
+                .hasMore(true)
+                .changes(List.of(
+                        new ExpenseChangeDto(11L, ExpenseChangeType.UPSERT, 1L, expenseDto1),
+                        new ExpenseChangeDto(12L, ExpenseChangeType.DELETE, 3L, null)))
+                .build(), actualChanges);
+    }
+
+    @Test
+    void testGetChangesWithoutChanges() {
+        ExpenseChangesDto actualChanges = expenseService.getChanges(10L, 2);
+
+        assertEquals(new ExpenseChangesDto(10L, 10L, false, List.of()), actualChanges);
+    }
+
+    @Test
+    void testGetChangesSinceBeforeWatermarkIsRejected() {
+        when(expenseTombstoneRepositoryMock.findWatermark()).thenReturn(20L);
+
+        assertThrows(ChangesExpiredException.class, () -> expenseService.getChanges(10L, 2));
+
+        verify(expenseRepositoryMock, never()).findAllChangedAfter(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void testGetChangesSinceZeroOrWatermarkIsAnswered() {
+        when(expenseTombstoneRepositoryMock.findWatermark()).thenReturn(20L);
+
+        assertEquals(new ExpenseChangesDto(0L, 0L, false, List.of()), expenseService.getChanges(0L, 2));
+        assertEquals(new ExpenseChangesDto(20L, 20L, false, List.of()), expenseService.getChanges(20L, 2));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Specification<Expense> anySpecification() {
+        return any(Specification.class);
+    }
+}
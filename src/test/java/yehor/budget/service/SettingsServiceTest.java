@@ -1,10 +1,14 @@
 package yehor.budget.service;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import yehor.budget.common.SettingsNotificationManager;
+import yehor.budget.common.SettingsSnapshot;
 import yehor.budget.common.util.PropertiesHelper;
 import yehor.budget.entity.Settings;
 import yehor.budget.repository.SettingsRepository;
+import yehor.budget.service.cache.CacheInvalidationBus;
 import yehor.budget.web.converter.SettingsConverter;
 import yehor.budget.web.dto.full.SettingsFullDto;
 
@@ -15,7 +19,9 @@ import static common.factory.SettingsFactory.DEFAULT_SETTINGS_ID;
 import static common.factory.SettingsFactory.defaultSettings;
 import static common.factory.SettingsFactory.defaultSettingsFullDto;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
@@ -29,9 +35,11 @@ class SettingsServiceTest {
     private final PropertiesHelper propertiesHelperMock = mock(PropertiesHelper.class);
     private final SettingsRepository settingsRepositoryMock = mock(SettingsRepository.class);
     private final SettingsConverter settingsConverterMock = mock(SettingsConverter.class);
+    private final CacheInvalidationBus cacheInvalidationBus = mock(CacheInvalidationBus.class);
 
     private final SettingsService settingsService =
-            new SettingsService(propertiesHelperMock, settingsRepositoryMock, settingsConverterMock);
+            new SettingsService(propertiesHelperMock, settingsRepositoryMock, settingsConverterMock,
+                    cacheInvalidationBus);
 
     @Test
     void testGetSettingsAndGetEntity() {
@@ -69,6 +77,8 @@ class SettingsServiceTest {
         try (var mock = mockStatic(SettingsNotificationManager.class)) {
             Settings newSettings = defaultSettings();
 
+            when(settingsRepositoryMock.getById(DEFAULT_SETTINGS_ID)).thenReturn(defaultSettings());
+
             settingsService.updateSettings(newSettings);
 
             verify(settingsRepositoryMock, times(1))
@@ -100,4 +110,72 @@ class SettingsServiceTest {
             mock.verify(() -> SettingsNotificationManager.updateListeners(eq(SettingsService.class), eq(expectedSettings)));
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSettingsAreReadFromDatabaseOnlyOnce() {
+        when(settingsRepositoryMock.getById(DEFAULT_SETTINGS_ID)).thenReturn(defaultSettings());
+
+        settingsService.getSettingsEntity();
+        settingsService.getSnapshot();
+        settingsService.getSettingsEntity();
+
+        verify(settingsRepositoryMock, times(1)).getById(DEFAULT_SETTINGS_ID);
+    }
+
+    @Test
+    void testChangingReturnedEntityDoesNotChangeSettings() {
+        when(settingsRepositoryMock.getById(DEFAULT_SETTINGS_ID)).thenReturn(defaultSettings());
+
+        settingsService.getSettingsEntity().setEstimatedExpenseWorkerPeriod(100);
+
+        assertEquals(5, settingsService.getSettingsEntity().getEstimatedExpenseWorkerPeriod());
+    }
+
+    @Test
+    void testUpdateSettingsIncrementsVersionOfSnapshot() {
+        try (var ignored = mockStatic(SettingsNotificationManager.class)) {
+            when(settingsRepositoryMock.getById(DEFAULT_SETTINGS_ID)).thenReturn(defaultSettings());
+            long initialVersion = settingsService.getSnapshot().version();
+
+            settingsService.updateSettings(Settings.builder().estimatedExpenseWorkerPeriod(10).build());
+
+            SettingsSnapshot snapshot = settingsService.getSnapshot();
+            assertEquals(initialVersion + 1, snapshot.version());
+            assertEquals(10, snapshot.estimatedExpenseWorkerPeriod());
+        }
+    }
+
+    @Test
+    void testUpdateSettingsKeepsPreviousSnapshotWhenSavingFails() {
+        try (var mock = mockStatic(SettingsNotificationManager.class)) {
+            when(settingsRepositoryMock.getById(DEFAULT_SETTINGS_ID)).thenReturn(defaultSettings());
+            SettingsSnapshot initialSnapshot = settingsService.getSnapshot();
+            when(settingsRepositoryMock.save(any())).thenThrow(new IllegalStateException());
+
+            Settings newSettings = Settings.builder().estimatedExpenseWorkerPeriod(10).build();
+            assertThrows(IllegalStateException.class, () -> settingsService.updateSettings(newSettings));
+
+            assertEquals(initialSnapshot, settingsService.getSnapshot());
+            mock.verifyNoInteractions();
+        }
+    }
+
+    @Test
+    void testUpdateSettingsRestoresPreviousSnapshotWhenTransactionIsRolledBack() {
+        try (var ignored = mockStatic(SettingsNotificationManager.class)) {
+            when(settingsRepositoryMock.getById(DEFAULT_SETTINGS_ID)).thenReturn(defaultSettings());
+            SettingsSnapshot initialSnapshot = settingsService.getSnapshot();
+
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                settingsService.updateSettings(Settings.builder().estimatedExpenseWorkerPeriod(10).build());
+                TransactionSynchronizationManager.getSynchronizations()
+                        .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+
+            assertEquals(initialSnapshot, settingsService.getSnapshot());
+        }
+    }
+}
@@ -7,8 +7,12 @@ import yehor.budget.common.util.CalculatorHelper;
 import yehor.budget.entity.Category;
 import yehor.budget.entity.Expense;
 import yehor.budget.repository.ExpenseRepository;
+import yehor.budget.service.cache.CacheInvalidationBus;
+import yehor.budget.service.index.ExpenseColumnStore;
+import yehor.budget.service.index.ExpenseGroup;
 import yehor.budget.web.dto.MonthlyStatistics;
 import yehor.budget.web.dto.PeriodicStatistics;
+import yehor.budget.web.dto.full.CategoryFullDto;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -16,6 +20,7 @@ import java.time.Month;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static common.factory.ExpenseFactory.multipleCategoriesExpenseList;
 import static common.factory.StatisticsFactory.defaultMonthlyStatistics;
@@ -24,6 +29,9 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class StatisticsServiceTest {
@@ -31,9 +39,13 @@ class StatisticsServiceTest {
     private final ExpenseRepository expenseRepositoryMock = mock(ExpenseRepository.class);
     private final DateManager dateManagerMock = mock(DateManager.class);
     private final CalculatorHelper calculatorHelperMock = mock(CalculatorHelper.class);
+    private final CacheInvalidationBus cacheInvalidationBus = mock(CacheInvalidationBus.class);
+    private final ExpenseColumnStore expenseColumnStoreMock = mock(ExpenseColumnStore.class);
+    private final CategoryService categoryServiceMock = mock(CategoryService.class);
 
     private final StatisticsService statisticsService = new StatisticsService(
-            expenseRepositoryMock, dateManagerMock, calculatorHelperMock);
+            expenseRepositoryMock, dateManagerMock, calculatorHelperMock, cacheInvalidationBus,
+            expenseColumnStoreMock, categoryServiceMock);
 
     @Test
     void testGetMonthlyStatistics() {
@@ -48,6 +60,25 @@ class StatisticsServiceTest {
         assertEquals(actualMonthlyStatistics, expectedMonthlyStatistics);
     }
 
+    @Test
+    void testGetMonthlyStatisticsFromColumnStore() {
+        FullMonth fullMonth = FullMonth.of(LocalDate.now());
+        MonthlyStatistics expectedMonthlyStatistics = defaultMonthlyStatistics();
+
+        when(expenseColumnStoreMock.findGroups(any())).thenReturn(Optional.of(List.of(
+                new ExpenseGroup(new int[]{1, 0}, 11550, 2),
+                new ExpenseGroup(new int[]{1, 1}, 1000, 1),
+                new ExpenseGroup(new int[]{2, 1}, 1100, 1))));
+        when(categoryServiceMock.getAll()).thenReturn(List.of(
+                CategoryFullDto.builder().id(1L).name("Food").build(),
+                CategoryFullDto.builder().id(2L).name("Meds").build()));
+
+        MonthlyStatistics actualMonthlyStatistics = statisticsService.getMonthlyStatistics(fullMonth);
+
+        assertEquals(expectedMonthlyStatistics, actualMonthlyStatistics);
+        verify(expenseRepositoryMock, never()).findAllInInterval(any(), any());
+    }
+
     @Test
     void testGetMonthlyStatisticsEmptyMonth() {
         FullMonth fullMonth = FullMonth.of(LocalDate.now());
@@ -94,22 +125,22 @@ class StatisticsServiceTest {
                 .thenReturn(List.of(july, august, september));
 
         MonthlyStatistics monthlyStatistics1 = MonthlyStatistics.builder()
-                .totalExpense(BigDecimal.valueOf(30))
-                .totalRegular(BigDecimal.valueOf(20))
-                .totalNonRegular(BigDecimal.TEN)
-                .totalsPerCategory(Map.of("Food", BigDecimal.valueOf(20), "Meds", BigDecimal.TEN))
+                .totalExpense(new BigDecimal("30.00"))
+                .totalRegular(new BigDecimal("20.00"))
+                .totalNonRegular(new BigDecimal("10.00"))
+                .totalsPerCategory(Map.of("Food", new BigDecimal("20.00"), "Meds", new BigDecimal("10.00")))
                 .build();
         MonthlyStatistics monthlyStatistics2 = MonthlyStatistics.builder()
-                .totalExpense(BigDecimal.TEN)
-                .totalRegular(BigDecimal.TEN)
-                .totalNonRegular(BigDecimal.ZERO)
-                .totalsPerCategory(Map.of("Food", BigDecimal.TEN))
+                .totalExpense(new BigDecimal("10.00"))
+                .totalRegular(new BigDecimal("10.00"))
+                .totalNonRegular(new BigDecimal("0.00"))
+                .totalsPerCategory(Map.of("Food", new BigDecimal("10.00")))
                 .build();
         MonthlyStatistics monthlyStatistics3 = MonthlyStatistics.builder()
-                .totalExpense(BigDecimal.TEN)
-                .totalRegular(BigDecimal.ZERO)
-                .totalNonRegular(BigDecimal.TEN)
-                .totalsPerCategory(Map.of("Meds", BigDecimal.TEN))
+                .totalExpense(new BigDecimal("10.00"))
+                .totalRegular(new BigDecimal("0.00"))
+                .totalNonRegular(new BigDecimal("10.00"))
+                .totalsPerCategory(Map.of("Meds", new BigDecimal("10.00")))
                 .build();
 
         PeriodicStatistics expectedPeriodicStatistics = PeriodicStatistics.builder()
@@ -127,6 +158,7 @@ class StatisticsServiceTest {
         PeriodicStatistics actualPeriodicStatistics = statisticsService.getPeriodicStatistics(july, september);
 
         assertEquals(actualPeriodicStatistics, expectedPeriodicStatistics);
+        verify(categoryServiceMock, times(1)).getAll();
     }
 
     @Test
@@ -6,6 +6,7 @@ import yehor.budget.common.exception.ObjectAlreadyExistsException;
 import yehor.budget.common.exception.ObjectNotFoundException;
 import yehor.budget.entity.Tag;
 import yehor.budget.repository.TagRepository;
+import yehor.budget.service.cache.CacheInvalidationBus;
 import yehor.budget.web.converter.TagConverter;
 import yehor.budget.web.dto.full.TagFullDto;
 import yehor.budget.web.dto.limited.TagLimitedDto;
@@ -31,8 +32,10 @@ class TagServiceTest {
 
     private final TagRepository tagRepositoryMock = mock(TagRepository.class);
     private final TagConverter tagConverterMock = mock(TagConverter.class);
+    private final CacheInvalidationBus cacheInvalidationBus = mock(CacheInvalidationBus.class);
 
-    private final TagService tagService = new TagService(tagRepositoryMock, tagConverterMock);
+    private final TagService tagService = new TagService(tagRepositoryMock, tagConverterMock,
+            cacheInvalidationBus);
 
     @Test
     void testGetAll() {
@@ -0,0 +1,95 @@
+package yehor.budget.service.admission;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import yehor.budget.common.date.FullMonth;
+import yehor.budget.common.exception.OverloadedException;
+import yehor.budget.common.util.PropertiesHelper;
+import yehor.budget.service.index.ExpenseColumnStore;
+
+import java.time.Month;
+import java.time.YearMonth;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static yehor.budget.service.admission.AdmissionService.DEFAULT_EXPENSES_PER_MONTH;
+import static yehor.budget.service.admission.AdmissionService.MONTH_QUERY_COST;
+
+class AdmissionServiceTest {
+
+    private final ExpenseColumnStore expenseColumnStore = mock(ExpenseColumnStore.class);
+    private final PropertiesHelper propertiesHelper = mock(PropertiesHelper.class);
+
+    private AdmissionService admissionService;
+
+    @BeforeEach
+    void setUp() {
+        when(propertiesHelper.getIntProperty("admission.statistics.max.cost")).thenReturn(100_000);
+        when(propertiesHelper.getIntProperty("admission.statistics.cost.per.permit")).thenReturn(5000);
+        when(propertiesHelper.getIntProperty("admission.statistics.capacity")).thenReturn(8);
+        when(propertiesHelper.getIntProperty("admission.statistics.max.queued")).thenReturn(1);
+        when(propertiesHelper.getIntProperty("admission.statistics.max.wait.millis")).thenReturn(10);
+        when(propertiesHelper.getIntProperty("admission.statistics.max.per.client")).thenReturn(2);
+        when(propertiesHelper.getIntProperty("admission.export.capacity")).thenReturn(1);
+        when(propertiesHelper.getIntProperty("admission.export.max.queued")).thenReturn(1);
+        when(propertiesHelper.getIntProperty("admission.export.max.wait.millis")).thenReturn(10);
+        when(propertiesHelper.getIntProperty("admission.export.max.per.client")).thenReturn(1);
+        admissionService = new AdmissionService(expenseColumnStore, propertiesHelper);
+    }
+
+    @Test
+    void testCostIsEstimatedFromColumnStore() {
+        YearMonth from = YearMonth.of(2022, 11);
+        YearMonth to = YearMonth.of(2023, 2);
+        when(expenseColumnStore.countExpenses(from, to)).thenReturn(Optional.of(1000L));
+
+        assertEquals(4 * MONTH_QUERY_COST + 1000, admissionService.estimateCost(from, to));
+    }
+
+    @Test
+    void testCostIsEstimatedWithoutBuiltColumnStore() {
+        when(expenseColumnStore.countExpenses(any(), any())).thenReturn(Optional.empty());
+
+        assertEquals(12 * (MONTH_QUERY_COST + DEFAULT_EXPENSES_PER_MONTH),
+                admissionService.estimateCost(YearMonth.of(2022, 1), YearMonth.of(2022, 12)));
+    }
+
+    @Test
+    void testTooLongPeriodIsNotAdmitted() {
+        when(expenseColumnStore.countExpenses(any(), any())).thenReturn(Optional.empty());
+        FullMonth start = FullMonth.of(Month.JANUARY, 1950);
+        FullMonth end = FullMonth.of(Month.DECEMBER, 2049);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> admissionService.admitPeriodicStatistics("client", start, end));
+    }
+
+    @Test
+    void testHeaviestPeriodIsAdmittedAlone() {
+        when(expenseColumnStore.countExpenses(any(), any())).thenReturn(Optional.of(90_000L));
+        FullMonth start = FullMonth.of(Month.JANUARY, 2022);
+        FullMonth end = FullMonth.of(Month.DECEMBER, 2022);
+
+        try (Bulkhead.Permit permit = admissionService.admitPeriodicStatistics("first", start, end)) {
+            assertThrows(OverloadedException.class,
+                    () -> admissionService.admitPeriodicStatistics("second", start, start));
+        }
+        admissionService.admitPeriodicStatistics("second", start, start).close();
+    }
+
+    @Test
+    void testExportsAreAdmittedOneAtATime() {
+        try (Bulkhead.Permit permit = admissionService.admitExport("first")) {
+            OverloadedException exception = assertThrows(OverloadedException.class,
+                    () -> admissionService.admitExport("second"));
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatus());
+            assertEquals(1, exception.getRetryAfterSeconds());
+        }
+        admissionService.admitExport("second").close();
+    }
+}
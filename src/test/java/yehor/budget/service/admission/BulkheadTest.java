@@ -0,0 +1,60 @@
+package yehor.budget.service.admission;
+
+import org.junit.jupiter.api.Test;
+import yehor.budget.common.exception.OverloadedException;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
+
+class BulkheadTest {
+
+    private final Bulkhead bulkhead = new Bulkhead("test", 4, 1, Duration.ofMillis(50), 2);
+
+    @Test
+    void testPermitsAreReleasedOnClose() {
+        Bulkhead.Permit permit = bulkhead.enter("client", 3);
+        assertEquals(1, bulkhead.availablePermits());
+
+        permit.close();
+        permit.close();
+
+        assertEquals(4, bulkhead.availablePermits());
+    }
+
+    @Test
+    void testWeightIsLimitedToCapacity() {
+        try (Bulkhead.Permit permit = bulkhead.enter("client", 100)) {
+            assertEquals(0, bulkhead.availablePermits());
+        }
+        assertEquals(4, bulkhead.availablePermits());
+    }
+
+    @Test
+    void testRequestIsRejectedWhenNoCapacityInTime() {
+        try (Bulkhead.Permit permit = bulkhead.enter("first", 4)) {
+            OverloadedException exception = assertThrows(OverloadedException.class,
+                    () -> bulkhead.enter("second", 1));
+
+            assertEquals(SERVICE_UNAVAILABLE, exception.getStatus());
+            assertEquals(1, exception.getRetryAfterSeconds());
+        }
+        bulkhead.enter("second", 1).close();
+    }
+
+    @Test
+    void testClientIsLimitedToItsShare() {
+        try (Bulkhead.Permit first = bulkhead.enter("client", 1);
+             Bulkhead.Permit second = bulkhead.enter("client", 1)) {
+            OverloadedException exception = assertThrows(OverloadedException.class,
+                    () -> bulkhead.enter("client", 1));
+
+            assertEquals(TOO_MANY_REQUESTS, exception.getStatus());
+            bulkhead.enter("other", 1).close();
+        }
+        bulkhead.enter("client", 1).close();
+    }
+}
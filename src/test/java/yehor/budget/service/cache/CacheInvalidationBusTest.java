@@ -0,0 +1,107 @@
+package yehor.budget.service.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import yehor.budget.common.util.PropertiesHelper;
+import yehor.budget.service.worker.JobLeaseManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CacheInvalidationBusTest {
+
+    private static final String NODE_ID = "node-1";
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JobLeaseManager jobLeaseManager = mock(JobLeaseManager.class);
+    private final PropertiesHelper propertiesHelper = mock(PropertiesHelper.class);
+
+    private final CacheInvalidationBus cacheInvalidationBus = createCacheInvalidationBus();
+
+    @Test
+    void testPublishNotifiesNodesAndLocalListeners() throws Exception {
+        List<CacheInvalidation> received = new ArrayList<>();
+        cacheInvalidationBus.subscribe(CachedEntity.CATEGORY, received::add);
+
+        cacheInvalidationBus.publish(CachedEntity.CATEGORY, List.of(1L, 2L));
+
+        CacheInvalidation expected = new CacheInvalidation(CachedEntity.CATEGORY, List.of("1", "2"), NODE_ID);
+        assertEquals(List.of(expected), received);
+        verify(jdbcTemplate).queryForObject("SELECT pg_notify(?, ?)", String.class,
+                CacheInvalidationBus.CHANNEL, objectMapper.writeValueAsString(expected));
+    }
+
+    @Test
+    void testRemoteListenerIsNotNotifiedAboutLocalChanges() {
+        List<CacheInvalidation> received = new ArrayList<>();
+        cacheInvalidationBus.subscribeRemote(CachedEntity.SETTINGS, received::add);
+
+        cacheInvalidationBus.publish(CachedEntity.SETTINGS, List.of(1L));
+
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    void testTooManyKeysArePublishedAsEverything() throws Exception {
+        List<Integer> keys = IntStream.range(0, 5000).boxed().toList();
+
+        cacheInvalidationBus.publish(CachedEntity.EXPENSE, keys);
+
+        CacheInvalidation expected = new CacheInvalidation(CachedEntity.EXPENSE, List.of(), NODE_ID);
+        verify(jdbcTemplate).queryForObject(eq("SELECT pg_notify(?, ?)"), eq(String.class),
+                eq(CacheInvalidationBus.CHANNEL), eq(objectMapper.writeValueAsString(expected)));
+    }
+
+    @Test
+    void testHandleNotificationFromAnotherNode() throws Exception {
+        List<CacheInvalidation> received = new ArrayList<>();
+        cacheInvalidationBus.subscribeRemote(CachedEntity.TAG, received::add);
+        CacheInvalidation invalidation = new CacheInvalidation(CachedEntity.TAG, List.of("3"), "node-2");
+
+        cacheInvalidationBus.handleNotification(objectMapper.writeValueAsString(invalidation));
+
+        assertEquals(List.of(invalidation), received);
+    }
+
+    @Test
+    void testHandleNotificationIgnoresOwnChanges() throws Exception {
+        List<CacheInvalidation> received = new ArrayList<>();
+        cacheInvalidationBus.subscribe(CachedEntity.TAG, received::add);
+        CacheInvalidation invalidation = new CacheInvalidation(CachedEntity.TAG, List.of("3"), NODE_ID);
+
+        cacheInvalidationBus.handleNotification(objectMapper.writeValueAsString(invalidation));
+
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    void testEvictEverythingNotifiesAllListeners() {
+        List<CacheInvalidation> received = Collections.synchronizedList(new ArrayList<>());
+        for (CachedEntity entity : CachedEntity.values()) {
+            cacheInvalidationBus.subscribeRemote(entity, received::add);
+        }
+
+        cacheInvalidationBus.evictEverything();
+
+        assertEquals(CachedEntity.values().length, received.size());
+        assertTrue(received.stream().allMatch(CacheInvalidation::isEverything));
+    }
+
+    private CacheInvalidationBus createCacheInvalidationBus() {
+        when(jobLeaseManager.getNodeId()).thenReturn(NODE_ID);
+        return new CacheInvalidationBus(jdbcTemplate, objectMapper, new DataSourceProperties(),
+                jobLeaseManager, propertiesHelper);
+    }
+}
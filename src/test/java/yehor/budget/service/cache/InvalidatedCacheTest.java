@@ -0,0 +1,56 @@
+package yehor.budget.service.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InvalidatedCacheTest {
+
+    private final InvalidatedCache<String, Integer> cache = new InvalidatedCache<>();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void testValueIsLoadedOnce() {
+        assertEquals(1, cache.get("a", this::load));
+        assertEquals(1, cache.get("a", this::load));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testEvictRemovesOnlyEvictedKeys() {
+        cache.get("a", this::load);
+        cache.get("b", this::load);
+
+        cache.evict(List.of("a"));
+
+        assertEquals(3, cache.get("a", this::load));
+        assertEquals(2, cache.get("b", this::load));
+    }
+
+    @Test
+    void testEvictAll() {
+        cache.get("a", this::load);
+
+        cache.evictAll();
+
+        assertEquals(2, cache.get("a", this::load));
+    }
+
+    @Test
+    void testValueLoadedDuringEvictionIsNotCached() {
+        int loaded = cache.get("a", key -> {
+            cache.evict(List.of("a"));
+            return load(key);
+        });
+
+        assertEquals(1, loaded);
+        assertEquals(2, cache.get("a", this::load));
+    }
+
+    private Integer load(String key) {
+        return loads.incrementAndGet();
+    }
+}
@@ -2,14 +2,21 @@ package yehor.budget.service.currency;
 
 import org.junit.jupiter.api.Test;
 import yehor.budget.common.Currency;
+import yehor.budget.common.exception.ObjectNotFoundException;
 import yehor.budget.service.client.currency.CurrencyRateClient;
 import yehor.budget.service.client.currency.CurrencyRateService;
+import yehor.budget.service.client.currency.ExchangeRateHistory;
 import yehor.budget.service.client.currency.Exchangeable;
+import yehor.budget.service.worker.JobScheduler;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.Optional;
 
 import static common.factory.ExchangeableFactory.valueInUah;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -21,7 +28,10 @@ class CurrencyRateServiceTest {
 
     private final CurrencyRateClient currencyRateClient = mock(CurrencyRateClient.class);
 
-    private final CurrencyRateService currencyRateService = new CurrencyRateService(currencyRateClient);
+    private final ExchangeRateHistory exchangeRateHistory = mock(ExchangeRateHistory.class);
+
+    private final CurrencyRateService currencyRateService = new CurrencyRateService(currencyRateClient,
+            exchangeRateHistory, mock(JobScheduler.class));
 
     @Test
     void getRateCachesRates() {
@@ -66,4 +76,37 @@ class CurrencyRateServiceTest {
                 .rate(any(), any());
     }
 
-}
\ No newline at end of file
+    @Test
+    void testGetRatesToReturnsRatesIndexedByCurrency() {
+        when(currencyRateClient.rate(Currency.UAH, Currency.USD)).thenReturn(new BigDecimal("0.025"));
+
+        double[] rates = currencyRateService.getRatesTo(Currency.USD, EnumSet.of(Currency.UAH, Currency.USD));
+
+        assertEquals(1, rates[Currency.USD.ordinal()]);
+        assertEquals(0.025, rates[Currency.UAH.ordinal()]);
+        assertEquals(0, rates[Currency.EUR.ordinal()]);
+        verify(currencyRateClient, times(1)).rate(any(), any());
+    }
+
+    @Test
+    void testGetRatesToOnDateUsesStoredRatesOnly() {
+        LocalDate date = LocalDate.of(2022, 5, 5);
+
+        when(exchangeRateHistory.findRate(Currency.UAH, Currency.USD, date)).thenReturn(Optional.of(new BigDecimal("2")));
+
+        double[] rates = currencyRateService.getRatesTo(Currency.USD, EnumSet.of(Currency.UAH), date);
+
+        assertEquals(2, rates[Currency.UAH.ordinal()]);
+        verifyNoInteractions(currencyRateClient);
+    }
+
+    @Test
+    void testGetHistoricalRateThrowsExceptionWhenThereAreNoStoredRates() {
+        LocalDate date = LocalDate.of(2022, 5, 5);
+        when(exchangeRateHistory.findRate(any(), any(), any())).thenReturn(Optional.empty());
+
+        assertThrows(ObjectNotFoundException.class,
+                () -> currencyRateService.getHistoricalRate(Currency.UAH, Currency.USD, date));
+        verifyNoInteractions(currencyRateClient);
+    }
+}
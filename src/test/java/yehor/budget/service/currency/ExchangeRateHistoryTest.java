@@ -0,0 +1,89 @@
+package yehor.budget.service.currency;
+
+import org.junit.jupiter.api.Test;
+import yehor.budget.common.Currency;
+import yehor.budget.entity.ExchangeRate;
+import yehor.budget.repository.ExchangeRateRepository;
+import yehor.budget.service.cache.CacheInvalidationBus;
+import yehor.budget.service.client.currency.ExchangeRateHistory;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ExchangeRateHistoryTest {
+
+    private final ExchangeRateRepository exchangeRateRepository = mock(ExchangeRateRepository.class);
+    private final CacheInvalidationBus cacheInvalidationBus = mock(CacheInvalidationBus.class);
+
+    private final ExchangeRateHistory exchangeRateHistory = new ExchangeRateHistory(exchangeRateRepository,
+            cacheInvalidationBus);
+
+    @Test
+    void testFindRateReturnsLatestRateOnOrBeforeDate() {
+        when(exchangeRateRepository.findAllOrderedByDate()).thenReturn(List.of(
+                exchangeRate(LocalDate.of(2022, 1, 1), "36.0"),
+                exchangeRate(LocalDate.of(2022, 2, 1), "37.0"),
+                exchangeRate(LocalDate.of(2022, 3, 1), "38.0")));
+
+        assertEquals(new BigDecimal("36.0"), findUsdToUah(LocalDate.of(2021, 12, 1)));
+        assertEquals(new BigDecimal("36.0"), findUsdToUah(LocalDate.of(2022, 1, 1)));
+        assertEquals(new BigDecimal("36.0"), findUsdToUah(LocalDate.of(2022, 1, 31)));
+        assertEquals(new BigDecimal("37.0"), findUsdToUah(LocalDate.of(2022, 2, 1)));
+        assertEquals(new BigDecimal("38.0"), findUsdToUah(LocalDate.of(2023, 1, 1)));
+        verify(exchangeRateRepository, times(1)).findAllOrderedByDate();
+    }
+
+    @Test
+    void testFindRateFallsBackToInversePair() {
+        when(exchangeRateRepository.findAllOrderedByDate()).thenReturn(List.of(
+                exchangeRate(LocalDate.of(2022, 1, 1), "40")));
+
+        Optional<BigDecimal> rate = exchangeRateHistory.findRate(Currency.UAH, Currency.USD, LocalDate.of(2022, 1, 1));
+
+        assertTrue(rate.isPresent());
+        assertEquals(new BigDecimal("0.025"), rate.get());
+    }
+
+    @Test
+    void testFindRateReturnsEmptyWhenPairIsNotStored() {
+        when(exchangeRateRepository.findAllOrderedByDate()).thenReturn(List.of());
+
+        assertTrue(exchangeRateHistory.findRate(Currency.USD, Currency.EUR, LocalDate.of(2022, 1, 1)).isEmpty());
+        assertEquals(Optional.of(BigDecimal.ONE),
+                exchangeRateHistory.findRate(Currency.EUR, Currency.EUR, LocalDate.of(2022, 1, 1)));
+    }
+
+    @Test
+    void testAddAllMergesRatesIntoLoadedHistory() {
+        when(exchangeRateRepository.findAllOrderedByDate()).thenReturn(List.of(
+                exchangeRate(LocalDate.of(2022, 1, 1), "36.0"),
+                exchangeRate(LocalDate.of(2022, 3, 1), "38.0")));
+
+        exchangeRateHistory.addAll(List.of(exchangeRate(LocalDate.of(2022, 2, 1), "37.0")));
+
+        assertEquals(new BigDecimal("37.0"), findUsdToUah(LocalDate.of(2022, 2, 15)));
+        assertEquals(new BigDecimal("38.0"), findUsdToUah(LocalDate.of(2022, 3, 15)));
+    }
+
+    private BigDecimal findUsdToUah(LocalDate date) {
+        return exchangeRateHistory.findRate(Currency.USD, Currency.UAH, date).orElseThrow();
+    }
+
+    private ExchangeRate exchangeRate(LocalDate date, String rate) {
+        return ExchangeRate.builder()
+                .date(date)
+                .fromCurrency(Currency.USD)
+                .toCurrency(Currency.UAH)
+                .rate(new BigDecimal(rate))
+                .build();
+    }
+}
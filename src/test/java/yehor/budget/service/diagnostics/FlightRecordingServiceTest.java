@@ -0,0 +1,103 @@
+package yehor.budget.service.diagnostics;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import yehor.budget.common.exception.ObjectNotFoundException;
+import yehor.budget.common.jfr.StatisticsComputationEvent;
+import yehor.budget.common.util.PropertiesHelper;
+import yehor.budget.web.dto.FlightRecordingDto;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FlightRecordingServiceTest {
+
+    private final PropertiesHelper propertiesHelper = mock(PropertiesHelper.class);
+
+    @Test
+    void testRecordingContainsCustomEvents() throws IOException {
+        when(propertiesHelper.getIntProperty("diagnostics.jfr.max.seconds")).thenReturn(5);
+        FlightRecordingService flightRecordingService = new FlightRecordingService(propertiesHelper);
+        // the event is committed once the recording is running, as starting the recorder takes a while
+        FlightRecorderListener listener = new FlightRecorderListener() {
+            @Override
+            public void recordingStateChanged(Recording recording) {
+                if (recording.getState() == RecordingState.RUNNING) {
+                    StatisticsComputationEvent event = new StatisticsComputationEvent();
+                    event.kind = StatisticsComputationEvent.PERIODIC;
+                    event.months = 12;
+                    event.commit();
+                }
+            }
+        };
+        FlightRecorder.addListener(listener);
+
+        Path file;
+        try {
+            FlightRecordingDto recording = flightRecordingService.start(1);
+            file = awaitRecordingFile(flightRecordingService, recording.getId());
+        } finally {
+            FlightRecorder.removeListener(listener);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals("yehor.budget.StatisticsComputation"))
+                .toList();
+        assertEquals(1, events.size());
+        assertEquals(StatisticsComputationEvent.PERIODIC, events.get(0).getString("kind"));
+        assertEquals(12, events.get(0).getInt("months"));
+        ReflectionTestUtils.invokeMethod(flightRecordingService, "close");
+    }
+
+    @Test
+    void testDurationOutsideOfLimitsIsRejected() {
+        when(propertiesHelper.getIntProperty("diagnostics.jfr.max.seconds")).thenReturn(5);
+        FlightRecordingService flightRecordingService = new FlightRecordingService(propertiesHelper);
+
+        assertThrows(IllegalArgumentException.class, () -> flightRecordingService.start(0));
+        assertThrows(IllegalArgumentException.class, () -> flightRecordingService.start(6));
+    }
+
+    @Test
+    void testOnlyOneRecordingRunsAtATime() {
+        when(propertiesHelper.getIntProperty("diagnostics.jfr.max.seconds")).thenReturn(60);
+        FlightRecordingService flightRecordingService = new FlightRecordingService(propertiesHelper);
+
+        FlightRecordingDto recording = flightRecordingService.start(60);
+
+        assertFalse(recording.isFinished());
+        assertThrows(IllegalStateException.class, () -> flightRecordingService.start(1));
+        assertThrows(IllegalStateException.class, () -> flightRecordingService.getRecordingFile(recording.getId()));
+        assertThrows(ObjectNotFoundException.class, () -> flightRecordingService.getRecording(recording.getId() + 1));
+        ReflectionTestUtils.invokeMethod(flightRecordingService, "close");
+    }
+
+    private Path awaitRecordingFile(FlightRecordingService flightRecordingService, long id) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (true) {
+            try {
+                return flightRecordingService.getRecordingFile(id);
+            } catch (IllegalStateException e) {
+                if (System.nanoTime() > deadline) {
+                    throw e;
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+            }
+        }
+    }
+}
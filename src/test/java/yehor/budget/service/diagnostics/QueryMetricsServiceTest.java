@@ -0,0 +1,45 @@
+package yehor.budget.service.diagnostics;
+
+import org.junit.jupiter.api.Test;
+import yehor.budget.common.sql.QueryCounter;
+import yehor.budget.common.sql.QueryStatistics;
+import yehor.budget.web.dto.QueryMetricsDto;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryMetricsServiceTest {
+
+    private final QueryMetricsService queryMetricsService = new QueryMetricsService();
+
+    @Test
+    void testMetricsAreAggregatedPerName() {
+        queryMetricsService.record("GET /api/v1/expenses", new QueryStatistics());
+        queryMetricsService.record("GET /api/v1/tags", new QueryStatistics());
+        queryMetricsService.record("GET /api/v1/tags", new QueryStatistics());
+
+        List<QueryMetricsDto> metrics = queryMetricsService.getAll();
+
+        assertEquals(2, metrics.size());
+        QueryMetricsDto tags = metrics.stream().filter(m -> m.getName().equals("GET /api/v1/tags")).findFirst()
+                .orElseThrow();
+        assertEquals(2, tags.getInvocations());
+        assertEquals(0, tags.getStatements());
+        assertEquals(0, tags.getAvgStatements());
+    }
+
+    @Test
+    void testJobIsMeasuredInItsOwnScopeEvenIfItFails() {
+        assertThrows(IllegalStateException.class, () -> queryMetricsService.measureJob("failing", () -> {
+            assertTrue(QueryCounter.current().isPresent());
+            throw new IllegalStateException();
+        }));
+
+        assertTrue(QueryCounter.current().isEmpty());
+        assertEquals("job failing", queryMetricsService.getAll().get(0).getName());
+        assertEquals(1, queryMetricsService.getAll().get(0).getInvocations());
+    }
+}
@@ -0,0 +1,45 @@
+package yehor.budget.service.export;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CsvExportWriterTest {
+
+    @Test
+    void testRowsAreWrittenWithHeader() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        try (ExportWriter writer = new CsvExportWriter(output, List.of("id", "date", "value", "note"))) {
+            writer.writeRow(new Object[]{1L, LocalDate.of(2023, 3, 10), new BigDecimal("1E+2"), "plain"});
+            writer.writeRow(new Object[]{2L, LocalDate.of(2023, 3, 11), new BigDecimal("10.50"), null});
+        }
+
+        assertEquals("""
+                id,date,value,note
+                1,2023-03-10,100,plain
+                2,2023-03-11,10.50,
+                """, output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testFieldsWithSpecialCharactersAreQuoted() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        try (ExportWriter writer = new CsvExportWriter(output, List.of("note"))) {
+            writer.writeRow(new Object[]{"Meds, pharmacy"});
+            writer.writeRow(new Object[]{"said \"thanks\"\ntwice"});
+            writer.writeRow(new Object[]{" padded"});
+        }
+
+        assertEquals("note\n\"Meds, pharmacy\"\n\"said \"\"thanks\"\"\ntwice\"\n\" padded\"\n",
+                output.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,30 @@
+package yehor.budget.service.export;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NdjsonExportWriterTest {
+
+    @Test
+    void testEachRowIsWrittenAsObjectOnItsOwnLine() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        try (ExportWriter writer = new NdjsonExportWriter(output, List.of("id", "date", "value", "is_regular", "note"))) {
+            writer.writeRow(new Object[]{1L, LocalDate.of(2023, 3, 10), new BigDecimal("10.50"), true, "said \"hi\""});
+            writer.writeRow(new Object[]{2L, LocalDate.of(2023, 3, 11), new BigDecimal("1E+2"), false, null});
+        }
+
+        assertEquals("""
+                {"id":1,"date":"2023-03-10","value":10.50,"is_regular":true,"note":"said \\"hi\\""}
+                {"id":2,"date":"2023-03-11","value":100,"is_regular":false,"note":null}
+                """, output.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,204 @@
+package yehor.budget.service.flight;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import yehor.budget.common.util.CalculatorHelper;
+import yehor.budget.common.util.PageableHelper;
+import yehor.budget.repository.RowEstimatedExpenseRepository;
+import yehor.budget.repository.recording.BalanceItemRepository;
+import yehor.budget.repository.recording.BalanceRecordRepository;
+import yehor.budget.repository.recording.ExpectedExpenseRecordRepository;
+import yehor.budget.repository.recording.IncomeSourceRecordRepository;
+import yehor.budget.service.EstimatedExpenseService;
+import yehor.budget.service.IncomeSourceService;
+import yehor.budget.service.cache.CacheInvalidation;
+import yehor.budget.service.cache.CacheInvalidationBus;
+import yehor.budget.service.cache.CachedEntity;
+import yehor.budget.service.client.currency.CurrencyRateService;
+import yehor.budget.service.recording.BalanceEstimationService;
+import yehor.budget.service.recording.BalanceRecordingService;
+import yehor.budget.web.converter.BalanceConverter;
+import yehor.budget.web.converter.EstimatedExpenseConverter;
+import yehor.budget.web.converter.IncomeSourceConverter;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SingleFlightAspectTest {
+
+    private final SingleFlightAspect aspect = new SingleFlightAspect(mock(CacheInvalidationBus.class));
+    private final Computation target = new Computation();
+    private final Computation proxy = createProxy(target);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch dependencyRead = new CountDownLatch(1);
+    private final CountDownLatch dependencyRelease = new CountDownLatch(1);
+
+    @Test
+    void testConcurrentCallsShareOneInvocation() throws Exception {
+        Future<Integer> leader = executor.submit(() -> proxy.compute("blocking"));
+        assertTrue(target.started.await(5, TimeUnit.SECONDS));
+        Thread follower = startFollower();
+
+        target.release.countDown();
+
+        assertEquals(1, leader.get(5, TimeUnit.SECONDS));
+        follower.join(5000);
+        assertEquals(1, target.followerResult);
+        assertEquals(1, target.invocations.get());
+        assertEquals(0, aspect.countFlights());
+    }
+
+    @Test
+    void testCallsWithDifferentArgumentsAreNotShared() throws Exception {
+        Future<Integer> leader = executor.submit(() -> proxy.compute("blocking"));
+        assertTrue(target.started.await(5, TimeUnit.SECONDS));
+
+        assertEquals(2, proxy.compute("other"));
+
+        target.release.countDown();
+        assertEquals(1, leader.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testExceptionIsThrownToEveryCaller() throws Exception {
+        target.failure = new IllegalStateException("Failed");
+        Future<Integer> leader = executor.submit(() -> proxy.compute("blocking"));
+        assertTrue(target.started.await(5, TimeUnit.SECONDS));
+        Thread follower = startFollower();
+
+        target.release.countDown();
+
+        Exception leaderException = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+        assertEquals(target.failure, leaderException.getCause());
+        follower.join(5000);
+        assertEquals(target.failure, target.followerException);
+        assertEquals(1, target.invocations.get());
+    }
+
+    @Test
+    void testInvalidationDetachesCallInFlight() throws Exception {
+        Future<Integer> leader = executor.submit(() -> proxy.compute("blocking"));
+        assertTrue(target.started.await(5, TimeUnit.SECONDS));
+
+        aspect.onInvalidation(new CacheInvalidation(CachedEntity.TAG, List.of(), "node"));
+        assertEquals(1, aspect.countFlights());
+        aspect.onInvalidation(new CacheInvalidation(CachedEntity.EXPENSE, List.of("2022-01"), "node"));
+        assertEquals(0, aspect.countFlights());
+
+        target.release.countDown();
+        assertEquals(1, leader.get(5, TimeUnit.SECONDS));
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = CachedEntity.class,
+            names = {"BALANCE_RECORD", "ESTIMATED_EXPENSE", "EXCHANGE_RATE", "FUTURE_EXPENSE"})
+    void testLatestBalanceRecordIsDetachedByChangeOfDataItReads(CachedEntity entity) throws Exception {
+        PageableHelper pageableHelper = mock(PageableHelper.class);
+        when(pageableHelper.getLatestByDate(any())).thenAnswer(invocation -> readDependency(Optional.empty()));
+        BalanceRecordingService balanceRecordingService = createProxy(new BalanceRecordingService(
+                mock(BalanceItemRepository.class), mock(BalanceRecordRepository.class), mock(BalanceConverter.class),
+                mock(IncomeSourceService.class), mock(EstimatedExpenseService.class), pageableHelper,
+                mock(IncomeSourceRecordRepository.class), mock(IncomeSourceConverter.class),
+                mock(BalanceEstimationService.class), mock(EstimatedExpenseConverter.class),
+                mock(ExpectedExpenseRecordRepository.class), mock(CacheInvalidationBus.class)));
+
+        assertDetachedBy(entity, balanceRecordingService::getLatest);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = CachedEntity.class, names = {"ESTIMATED_EXPENSE", "EXCHANGE_RATE", "CATEGORY"})
+    void testEstimatedExpenseIsDetachedByChangeOfDataItReads(CachedEntity entity) throws Exception {
+        RowEstimatedExpenseRepository rowEstimatedExpenseRepository = mock(RowEstimatedExpenseRepository.class);
+        when(rowEstimatedExpenseRepository.findAll()).thenAnswer(invocation -> readDependency(List.of()));
+        EstimatedExpenseService estimatedExpenseService = createProxy(new EstimatedExpenseService(
+                rowEstimatedExpenseRepository, mock(EstimatedExpenseConverter.class),
+                mock(CalculatorHelper.class), mock(CurrencyRateService.class)));
+
+        assertDetachedBy(entity, estimatedExpenseService::getOne);
+    }
+
+    private void assertDetachedBy(CachedEntity entity, Callable<?> call) throws Exception {
+        Future<?> leader = executor.submit(call);
+        assertTrue(dependencyRead.await(5, TimeUnit.SECONDS));
+        assertEquals(1, aspect.countFlights());
+
+        aspect.onInvalidation(new CacheInvalidation(entity, List.of(), "node"));
+        assertEquals(0, aspect.countFlights());
+
+        dependencyRelease.countDown();
+        leader.get(5, TimeUnit.SECONDS);
+    }
+
+    private <T> T readDependency(T value) throws InterruptedException {
+        dependencyRead.countDown();
+        dependencyRelease.await();
+        return value;
+    }
+
+    // returns once the follower waits for the call in flight
+    private Thread startFollower() throws InterruptedException {
+        Thread follower = new Thread(() -> {
+            try {
+                target.followerResult = proxy.compute("blocking");
+            } catch (RuntimeException e) {
+                target.followerException = e;
+            }
+        });
+        follower.start();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (follower.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        return follower;
+    }
+
+    private <T> T createProxy(T target) {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(aspect);
+        return proxyFactory.getProxy();
+    }
+
+    static class Computation {
+
+        final AtomicInteger invocations = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        volatile RuntimeException failure;
+        volatile Integer followerResult;
+        volatile RuntimeException followerException;
+
+        @SingleFlight(invalidatedBy = CachedEntity.EXPENSE)
+        public Integer compute(String key) {
+            int invocation = invocations.incrementAndGet();
+            if ("blocking".equals(key)) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (failure != null) {
+                    throw failure;
+                }
+            }
+            return invocation;
+        }
+    }
+}
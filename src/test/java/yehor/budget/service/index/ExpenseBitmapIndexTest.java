@@ -0,0 +1,147 @@
+package yehor.budget.service.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import yehor.budget.common.ValueBucket;
+import yehor.budget.repository.ExpenseRepository;
+import yehor.budget.repository.projection.ExpenseIndexRow;
+import yehor.budget.repository.projection.ExpenseTagId;
+import yehor.budget.service.cache.CacheInvalidation;
+import yehor.budget.service.cache.CacheInvalidationBus;
+import yehor.budget.service.worker.JobScheduler;
+import yehor.budget.service.cache.CachedEntity;
+import yehor.budget.web.dto.ExpenseFilterDto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ExpenseBitmapIndexTest {
+
+    private static final LocalDate MARCH = LocalDate.of(2023, 3, 10);
+    private static final LocalDate APRIL = LocalDate.of(2023, 4, 10);
+
+    private final ExpenseRepository expenseRepository = mock(ExpenseRepository.class);
+    private final CacheInvalidationBus cacheInvalidationBus = mock(CacheInvalidationBus.class);
+    private final JobScheduler jobScheduler = mock(JobScheduler.class);
+
+    private final ExpenseBitmapIndex expenseBitmapIndex = new ExpenseBitmapIndex(expenseRepository, cacheInvalidationBus,
+            jobScheduler);
+
+    @BeforeEach
+    void setUp() {
+        when(expenseRepository.findAllIndexRows()).thenReturn(List.of(
+                row(1L, MARCH, 1L, true, "5.00"),
+                row(2L, MARCH, 2L, false, "50.00"),
+                row(3L, APRIL, 1L, false, "500.00"),
+                row(4L, APRIL, 3L, true, "20000.00")));
+        when(expenseRepository.findAllTagIds()).thenReturn(List.of(
+                new ExpenseTagId(1L, 10L),
+                new ExpenseTagId(1L, 11L),
+                new ExpenseTagId(2L, 10L),
+                new ExpenseTagId(3L, 11L)));
+    }
+
+    @Test
+    void testEmptyFilterMatchesEverythingMostRecentFirst() {
+        expenseBitmapIndex.build();
+
+        assertEquals(Optional.of(new ExpenseBitmapIndex.IdPage(4, List.of(4L, 3L, 2L, 1L))),
+                expenseBitmapIndex.findIds(new ExpenseFilterDto(), 0, 10));
+    }
+
+    @Test
+    void testFilterIsNotEvaluatedWithoutBuiltIndex() {
+        ExpenseFilterDto filter = ExpenseFilterDto.builder().isRegular(true).build();
+
+        assertEquals(Optional.empty(), expenseBitmapIndex.findIds(filter, 0, 10));
+        verify(expenseRepository, never()).findAllIndexRows();
+    }
+
+    @Test
+    void testCriteriaAreCombined() {
+        expenseBitmapIndex.build();
+
+        assertIds(List.of(3L, 1L), ExpenseFilterDto.builder().categoryIds(Set.of(1L)).build());
+        assertIds(List.of(3L, 2L, 1L), ExpenseFilterDto.builder().categoryIds(Set.of(1L, 2L)).build());
+        assertIds(List.of(3L), ExpenseFilterDto.builder().categoryIds(Set.of(1L)).isRegular(false).build());
+        assertIds(List.of(4L, 3L), ExpenseFilterDto.builder().months(Set.of(YearMonth.from(APRIL))).build());
+        assertIds(List.of(2L, 1L), ExpenseFilterDto.builder()
+                .valueBuckets(Set.of(ValueBucket.UP_TO_10, ValueBucket.UP_TO_100)).build());
+        assertIds(List.of(3L, 2L, 1L), ExpenseFilterDto.builder().tagIds(Set.of(10L, 11L)).build());
+        assertIds(List.of(1L), ExpenseFilterDto.builder().tagIds(Set.of(10L, 11L)).allTags(true).build());
+        assertIds(List.of(4L, 3L), ExpenseFilterDto.builder().excludedTagIds(Set.of(10L)).build());
+        assertIds(List.of(4L), ExpenseFilterDto.builder()
+                .excludedCategoryIds(Set.of(1L, 2L)).months(Set.of(YearMonth.from(APRIL))).build());
+        assertIds(List.of(), ExpenseFilterDto.builder().categoryIds(Set.of(99L)).build());
+    }
+
+    @Test
+    void testPaging() {
+        expenseBitmapIndex.build();
+
+        assertEquals(Optional.of(new ExpenseBitmapIndex.IdPage(4, List.of(2L, 1L))),
+                expenseBitmapIndex.findIds(new ExpenseFilterDto(), 1, 2));
+        assertEquals(Optional.of(new ExpenseBitmapIndex.IdPage(4, List.of())),
+                expenseBitmapIndex.findIds(new ExpenseFilterDto(), 2, 2));
+    }
+
+    @Test
+    void testInvalidatedMonthIsReloaded() {
+        expenseBitmapIndex.build();
+        // expense 2 is deleted and expense 1 loses its tags and moves to category 3
+        when(expenseRepository.findIndexRowsInInterval(MARCH.withDayOfMonth(1), MARCH.withDayOfMonth(31)))
+                .thenReturn(List.of(row(1L, MARCH, 3L, true, "5.00")));
+        when(expenseRepository.findTagIdsInInterval(MARCH.withDayOfMonth(1), MARCH.withDayOfMonth(31)))
+                .thenReturn(List.of());
+
+        expenseBitmapIndex.onInvalidation(new CacheInvalidation(CachedEntity.EXPENSE, List.of("2023-03"), "node"));
+
+        assertIds(List.of(4L, 1L), ExpenseFilterDto.builder().categoryIds(Set.of(3L)).build());
+        assertIds(List.of(3L), ExpenseFilterDto.builder().tagIds(Set.of(10L, 11L)).build());
+        assertEquals(Optional.of(List.of()), expenseBitmapIndex.findIdsByTag(10L));
+    }
+
+    @Test
+    void testBitmapsAreTrimmedAfterHighestIdsAreRemoved() {
+        ExpenseBitmaps bitmaps = ExpenseBitmaps.of(List.of(
+                row(1L, MARCH, 1L, true, "5.00"),
+                row(1_000_000L, APRIL, 1L, true, "5.00")), List.of(new ExpenseTagId(1_000_000L, 10L)));
+        long allocatedBits = bitmaps.countAllocatedBits();
+
+        bitmaps.removeMonth(YearMonth.from(APRIL));
+        bitmaps.trim();
+
+        assertTrue(allocatedBits > 5_000_000);
+        assertTrue(bitmaps.countAllocatedBits() < 1000);
+        assertEquals(0, bitmaps.countMismatches(ExpenseBitmaps.of(List.of(row(1L, MARCH, 1L, true, "5.00")), List.of())));
+    }
+
+    @Test
+    void testCheckConsistencyDetectsMissedChanges() {
+        expenseBitmapIndex.build();
+        when(expenseRepository.findAllTagIds()).thenReturn(List.of(new ExpenseTagId(1L, 10L)));
+
+        // bitmaps of both tags differ
+        assertEquals(2, expenseBitmapIndex.checkConsistency());
+        assertEquals(Optional.of(List.of(1L)), expenseBitmapIndex.findIdsByTag(10L));
+    }
+
+    private void assertIds(List<Long> expectedIds, ExpenseFilterDto filter) {
+        assertEquals(expectedIds, expenseBitmapIndex.findIds(filter, 0, 10).orElseThrow().ids());
+    }
+
+    private ExpenseIndexRow row(Long id, LocalDate date, Long categoryId, boolean isRegular, String value) {
+        return new ExpenseIndexRow(id, date, categoryId, isRegular, new BigDecimal(value));
+    }
+}
@@ -0,0 +1,253 @@
+package yehor.budget.service.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import yehor.budget.common.util.PropertiesHelper;
+import yehor.budget.repository.ExpenseRepository;
+import yehor.budget.repository.projection.ExpenseIndexRow;
+import yehor.budget.repository.projection.ExpenseTagId;
+import yehor.budget.repository.projection.MonthlyExpenseCount;
+import yehor.budget.service.cache.CacheInvalidation;
+import yehor.budget.service.cache.CacheInvalidationBus;
+import yehor.budget.service.worker.JobScheduler;
+import yehor.budget.service.cache.CachedEntity;
+import yehor.budget.web.dto.AnalyticsQueryDto;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static yehor.budget.common.AnalyticsDimension.CATEGORY;
+import static yehor.budget.common.AnalyticsDimension.DAY;
+import static yehor.budget.common.AnalyticsDimension.MONTH;
+import static yehor.budget.common.AnalyticsDimension.MONTH_WEEK;
+import static yehor.budget.common.AnalyticsDimension.TAG;
+import static yehor.budget.common.AnalyticsDimension.UNTAGGED;
+import static yehor.budget.common.AnalyticsDimension.WEEK;
+import static yehor.budget.common.AnalyticsDimension.YEAR;
+
+class ExpenseColumnStoreTest {
+
+    private static final LocalDate MARCH = LocalDate.of(2023, 3, 10);
+    private static final LocalDate APRIL = LocalDate.of(2023, 4, 10);
+    private static final int MARCH_KEY = 2023 * 12 + 2;
+    private static final int APRIL_KEY = 2023 * 12 + 3;
+
+    private final ExpenseRepository expenseRepository = mock(ExpenseRepository.class);
+    private final CacheInvalidationBus cacheInvalidationBus = mock(CacheInvalidationBus.class);
+    private final JobScheduler jobScheduler = mock(JobScheduler.class);
+    private final PropertiesHelper propertiesHelper = mock(PropertiesHelper.class);
+
+    @TempDir
+    Path snapshotDirectory;
+
+    private ExpenseColumnStore expenseColumnStore;
+
+    @BeforeEach
+    void setUp() {
+        when(propertiesHelper.getStringProperty("index.snapshot.directory")).thenReturn(snapshotDirectory.toString());
+        expenseColumnStore = new ExpenseColumnStore(expenseRepository, cacheInvalidationBus,
+                jobScheduler, propertiesHelper);
+        when(expenseRepository.findLastChangeSeq()).thenReturn(10L);
+        when(expenseRepository.findAllIndexRows()).thenReturn(List.of(
+                row(1L, MARCH, 1L, true, "5.00"),
+                row(2L, MARCH, 2L, false, "50.00"),
+                row(3L, APRIL, 1L, false, "500.00"),
+                row(4L, APRIL, 3L, true, "20000.00")));
+        when(expenseRepository.findAllTagIds()).thenReturn(List.of(
+                new ExpenseTagId(1L, 10L),
+                new ExpenseTagId(1L, 11L),
+                new ExpenseTagId(2L, 10L),
+                new ExpenseTagId(3L, 11L)));
+    }
+
+    @Test
+    void testGroupsAreOrderedByKeys() {
+        expenseColumnStore.build();
+
+        assertEquals(List.of(
+                group(500, 1, MARCH_KEY, 1),
+                group(5000, 1, MARCH_KEY, 2),
+                group(50000, 1, APRIL_KEY, 1),
+                group(2000000, 1, APRIL_KEY, 3)), aggregate(query().groupBy(List.of(MONTH, CATEGORY))));
+    }
+
+    @Test
+    void testExpenseIsCountedInGroupOfEachTag() {
+        expenseColumnStore.build();
+
+        assertEquals(List.of(
+                group(2000000, 1, UNTAGGED),
+                group(5500, 2, 10),
+                group(50500, 2, 11)), aggregate(query().groupBy(List.of(TAG))));
+    }
+
+    @Test
+    void testDateDimensions() {
+        expenseColumnStore.build();
+
+        int epochDay = (int) MARCH.toEpochDay();
+        assertEquals(List.of(group(5500, 2, 2023, 202310, 1, epochDay)),
+                aggregate(query().dateTo(MARCH).groupBy(List.of(YEAR, WEEK, MONTH_WEEK, DAY))));
+        assertEquals("2023-W10", WEEK.label(202310));
+        assertEquals("DAYS_8_TO_14", MONTH_WEEK.label(1));
+        assertEquals("2023-03", MONTH.label(MARCH_KEY));
+    }
+
+    @Test
+    void testFilters() {
+        expenseColumnStore.build();
+
+        assertEquals(List.of(group(50000, 1)), aggregate(query().categoryIds(Set.of(1L)).isRegular(false)));
+        assertEquals(List.of(group(5500, 2)), aggregate(query().tagIds(Set.of(10L))));
+        assertEquals(List.of(group(2050000, 2)),
+                aggregate(query().dateFrom(MARCH.plusDays(1)).categoryIds(Set.of(1L, 3L))));
+        assertEquals(List.of(), aggregate(query().categoryIds(Set.of(99L))));
+    }
+
+    @Test
+    void testIdsOutsideOfColumnRangeAreRejected() {
+        expenseColumnStore.build();
+
+        assertThrows(IllegalArgumentException.class, () -> aggregate(query().categoryIds(Set.of(-1L))));
+        assertThrows(IllegalArgumentException.class, () -> aggregate(query().tagIds(Set.of(1L << 40))));
+    }
+
+    @Test
+    void testQueryIsNotAnsweredWithoutBuiltStore() {
+        assertEquals(Optional.empty(), expenseColumnStore.findGroups(query().dateTo(MARCH).build()));
+
+        verify(expenseRepository, never()).findIndexRowsInInterval(any(), any());
+    }
+
+    @Test
+    void testCountExpenses() {
+        assertEquals(Optional.empty(), expenseColumnStore.countExpenses(YearMonth.from(MARCH), YearMonth.from(APRIL)));
+
+        expenseColumnStore.build();
+
+        assertEquals(Optional.of(4L), expenseColumnStore.countExpenses(YearMonth.from(MARCH), YearMonth.from(APRIL)));
+        assertEquals(Optional.of(2L), expenseColumnStore.countExpenses(YearMonth.from(APRIL), YearMonth.of(2030, 1)));
+        assertEquals(Optional.of(0L), expenseColumnStore.countExpenses(YearMonth.of(2020, 1), YearMonth.of(2020, 12)));
+    }
+
+    @Test
+    void testInvalidatedMonthIsReloaded() {
+        expenseColumnStore.build();
+        // expense 2 is deleted and expense 1 loses its tags and moves to category 3
+        when(expenseRepository.findIndexRowsInInterval(MARCH.withDayOfMonth(1), MARCH.withDayOfMonth(31)))
+                .thenReturn(List.of(row(1L, MARCH, 3L, true, "5.00")));
+        when(expenseRepository.findTagIdsInInterval(MARCH.withDayOfMonth(1), MARCH.withDayOfMonth(31)))
+                .thenReturn(List.of());
+
+        expenseColumnStore.onInvalidation(new CacheInvalidation(CachedEntity.EXPENSE, List.of("2023-03"), "node"));
+
+        assertEquals(List.of(
+                group(50000, 1, 1),
+                group(2000500, 2, 3)), aggregate(query().groupBy(List.of(CATEGORY))));
+        assertEquals(List.of(group(50000, 1, 11)), aggregate(query().groupBy(List.of(TAG)).tagIds(Set.of(10L, 11L))));
+    }
+
+    @Test
+    void testCheckConsistencyDetectsMissedChanges() {
+        expenseColumnStore.build();
+        when(expenseRepository.findAllTagIds()).thenReturn(List.of(new ExpenseTagId(1L, 10L)));
+
+        // tags of both months differ
+        assertEquals(2, expenseColumnStore.checkConsistency());
+        assertEquals(List.of(group(500, 1)), aggregate(query().tagIds(Set.of(10L, 11L))));
+    }
+
+    @Test
+    void testSnapshotIsRestoredWithChangesReplayed() {
+        expenseColumnStore.build();
+        expenseColumnStore.writeSnapshot();
+        // expense 5 is added to April after the snapshot, and expense 2 is deleted from March
+        when(expenseRepository.findLastChangeSeq()).thenReturn(12L);
+        when(expenseRepository.findMonthsChangedAfter(10L)).thenReturn(List.of("2023-04"));
+        when(expenseRepository.countByMonth()).thenReturn(List.of(
+                new MonthlyExpenseCount(2023, 3, 1L),
+                new MonthlyExpenseCount(2023, 4, 3L)));
+        when(expenseRepository.findIndexRowsInInterval(MARCH.withDayOfMonth(1), MARCH.withDayOfMonth(31)))
+                .thenReturn(List.of(row(1L, MARCH, 1L, true, "5.00")));
+        when(expenseRepository.findIndexRowsInInterval(APRIL.withDayOfMonth(1), APRIL.withDayOfMonth(30)))
+                .thenReturn(List.of(
+                        row(3L, APRIL, 1L, false, "500.00"),
+                        row(4L, APRIL, 3L, true, "20000.00"),
+                        row(5L, APRIL, 2L, false, "1.00")));
+        when(expenseRepository.findTagIdsInInterval(any(), any())).thenReturn(List.of());
+
+        ExpenseColumnStore restoredStore = new ExpenseColumnStore(expenseRepository, cacheInvalidationBus,
+                jobScheduler, propertiesHelper);
+        restoredStore.build();
+
+        verify(expenseRepository, times(1)).findAllIndexRows();
+        assertEquals(List.of(
+                group(500, 1, MARCH_KEY, 1),
+                group(50000, 1, APRIL_KEY, 1),
+                group(100, 1, APRIL_KEY, 2),
+                group(2000000, 1, APRIL_KEY, 3)), restoredStore.findGroups(query().groupBy(List.of(MONTH, CATEGORY)).build()).orElseThrow());
+    }
+
+    @Test
+    void testSnapshotAheadOfDatabaseIsIgnored() {
+        expenseColumnStore.build();
+        expenseColumnStore.writeSnapshot();
+        when(expenseRepository.findLastChangeSeq()).thenReturn(3L);
+
+        ExpenseColumnStore restoredStore = new ExpenseColumnStore(expenseRepository, cacheInvalidationBus,
+                jobScheduler, propertiesHelper);
+        restoredStore.build();
+
+        verify(expenseRepository, times(2)).findAllIndexRows();
+        assertEquals(List.of(group(2055500, 4)), restoredStore.findGroups(query().build()).orElseThrow());
+    }
+
+    @Test
+    void testCorruptedSnapshotIsIgnored() throws IOException {
+        expenseColumnStore.build();
+        expenseColumnStore.writeSnapshot();
+        Path snapshotFile = snapshotDirectory.resolve("expense-columns.snapshot");
+        byte[] bytes = Files.readAllBytes(snapshotFile);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(snapshotFile, bytes);
+
+        ExpenseColumnStore restoredStore = new ExpenseColumnStore(expenseRepository, cacheInvalidationBus,
+                jobScheduler, propertiesHelper);
+        restoredStore.build();
+
+        verify(expenseRepository, times(2)).findAllIndexRows();
+        assertEquals(List.of(group(2055500, 4)), restoredStore.findGroups(query().build()).orElseThrow());
+    }
+
+    private AnalyticsQueryDto.AnalyticsQueryDtoBuilder query() {
+        return AnalyticsQueryDto.builder().dateFrom(MARCH.withDayOfMonth(1)).dateTo(APRIL.withDayOfMonth(30));
+    }
+
+    private List<ExpenseGroup> aggregate(AnalyticsQueryDto.AnalyticsQueryDtoBuilder query) {
+        return expenseColumnStore.findGroups(query.build()).orElseThrow();
+    }
+
+    private ExpenseGroup group(long total, long count, int... keys) {
+        return new ExpenseGroup(keys, total, count);
+    }
+
+    private ExpenseIndexRow row(Long id, LocalDate date, Long categoryId, boolean isRegular, String value) {
+        return new ExpenseIndexRow(id, date, categoryId, isRegular, new BigDecimal(value));
+    }
+}
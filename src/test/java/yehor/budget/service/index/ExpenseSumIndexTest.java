@@ -0,0 +1,128 @@
+package yehor.budget.service.index;
+
+import org.junit.jupiter.api.Test;
+import yehor.budget.repository.ExpenseRepository;
+import yehor.budget.repository.projection.DailyCategoryTotal;
+import yehor.budget.service.cache.CacheInvalidation;
+import yehor.budget.service.cache.CacheInvalidationBus;
+import yehor.budget.service.cache.CachedEntity;
+import yehor.budget.service.worker.JobScheduler;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ExpenseSumIndexTest {
+
+    private static final LocalDate DATE = LocalDate.of(2023, 3, 15);
+
+    private final ExpenseRepository expenseRepository = mock(ExpenseRepository.class);
+    private final CacheInvalidationBus cacheInvalidationBus = mock(CacheInvalidationBus.class);
+    private final JobScheduler jobScheduler = mock(JobScheduler.class);
+
+    private final ExpenseSumIndex expenseSumIndex = new ExpenseSumIndex(expenseRepository, cacheInvalidationBus,
+            jobScheduler);
+
+    @Test
+    void testSumsAreNotAvailableUntilIndexIsBuilt() {
+        assertTrue(expenseSumIndex.findSum(DATE, DATE).isEmpty());
+        assertTrue(expenseSumIndex.findSum(DATE, DATE, 1L).isEmpty());
+    }
+
+    @Test
+    void testFindSum() {
+        when(expenseRepository.findAllDailyTotals()).thenReturn(List.of(
+                total(DATE, 1L, "10.50"),
+                total(DATE.plusDays(1), 2L, "20.25"),
+                total(DATE.plusDays(2), 1L, "5.00")));
+
+        expenseSumIndex.build();
+
+        assertEquals(Optional.of(new BigDecimal("35.75")), expenseSumIndex.findSum(DATE, DATE.plusDays(2)));
+        assertEquals(Optional.of(new BigDecimal("30.75")), expenseSumIndex.findSum(DATE, DATE.plusDays(1)));
+        assertEquals(Optional.of(new BigDecimal("15.50")), expenseSumIndex.findSum(DATE, DATE.plusDays(2), 1L));
+        assertEquals(Optional.of(new BigDecimal("0.00")), expenseSumIndex.findSum(DATE, DATE, 3L));
+        assertEquals(Optional.of(new BigDecimal("0.00")), expenseSumIndex.findSum(DATE.minusYears(10), DATE.minusYears(9)));
+        assertEquals(Optional.of(new BigDecimal("35.75")), expenseSumIndex.findSum(DATE.minusYears(10), DATE.plusYears(10)));
+    }
+
+    @Test
+    void testInvalidatedMonthIsReloaded() {
+        when(expenseRepository.findAllDailyTotals()).thenReturn(List.of(
+                total(DATE, 1L, "10.00"),
+                total(DATE.plusMonths(1), 1L, "7.00")));
+        expenseSumIndex.build();
+        when(expenseRepository.findDailyTotalsInInterval(LocalDate.of(2023, 3, 1), LocalDate.of(2023, 3, 31)))
+                .thenReturn(List.of(total(DATE.plusDays(1), 2L, "3.00")));
+
+        expenseSumIndex.onInvalidation(new CacheInvalidation(CachedEntity.EXPENSE, List.of("2023-03"), "node"));
+
+        assertEquals(Optional.of(new BigDecimal("10.00")), expenseSumIndex.findSum(DATE, DATE.plusYears(1)));
+        assertEquals(Optional.of(new BigDecimal("0.00")), expenseSumIndex.findSum(DATE, DATE, 1L));
+        assertEquals(Optional.of(new BigDecimal("3.00")), expenseSumIndex.findSum(DATE, DATE.plusDays(1), 2L));
+    }
+
+    @Test
+    void testIndexGrowsForDatesOutsideOfIt() {
+        when(expenseRepository.findAllDailyTotals()).thenReturn(List.of(total(DATE, 1L, "1.00")));
+        expenseSumIndex.build();
+        LocalDate distantDate = DATE.plusYears(5);
+        when(expenseRepository.findDailyTotalsInInterval(distantDate.withDayOfMonth(1), distantDate.withDayOfMonth(31)))
+                .thenReturn(List.of(total(distantDate, 1L, "2.00")));
+
+        expenseSumIndex.onInvalidation(new CacheInvalidation(CachedEntity.EXPENSE, List.of("2028-03"), "node"));
+
+        assertEquals(Optional.of(new BigDecimal("3.00")), expenseSumIndex.findSum(DATE, distantDate, 1L));
+        assertEquals(Optional.of(new BigDecimal("2.00")), expenseSumIndex.findSum(DATE.plusDays(1), distantDate));
+    }
+
+    @Test
+    void testSumsMatchNaiveSums() {
+        SplittableRandom random = new SplittableRandom(42);
+        List<DailyCategoryTotal> totals = new ArrayList<>();
+        long[] naiveTotals = new long[1000];
+        for (int day = 0; day < naiveTotals.length; day++) {
+            long cents = random.nextLong(100_000);
+            naiveTotals[day] = cents;
+            totals.add(total(DATE.plusDays(day), random.nextLong(5), BigDecimal.valueOf(cents, 2).toPlainString()));
+        }
+        when(expenseRepository.findAllDailyTotals()).thenReturn(totals);
+        expenseSumIndex.build();
+
+        for (int i = 0; i < 500; i++) {
+            int from = random.nextInt(naiveTotals.length);
+            int to = from + random.nextInt(naiveTotals.length - from);
+            long expected = 0;
+            for (int day = from; day <= to; day++) {
+                expected += naiveTotals[day];
+            }
+            assertEquals(Optional.of(BigDecimal.valueOf(expected, 2)),
+                    expenseSumIndex.findSum(DATE.plusDays(from), DATE.plusDays(to)));
+        }
+    }
+
+    @Test
+    void testCheckConsistencyRebuildsDifferentIndex() {
+        when(expenseRepository.findAllDailyTotals()).thenReturn(List.of(total(DATE, 1L, "1.00")));
+        expenseSumIndex.build();
+        when(expenseRepository.findAllDailyTotals()).thenReturn(List.of(
+                total(DATE, 1L, "1.00"),
+                total(DATE.plusDays(3), 1L, "4.00")));
+
+        assertEquals(1, expenseSumIndex.checkConsistency());
+        assertEquals(0, expenseSumIndex.checkConsistency());
+        assertEquals(Optional.of(new BigDecimal("5.00")), expenseSumIndex.findSum(DATE, DATE.plusDays(3)));
+    }
+
+    private DailyCategoryTotal total(LocalDate date, Long categoryId, String value) {
+        return new DailyCategoryTotal(date, categoryId, new BigDecimal(value));
+    }
+}
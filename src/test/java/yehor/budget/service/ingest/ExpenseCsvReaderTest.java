@@ -0,0 +1,73 @@
+package yehor.budget.service.ingest;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExpenseCsvReaderTest {
+
+    @Test
+    void testRowsAreRead() throws IOException {
+        ExpenseCsvReader reader = reader("""
+                category,value,date,tags,is_regular,note
+                Food,10.5,2023-03-10,groceries; weekly,true,
+                "Meds, pharmacy",100,2023-03-11,,,"said ""thanks""
+                twice"
+
+                Food,1.00,2023-03-12
+                """);
+
+        assertEquals(new ExpenseImportRow(2, LocalDate.of(2023, 3, 10), 1050, "Food", true,
+                List.of("groceries", "weekly"), null), reader.next());
+        assertEquals(new ExpenseImportRow(3, LocalDate.of(2023, 3, 11), 10000, "Meds, pharmacy", false,
+                List.of(), "said \"thanks\"\ntwice"), reader.next());
+        assertEquals(new ExpenseImportRow(6, LocalDate.of(2023, 3, 12), 100, "Food", false,
+                List.of(), null), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void testReadingContinuesAfterInvalidRow() throws IOException {
+        ExpenseCsvReader reader = reader("""
+                date,value,category
+                2023-02-30,10,Food
+                2023-03-01,0.5,Food
+                2023-03-01,1.005,Food
+                2023-03-01,10,
+                2023-03-01,10,Food
+                """);
+
+        assertInvalidRow(reader, 2, "Provided value is not a valid date 2023-02-30");
+        assertInvalidRow(reader, 3, "Value should be between 1 and 1000000000");
+        assertInvalidRow(reader, 4, "Value cannot have more than 2 decimal places 1.005");
+        assertInvalidRow(reader, 5, "Category should have from 1 to 50 characters");
+        assertEquals(6, reader.next().line());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void testHeaderWithoutRequiredColumnsIsRejected() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> reader("date,category\n2023-03-01,Food\n"));
+
+        assertEquals("Header does not contain columns [value]", exception.getMessage());
+    }
+
+    private void assertInvalidRow(ExpenseCsvReader reader, int line, String message) {
+        ExpenseCsvReader.InvalidRowException exception =
+                assertThrows(ExpenseCsvReader.InvalidRowException.class, reader::next);
+        assertEquals(line, exception.getLine());
+        assertEquals(message, exception.getMessage());
+    }
+
+    private ExpenseCsvReader reader(String csv) throws IOException {
+        return new ExpenseCsvReader(new StringReader(csv));
+    }
+}
@@ -0,0 +1,65 @@
+package yehor.budget.service.ingest;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PgBinaryCopyWriterTest {
+
+    @Test
+    void testTupleIsWrittenBetweenHeaderAndTrailer() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (PgBinaryCopyWriter writer = new PgBinaryCopyWriter(output)) {
+            writer.startTuple(4)
+                    .writeDate(LocalDate.of(2000, 1, 2))
+                    .writeLong(1050)
+                    .writeText(null)
+                    .writeTextArray(List.of("ab"));
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(output.toByteArray());
+
+        byte[] signature = new byte[PgBinaryCopyWriter.SIGNATURE.length];
+        buffer.get(signature);
+        assertArrayEquals(PgBinaryCopyWriter.SIGNATURE, signature);
+        assertEquals(0, buffer.getInt());
+        assertEquals(0, buffer.getInt());
+
+        assertEquals(4, buffer.getShort());
+        assertEquals(4, buffer.getInt());
+        assertEquals(1, buffer.getInt());
+        assertEquals(8, buffer.getInt());
+        assertEquals(1050, buffer.getLong());
+        assertEquals(-1, buffer.getInt());
+        assertEquals(26, buffer.getInt());
+        assertEquals(List.of(1, 0, 25, 1, 1, 2), List.of(buffer.getInt(), buffer.getInt(), buffer.getInt(),
+                buffer.getInt(), buffer.getInt(), buffer.getInt()));
+        byte[] element = new byte[2];
+        buffer.get(element);
+        assertEquals("ab", new String(element, StandardCharsets.UTF_8));
+
+        assertEquals(-1, buffer.getShort());
+        assertEquals(0, buffer.remaining());
+    }
+
+    @Test
+    void testEmptyArrayHasNoDimensions() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (PgBinaryCopyWriter writer = new PgBinaryCopyWriter(output)) {
+            writer.writeTextArray(List.of());
+        }
+        byte[] bytes = output.toByteArray();
+        ByteBuffer field = ByteBuffer.wrap(Arrays.copyOfRange(bytes, PgBinaryCopyWriter.SIGNATURE.length + 8, bytes.length));
+
+        assertEquals(12, field.getInt());
+        assertEquals(List.of(0, 0, 25), List.of(field.getInt(), field.getInt(), field.getInt()));
+    }
+}
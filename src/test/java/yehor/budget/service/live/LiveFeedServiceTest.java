@@ -0,0 +1,55 @@
+package yehor.budget.service.live;
+
+import org.junit.jupiter.api.Test;
+import yehor.budget.web.dto.LiveStatisticsDto;
+import yehor.budget.web.dto.MonthlyStatistics;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LiveFeedServiceTest {
+
+    private final YearMonth month = YearMonth.of(2023, 3);
+
+    @Test
+    void testFirstUpdateContainsEveryCategory() {
+        MonthlyStatistics current = statistics("30.00", Map.of("Food", new BigDecimal("10.00"), "Meds", new BigDecimal("20.00")));
+
+        LiveStatisticsDto update = LiveFeedService.toUpdate(month, null, current);
+
+        assertTrue(update.isComplete());
+        assertEquals("2023-03", update.getMonth());
+        assertEquals(current.getTotalsPerCategory(), update.getTotalsPerCategory());
+    }
+
+    @Test
+    void testUpdateContainsOnlyChangedCategories() {
+        MonthlyStatistics previous = statistics("30.00", Map.of("Food", new BigDecimal("10.00"), "Meds", new BigDecimal("20.00")));
+        MonthlyStatistics current = statistics("35.00", Map.of("Food", new BigDecimal("10.0"), "Fuel", new BigDecimal("25.00")));
+
+        LiveStatisticsDto update = LiveFeedService.toUpdate(month, previous, current);
+
+        assertFalse(update.isComplete());
+        assertEquals(new BigDecimal("35.00"), update.getTotalExpense());
+        assertEquals(Map.of("Fuel", new BigDecimal("25.00"), "Meds", BigDecimal.ZERO), update.getTotalsPerCategory());
+    }
+
+    @Test
+    void testNoUpdateWhenNothingChanged() {
+        MonthlyStatistics previous = statistics("10.00", Map.of("Food", new BigDecimal("10.00")));
+        MonthlyStatistics current = statistics("10.00", Map.of("Food", new BigDecimal("10.00")));
+
+        assertNull(LiveFeedService.toUpdate(month, previous, current));
+    }
+
+    private MonthlyStatistics statistics(String total, Map<String, BigDecimal> totalsPerCategory) {
+        BigDecimal totalExpense = new BigDecimal(total);
+        return new MonthlyStatistics(totalExpense, BigDecimal.ZERO, totalExpense, totalsPerCategory);
+    }
+}
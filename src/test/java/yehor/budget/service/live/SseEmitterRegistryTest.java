@@ -0,0 +1,121 @@
+package yehor.budget.service.live;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SseEmitterRegistryTest {
+
+    private static final Duration SEND_TIMEOUT = Duration.ofSeconds(10);
+
+    @Test
+    void testEmitterWhichFailedToReceiveEventIsDropped() {
+        SseEmitterRegistry registry = new SseEmitterRegistry(10, 10, SEND_TIMEOUT, Runnable::run);
+        registry.register(new SseEmitter());
+        registry.register(new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        });
+
+        registry.broadcast("event", "{}");
+
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    void testRegistrationOverLimitIsRejected() {
+        SseEmitterRegistry registry = new SseEmitterRegistry(1, 10, SEND_TIMEOUT, Runnable::run);
+        registry.register(new SseEmitter());
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> registry.register(new SseEmitter()));
+
+        assertEquals("Limit of 1 subscribers is reached", exception.getMessage());
+    }
+
+    @Test
+    void testStalledEmitterDoesNotHoldBackOthers() throws InterruptedException {
+        ExecutorService sendExecutor = Executors.newFixedThreadPool(2);
+        try {
+            SseEmitterRegistry registry = new SseEmitterRegistry(10, 3, Duration.ofMillis(100), sendExecutor);
+            CountDownLatch stalled = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            registry.register(new SseEmitter() {
+                @Override
+                public void send(SseEventBuilder builder) {
+                    stalled.countDown();
+                    awaitQuietly(release);
+                }
+            });
+            CountDownLatch received = new CountDownLatch(3);
+            registry.register(new SseEmitter() {
+                @Override
+                public void send(SseEventBuilder builder) {
+                    received.countDown();
+                }
+            });
+
+            registry.broadcast("event", "{}");
+            assertTrue(stalled.await(5, TimeUnit.SECONDS));
+            registry.broadcast("event", "{}");
+            registry.broadcast("event", "{}");
+
+            assertTrue(received.await(5, TimeUnit.SECONDS));
+            Thread.sleep(200);
+            registry.heartbeat();
+            assertEquals(1, registry.size());
+            release.countDown();
+        } finally {
+            sendExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testEmitterWithTooManyQueuedEventsIsDropped() {
+        List<Runnable> pendingSends = new ArrayList<>();
+        SseEmitterRegistry registry = new SseEmitterRegistry(10, 2, SEND_TIMEOUT, pendingSends::add);
+        registry.register(new SseEmitter());
+
+        registry.broadcast("event", "{}");
+        registry.broadcast("event", "{}");
+        assertEquals(1, registry.size());
+
+        registry.broadcast("event", "{}");
+        assertEquals(0, registry.size());
+        assertEquals(1, pendingSends.size());
+    }
+
+    @Test
+    void testSendAfterShutdownDropsEmitter() {
+        ExecutorService sendExecutor = Executors.newSingleThreadExecutor();
+        sendExecutor.shutdown();
+        SseEmitterRegistry registry = new SseEmitterRegistry(10, 10, SEND_TIMEOUT, sendExecutor);
+        registry.register(new SseEmitter());
+
+        registry.heartbeat();
+
+        assertEquals(0, registry.size());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
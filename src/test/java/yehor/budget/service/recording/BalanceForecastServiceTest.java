@@ -0,0 +1,131 @@
+package yehor.budget.service.recording;
+
+import org.junit.jupiter.api.Test;
+import yehor.budget.common.date.DateManager;
+import yehor.budget.common.util.PageableHelper;
+import yehor.budget.entity.Category;
+import yehor.budget.entity.Expense;
+import yehor.budget.entity.recording.BalanceRecord;
+import yehor.budget.repository.ExpenseRepository;
+import yehor.budget.repository.FutureExpenseRepository;
+import yehor.budget.repository.recording.BalanceRecordRepository;
+import yehor.budget.service.SettingsService;
+import yehor.budget.web.dto.full.BalanceForecastDto;
+import yehor.budget.web.dto.full.MonthlyBalanceForecastDto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+
+import static common.factory.BalanceFactory.DEFAULT_BALANCE_RECORD_TOTAL;
+import static common.factory.BalanceFactory.balanceRecordWithNotSetExpensesAndIncome;
+import static common.factory.SettingsFactory.defaultSettings;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BalanceForecastServiceTest {
+
+    private final ExpenseRepository expenseRepository = mock(ExpenseRepository.class);
+    private final FutureExpenseRepository futureExpenseRepository = mock(FutureExpenseRepository.class);
+    private final BalanceRecordRepository balanceRecordRepository = mock(BalanceRecordRepository.class);
+    private final SettingsService settingsService = mock(SettingsService.class);
+    private final PageableHelper pageableHelper = mock(PageableHelper.class);
+    private final DateManager dateManager = mock(DateManager.class);
+    private final BalanceEstimationService balanceEstimationService = mock(BalanceEstimationService.class);
+
+    private final BalanceForecastService balanceForecastService = new BalanceForecastService(expenseRepository,
+            futureExpenseRepository, balanceRecordRepository, settingsService, pageableHelper, dateManager,
+            balanceEstimationService);
+
+    private final Category category = Category.builder().id(1L).build();
+
+    @Test
+    void testGetForecastReturnsEmptyWhenThereAreNoBalanceRecords() {
+        when(pageableHelper.getLatestByDate(balanceRecordRepository)).thenReturn(Optional.empty());
+
+        Optional<BalanceForecastDto> forecast = balanceForecastService.getForecast(24, 1000);
+
+        assertTrue(forecast.isEmpty());
+    }
+
+    @Test
+    void testGetForecastWithoutVarianceGivesSameValueForAllPercentiles() {
+        setUpMonths();
+        List<Expense> expenses = List.of(
+                expense(LocalDate.of(2022, 1, 1), "70"),
+                expense(LocalDate.of(2022, 2, 1), "70"));
+        when(expenseRepository.findAllRegularInInterval(any(), any())).thenReturn(expenses);
+
+        BalanceForecastDto forecast = balanceForecastService.getForecast(
+                balanceRecord(), 2, 1000, new SplittableRandom(42));
+
+        assertEquals(DEFAULT_BALANCE_RECORD_TOTAL, forecast.getStartTotal());
+        assertEquals(1000, forecast.getNumberOfPaths());
+        assertEquals(2, forecast.getMonths().size());
+        verifyAllPercentilesEqual(forecast.getMonths().get(0), new BigDecimal("60.00"));
+        verifyAllPercentilesEqual(forecast.getMonths().get(1), new BigDecimal("10.00"));
+        assertEquals(LocalDate.of(2023, 1, 31), forecast.getMonths().get(0).getEndOfMonthDate());
+        assertEquals(LocalDate.of(2023, 2, 28), forecast.getMonths().get(1).getEndOfMonthDate());
+    }
+
+    @Test
+    void testGetForecastWithVarianceGivesOrderedPercentileBands() {
+        setUpMonths();
+        List<Expense> expenses = List.of(
+                expense(LocalDate.of(2022, 1, 1), "10"),
+                expense(LocalDate.of(2022, 2, 1), "130"));
+        when(expenseRepository.findAllRegularInInterval(any(), any())).thenReturn(expenses);
+
+        BalanceForecastDto forecast = balanceForecastService.getForecast(
+                balanceRecord(), 2, 10_000, new SplittableRandom(42));
+
+        for (MonthlyBalanceForecastDto month : forecast.getMonths()) {
+            assertTrue(month.getPercentile5().compareTo(month.getPercentile25()) < 0);
+            assertTrue(month.getPercentile25().compareTo(month.getPercentile50()) < 0);
+            assertTrue(month.getPercentile50().compareTo(month.getPercentile75()) < 0);
+            assertTrue(month.getPercentile75().compareTo(month.getPercentile95()) < 0);
+        }
+        // median of the first month is close to 110 + 20 - 70
+        BigDecimal median = forecast.getMonths().get(0).getPercentile50();
+        assertTrue(median.compareTo(new BigDecimal("50")) > 0 && median.compareTo(new BigDecimal("70")) < 0);
+    }
+
+    private void setUpMonths() {
+        when(settingsService.getSettingsEntity()).thenReturn(defaultSettings());
+        when(balanceEstimationService.getDaysLeftInCurrentWeek(any(), any())).thenReturn(7);
+        when(balanceEstimationService.getIncomesTilEndOfMonth(any(), any())).thenReturn(new BigDecimal("20.00"));
+        when(futureExpenseRepository.getFutureExpensesInInterval(any(), any())).thenReturn(Collections.emptyList());
+        when(dateManager.getLastDateOfMonth(any()))
+                .thenReturn(LocalDate.of(2023, 1, 31))
+                .thenReturn(LocalDate.of(2023, 2, 28));
+    }
+
+    private BalanceRecord balanceRecord() {
+        BalanceRecord balanceRecord = balanceRecordWithNotSetExpensesAndIncome();
+        balanceRecord.setDate(LocalDate.of(2023, 1, 1));
+        return balanceRecord;
+    }
+
+    private Expense expense(LocalDate date, String value) {
+        return Expense.builder()
+                .value(new BigDecimal(value))
+                .date(date)
+                .category(category)
+                .build();
+    }
+
+    private void verifyAllPercentilesEqual(MonthlyBalanceForecastDto month, BigDecimal expected) {
+        assertEquals(expected, month.getMean());
+        assertEquals(expected, month.getPercentile5());
+        assertEquals(expected, month.getPercentile25());
+        assertEquals(expected, month.getPercentile50());
+        assertEquals(expected, month.getPercentile75());
+        assertEquals(expected, month.getPercentile95());
+    }
+}
@@ -15,6 +15,7 @@ import yehor.budget.repository.recording.ExpectedExpenseRecordRepository;
 import yehor.budget.repository.recording.IncomeSourceRecordRepository;
 import yehor.budget.service.EstimatedExpenseService;
 import yehor.budget.service.IncomeSourceService;
+import yehor.budget.service.cache.CacheInvalidationBus;
 import yehor.budget.web.converter.BalanceConverter;
 import yehor.budget.web.converter.EstimatedExpenseConverter;
 import yehor.budget.web.converter.IncomeSourceConverter;
@@ -69,6 +70,7 @@ class BalanceRecordingServiceTest {
     private final BalanceEstimationService balanceEstimationService = mock(BalanceEstimationService.class);
     private final EstimatedExpenseConverter estimatedExpenseConverter = mock(EstimatedExpenseConverter.class);
     private final ExpectedExpenseRecordRepository expectedExpenseRecordRepository = mock(ExpectedExpenseRecordRepository.class);
+    private final CacheInvalidationBus cacheInvalidationBus = mock(CacheInvalidationBus.class);
 
     private final BalanceRecordingService balanceRecordingService = new BalanceRecordingService(
             balanceItemRepository,
@@ -81,7 +83,8 @@ class BalanceRecordingServiceTest {
             incomeSourceConverter,
             balanceEstimationService,
             estimatedExpenseConverter,
-            expectedExpenseRecordRepository
+            expectedExpenseRecordRepository,
+            cacheInvalidationBus
     );
 
     @Test
@@ -2,19 +2,24 @@ package yehor.budget.service.recording;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.dao.EmptyResultDataAccessException;
+import yehor.budget.common.Currency;
 import yehor.budget.common.exception.ObjectNotFoundException;
 import yehor.budget.common.util.PageableHelper;
 import yehor.budget.entity.StorageItem;
 import yehor.budget.entity.StorageRecord;
 import yehor.budget.repository.StorageItemRepository;
 import yehor.budget.repository.StorageRecordRepository;
+import yehor.budget.repository.projection.StorageItemValue;
+import yehor.budget.service.cache.CacheInvalidationBus;
 import yehor.budget.service.client.currency.CurrencyRateService;
 import yehor.budget.web.converter.StorageConverter;
+import yehor.budget.web.dto.StorageTimeSeriesDto;
 import yehor.budget.web.dto.full.StorageRecordFullDto;
 import yehor.budget.web.dto.limited.StorageRecordLimitedDto;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -44,13 +49,15 @@ class StorageRecordingServiceTest {
     private final PageableHelper pageableHelper = mock(PageableHelper.class);
     private final StorageConverter storageConverter = mock(StorageConverter.class);
     private final CurrencyRateService currencyRateService = mock(CurrencyRateService.class);
+    private final CacheInvalidationBus cacheInvalidationBus = mock(CacheInvalidationBus.class);
 
     private final StorageRecordingService storageRecordingService = new StorageRecordingService(
             storageItemRepository,
             storageRecordRepository,
             pageableHelper,
             storageConverter,
-            currencyRateService
+            currencyRateService,
+            cacheInvalidationBus
     );
 
     @Test
@@ -79,6 +86,52 @@ class StorageRecordingServiceTest {
         assertFalse(actualRecordDto.getStorageItems().isEmpty());
     }
 
+    @Test
+    void testGetTimeSeriesRevaluesTotalsPerDate() {
+        LocalDate date1 = LocalDate.of(2023, 3, 15);
+        LocalDate date2 = LocalDate.of(2023, 3, 25);
+        List<StorageItemValue> itemValues = List.of(
+                new StorageItemValue(date1, Currency.USD, new BigDecimal("10")),
+                new StorageItemValue(date1, Currency.UAH, new BigDecimal("400")),
+                new StorageItemValue(date2, Currency.EUR, new BigDecimal("20")));
+        double[] rates = new double[Currency.values().length];
+        rates[Currency.USD.ordinal()] = 1;
+        rates[Currency.UAH.ordinal()] = 0.025;
+        rates[Currency.EUR.ordinal()] = 1.1;
+
+        when(storageItemRepository.findAllValuesInInterval(date1, date2)).thenReturn(itemValues);
+        when(currencyRateService.getRatesTo(Currency.USD, EnumSet.allOf(Currency.class))).thenReturn(rates);
+
+        StorageTimeSeriesDto timeSeries = storageRecordingService.getTimeSeries(date1, date2, Currency.USD, false);
+
+        assertEquals(Currency.USD, timeSeries.getCurrency());
+        assertEquals(List.of(date1, date2), timeSeries.getDates());
+        assertEquals(List.of(new BigDecimal("20.00"), new BigDecimal("22.00")), timeSeries.getTotals());
+        verify(currencyRateService, times(1)).getRatesTo(any(), any());
+    }
+
+    @Test
+    void testGetTimeSeriesRevaluesTotalsWithHistoricalRatesOfEachDate() {
+        LocalDate date1 = LocalDate.of(2023, 3, 15);
+        LocalDate date2 = LocalDate.of(2023, 3, 25);
+        List<StorageItemValue> itemValues = List.of(
+                new StorageItemValue(date1, Currency.UAH, new BigDecimal("400")),
+                new StorageItemValue(date2, Currency.UAH, new BigDecimal("400")));
+        double[] rates1 = new double[Currency.values().length];
+        rates1[Currency.UAH.ordinal()] = 0.025;
+        double[] rates2 = new double[Currency.values().length];
+        rates2[Currency.UAH.ordinal()] = 0.02;
+
+        when(storageItemRepository.findAllValuesInInterval(date1, date2)).thenReturn(itemValues);
+        when(currencyRateService.getRatesTo(Currency.USD, EnumSet.of(Currency.UAH), date1)).thenReturn(rates1);
+        when(currencyRateService.getRatesTo(Currency.USD, EnumSet.of(Currency.UAH), date2)).thenReturn(rates2);
+
+        StorageTimeSeriesDto timeSeries = storageRecordingService.getTimeSeries(date1, date2, Currency.USD, true);
+
+        assertEquals(List.of(new BigDecimal("10.00"), new BigDecimal("8.00")), timeSeries.getTotals());
+        verify(currencyRateService, never()).getRatesTo(any(), any());
+    }
+
     @Test
     void testFindAllInInterval() {
         StorageRecordFullDto storageRecordFullDto = defaultStorageRecordFullDto();
@@ -12,17 +12,20 @@ import yehor.budget.entity.Settings;
 import yehor.budget.repository.ExpenseRepository;
 import yehor.budget.repository.RowEstimatedExpenseRepository;
 import yehor.budget.service.SettingsService;
+import yehor.budget.service.cache.CacheInvalidationBus;
+import yehor.budget.service.cache.CachedEntity;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
 
 import static common.factory.SettingsFactory.defaultSettings;
 import static common.factory.SettingsFactory.settingsWithNonDefaultEstimatedExpenseWorkerProperties;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
@@ -38,12 +41,17 @@ class EstimatedExpenseWorkerTest {
     private final CalculatorHelper calculatorHelper = mock(CalculatorHelper.class);
     private final SettingsService settingsService = mock(SettingsService.class);
     private final DateManager dateManager = mock(DateManager.class);
+    private final JobScheduler jobScheduler = mock(JobScheduler.class);
+    private final CacheInvalidationBus cacheInvalidationBus = mock(CacheInvalidationBus.class);
 
     private final EstimatedExpenseWorker worker = new EstimatedExpenseWorker(expenseRepository,
-            rowEstimatedExpenseRepository, calculatorHelper, settingsService, dateManager);
+            rowEstimatedExpenseRepository, calculatorHelper, settingsService, dateManager, jobScheduler,
+            cacheInvalidationBus);
 
     private final ArgumentCaptor<RowEstimatedExpense> rowEstimatedExpenseArgumentCaptor =
             ArgumentCaptor.forClass(RowEstimatedExpense.class);
+    private final ArgumentCaptor<JobDefinition> jobDefinitionArgumentCaptor =
+            ArgumentCaptor.forClass(JobDefinition.class);
 
     private final Category category1 = Category.builder().id(1L).build();
     private final Category category2 = Category.builder().id(2L).build();
@@ -51,15 +59,11 @@ class EstimatedExpenseWorkerTest {
     @Test
     void testOnUpdateRestartsTask() {
         setUpWorkerProperties(5, 5, "1y");
-        ScheduledThreadPoolExecutor mockedExecutor = mock(ScheduledThreadPoolExecutor.class);
-        worker.executor = mockedExecutor;
         Settings settings = settingsWithNonDefaultEstimatedExpenseWorkerProperties();
 
-        when(mockedExecutor.isShutdown()).thenReturn(true);
-
         worker.onUpdate(settings);
 
-        verify(mockedExecutor, times(1)).shutdown();
+        verifyTaskScheduled(settings);
         assertEquals(settings.getEstimatedExpenseWorkerInitDelay(), worker.currentInitDelay);
         assertEquals(settings.getEstimatedExpenseWorkerPeriod(), worker.currentPeriod);
         assertEquals(settings.getEstimatedExpenseWorkerEndDateScopePattern(), worker.currentEstimationScopePattern);
@@ -68,13 +72,11 @@ class EstimatedExpenseWorkerTest {
     @Test
     void testOnUpdateNotRestartsTaskWhenPassedPropertiesAreTheSameAsExistingProperties() {
         setUpWorkerProperties(5, 5, "1y");
-        ScheduledThreadPoolExecutor mockedExecutor = mock(ScheduledThreadPoolExecutor.class);
-        worker.executor = mockedExecutor;
         Settings settings = defaultSettings();
 
         worker.onUpdate(settings);
 
-        verify(mockedExecutor, never()).shutdown();
+        verify(jobScheduler, never()).schedule(any());
         assertEquals(5, worker.currentInitDelay);
         assertEquals(5, worker.currentPeriod);
         assertEquals("1y", worker.currentEstimationScopePattern);
@@ -83,14 +85,12 @@ class EstimatedExpenseWorkerTest {
     @Test
     void testOnUpdateNotRestartsTaskWhenPassedPropertiesAreTheSameEndDateScopePatternIsNotValid() {
         setUpWorkerProperties(5, 5, "1y");
-        ScheduledThreadPoolExecutor mockedExecutor = mock(ScheduledThreadPoolExecutor.class);
-        worker.executor = mockedExecutor;
         Settings settings = defaultSettings();
         settings.setEstimatedExpenseWorkerEndDateScopePattern("invalid-pattern");
 
         worker.onUpdate(settings);
 
-        verify(mockedExecutor, never()).shutdown();
+        verify(jobScheduler, never()).schedule(any());
         assertEquals(5, worker.currentInitDelay);
         assertEquals(5, worker.currentPeriod);
         assertEquals("1y", worker.currentEstimationScopePattern);
@@ -99,16 +99,12 @@ class EstimatedExpenseWorkerTest {
     @Test
     void testOnUpdateNotRestartsTaskWhenPassedPropertiesAreNotTheSameEndDateScopePatternIsNotValid() {
         setUpWorkerProperties(5, 5, "1y");
-        ScheduledThreadPoolExecutor mockedExecutor = mock(ScheduledThreadPoolExecutor.class);
-        worker.executor = mockedExecutor;
         Settings settings = settingsWithNonDefaultEstimatedExpenseWorkerProperties();
         settings.setEstimatedExpenseWorkerEndDateScopePattern("invalid-pattern");
 
-        when(mockedExecutor.isShutdown()).thenReturn(true);
-
         worker.onUpdate(settings);
 
-        verify(mockedExecutor, times(1)).shutdown();
+        verifyTaskScheduled(settings);
         assertEquals(settings.getEstimatedExpenseWorkerInitDelay(), worker.currentInitDelay);
         assertEquals(settings.getEstimatedExpenseWorkerPeriod(), worker.currentPeriod);
         assertEquals("1y", worker.currentEstimationScopePattern);
@@ -143,6 +139,7 @@ class EstimatedExpenseWorkerTest {
         assertEquals(BigDecimal.TEN, actualRow.getDays8to14());
         assertEquals(BigDecimal.ZERO, actualRow.getDays15to21());
         assertEquals(BigDecimal.ZERO, actualRow.getDays22to31());
+        verify(cacheInvalidationBus).publish(CachedEntity.ESTIMATED_EXPENSE, List.of());
     }
 
     @Test
@@ -406,6 +403,15 @@ class EstimatedExpenseWorkerTest {
                 .findAllRegularInInterval(LocalDate.of(2020, 10, 10), LocalDate.now());
     }
 
+    private void verifyTaskScheduled(Settings settings) {
+        verify(jobScheduler).schedule(jobDefinitionArgumentCaptor.capture());
+        JobDefinition definition = jobDefinitionArgumentCaptor.getValue();
+        assertEquals(EstimatedExpenseWorker.JOB_NAME, definition.getName());
+        assertEquals(Duration.ofMinutes(settings.getEstimatedExpenseWorkerInitDelay()), definition.getInitialDelay());
+        assertEquals(Duration.ofMinutes(settings.getEstimatedExpenseWorkerPeriod()), definition.getPeriod());
+        assertTrue(definition.isClustered());
+    }
+
     public void setUpWorkerProperties(int delay, int period, String pattern) {
         worker.currentInitDelay = delay;
         worker.currentPeriod = period;
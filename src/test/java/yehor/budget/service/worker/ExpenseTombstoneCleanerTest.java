@@ -0,0 +1,74 @@
+package yehor.budget.service.worker;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import yehor.budget.common.util.PropertiesHelper;
+import yehor.budget.repository.ExpenseTombstoneRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ExpenseTombstoneCleanerTest {
+
+    private final ExpenseTombstoneRepository expenseTombstoneRepository = mock(ExpenseTombstoneRepository.class);
+    private final PropertiesHelper propertiesHelper = mock(PropertiesHelper.class);
+
+    private final ExpenseTombstoneCleaner cleaner = new ExpenseTombstoneCleaner(expenseTombstoneRepository,
+            mock(JobScheduler.class), propertiesHelper);
+
+    private final ArgumentCaptor<LocalDateTime> deletedBeforeArgumentCaptor =
+            ArgumentCaptor.forClass(LocalDateTime.class);
+
+    @Test
+    void testDeleteExpiredTombstonesKeepsConfiguredRetention() {
+        when(propertiesHelper.getIntProperty("expenses.tombstones.retention.days")).thenReturn(30);
+        when(expenseTombstoneRepository.findMaxChangeSeqDeletedBefore(deletedBeforeArgumentCaptor.capture()))
+                .thenReturn(Optional.of(42L));
+        when(expenseTombstoneRepository.deleteAllChangedUpTo(42L)).thenReturn(5);
+
+        assertEquals(5, cleaner.deleteExpiredTombstones());
+
+        assertWithinMinute(LocalDateTime.now().minusDays(30), deletedBeforeArgumentCaptor.getValue());
+    }
+
+    @Test
+    void testDeleteExpiredTombstonesKeepsDefaultRetentionWhenNotConfigured() {
+        when(propertiesHelper.getIntProperty("expenses.tombstones.retention.days")).thenReturn(0);
+        when(expenseTombstoneRepository.findMaxChangeSeqDeletedBefore(deletedBeforeArgumentCaptor.capture()))
+                .thenReturn(Optional.empty());
+
+        assertEquals(0, cleaner.deleteExpiredTombstones());
+
+        assertWithinMinute(LocalDateTime.now().minusDays(90), deletedBeforeArgumentCaptor.getValue());
+        verify(expenseTombstoneRepository, never()).raiseWatermark(anyLong());
+        verify(expenseTombstoneRepository, never()).deleteAllChangedUpTo(anyLong());
+    }
+
+    @Test
+    void testDeleteExpiredTombstonesRaisesWatermarkBeforeDeleting() {
+        when(expenseTombstoneRepository.findMaxChangeSeqDeletedBefore(any(LocalDateTime.class)))
+                .thenReturn(Optional.of(42L));
+
+        cleaner.deleteExpiredTombstones();
+
+        InOrder inOrder = inOrder(expenseTombstoneRepository);
+        inOrder.verify(expenseTombstoneRepository).raiseWatermark(42L);
+        inOrder.verify(expenseTombstoneRepository).deleteAllChangedUpTo(42L);
+    }
+
+    private void assertWithinMinute(LocalDateTime expected, LocalDateTime actual) {
+        assertTrue(Math.abs(Duration.between(expected, actual).toSeconds()) < 60);
+    }
+}
@@ -0,0 +1,98 @@
+package yehor.budget.service.worker;
+
+import org.junit.jupiter.api.Test;
+import yehor.budget.common.util.PropertiesHelper;
+import yehor.budget.entity.JobLease;
+import yehor.budget.repository.JobLeaseRepository;
+import yehor.budget.web.dto.full.JobLeaseFullDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JobLeaseManagerTest {
+
+    private static final String JOB_NAME = "job";
+    private static final String NODE_ID = "node-1";
+
+    private final JobLeaseRepository jobLeaseRepository = mock(JobLeaseRepository.class);
+    private final PropertiesHelper propertiesHelper = mock(PropertiesHelper.class);
+
+    private final JobLeaseManager jobLeaseManager = createJobLeaseManager();
+
+    @Test
+    void testIsLeaseHolderWhenLeaseIsAcquired() {
+        when(jobLeaseRepository.acquireOrRenew(JOB_NAME, NODE_ID, 30)).thenReturn(1);
+
+        assertTrue(jobLeaseManager.isLeaseHolder(JOB_NAME));
+        assertTrue(jobLeaseManager.isLeaseHolder(JOB_NAME));
+
+        // held lease is not requested again until the heartbeat prolongs it
+        verify(jobLeaseRepository, times(1)).acquireOrRenew(JOB_NAME, NODE_ID, 30);
+    }
+
+    @Test
+    void testIsNotLeaseHolderWhenLeaseIsHeldByAnotherNode() {
+        when(jobLeaseRepository.acquireOrRenew(JOB_NAME, NODE_ID, 30)).thenReturn(0);
+
+        assertFalse(jobLeaseManager.isLeaseHolder(JOB_NAME));
+    }
+
+    @Test
+    void testHeartbeatTakesOverRegisteredJobsAndDetectsLostLeases() {
+        jobLeaseManager.register(JOB_NAME);
+        when(jobLeaseRepository.acquireOrRenew(JOB_NAME, NODE_ID, 30)).thenReturn(1);
+
+        jobLeaseManager.heartbeat();
+        assertTrue(jobLeaseManager.isLeaseHolder(JOB_NAME));
+
+        when(jobLeaseRepository.acquireOrRenew(JOB_NAME, NODE_ID, 30)).thenReturn(0);
+        jobLeaseManager.heartbeat();
+        assertFalse(jobLeaseManager.isLeaseHolder(JOB_NAME));
+    }
+
+    @Test
+    void testLeaseIsKeptUntilItExpiresWhenDatabaseIsNotReachable() {
+        when(jobLeaseRepository.acquireOrRenew(anyString(), anyString(), anyInt()))
+                .thenReturn(1)
+                .thenThrow(new IllegalStateException("Connection refused"));
+
+        assertTrue(jobLeaseManager.isLeaseHolder(JOB_NAME));
+        jobLeaseManager.heartbeat();
+
+        assertTrue(jobLeaseManager.isLeaseHolder(JOB_NAME));
+    }
+
+    @Test
+    void testGetLeases() {
+        LocalDateTime now = LocalDateTime.now();
+        when(jobLeaseRepository.acquireOrRenew(JOB_NAME, NODE_ID, 30)).thenReturn(1);
+        when(jobLeaseRepository.findAll()).thenReturn(List.of(
+                new JobLease(JOB_NAME, NODE_ID, now, now.plusSeconds(30)),
+                new JobLease("other-job", "node-2", now.minusMinutes(5), now.minusMinutes(4))));
+        jobLeaseManager.isLeaseHolder(JOB_NAME);
+
+        List<JobLeaseFullDto> leases = jobLeaseManager.getLeases();
+
+        assertEquals(2, leases.size());
+        assertTrue(leases.get(0).getHeldByThisNode());
+        assertFalse(leases.get(0).getExpired());
+        assertFalse(leases.get(1).getHeldByThisNode());
+        assertTrue(leases.get(1).getExpired());
+    }
+
+    private JobLeaseManager createJobLeaseManager() {
+        when(propertiesHelper.getStringProperty("jobs.node.id")).thenReturn(NODE_ID);
+        when(propertiesHelper.getIntProperty("jobs.lease.duration.seconds")).thenReturn(30);
+        return new JobLeaseManager(jobLeaseRepository, propertiesHelper);
+    }
+}
@@ -0,0 +1,209 @@
+package yehor.budget.service.worker;
+
+import org.junit.jupiter.api.Test;
+import yehor.budget.common.JobRunResult;
+import yehor.budget.common.exception.ObjectNotFoundException;
+import yehor.budget.entity.JobRun;
+import yehor.budget.repository.JobRunRepository;
+import yehor.budget.service.diagnostics.QueryMetricsService;
+import yehor.budget.web.dto.full.JobFullDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JobSchedulerTest {
+
+    private static final String JOB_NAME = "job";
+    private static final Duration SHORT_PERIOD = Duration.ofMillis(10);
+    private static final Duration LONG_PERIOD = Duration.ofHours(1);
+
+    private final JobLeaseManager jobLeaseManager = mock(JobLeaseManager.class);
+    private final JobRunRepository jobRunRepository = mock(JobRunRepository.class);
+
+    private final JobScheduler jobScheduler = new JobScheduler(jobLeaseManager, jobRunRepository,
+            new QueryMetricsService(), 2, 1);
+
+    @Test
+    void testRunsJobPeriodically() throws InterruptedException {
+        CountDownLatch runs = new CountDownLatch(3);
+
+        jobScheduler.schedule(job(runs::countDown, SHORT_PERIOD, false));
+
+        assertTrue(runs.await(5, TimeUnit.SECONDS));
+        JobFullDto job = awaitJob(dto -> dto.getRuns() >= 3);
+        assertEquals(JobRunResult.SUCCEEDED, job.getLastResult());
+        assertEquals(0, job.getFailures());
+        verify(jobLeaseManager, never()).register(any());
+    }
+
+    @Test
+    void testSkipsClusteredJobWhenLeaseIsHeldByAnotherNode() {
+        AtomicInteger runs = new AtomicInteger();
+        when(jobLeaseManager.isLeaseHolder(JOB_NAME)).thenReturn(false);
+
+        jobScheduler.schedule(job(runs::incrementAndGet, SHORT_PERIOD, true));
+
+        JobFullDto job = awaitJob(dto -> dto.getSkips() >= 2);
+        assertEquals(0, runs.get());
+        assertEquals(0, job.getRuns());
+        verify(jobLeaseManager).register(JOB_NAME);
+        verify(jobRunRepository, never()).save(any());
+    }
+
+    @Test
+    void testStoresRunOfClusteredJob() {
+        when(jobLeaseManager.isLeaseHolder(JOB_NAME)).thenReturn(true);
+        when(jobLeaseManager.getNodeId()).thenReturn("node-1");
+
+        jobScheduler.schedule(job(() -> {
+        }, LONG_PERIOD, true));
+        jobScheduler.trigger(JOB_NAME);
+
+        verify(jobRunRepository, timeout(5000)).save(argThat(run -> run.getJobName().equals(JOB_NAME)
+                && run.getNode().equals("node-1")
+                && run.getLastResult() == JobRunResult.SUCCEEDED
+                && run.getNextRunAt().isAfter(LocalDateTime.now().plusMinutes(50))));
+    }
+
+    @Test
+    void testCatchesUpMissedRunOfClusteredJob() throws InterruptedException {
+        CountDownLatch runs = new CountDownLatch(1);
+        when(jobLeaseManager.isLeaseHolder(JOB_NAME)).thenReturn(true);
+        when(jobRunRepository.findById(JOB_NAME)).thenReturn(Optional.of(JobRun.builder()
+                .jobName(JOB_NAME)
+                .nextRunAt(LocalDateTime.now().minusHours(2))
+                .build()));
+
+        jobScheduler.schedule(JobDefinition.builder()
+                .name(JOB_NAME)
+                .task(runs::countDown)
+                .initialDelay(SHORT_PERIOD)
+                .period(LONG_PERIOD)
+                .clustered(true)
+                .build());
+
+        assertTrue(runs.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testContinuesFromStoredNextRunOfClusteredJob() {
+        LocalDateTime nextRunAt = LocalDateTime.now().plusMinutes(30);
+        when(jobRunRepository.findById(JOB_NAME)).thenReturn(Optional.of(JobRun.builder()
+                .jobName(JOB_NAME)
+                .nextRunAt(nextRunAt)
+                .build()));
+
+        jobScheduler.schedule(job(() -> {
+        }, LONG_PERIOD, true));
+
+        JobFullDto job = jobScheduler.getJobs().get(0);
+        assertTrue(Duration.between(job.getNextRunAt(), nextRunAt).abs().getSeconds() < 5);
+    }
+
+    @Test
+    void testRecordsFailedRun() {
+        jobScheduler.schedule(job(() -> {
+            throw new IllegalStateException("Rates are not available");
+        }, LONG_PERIOD, false));
+        jobScheduler.trigger(JOB_NAME);
+
+        JobFullDto job = awaitJob(dto -> dto.getRuns() == 1);
+        assertEquals(1, job.getFailures());
+        assertEquals(JobRunResult.FAILED, job.getLastResult());
+        assertEquals("IllegalStateException: Rates are not available", job.getLastError());
+    }
+
+    @Test
+    void testCancelInterruptsRunningJobAndResumeSchedulesItAgain() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        jobScheduler.schedule(job(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        }, LONG_PERIOD, false));
+        jobScheduler.trigger(JOB_NAME);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        jobScheduler.cancel(JOB_NAME);
+
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        JobFullDto job = awaitJob(dto -> !dto.getRunning());
+        assertTrue(job.getCancelled());
+        assertNull(job.getNextRunAt());
+
+        jobScheduler.resume(JOB_NAME);
+
+        job = jobScheduler.getJobs().get(0);
+        assertFalse(job.getCancelled());
+        assertTrue(job.getNextRunAt().isAfter(LocalDateTime.now().plusMinutes(50)));
+    }
+
+    @Test
+    void testTriggerOfRunningJobFails() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        jobScheduler.schedule(job(() -> {
+            started.countDown();
+            try {
+                finish.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, LONG_PERIOD, false));
+        jobScheduler.trigger(JOB_NAME);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertThrows(IllegalStateException.class, () -> jobScheduler.trigger(JOB_NAME));
+        finish.countDown();
+    }
+
+    @Test
+    void testTriggerOfUnknownJobFails() {
+        assertThrows(ObjectNotFoundException.class, () -> jobScheduler.trigger(JOB_NAME));
+    }
+
+    private JobDefinition job(Runnable task, Duration period, boolean clustered) {
+        return JobDefinition.builder()
+                .name(JOB_NAME)
+                .task(task)
+                .initialDelay(period)
+                .period(period)
+                .clustered(clustered)
+                .build();
+    }
+
+    private JobFullDto awaitJob(Predicate<JobFullDto> condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            JobFullDto job = jobScheduler.getJobs().get(0);
+            if (condition.test(job)) {
+                return job;
+            }
+            Thread.onSpinWait();
+        }
+        return fail("Job did not reach the expected state");
+    }
+}
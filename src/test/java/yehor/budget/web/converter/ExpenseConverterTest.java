@@ -0,0 +1,44 @@
+package yehor.budget.web.converter;
+
+import org.junit.jupiter.api.Test;
+import yehor.budget.entity.Expense;
+import yehor.budget.repository.CategoryRepository;
+import yehor.budget.repository.TagRepository;
+import yehor.budget.web.dto.CompactExpensesDto;
+
+import java.util.List;
+
+import static common.factory.CategoryFactory.defaultCategoryFullDto;
+import static common.factory.ExpenseFactory.defaultExpense;
+import static common.factory.ExpenseFactory.secondExpense;
+import static common.factory.ExpenseFactory.thirdExpense;
+import static common.factory.TagFactory.defaultTagFullDto;
+import static common.factory.TagFactory.secondTagFullDto;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+class ExpenseConverterTest {
+
+    private final ExpenseConverter expenseConverter = new ExpenseConverter(mock(CategoryRepository.class),
+            mock(TagRepository.class), new CategoryConverter(), new TagConverter());
+
+    @Test
+    void testConvertToCompactListsCategoriesAndTagsOnce() {
+        Expense expense1 = defaultExpense();
+        Expense expense2 = secondExpense();
+        Expense expense3 = thirdExpense();
+
+        CompactExpensesDto compact = expenseConverter.convertToCompact(List.of(expense1, expense2, expense3));
+
+        assertEquals(List.of(defaultCategoryFullDto()), compact.getCategories());
+        assertEquals(List.of(defaultTagFullDto(), secondTagFullDto()), compact.getTags());
+        assertArrayEquals(new long[]{1, 2, 3}, compact.getIds());
+        assertArrayEquals(new Object[]{expense1.getDate(), expense2.getDate(), expense3.getDate()}, compact.getDates());
+        assertArrayEquals(new Object[]{expense1.getValue(), expense2.getValue(), expense3.getValue()}, compact.getValues());
+        assertArrayEquals(new boolean[]{true, false, false}, compact.getIsRegular());
+        assertArrayEquals(new int[]{0, 0, 0}, compact.getCategoryIndexes());
+        assertArrayEquals(new int[][]{{0}, {1}, {0}}, compact.getTagIndexes());
+        assertArrayEquals(new String[]{"Some information", null, null}, compact.getNotes());
+    }
+}
@@ -0,0 +1,96 @@
+package yehor.budget.web.format;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import yehor.budget.web.dto.full.CategoryFullDto;
+import yehor.budget.web.dto.full.ExpenseFullDto;
+import yehor.budget.web.dto.full.TagFullDto;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Compares serialization throughput and payload size of CBOR and JSON for a year of expenses.
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=yehor.budget.web.format.CborBenchmark}.
+ */
+public class CborBenchmark {
+
+    private static final int EXPENSES = 10_000;
+    private static final int WARMUP_ITERATIONS = 200;
+    private static final int MEASURED_ITERATIONS = 200;
+
+    public static void main(String[] args) throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .modulesToInstall(new ParameterNamesModule())
+                .build();
+        MappingJackson2CborHttpMessageConverter converter = new MappingJackson2CborHttpMessageConverter(
+                Jackson2ObjectMapperBuilder.cbor().modulesToInstall(new ParameterNamesModule()).build());
+        List<ExpenseFullDto> expenses = generateExpenses();
+        Type type = new TypeReference<List<ExpenseFullDto>>() {}.getType();
+
+        Serializer json = () -> objectMapper.writeValueAsBytes(expenses).length;
+        Serializer cbor = () -> {
+            MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+            converter.write(expenses, type, MediaType.APPLICATION_CBOR, outputMessage);
+            return outputMessage.getBodyAsBytes().length;
+        };
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            json.serialize();
+            cbor.serialize();
+        }
+        report("JSON", json);
+        report("CBOR", cbor);
+    }
+
+    private static void report(String format, Serializer serializer) throws IOException {
+        int bytes = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            bytes = serializer.serialize();
+        }
+        double millisPerList = (System.nanoTime() - start) / 1e6 / MEASURED_ITERATIONS;
+        System.out.printf("%s: %.2f ms per %d expenses, %.0f expenses/ms, %d bytes%n",
+                format, millisPerList, EXPENSES, EXPENSES / millisPerList, bytes);
+    }
+
+    private static List<ExpenseFullDto> generateExpenses() {
+        Random random = new Random(42);
+        List<CategoryFullDto> categories = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) {
+            categories.add(CategoryFullDto.builder().id(id).name("Category " + id).build());
+        }
+        List<TagFullDto> tags = new ArrayList<>();
+        for (long id = 1; id <= 10; id++) {
+            tags.add(TagFullDto.builder().id(id).name("Tag " + id).build());
+        }
+        LocalDate firstDay = LocalDate.of(2022, 1, 1);
+        List<ExpenseFullDto> expenses = new ArrayList<>(EXPENSES);
+        for (long id = 1; id <= EXPENSES; id++) {
+            expenses.add(ExpenseFullDto.builder()
+                    .id(id)
+                    .value(BigDecimal.valueOf(100 + random.nextInt(1_000_000), 2))
+                    .date(firstDay.plusDays(random.nextInt(365)))
+                    .isRegular(random.nextBoolean())
+                    .category(categories.get(random.nextInt(categories.size())))
+                    .tags(Set.of(tags.get(random.nextInt(tags.size()))))
+                    .note(random.nextInt(4) == 0 ? "Note " + id : null)
+                    .build());
+        }
+        return expenses;
+    }
+
+    private interface Serializer {
+        int serialize() throws IOException;
+    }
+}